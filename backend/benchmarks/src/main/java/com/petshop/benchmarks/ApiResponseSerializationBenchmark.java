@@ -0,0 +1,76 @@
+package com.petshop.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.petshop.dto.ApiResponse;
+import com.petshop.dto.ProductDTO;
+import com.petshop.entity.Product;
+import com.petshop.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.lang.reflect.Method;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+// Serialize ApiResponse<List<ProductDTO>> như khi trả về từ ProductController, có và không có Blackbird
+@BenchmarkMode({Mode.AverageTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ApiResponseSerializationBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    // true: đăng ký BlackbirdModule như JacksonConfig
+    @Param({"false", "true"})
+    private boolean blackbird;
+
+    private ObjectMapper objectMapper;
+    private ApiResponse<List<ProductDTO>> response;
+
+    @Setup
+    public void setup() throws Exception {
+        // Cấu hình giống spring.jackson.* trong application.properties
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .timeZone(TimeZone.getTimeZone("Asia/Ho_Chi_Minh"))
+                .dateFormat(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss"))
+                .build();
+        if (blackbird) {
+            objectMapper.registerModule(new BlackbirdModule());
+        }
+
+        ProductService productService = new ProductService();
+        Method convertToDTO = ProductService.class.getDeclaredMethod("convertToDTO", Product.class);
+        convertToDTO.setAccessible(true);
+
+        List<ProductDTO> products = new ArrayList<>(pageSize);
+        for (Product product : BenchmarkFixtures.products(pageSize)) {
+            products.add((ProductDTO) convertToDTO.invoke(productService, product));
+        }
+
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("totalElements", 1000L);
+        metadata.put("totalPages", 1000 / pageSize);
+        metadata.put("currentPage", 0);
+        metadata.put("pageSize", pageSize);
+        metadata.put("hasNext", true);
+        metadata.put("hasPrevious", false);
+
+        response = ApiResponse.success("Lấy danh sách sản phẩm thành công", products);
+        response.setMetadata(metadata);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
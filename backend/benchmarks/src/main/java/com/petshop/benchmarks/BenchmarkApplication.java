@@ -0,0 +1,49 @@
+package com.petshop.benchmarks;
+
+import com.petshop.PetShopApplication;
+import com.petshop.entity.*;
+import com.petshop.repository.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Khởi động ứng dụng thật trên H2 (MySQL mode) cho các benchmark cần database
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {}
+
+    // args: tham số dòng lệnh Spring (ví dụ --spring.threads.virtual.enabled=true), ưu tiên cao nhất
+    static ConfigurableApplicationContext start(String... args) {
+        return new SpringApplicationBuilder(PetShopApplication.class)
+                .profiles("bench")
+                .run(args);
+    }
+
+    // Tạo danh mục sản phẩm mẫu, trả về ID các sản phẩm đã tạo
+    static List<Long> seedCatalog(ConfigurableApplicationContext context, int productCount) {
+        Category category = context.getBean(CategoryRepository.class)
+                .save(new Category("Thức ăn cho chó", "Thức ăn khô và ướt"));
+        ProductType productType = context.getBean(ProductTypeRepository.class)
+                .save(new ProductType("Hạt khô", 1, category));
+        Brand brand = context.getBean(BrandRepository.class)
+                .save(new Brand("Royal Canin", "Thương hiệu thức ăn thú cưng"));
+        Size size = context.getBean(SizeRepository.class)
+                .save(new Size("Túi 2kg", "2", "kg"));
+
+        List<Product> products = new ArrayList<>(productCount);
+        for (int i = 1; i <= productCount; i++) {
+            Product product = BenchmarkFixtures.product(i, productType, brand, size);
+            product.setId(null);
+            product.setStock(1000);
+            products.add(product);
+        }
+
+        List<Long> ids = new ArrayList<>(productCount);
+        for (Product product : context.getBean(ProductRepository.class).saveAll(products)) {
+            ids.add(product.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,90 @@
+package com.petshop.benchmarks;
+
+import com.petshop.entity.*;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Dữ liệu mẫu dùng chung cho các benchmark (cố định, không phụ thuộc thời gian chạy)
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {}
+
+    static List<Product> products(int count) {
+        Category category = new Category("Thức ăn cho chó", "Thức ăn khô và ướt");
+        category.setId(1L);
+
+        ProductType productType = new ProductType("Hạt khô", 1, category);
+        productType.setId(1L);
+
+        Brand brand = new Brand("Royal Canin", "Thương hiệu thức ăn thú cưng");
+        brand.setId(1L);
+
+        Size size = new Size("Túi 2kg", "2", "kg");
+        size.setId(1L);
+
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            products.add(product(i + 1L, productType, brand, size));
+        }
+        return products;
+    }
+
+    static Product product(long id, ProductType productType, Brand brand, Size size) {
+        Product product = new Product("Hạt Royal Canin Medium Adult " + id, BigDecimal.valueOf(250000 + id * 1000));
+        product.setId(id);
+        product.setDescription("Thức ăn hạt cho chó trưởng thành giống vừa, bổ sung dinh dưỡng cân bằng.");
+        product.setImage("/uploads/products/" + id + ".jpg");
+        product.setCreatedDate(LocalDateTime.of(2025, 1, 1, 8, 0).plusMinutes(id));
+        product.setStock((int) (id % 50));
+        product.setSku("SKU-" + id);
+        product.setStatus(true);
+        product.setFeatured(id % 7 == 0);
+        product.setSalePrice(id % 3 == 0 ? BigDecimal.valueOf(199000 + id * 1000) : null);
+        product.setWeight(BigDecimal.valueOf(2));
+        product.setDimensions("30x20x10");
+        product.setMetaTitle("Hạt cho chó " + id);
+        product.setMetaDescription("Thức ăn cho chó giống vừa");
+        product.setTags("cho,hat,royal-canin");
+        product.setSoldQuantity((int) (id * 3));
+        product.setLowStockThreshold(10);
+        product.setProductType(productType);
+        product.setBrand(brand);
+        product.setSize(size);
+        return product;
+    }
+
+    static Promotion promotion(Promotion.DiscountType discountType, BigDecimal discountValue) {
+        Promotion promotion = new Promotion("Khuyến mãi benchmark", "BENCH", discountType, discountValue);
+        promotion.setStatus(true);
+        promotion.setStartDate(LocalDateTime.now().minusDays(1));
+        promotion.setEndDate(LocalDateTime.now().plusYears(1));
+        promotion.setMinOrderAmount(BigDecimal.valueOf(100000));
+        promotion.setMaxDiscountAmount(BigDecimal.valueOf(50000));
+        return promotion;
+    }
+
+    static Cart cart(int itemCount) {
+        Cart cart = new Cart();
+        List<CartItem> items = new ArrayList<>(itemCount);
+        for (Product product : products(itemCount)) {
+            items.add(new CartItem(cart, product, 1 + (int) (product.getId() % 4)));
+        }
+        cart.setCartItems(items);
+        return cart;
+    }
+
+    // Gán giá trị cho field private (thay cho @Value/@Autowired khi không chạy Spring context)
+    static void setField(Object target, String name, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), name);
+        if (field == null) {
+            throw new IllegalArgumentException("No field '" + name + "' on " + target.getClass().getName());
+        }
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+}
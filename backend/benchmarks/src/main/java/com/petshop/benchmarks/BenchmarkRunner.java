@@ -0,0 +1,31 @@
+package com.petshop.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Chạy benchmark và ghi kết quả JSON để so sánh giữa các bản phát hành
+// java -jar target/benchmarks.jar [JMH options] [regex]
+public final class BenchmarkRunner {
+
+    private static final String DEFAULT_RESULT_FILE = "target/jmh-results.json";
+
+    private BenchmarkRunner() {}
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+
+        // Mặc định xuất JSON, vẫn cho phép ghi đè bằng -rf/-rff
+        if (!commandLine.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLine.getResult().hasValue()) {
+            options.result(System.getProperty("petshop.bench.resultFile", DEFAULT_RESULT_FILE));
+        }
+
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,33 @@
+package com.petshop.benchmarks;
+
+import com.petshop.entity.Cart;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+// Cart.updateTotals (gọi sau mỗi thao tác thêm/sửa/xóa giỏ hàng)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CartTotalsBenchmark {
+
+    @Param({"1", "10", "50"})
+    private int itemCount;
+
+    private Cart cart;
+
+    @Setup
+    public void setup() {
+        cart = BenchmarkFixtures.cart(itemCount);
+    }
+
+    @Benchmark
+    public BigDecimal updateTotals() {
+        cart.updateTotals();
+        return cart.getTotalPrice();
+    }
+}
@@ -0,0 +1,45 @@
+package com.petshop.benchmarks;
+
+import com.petshop.security.AuthFailureLogger;
+import com.petshop.security.JwtUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Tạo và kiểm tra JWT (chạy trên mọi request có token)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private JwtUtils jwtUtils;
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtUtils = new JwtUtils();
+        BenchmarkFixtures.setField(jwtUtils, "jwtSecret", "petShopSecretKeyForJWTAuthentication2025");
+        BenchmarkFixtures.setField(jwtUtils, "jwtExpirationMs", 86400000);
+        BenchmarkFixtures.setField(jwtUtils, "authFailureLogger", new AuthFailureLogger());
+
+        token = jwtUtils.generateTokenFromUsername("benchmark-user");
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtils.generateTokenFromUsername("benchmark-user");
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtUtils.validateJwtToken(token);
+    }
+
+    @Benchmark
+    public String getUserNameFromToken() {
+        return jwtUtils.getUserNameFromJwtToken(token);
+    }
+}
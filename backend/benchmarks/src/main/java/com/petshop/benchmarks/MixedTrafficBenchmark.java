@@ -0,0 +1,152 @@
+package com.petshop.benchmarks;
+
+import com.petshop.entity.Role;
+import com.petshop.entity.User;
+import com.petshop.repository.ProductRepository;
+import com.petshop.repository.RoleRepository;
+import com.petshop.repository.UserRepository;
+import com.petshop.security.JwtUtils;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Tải hỗn hợp xem danh mục + đặt hàng qua HTTP, so sánh Tomcat platform thread và virtual thread.
+// Mặc định chạy trên H2 (ít chờ I/O); để đo thực tế hơn trỏ sang MySQL:
+// java -Dspring.datasource.url=jdbc:mysql://... -Dspring.datasource.username=... -jar target/benchmarks.jar MixedTraffic
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class MixedTrafficBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Server {
+
+        @Param({"false", "true"})
+        public boolean virtualThreads;
+
+        // Giới hạn pool platform thread để thấy rõ hàng đợi khi thread bị chặn bởi JDBC
+        @Param({"64"})
+        public int tomcatMaxThreads;
+
+        ConfigurableApplicationContext context;
+        HttpClient httpClient;
+        String baseUrl;
+        long[] productIds;
+
+        private final AtomicInteger customerSequence = new AtomicInteger();
+        private Role customerRole;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            // Tắt giới hạn đồng thời (sẽ trả 503 thay vì xếp hàng) và response cache (danh mục sẽ không chạm
+            // tới thread pool lẫn JDBC) để hai bên thực sự chạy qua controller, service và DB
+            context = BenchmarkApplication.start(
+                    "--spring.threads.virtual.enabled=" + virtualThreads,
+                    "--server.tomcat.threads.max=" + tomcatMaxThreads,
+                    "--petshop.app.concurrencyLimitEnabled=false",
+                    "--petshop.app.responseCacheEnabled=false");
+
+            productIds = BenchmarkApplication.seedCatalog(context, 200).stream()
+                    .mapToLong(Long::longValue)
+                    .toArray();
+
+            // Đủ tồn kho cho toàn bộ lượt đặt hàng trong benchmark
+            ProductRepository productRepository = context.getBean(ProductRepository.class);
+            productRepository.saveAll(productRepository.findAll().stream()
+                    .peek(product -> product.setStock(10_000_000))
+                    .toList());
+
+            customerRole = context.getBean(RoleRepository.class).save(new Role("Khách hàng"));
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            baseUrl = "http://localhost:" + port;
+            httpClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            httpClient.close();
+            context.close();
+        }
+
+        // Tạo một khách hàng mới và trả về JWT của khách hàng đó
+        String newCustomerToken() {
+            String username = "bench_customer_" + customerSequence.incrementAndGet();
+
+            User user = new User("Khách hàng benchmark", username + "@petshop.local", username, "{noop}password");
+            user.setRole(customerRole);
+            user.setPhoneNumber("0900000000");
+            user.setCreatedDate(LocalDate.now());
+            context.getBean(UserRepository.class).save(user);
+
+            return context.getBean(JwtUtils.class).generateTokenFromUsername(username);
+        }
+
+        long randomProductId() {
+            return productIds[ThreadLocalRandom.current().nextInt(productIds.length)];
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Customer {
+
+        String authorization;
+
+        @Setup(Level.Trial)
+        public void setup(Server server) {
+            authorization = "Bearer " + server.newCustomerToken();
+        }
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(96)
+    public int catalog(Server server) throws Exception {
+        send(server, HttpRequest.newBuilder(URI.create(server.baseUrl + "/api/products?page=0&size=20")).GET(), 200);
+        return send(server, HttpRequest.newBuilder(
+                URI.create(server.baseUrl + "/api/products/" + server.randomProductId())).GET(), 200);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(32)
+    public int checkout(Server server, Customer customer) throws Exception {
+        String addToCart = "{\"productId\":" + server.randomProductId() + ",\"quantity\":1}";
+        send(server, HttpRequest.newBuilder(URI.create(server.baseUrl + "/api/cart/items"))
+                .header("Authorization", customer.authorization)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(addToCart)), 200);
+
+        String createOrder = "{\"receiverName\":\"Khách hàng benchmark\",\"receiverPhone\":\"0900000000\","
+                + "\"shippingAddress\":\"1 Lê Lợi, Quận 1, TP.HCM\",\"paymentMethod\":\"COD\"}";
+        return send(server, HttpRequest.newBuilder(URI.create(server.baseUrl + "/api/orders"))
+                .header("Authorization", customer.authorization)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(createOrder)), 201);
+    }
+
+    private static int send(Server server, HttpRequest.Builder request, int expectedStatus) throws Exception {
+        HttpResponse<byte[]> response = server.httpClient.send(
+                request.timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != expectedStatus) {
+            throw new IllegalStateException(request.build().uri() + " returned " + response.statusCode()
+                    + ": " + new String(response.body()));
+        }
+        return response.body().length;
+    }
+}
@@ -0,0 +1,27 @@
+package com.petshop.benchmarks;
+
+import com.petshop.entity.Order;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Sinh mã đơn hàng: Order.generateOrderCode là private nên đo qua constructor Order()
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderCodeBenchmark {
+
+    @Benchmark
+    public String newOrder() {
+        return new Order().getOrderCode();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String newOrderContended() {
+        return new Order().getOrderCode();
+    }
+}
@@ -0,0 +1,79 @@
+package com.petshop.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petshop.dto.ApiResponse;
+import com.petshop.entity.Product;
+import com.petshop.repository.ProductRepository;
+import com.petshop.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Trang danh sách sản phẩm theo view: truy vấn JPA + serialize JSON như ProductController trả về
+// payloadBytes (AuxCounters) là kích thước JSON của một trang để so sánh tile với detail
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductListingViewBenchmark {
+
+    @Param({"500"})
+    private int catalogSize;
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    // Độ dài mô tả sản phẩm (cột TEXT) - view=tile không được tải cột này
+    @Param({"2000"})
+    private int descriptionLength;
+
+    @Param({"detail", "tile"})
+    private String view;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private ObjectMapper objectMapper;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Payload {
+        // Gán (không cộng dồn) để JMH báo đúng kích thước một response
+        public long payloadBytes;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkApplication.start();
+        productService = context.getBean(ProductService.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+
+        List<Long> ids = BenchmarkApplication.seedCatalog(context, catalogSize);
+        ProductRepository productRepository = context.getBean(ProductRepository.class);
+        String description = "Thức ăn hạt cho chó trưởng thành giống vừa. ".repeat(descriptionLength / 44 + 1)
+                .substring(0, descriptionLength);
+        List<Product> products = productRepository.findAllById(ids);
+        for (Product product : products) {
+            product.setDescription(description);
+        }
+        productRepository.saveAll(products);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] listPage(Payload payload) throws Exception {
+        ApiResponse<?> response = "tile".equals(view)
+                ? productService.getProductTiles(0, pageSize, null, true)
+                : productService.getAllProducts(0, pageSize, null, true);
+        byte[] body = objectMapper.writeValueAsBytes(response);
+        payload.payloadBytes = body.length;
+        return body;
+    }
+}
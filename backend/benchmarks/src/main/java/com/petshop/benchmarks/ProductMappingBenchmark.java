@@ -0,0 +1,51 @@
+package com.petshop.benchmarks;
+
+import com.petshop.dto.ProductDTO;
+import com.petshop.entity.Product;
+import com.petshop.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// ProductService.convertToDTO cho một trang sản phẩm
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductMappingBenchmark {
+
+    @Param({"1", "20", "100"})
+    private int pageSize;
+
+    private ProductService productService;
+    private MethodHandle convertToDTO;
+    private List<Product> products;
+
+    @Setup
+    public void setup() throws Exception {
+        productService = new ProductService();
+
+        // convertToDTO là private: gọi qua MethodHandle để không tính chi phí reflection mỗi lần
+        Method method = ProductService.class.getDeclaredMethod("convertToDTO", Product.class);
+        method.setAccessible(true);
+        convertToDTO = MethodHandles.lookup().unreflect(method);
+
+        products = BenchmarkFixtures.products(pageSize);
+    }
+
+    @Benchmark
+    public List<ProductDTO> convertPage() throws Throwable {
+        List<ProductDTO> result = new ArrayList<>(products.size());
+        for (Product product : products) {
+            result.add((ProductDTO) convertToDTO.invokeExact(productService, product));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,53 @@
+package com.petshop.benchmarks;
+
+import com.petshop.dto.ApiResponse;
+import com.petshop.dto.ProductDTO;
+import com.petshop.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// ProductService đọc dữ liệu qua JPA trên H2: bao gồm truy vấn, lazy loading và convertToDTO
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductServiceBenchmark {
+
+    @Param({"500"})
+    private int catalogSize;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private long[] productIds;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkApplication.start();
+        productService = context.getBean(ProductService.class);
+        productIds = BenchmarkApplication.seedCatalog(context, catalogSize).stream()
+                .mapToLong(Long::longValue)
+                .toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ApiResponse<ProductDTO> getProductById() {
+        long id = productIds[cursor++ % productIds.length];
+        return productService.getProductById(id);
+    }
+
+    @Benchmark
+    public ApiResponse<List<ProductDTO>> getAllProducts() {
+        return productService.getAllProducts(0, 20, null, true);
+    }
+}
@@ -0,0 +1,40 @@
+package com.petshop.benchmarks;
+
+import com.petshop.entity.Promotion;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+// Promotion.calculateDiscount cho từng loại giảm giá
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PromotionDiscountBenchmark {
+
+    @Param({"PERCENTAGE", "FIXED_AMOUNT"})
+    private Promotion.DiscountType discountType;
+
+    @Param({"50000", "450000"})
+    private long orderAmount;
+
+    private Promotion promotion;
+    private BigDecimal amount;
+
+    @Setup
+    public void setup() {
+        BigDecimal discountValue = discountType == Promotion.DiscountType.PERCENTAGE
+                ? BigDecimal.valueOf(15)
+                : BigDecimal.valueOf(30000);
+        promotion = BenchmarkFixtures.promotion(discountType, discountValue);
+        amount = BigDecimal.valueOf(orderAmount);
+    }
+
+    @Benchmark
+    public BigDecimal calculateDiscount() {
+        return promotion.calculateDiscount(amount);
+    }
+}
@@ -0,0 +1,163 @@
+package com.petshop.datagen;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Ghi song song theo khoảng ID: mỗi khoảng (chunk) chạy trên một luồng với connection riêng,
+// các câu INSERT gom thành batch và commit khi hết khoảng. Dữ liệu của một dòng chỉ phụ thuộc seed và ID
+// của nó (không phụ thuộc luồng nào ghi), nên số luồng không làm thay đổi kết quả.
+final class BatchLoader implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchLoader.class);
+
+    private final DataSource dataSource;
+    private final int batchSize;
+    private final int chunkSize;
+    private final ExecutorService executor;
+
+    BatchLoader(DataSource dataSource, int threads, int batchSize, int chunkSize) {
+        this.dataSource = dataSource;
+        this.batchSize = batchSize;
+        this.chunkSize = chunkSize;
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable);
+            thread.setName("datagen-" + thread.getId());
+            return thread;
+        });
+    }
+
+    // Ghi các dòng có ID từ 1 đến count, chờ đến khi xong
+    void load(String phase, long count, ChunkWriter writer) throws Exception {
+        if (count <= 0) {
+            return;
+        }
+        long started = System.nanoTime();
+        AtomicLong done = new AtomicLong();
+        long reportEvery = Math.max(count / 10, 1);
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (long from = 1; from <= count; from += chunkSize) {
+            long chunkFrom = from;
+            long chunkTo = Math.min(from + chunkSize - 1, count);
+            futures.add(executor.submit(() -> {
+                writeChunk(writer, chunkFrom, chunkTo);
+                long rows = chunkTo - chunkFrom + 1;
+                long total = done.addAndGet(rows);
+                // Báo tiến độ mỗi khi vượt qua một mốc 10%
+                if (total < count && total / reportEvery != (total - rows) / reportEvery) {
+                    logger.info("{}: {}/{}", phase, total, count);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+
+        double seconds = (System.nanoTime() - started) / 1e9;
+        logger.info("{}: {} done in {} s ({} /s)", phase, count,
+                String.format("%.1f", seconds), Math.round(count / Math.max(seconds, 0.001)));
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private void writeChunk(ChunkWriter writer, long fromId, long toId) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                // Dữ liệu tự sinh đã nhất quán: bỏ kiểm tra khóa ngoại/unique để ghi nhanh hơn
+                statement.execute("SET SESSION foreign_key_checks = 0, unique_checks = 0");
+            }
+            Session session = new Session(connection);
+            try {
+                writer.write(session, fromId, toId);
+                session.flush();
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                session.close();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    interface ChunkWriter {
+        void write(Session session, long fromId, long toId) throws SQLException;
+    }
+
+    // Các batch đang mở của một chunk
+    final class Session {
+        private final Connection connection;
+        private final List<Batch> batches = new ArrayList<>();
+
+        private Session(Connection connection) {
+            this.connection = connection;
+        }
+
+        Batch batch(String sql) throws SQLException {
+            Batch batch = new Batch(connection.prepareStatement(sql));
+            batches.add(batch);
+            return batch;
+        }
+
+        private void flush() throws SQLException {
+            for (Batch batch : batches) {
+                batch.flush();
+            }
+        }
+
+        private void close() throws SQLException {
+            for (Batch batch : batches) {
+                batch.statement.close();
+            }
+        }
+    }
+
+    // Một câu INSERT: gán tham số bằng set(...), rồi add() để đưa dòng vào batch
+    final class Batch {
+        private final PreparedStatement statement;
+        private int pending;
+        private int index;
+
+        private Batch(PreparedStatement statement) {
+            this.statement = statement;
+        }
+
+        Batch set(Object value) throws SQLException {
+            statement.setObject(++index, value);
+            return this;
+        }
+
+        void add() throws SQLException {
+            statement.addBatch();
+            index = 0;
+            if (++pending >= batchSize) {
+                flush();
+            }
+        }
+
+        private void flush() throws SQLException {
+            if (pending > 0) {
+                statement.executeBatch();
+                pending = 0;
+            }
+        }
+    }
+}
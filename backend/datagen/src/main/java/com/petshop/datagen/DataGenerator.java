@@ -0,0 +1,750 @@
+package com.petshop.datagen;
+
+import com.petshop.entity.Address;
+import com.petshop.entity.Brand;
+import com.petshop.entity.Category;
+import com.petshop.entity.District;
+import com.petshop.entity.Order;
+import com.petshop.entity.OrderItem;
+import com.petshop.entity.Product;
+import com.petshop.entity.ProductType;
+import com.petshop.entity.Promotion;
+import com.petshop.entity.PromotionUsage;
+import com.petshop.entity.Province;
+import com.petshop.entity.Size;
+import com.petshop.entity.User;
+import com.petshop.entity.Ward;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.Table;
+import org.flywaydb.core.Flyway;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static com.petshop.datagen.VietnameseData.*;
+
+// Sinh dữ liệu lớn, giống thật cho schema MySQL (do Flyway tạo) để đo hiệu năng truy vấn và API.
+// Mỗi dòng được sinh từ SplittableRandom khởi tạo bởi (seed, bảng, ID) nên cùng tham số luôn cho cùng dữ liệu,
+// bất kể số luồng. Tham chiếu chéo (giá sản phẩm trong đơn, người nhận, khuyến mãi) được tính lại từ ID
+// thay vì đọc lại từ DB.
+public final class DataGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataGenerator.class);
+
+    private static final int CHUNK_SIZE = 10_000;
+    private static final int DISTRICTS_PER_PROVINCE = 10;
+    private static final int WARDS_PER_DISTRICT = 10;
+
+    // Mã vai trò theo dữ liệu khởi tạo trong V1__baseline_schema.sql
+    private static final long ROLE_CUSTOMER = 1;
+    private static final long ROLE_ADMIN = 2;
+    private static final long ROLE_STAFF = 3;
+    private static final int STAFF_ACCOUNTS = 5;
+
+    // Tỷ lệ người dùng đã có từ đầu giai đoạn lịch sử, phần còn lại đăng ký dần
+    private static final double INITIAL_USER_SHARE = 0.1;
+
+    private static final long SHIPPING_FEE = 30_000;
+    private static final long FREE_SHIPPING_FROM = 500_000;
+    private static final double COUPON_RATE = 0.08;
+    private static final double CANCEL_RATE = 0.06;
+
+    // Giờ Việt Nam, dùng để tạo mã đơn "DH" + epoch millis như Order.generateOrderCode
+    private static final ZoneOffset SHOP_ZONE = ZoneOffset.ofHours(7);
+
+    private final Options options;
+    private final LocalDateTime historyStart;
+    private final LocalDateTime historyEnd;
+    private final long historyMillis;
+    private final long orderStepMillis;
+    private final double itemsPerOrder;
+    private final String passwordHash;
+
+    private DataGenerator(Options options) {
+        this.options = options;
+        this.historyEnd = options.endDate().atStartOfDay();
+        this.historyStart = historyEnd.minusYears(options.years());
+        this.historyMillis = Duration.between(historyStart, historyEnd).toMillis();
+        // Đơn hàng cách nhau ít nhất 1 ms để mã đơn theo thời gian không trùng
+        this.orderStepMillis = Math.max(1, historyMillis / Math.max(options.orders(), 1));
+        this.itemsPerOrder = Math.max(1.0, (double) options.orderItems() / Math.max(options.orders(), 1));
+        // Mọi tài khoản dùng chung một mật khẩu, chỉ băm một lần
+        this.passwordHash = new BCryptPasswordEncoder().encode(options.userPassword());
+    }
+
+    public static void main(String[] args) throws Exception {
+        new DataGenerator(Options.parse(args)).run();
+    }
+
+    private void run() throws Exception {
+        logger.info("Generating {} users, {} products, {} promotions, {} orders (~{} items), seed {}, {} threads",
+                options.users(), options.products(), options.promotions(), options.orders(), options.orderItems(),
+                options.seed(), options.threads());
+
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("datagen");
+        config.setJdbcUrl(options.url());
+        config.setUsername(options.username());
+        config.setPassword(options.password());
+        config.setMaximumPoolSize(options.threads());
+
+        try (HikariDataSource dataSource = new HikariDataSource(config);
+             BatchLoader loader = new BatchLoader(dataSource, options.threads(), options.batchSize(), CHUNK_SIZE)) {
+            migrate(dataSource);
+            prepare(dataSource);
+
+            loader.load("locations", PROVINCES.size(), this::writeLocations);
+            loader.load("catalog", 1, (session, fromId, toId) -> writeCatalog(session));
+            loader.load("users", options.users(), this::writeUsers);
+            loader.load("products", options.products(), this::writeProducts);
+            loader.load("promotions", options.promotions(), this::writePromotions);
+            loader.load("orders", options.orders(), this::writeOrders);
+
+            finish(dataSource);
+        }
+        logger.info("Done");
+    }
+
+    // Schema
+
+    private void migrate(DataSource dataSource) {
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration")
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load()
+                .migrate();
+    }
+
+    // Bảng dữ liệu theo thứ tự phụ thuộc ngược (bảng con trước); vai_tro giữ nguyên vì là dữ liệu khởi tạo
+    private static List<String> dataTables() {
+        return List.of(
+                tableOf(PromotionUsage.class), "khuyen_mai_danh_muc", "khuyen_mai_san_pham", tableOf(Promotion.class),
+                tableOf(OrderItem.class), tableOf(Order.class), "chi_tiet_gio_hang", "gio_hang",
+                tableOf(Product.class), tableOf(Size.class), tableOf(Brand.class), tableOf(ProductType.class),
+                tableOf(Category.class), tableOf(Address.class), tableOf(User.class),
+                tableOf(Ward.class), tableOf(District.class), tableOf(Province.class));
+    }
+
+    private void prepare(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            if (options.truncate()) {
+                logger.info("Truncating data tables");
+                statement.execute("SET SESSION foreign_key_checks = 0");
+                for (String table : dataTables()) {
+                    statement.execute("TRUNCATE TABLE " + table);
+                }
+                statement.execute("SET SESSION foreign_key_checks = 1");
+                return;
+            }
+            for (String table : dataTables()) {
+                try (ResultSet resultSet = statement.executeQuery("SELECT 1 FROM " + table + " LIMIT 1")) {
+                    if (resultSet.next()) {
+                        throw new IllegalStateException("Table " + table + " is not empty, rerun with --truncate");
+                    }
+                }
+            }
+        }
+    }
+
+    // Cập nhật số lượt dùng khuyến mãi theo dữ liệu đã sinh, rồi cập nhật thống kê cho optimizer
+    private void finish(DataSource dataSource) throws SQLException {
+        String promotions = tableOf(Promotion.class);
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            logger.info("Updating promotion usage counts");
+            statement.executeUpdate("UPDATE " + promotions + " k SET so_luong_da_su_dung = "
+                    + "(SELECT COUNT(*) FROM " + tableOf(PromotionUsage.class) + " s WHERE s.ma_khuyen_mai = k.id), "
+                    + "so_luong_toi_da = CASE WHEN so_luong_toi_da IS NULL THEN NULL "
+                    + "ELSE GREATEST(so_luong_toi_da, so_luong_da_su_dung) END");
+
+            logger.info("Analyzing tables");
+            statement.execute("ANALYZE TABLE " + String.join(", ", dataTables()));
+        }
+    }
+
+    // Địa giới hành chính: mỗi tỉnh có DISTRICTS_PER_PROVINCE quận/huyện, mỗi quận/huyện có WARDS_PER_DISTRICT phường/xã
+
+    private void writeLocations(BatchLoader.Session session, long fromId, long toId) throws SQLException {
+        BatchLoader.Batch provinces = session.batch(
+                "INSERT INTO " + tableOf(Province.class) + " (ma_tinh, ten_tinh) VALUES (?, ?)");
+        BatchLoader.Batch districts = session.batch(
+                "INSERT INTO " + tableOf(District.class) + " (ma_huyen, ten_huyen, ma_tinh) VALUES (?, ?, ?)");
+        BatchLoader.Batch wards = session.batch(
+                "INSERT INTO " + tableOf(Ward.class) + " (ma_xa, ten_xa, ma_huyen) VALUES (?, ?, ?)");
+
+        for (long provinceId = fromId; provinceId <= toId; provinceId++) {
+            provinces.set(provinceId).set(PROVINCES.get((int) provinceId - 1)).add();
+            for (int district = 1; district <= DISTRICTS_PER_PROVINCE; district++) {
+                long districtId = districtId(provinceId, district);
+                districts.set(districtId).set(districtName(provinceId, district)).set(provinceId).add();
+                for (int ward = 1; ward <= WARDS_PER_DISTRICT; ward++) {
+                    wards.set(wardId(districtId, ward)).set(wardName(provinceId, ward)).set(districtId).add();
+                }
+            }
+        }
+    }
+
+    private static long districtId(long provinceId, int district) {
+        return (provinceId - 1) * DISTRICTS_PER_PROVINCE + district;
+    }
+
+    private static long wardId(long districtId, int ward) {
+        return (districtId - 1) * WARDS_PER_DISTRICT + ward;
+    }
+
+    private static String districtName(long provinceId, int district) {
+        return (provinceId <= CITY_COUNT ? "Quận " : "Huyện ") + district;
+    }
+
+    private static String wardName(long provinceId, int ward) {
+        return (provinceId <= CITY_COUNT ? "Phường " : "Xã ") + ward;
+    }
+
+    // Danh mục, loại sản phẩm (mỗi danh mục có đủ các loại), thương hiệu, kích cỡ
+
+    private void writeCatalog(BatchLoader.Session session) throws SQLException {
+        BatchLoader.Batch categories = session.batch("INSERT INTO " + tableOf(Category.class)
+                + " (ma_danh_muc, ten_danh_muc, mo_ta, trang_thai) VALUES (?, ?, ?, ?)");
+        BatchLoader.Batch types = session.batch("INSERT INTO " + tableOf(ProductType.class)
+                + " (ma_loai, ten_loai_san_pham, loai, ma_danh_muc, mo_ta, trang_thai) VALUES (?, ?, ?, ?, ?, ?)");
+        for (int c = 0; c < CATEGORIES.size(); c++) {
+            String[] category = CATEGORIES.get(c);
+            categories.set((long) c + 1).set(category[0]).set("Sản phẩm " + category[1]).set(true).add();
+            for (int t = 0; t < PRODUCT_TYPES.size(); t++) {
+                Object[] type = PRODUCT_TYPES.get(t);
+                types.set(productTypeId(c, t)).set(type[0] + " " + category[1]).set(type[1]).set((long) c + 1)
+                        .set(type[0] + " " + category[1]).set(true).add();
+            }
+        }
+
+        BatchLoader.Batch brands = session.batch("INSERT INTO " + tableOf(Brand.class)
+                + " (ma_thuong_hieu, ten_thuong_hieu, mo_ta, logo_url, website, trang_thai) VALUES (?, ?, ?, ?, ?, ?)");
+        for (int b = 0; b < BRANDS.size(); b++) {
+            String slug = slug(BRANDS.get(b));
+            brands.set((long) b + 1).set(BRANDS.get(b)).set("Thương hiệu " + BRANDS.get(b))
+                    .set("/images/brands/" + slug + ".png").set("https://www." + slug + ".com").set(true).add();
+        }
+
+        BatchLoader.Batch sizes = session.batch("INSERT INTO " + tableOf(Size.class)
+                + " (ma_kich_co, ten_kich_co, mo_ta, gia_tri, don_vi, thu_tu, trang_thai) VALUES (?, ?, ?, ?, ?, ?, ?)");
+        for (int s = 0; s < SIZES.size(); s++) {
+            String[] size = SIZES.get(s);
+            sizes.set((long) s + 1).set(size[0]).set("Kích cỡ " + size[0]).set(size[1]).set(size[2]).set(s + 1)
+                    .set(true).add();
+        }
+    }
+
+    private static long productTypeId(int categoryIndex, int typeIndex) {
+        return (long) categoryIndex * PRODUCT_TYPES.size() + typeIndex + 1;
+    }
+
+    // Người dùng và địa chỉ (1-3 địa chỉ mỗi người, địa chỉ đầu tiên là mặc định)
+
+    private void writeUsers(BatchLoader.Session session, long fromId, long toId) throws SQLException {
+        BatchLoader.Batch users = session.batch("INSERT INTO " + tableOf(User.class)
+                + " (ma_tai_khoan, ten, gmail, ten_tai_khoan, mat_khau, ngay_tao, vai_tro, ngay_sinh, gioi_tinh,"
+                + " cccd, sdt, trang_thai) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+        BatchLoader.Batch addresses = session.batch("INSERT INTO " + tableOf(Address.class)
+                + " (created_at, updated_at, ghi_chu, ma_tai_khoan, ma_tinh, ma_huyen, ma_xa, is_default,"
+                + " street_address, receiver_name, receiver_phone) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+
+        for (long id = fromId; id <= toId; id++) {
+            UserSpec user = userOf(id);
+            long role = id == 1 ? ROLE_ADMIN : id <= 1 + STAFF_ACCOUNTS ? ROLE_STAFF : ROLE_CUSTOMER;
+            users.set(id).set(user.fullName()).set(user.email()).set(user.username()).set(passwordHash)
+                    .set(user.createdAt().toLocalDate()).set(role).set(user.birthDate()).set(user.male())
+                    .set(user.citizenId()).set(user.phone()).set(user.active()).add();
+
+            int count = addressCount(id);
+            for (int index = 0; index < count; index++) {
+                AddressSpec address = addressOf(id, index);
+                LocalDateTime createdAt = user.createdAt().plusDays(index * 30L);
+                addresses.set(createdAt).set(createdAt).set(address.note()).set(id).set(address.provinceId())
+                        .set(address.districtId()).set(address.wardId()).set(index == 0).set(address.street())
+                        .set(address.receiverName()).set(address.receiverPhone()).add();
+            }
+        }
+    }
+
+    record UserSpec(String fullName, String username, String email, String phone, boolean male,
+                    LocalDate birthDate, String citizenId, boolean active, LocalDateTime createdAt) {
+    }
+
+    private UserSpec userOf(long id) {
+        SplittableRandom random = random("user", id);
+        boolean male = random.nextBoolean();
+        String family = pick(random, FAMILY_NAMES);
+        String middle = pick(random, male ? MALE_MIDDLE_NAMES : FEMALE_MIDDLE_NAMES);
+        String given = pick(random, male ? MALE_GIVEN_NAMES : FEMALE_GIVEN_NAMES);
+        String username = slug(given + family) + id;
+        LocalDate birthDate = LocalDate.of(1970, 1, 1).plusDays(random.nextInt(35 * 365));
+        String citizenId = String.format("%03d", random.nextInt(1, 97)) + digits(random, 9);
+        return new UserSpec(family + " " + middle + " " + given, username, username + "@gmail.com",
+                phoneNumber(random), male, birthDate, citizenId, random.nextDouble() >= 0.02, userCreatedAt(id));
+    }
+
+    // Một phần người dùng có từ đầu, số còn lại đăng ký đều trong giai đoạn lịch sử theo thứ tự ID
+    private LocalDateTime userCreatedAt(long id) {
+        double share = (double) (id - 1) / options.users();
+        double progress = Math.max(0, (share - INITIAL_USER_SHARE) / (1 - INITIAL_USER_SHARE));
+        return historyStart.plus(Duration.ofMillis((long) (progress * historyMillis)));
+    }
+
+    // Số người dùng đã đăng ký tại một thời điểm (tính theo tỷ lệ thời gian đã qua)
+    private long registeredUsers(double progress) {
+        long registered = (long) Math.ceil(options.users() * (INITIAL_USER_SHARE + (1 - INITIAL_USER_SHARE) * progress));
+        return Math.max(1, Math.min(registered, options.users()));
+    }
+
+    record AddressSpec(long provinceId, long districtId, long wardId, String street, String note,
+                       String receiverName, String receiverPhone) {
+
+        // Cùng định dạng với Address.getFullAddress
+        String fullAddress() {
+            StringBuilder fullAddress = new StringBuilder(street).append(", ");
+            if (note != null) {
+                fullAddress.append(note).append(", ");
+            }
+            int district = (int) ((districtId - 1) % DISTRICTS_PER_PROVINCE) + 1;
+            int ward = (int) ((wardId - 1) % WARDS_PER_DISTRICT) + 1;
+            return fullAddress.append(wardName(provinceId, ward)).append(", ")
+                    .append(districtName(provinceId, district)).append(", ")
+                    .append(PROVINCES.get((int) provinceId - 1))
+                    .toString();
+        }
+    }
+
+    private int addressCount(long userId) {
+        return random("address-count", userId).nextInt(1, 4);
+    }
+
+    private AddressSpec addressOf(long userId, int index) {
+        SplittableRandom random = random("address", userId * 4 + index);
+        // Dân cư tập trung ở TP. Hồ Chí Minh và Hà Nội
+        double area = random.nextDouble();
+        long provinceId = area < 0.25 ? 2 : area < 0.45 ? 1 : random.nextInt(1, PROVINCES.size() + 1);
+        long districtId = districtId(provinceId, random.nextInt(1, DISTRICTS_PER_PROVINCE + 1));
+        long wardId = wardId(districtId, random.nextInt(1, WARDS_PER_DISTRICT + 1));
+        String street = "Số " + random.nextInt(1, 300) + " " + pick(random, STREETS);
+        String note = random.nextDouble() < 0.1 ? "Ngõ " + random.nextInt(1, 100) : null;
+
+        String receiverName;
+        String receiverPhone;
+        if (index == 0) {
+            UserSpec user = userOf(userId);
+            receiverName = user.fullName();
+            receiverPhone = user.phone();
+        } else {
+            boolean male = random.nextBoolean();
+            receiverName = pick(random, FAMILY_NAMES) + " "
+                    + pick(random, male ? MALE_MIDDLE_NAMES : FEMALE_MIDDLE_NAMES) + " "
+                    + pick(random, male ? MALE_GIVEN_NAMES : FEMALE_GIVEN_NAMES);
+            receiverPhone = phoneNumber(random);
+        }
+        return new AddressSpec(provinceId, districtId, wardId, street, note, receiverName, receiverPhone);
+    }
+
+    // Sản phẩm
+
+    private void writeProducts(BatchLoader.Session session, long fromId, long toId) throws SQLException {
+        BatchLoader.Batch products = session.batch("INSERT INTO " + tableOf(Product.class)
+                + " (id, created_at, updated_at, ten_san_pham, mo_ta, hinh_anh, ngay_tao, gia_san_pham, ma_loai,"
+                + " ma_kich_co, ma_thuong_hieu, ton_kho, sku, trang_thai, featured, sale_price, weight, dimensions,"
+                + " meta_title, meta_description, tags, sold_quantity, low_stock_threshold)"
+                + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+
+        for (long id = fromId; id <= toId; id++) {
+            ProductSpec product = productOf(id);
+            SplittableRandom random = random("product-stock", id);
+            String brand = BRANDS.get(product.brandIndex());
+            String target = CATEGORIES.get(product.categoryIndex())[1];
+            String description = product.name() + ". Sản phẩm chính hãng " + brand + ", phù hợp " + target + ".";
+            // Phân bố lệch: đa số sản phẩm bán ít, một số ít bán rất chạy
+            int sold = (int) (5_000 * Math.pow(random.nextDouble(), 6));
+
+            products.set(id).set(product.createdAt()).set(product.createdAt()).set(product.name()).set(description)
+                    .set(product.image()).set(product.createdAt()).set(money(product.price()))
+                    .set(productTypeId(product.categoryIndex(), product.typeIndex()))
+                    .set((long) product.sizeIndex() + 1).set((long) product.brandIndex() + 1)
+                    .set(random.nextInt(0, 500)).set(product.sku()).set(random.nextDouble() >= 0.03)
+                    .set(random.nextDouble() < 0.02).set(product.salePrice() != null ? money(product.salePrice()) : null)
+                    .set(null).set(null).set(product.name()).set(description)
+                    .set(slug(brand) + "," + slug(PRODUCT_TYPES.get(product.typeIndex())[0].toString()))
+                    .set(sold).set(10).add();
+        }
+    }
+
+    record ProductSpec(long id, int categoryIndex, int typeIndex, int brandIndex, int sizeIndex, String name,
+                       String sku, String image, long price, Long salePrice, LocalDateTime createdAt) {
+
+        long effectivePrice() {
+            return salePrice != null ? salePrice : price;
+        }
+    }
+
+    private ProductSpec productOf(long id) {
+        SplittableRandom random = random("product", id);
+        int categoryIndex = random.nextInt(CATEGORIES.size());
+        int typeIndex = random.nextInt(PRODUCT_TYPES.size());
+        int brandIndex = random.nextInt(BRANDS.size());
+        Object[] type = PRODUCT_TYPES.get(typeIndex);
+        int sizeIndex = sizeFor((Integer) type[1], random);
+        String name = type[0] + " " + BRANDS.get(brandIndex) + " " + pick(random, FLAVOURS) + " "
+                + CATEGORIES.get(categoryIndex)[1] + " " + SIZES.get(sizeIndex)[0];
+
+        long price = roundToThousand(random.nextLong((Integer) type[2], (Integer) type[3] + 1L));
+        Long salePrice = random.nextDouble() < 0.2 ? roundToThousand(price * random.nextLong(70, 96) / 100) : null;
+        // Sản phẩm đã có trước giai đoạn lịch sử
+        LocalDateTime createdAt = historyStart.minusMinutes(random.nextLong(365L * 24 * 60));
+        return new ProductSpec(id, categoryIndex, typeIndex, brandIndex, sizeIndex, name,
+                String.format("SP%08d", id), "/images/products/sp" + id + ".jpg", price, salePrice, createdAt);
+    }
+
+    // Kích cỡ theo mã phân loại: thức ăn theo khối lượng, sữa tắm theo ml, phụ kiện theo size
+    private static int sizeFor(int kind, SplittableRandom random) {
+        return switch (kind) {
+            case 11 -> random.nextInt(7, 12);
+            case 12 -> random.nextInt(5, 7);
+            case 13 -> random.nextInt(5, 8);
+            case 7 -> random.nextInt(12, 14);
+            default -> random.nextInt(0, 5);
+        };
+    }
+
+    // Sản phẩm trong đơn lệch về các ID nhỏ để có nhóm bán chạy
+    private long popularProduct(SplittableRandom random) {
+        double u = random.nextDouble();
+        return 1 + Math.min((long) (options.products() * u * u * u), options.products() - 1);
+    }
+
+    // Khuyến mãi: bắt đầu rải đều theo ID trong giai đoạn lịch sử
+
+    private void writePromotions(BatchLoader.Session session, long fromId, long toId) throws SQLException {
+        BatchLoader.Batch promotions = session.batch("INSERT INTO " + tableOf(Promotion.class)
+                + " (id, created_at, updated_at, ten_khuyen_mai, mo_ta, ma_giam_gia, loai_giam_gia, gia_tri_giam_gia,"
+                + " giam_toi_da, don_hang_toi_thieu, so_luong_toi_da, so_luong_da_su_dung, gioi_han_moi_khach_hang,"
+                + " ngay_bat_dau, ngay_ket_thuc, trang_thai, loai_ap_dung, ap_dung_cho_khach_hang_moi)"
+                + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+        BatchLoader.Batch promotionProducts = session.batch(
+                "INSERT INTO khuyen_mai_san_pham (ma_khuyen_mai, ma_san_pham) VALUES (?, ?)");
+        BatchLoader.Batch promotionCategories = session.batch(
+                "INSERT INTO khuyen_mai_danh_muc (ma_khuyen_mai, ma_danh_muc) VALUES (?, ?)");
+
+        for (long id = fromId; id <= toId; id++) {
+            PromotionSpec promotion = promotionOf(id);
+            SplittableRandom random = random("promotion-scope", id);
+            LocalDateTime createdAt = promotion.startsAt().minusDays(7);
+            Integer maxUses = random.nextDouble() < 0.3 ? null : random.nextInt(1_000, 100_001);
+
+            promotions.set(id).set(createdAt).set(createdAt).set(promotion.name())
+                    .set(promotion.name() + " cho đơn từ " + promotion.minOrder() + "đ").set(promotion.code())
+                    .set(promotion.discountType().name()).set(money(promotion.discountValue()))
+                    .set(promotion.maxDiscount() != null ? money(promotion.maxDiscount()) : null)
+                    .set(money(promotion.minOrder())).set(maxUses).set(0).set(random.nextInt(1, 4))
+                    .set(promotion.startsAt()).set(promotion.endsAt()).set(true)
+                    .set(promotion.applicableType().name()).set(random.nextDouble() < 0.05).add();
+
+            if (promotion.applicableType() == Promotion.ApplicableType.SPECIFIC_PRODUCTS) {
+                Set<Long> productIds = new LinkedHashSet<>();
+                int count = (int) Math.min(random.nextInt(5, 51), options.products());
+                while (productIds.size() < count) {
+                    productIds.add(random.nextLong(1, options.products() + 1));
+                }
+                for (long productId : productIds) {
+                    promotionProducts.set(id).set(productId).add();
+                }
+            } else if (promotion.applicableType() == Promotion.ApplicableType.SPECIFIC_CATEGORIES) {
+                int first = random.nextInt(CATEGORIES.size());
+                promotionCategories.set(id).set((long) first + 1).add();
+                if (random.nextBoolean()) {
+                    promotionCategories.set(id).set((long) (first + 1) % CATEGORIES.size() + 1).add();
+                }
+            }
+        }
+    }
+
+    record PromotionSpec(long id, String code, String name, Promotion.DiscountType discountType, long discountValue,
+                         Long maxDiscount, long minOrder, LocalDateTime startsAt, LocalDateTime endsAt,
+                         Promotion.ApplicableType applicableType) {
+
+        // Cùng cách tính với Promotion.calculateDiscount
+        long discountFor(long orderAmount) {
+            long discount = discountType == Promotion.DiscountType.PERCENTAGE
+                    ? orderAmount * discountValue / 100
+                    : discountValue;
+            if (maxDiscount != null && discount > maxDiscount) {
+                discount = maxDiscount;
+            }
+            return Math.min(discount, orderAmount);
+        }
+    }
+
+    private PromotionSpec promotionOf(long id) {
+        SplittableRandom random = random("promotion", id);
+        LocalDateTime startsAt = historyStart.plus(Duration.ofMillis(historyMillis * (id - 1) / options.promotions()));
+        LocalDateTime endsAt = startsAt.plusDays(random.nextInt(3, 61));
+
+        Promotion.DiscountType discountType;
+        long discountValue;
+        Long maxDiscount;
+        if (random.nextDouble() < 0.6) {
+            discountType = Promotion.DiscountType.PERCENTAGE;
+            discountValue = random.nextInt(1, 11) * 5L;
+            maxDiscount = random.nextInt(1, 11) * 20_000L;
+        } else {
+            discountType = Promotion.DiscountType.FIXED_AMOUNT;
+            discountValue = random.nextInt(1, 21) * 10_000L;
+            maxDiscount = null;
+        }
+        long minOrder = random.nextInt(0, 11) * 50_000L;
+
+        double scope = random.nextDouble();
+        Promotion.ApplicableType applicableType = scope < 0.6 ? Promotion.ApplicableType.ALL
+                : scope < 0.85 ? Promotion.ApplicableType.SPECIFIC_PRODUCTS
+                : Promotion.ApplicableType.SPECIFIC_CATEGORIES;
+
+        String name = "Khuyến mãi " + pick(random, PROMOTION_OCCASIONS) + " " + startsAt.getYear();
+        return new PromotionSpec(id, String.format("KM%06d", id), name, discountType, discountValue, maxDiscount,
+                minOrder, startsAt, endsAt, applicableType);
+    }
+
+    // Chọn mã giảm giá cho một đơn: một trong các khuyến mãi áp dụng toàn shop bắt đầu gần nhất và còn hiệu lực
+    private PromotionSpec couponFor(SplittableRandom random, double progress, LocalDateTime placedAt, long subtotal) {
+        if (options.promotions() == 0 || random.nextDouble() >= COUPON_RATE) {
+            return null;
+        }
+        long started = Math.max(1, Math.min(options.promotions(), 1 + (long) (progress * options.promotions())));
+        PromotionSpec promotion = promotionOf(started - random.nextLong(Math.min(started, 20)));
+        boolean usable = promotion.applicableType() == Promotion.ApplicableType.ALL
+                && !placedAt.isBefore(promotion.startsAt()) && !placedAt.isAfter(promotion.endsAt())
+                && subtotal >= promotion.minOrder();
+        return usable ? promotion : null;
+    }
+
+    // Đơn hàng, chi tiết đơn và lượt dùng khuyến mãi: ngày đặt tăng dần theo ID trong giai đoạn lịch sử
+
+    private void writeOrders(BatchLoader.Session session, long fromId, long toId) throws SQLException {
+        BatchLoader.Batch orders = session.batch("INSERT INTO " + tableOf(Order.class)
+                + " (id, created_at, updated_at, ma_don_hang, ma_tai_khoan, trang_thai, tong_gia_san_pham,"
+                + " phi_van_chuyen, giam_gia, tong_thanh_toan, ma_giam_gia, phuong_thuc_thanh_toan,"
+                + " trang_thai_thanh_toan, ngay_dat_hang, ngay_xac_nhan, ngay_giao_hang, ngay_hoan_thanh, ngay_huy,"
+                + " ghi_chu, ly_do_huy, ten_nguoi_nhan, sdt_nguoi_nhan, dia_chi_giao_hang, ma_van_chuyen)"
+                + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+        BatchLoader.Batch items = session.batch("INSERT INTO " + tableOf(OrderItem.class)
+                + " (created_at, updated_at, ma_don_hang, ma_san_pham, so_luong, gia_tai_thoi_diem,"
+                + " gia_khuyen_mai_tai_thoi_diem, thanh_tien, ten_san_pham_tai_thoi_diem, sku_tai_thoi_diem,"
+                + " hinh_anh_tai_thoi_diem) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+        BatchLoader.Batch usages = session.batch("INSERT INTO " + tableOf(PromotionUsage.class)
+                + " (created_at, updated_at, ma_khuyen_mai, ma_tai_khoan, ma_don_hang, ngay_su_dung, gia_tri_giam_gia,"
+                + " gia_tri_don_hang) VALUES (?, ?, ?, ?, ?, ?, ?, ?)");
+
+        Map<Long, ProductSpec> products = new HashMap<>();
+        for (long id = fromId; id <= toId; id++) {
+            SplittableRandom random = random("order", id);
+            long offsetMillis = (id - 1) * orderStepMillis + random.nextLong(orderStepMillis);
+            LocalDateTime placedAt = historyStart.plus(Duration.ofMillis(offsetMillis));
+            double progress = Math.min(1.0, (double) offsetMillis / historyMillis);
+            long userId = random.nextLong(1, registeredUsers(progress) + 1);
+            AddressSpec address = addressOf(userId, random.nextInt(addressCount(userId)));
+
+            // Sản phẩm trong đơn (không trùng nhau)
+            int itemCount = 1 + (int) (random.nextDouble() * (2 * itemsPerOrder - 1));
+            Set<Long> productIds = new LinkedHashSet<>();
+            for (int attempt = 0; productIds.size() < itemCount && attempt < itemCount * 3; attempt++) {
+                productIds.add(popularProduct(random));
+            }
+            List<long[]> lines = new ArrayList<>();
+            long subtotal = 0;
+            for (long productId : productIds) {
+                ProductSpec product = products.computeIfAbsent(productId, this::productOf);
+                int quantity = random.nextDouble() < 0.75 ? 1 : random.nextInt(2, 4);
+                long lineTotal = product.effectivePrice() * quantity;
+                lines.add(new long[] {productId, quantity, lineTotal});
+                subtotal += lineTotal;
+            }
+
+            long shippingFee = subtotal >= FREE_SHIPPING_FROM ? 0 : SHIPPING_FEE;
+            PromotionSpec coupon = couponFor(random, progress, placedAt, subtotal);
+            long discount = coupon != null ? coupon.discountFor(subtotal) : 0;
+
+            // Các mốc trạng thái; mốc nào sau thời điểm kết thúc lịch sử thì chưa xảy ra
+            LocalDateTime confirmedAt = placedAt.plusMinutes(random.nextInt(10, 181));
+            LocalDateTime shippedAt = confirmedAt.plusHours(random.nextInt(4, 37));
+            LocalDateTime completedAt = shippedAt.plusHours(random.nextInt(24, 97));
+            LocalDateTime cancelledAt = random.nextDouble() < CANCEL_RATE
+                    ? placedAt.plusMinutes(random.nextInt(30, 1441))
+                    : null;
+
+            Order.OrderStatus status;
+            if (cancelledAt != null && !cancelledAt.isAfter(historyEnd)) {
+                status = Order.OrderStatus.CANCELLED;
+                confirmedAt = shippedAt = completedAt = null;
+            } else {
+                cancelledAt = null;
+                status = !completedAt.isAfter(historyEnd) ? Order.OrderStatus.COMPLETED
+                        : !shippedAt.isAfter(historyEnd) ? Order.OrderStatus.SHIPPING
+                        : !confirmedAt.isAfter(historyEnd) ? Order.OrderStatus.CONFIRMED
+                        : Order.OrderStatus.PENDING;
+                completedAt = status == Order.OrderStatus.COMPLETED ? completedAt : null;
+                shippedAt = completedAt != null || status == Order.OrderStatus.SHIPPING ? shippedAt : null;
+                confirmedAt = status != Order.OrderStatus.PENDING ? confirmedAt : null;
+            }
+
+            double method = random.nextDouble();
+            Order.PaymentMethod paymentMethod = method < 0.55 ? Order.PaymentMethod.COD
+                    : method < 0.75 ? Order.PaymentMethod.BANK_TRANSFER
+                    : method < 0.95 ? Order.PaymentMethod.E_WALLET
+                    : Order.PaymentMethod.CREDIT_CARD;
+            boolean cod = paymentMethod == Order.PaymentMethod.COD;
+            Order.PaymentStatus paymentStatus = status == Order.OrderStatus.COMPLETED ? Order.PaymentStatus.PAID
+                    : status == Order.OrderStatus.CANCELLED
+                    ? (cod ? Order.PaymentStatus.PENDING : Order.PaymentStatus.REFUNDED)
+                    : (cod ? Order.PaymentStatus.PENDING : Order.PaymentStatus.PAID);
+
+            LocalDateTime updatedAt = latest(placedAt, confirmedAt, shippedAt, completedAt, cancelledAt);
+            String note = random.nextDouble() < 0.1 ? pick(random, ORDER_NOTES) : null;
+            String cancelReason = cancelledAt != null ? pick(random, CANCEL_REASONS) : null;
+            String trackingCode = shippedAt != null ? "GHN" + digits(random, 9) : null;
+
+            orders.set(id).set(placedAt).set(updatedAt).set("DH" + placedAt.toInstant(SHOP_ZONE).toEpochMilli())
+                    .set(userId).set(status.name()).set(money(subtotal)).set(money(shippingFee)).set(money(discount))
+                    .set(money(subtotal + shippingFee - discount)).set(coupon != null ? coupon.code() : null)
+                    .set(paymentMethod.name()).set(paymentStatus.name()).set(placedAt).set(confirmedAt).set(shippedAt)
+                    .set(completedAt).set(cancelledAt).set(note).set(cancelReason).set(address.receiverName())
+                    .set(address.receiverPhone()).set(address.fullAddress()).set(trackingCode).add();
+
+            for (long[] line : lines) {
+                ProductSpec product = products.get(line[0]);
+                items.set(placedAt).set(placedAt).set(id).set(line[0]).set((int) line[1]).set(money(product.price()))
+                        .set(product.salePrice() != null ? money(product.salePrice()) : null).set(money(line[2]))
+                        .set(product.name()).set(product.sku()).set(product.image()).add();
+            }
+
+            if (coupon != null) {
+                usages.set(placedAt).set(placedAt).set(coupon.id()).set(userId).set(id).set(placedAt)
+                        .set(money(discount)).set(money(subtotal)).add();
+            }
+        }
+    }
+
+    // Helper methods
+
+    // Random riêng cho từng dòng của từng bảng: cùng seed, bảng và ID luôn cho cùng dãy số
+    private SplittableRandom random(String stream, long id) {
+        long streamSeed = options.seed() * 0x9E3779B97F4A7C15L + stream.hashCode();
+        return new SplittableRandom(streamSeed * 0xBF58476D1CE4E5B9L + id);
+    }
+
+    private static String tableOf(Class<?> entityType) {
+        return entityType.getAnnotation(Table.class).name();
+    }
+
+    private static BigDecimal money(long amount) {
+        return BigDecimal.valueOf(amount);
+    }
+
+    private static long roundToThousand(long amount) {
+        return Math.max(1_000, Math.round(amount / 1_000.0) * 1_000);
+    }
+
+    private static LocalDateTime latest(LocalDateTime... times) {
+        LocalDateTime latest = null;
+        for (LocalDateTime time : times) {
+            if (time != null && (latest == null || time.isAfter(latest))) {
+                latest = time;
+            }
+        }
+        return latest;
+    }
+
+    // Tham số dòng lệnh dạng --key=value; --scale nhân các số lượng mặc định
+    record Options(String url, String username, String password, long seed, int threads, int batchSize,
+                   long users, long products, long promotions, long orders, long orderItems,
+                   LocalDate endDate, int years, boolean truncate, String userPassword) {
+
+        private static final String DEFAULT_URL = "jdbc:mysql://localhost:3306/pet_shop_dn"
+                + "?createDatabaseIfNotExist=true&useSSL=false&allowPublicKeyRetrieval=true";
+
+        static Options parse(String[] args) {
+            Map<String, String> values = new HashMap<>();
+            for (String arg : args) {
+                if (!arg.startsWith("--")) {
+                    throw new IllegalArgumentException("Unexpected argument: " + arg);
+                }
+                int separator = arg.indexOf('=');
+                if (separator < 0) {
+                    values.put(arg.substring(2), "true");
+                } else {
+                    values.put(arg.substring(2, separator), arg.substring(separator + 1));
+                }
+            }
+
+            double scale = Double.parseDouble(values.getOrDefault("scale", "1"));
+            Options options = new Options(
+                    withBatchRewrite(values.getOrDefault("url", DEFAULT_URL)),
+                    values.getOrDefault("username", "root"),
+                    values.getOrDefault("password", ""),
+                    Long.parseLong(values.getOrDefault("seed", "42")),
+                    Integer.parseInt(values.getOrDefault("threads",
+                            String.valueOf(Runtime.getRuntime().availableProcessors()))),
+                    Integer.parseInt(values.getOrDefault("batch-size", "1000")),
+                    count(values, "users", 500_000, scale),
+                    count(values, "products", 1_000_000, scale),
+                    count(values, "promotions", 5_000, scale),
+                    count(values, "orders", 5_000_000, scale),
+                    count(values, "order-items", 20_000_000, scale),
+                    LocalDate.parse(values.getOrDefault("end-date", "2026-01-01")),
+                    Integer.parseInt(values.getOrDefault("years", "3")),
+                    Boolean.parseBoolean(values.getOrDefault("truncate", "false")),
+                    values.getOrDefault("user-password", "123456"));
+
+            List<String> known = List.of("url", "username", "password", "seed", "threads", "batch-size", "scale",
+                    "users", "products", "promotions", "orders", "order-items", "end-date", "years", "truncate",
+                    "user-password");
+            for (String key : values.keySet()) {
+                if (!known.contains(key)) {
+                    throw new IllegalArgumentException("Unknown option --" + key + ", expected one of " + known);
+                }
+            }
+            if (options.users() < 1 || options.products() < 1) {
+                throw new IllegalArgumentException("At least one user and one product are required");
+            }
+            return options;
+        }
+
+        private static long count(Map<String, String> values, String key, long defaultCount, double scale) {
+            String value = values.get(key);
+            return value != null ? Long.parseLong(value) : Math.round(defaultCount * scale);
+        }
+
+        // Connector/J chỉ gộp batch INSERT thành một câu nhiều dòng khi bật rewriteBatchedStatements
+        private static String withBatchRewrite(String url) {
+            if (url.contains("rewriteBatchedStatements")) {
+                return url;
+            }
+            return url + (url.contains("?") ? "&" : "?") + "rewriteBatchedStatements=true";
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.petshop.datagen;
+
+import java.text.Normalizer;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+// Danh sách từ vựng để sinh dữ liệu giống thật: tên người, địa danh, danh mục và thương hiệu thú cưng
+final class VietnameseData {
+
+    private VietnameseData() {}
+
+    // 63 tỉnh/thành, 5 thành phố trực thuộc trung ương đứng đầu (đơn vị hành chính cấp dưới là quận/phường)
+    static final List<String> PROVINCES = List.of(
+            "Hà Nội", "TP. Hồ Chí Minh", "Đà Nẵng", "Hải Phòng", "Cần Thơ",
+            "An Giang", "Bà Rịa - Vũng Tàu", "Bắc Giang", "Bắc Kạn", "Bạc Liêu", "Bắc Ninh", "Bến Tre",
+            "Bình Định", "Bình Dương", "Bình Phước", "Bình Thuận", "Cà Mau", "Cao Bằng", "Đắk Lắk", "Đắk Nông",
+            "Điện Biên", "Đồng Nai", "Đồng Tháp", "Gia Lai", "Hà Giang", "Hà Nam", "Hà Tĩnh", "Hải Dương",
+            "Hậu Giang", "Hòa Bình", "Hưng Yên", "Khánh Hòa", "Kiên Giang", "Kon Tum", "Lai Châu", "Lâm Đồng",
+            "Lạng Sơn", "Lào Cai", "Long An", "Nam Định", "Nghệ An", "Ninh Bình", "Ninh Thuận", "Phú Thọ",
+            "Phú Yên", "Quảng Bình", "Quảng Nam", "Quảng Ngãi", "Quảng Ninh", "Quảng Trị", "Sóc Trăng", "Sơn La",
+            "Tây Ninh", "Thái Bình", "Thái Nguyên", "Thanh Hóa", "Thừa Thiên Huế", "Tiền Giang", "Trà Vinh",
+            "Tuyên Quang", "Vĩnh Long", "Vĩnh Phúc", "Yên Bái");
+
+    static final int CITY_COUNT = 5;
+
+    static final List<String> STREETS = List.of(
+            "Lê Lợi", "Nguyễn Huệ", "Trần Hưng Đạo", "Lý Thường Kiệt", "Hai Bà Trưng", "Lê Duẩn", "Nguyễn Trãi",
+            "Điện Biên Phủ", "Cách Mạng Tháng Tám", "Võ Văn Tần", "Pasteur", "Nam Kỳ Khởi Nghĩa", "Phan Đình Phùng",
+            "Hoàng Diệu", "Nguyễn Thị Minh Khai", "Lê Thánh Tôn", "Bạch Đằng", "Quang Trung", "Hùng Vương",
+            "Trần Phú", "Nguyễn Văn Cừ", "Phạm Văn Đồng", "Láng Hạ", "Kim Mã", "Xã Đàn", "Tôn Đức Thắng");
+
+    static final List<String> FAMILY_NAMES = List.of(
+            "Nguyễn", "Nguyễn", "Nguyễn", "Trần", "Trần", "Lê", "Lê", "Phạm", "Hoàng", "Huỳnh", "Phan", "Vũ", "Võ",
+            "Đặng", "Bùi", "Đỗ", "Hồ", "Ngô", "Dương", "Lý");
+
+    static final List<String> MALE_MIDDLE_NAMES = List.of("Văn", "Hữu", "Đức", "Minh", "Quang", "Thành", "Công", "Gia");
+
+    static final List<String> FEMALE_MIDDLE_NAMES = List.of("Thị", "Ngọc", "Thu", "Thanh", "Minh", "Hoài", "Phương", "Kim");
+
+    static final List<String> MALE_GIVEN_NAMES = List.of(
+            "An", "Bình", "Cường", "Dũng", "Đạt", "Hải", "Hiếu", "Hùng", "Huy", "Khang", "Khánh", "Long", "Minh",
+            "Nam", "Nghĩa", "Phúc", "Quân", "Sơn", "Tâm", "Thắng", "Toàn", "Trung", "Tuấn", "Việt");
+
+    static final List<String> FEMALE_GIVEN_NAMES = List.of(
+            "Anh", "Châu", "Giang", "Hà", "Hạnh", "Hoa", "Hương", "Lan", "Linh", "Mai", "My", "Ngân", "Nhung",
+            "Oanh", "Phương", "Quỳnh", "Thảo", "Trang", "Trinh", "Uyên", "Vân", "Vy", "Yến");
+
+    static final List<String> PHONE_PREFIXES = List.of(
+            "032", "033", "034", "035", "036", "037", "038", "039", "056", "058", "070", "076", "077", "078",
+            "079", "081", "082", "083", "084", "085", "086", "088", "089", "090", "091", "093", "094", "096",
+            "097", "098");
+
+    // Danh mục: tên và đối tượng dùng trong tên sản phẩm
+    static final List<String[]> CATEGORIES = List.of(
+            new String[] {"Chó", "cho chó"},
+            new String[] {"Mèo", "cho mèo"},
+            new String[] {"Cá cảnh", "cho cá cảnh"},
+            new String[] {"Chim cảnh", "cho chim cảnh"},
+            new String[] {"Thú nhỏ", "cho hamster, thỏ"});
+
+    // Loại sản phẩm: tên, mã phân loại (11: thức ăn khô, 12: thức ăn ướt, 6: phụ kiện...), giá thấp nhất, giá cao nhất (VND)
+    static final List<Object[]> PRODUCT_TYPES = List.of(
+            new Object[] {"Thức ăn hạt", 11, 80_000, 1_500_000},
+            new Object[] {"Pate", 12, 15_000, 60_000},
+            new Object[] {"Bánh thưởng", 13, 20_000, 150_000},
+            new Object[] {"Sữa tắm", 7, 60_000, 350_000},
+            new Object[] {"Đồ chơi", 6, 20_000, 300_000},
+            new Object[] {"Vòng cổ, dây dắt", 6, 40_000, 400_000},
+            new Object[] {"Chuồng, nệm", 6, 150_000, 2_500_000},
+            new Object[] {"Bát ăn", 6, 25_000, 250_000});
+
+    static final List<String> BRANDS = List.of(
+            "Royal Canin", "Pedigree", "Whiskas", "Me-O", "SmartHeart", "Ganador", "Minino", "Catsrang", "Reflex",
+            "Nutrience", "Hill's", "Purina Pro Plan", "ANF", "Zenith", "Jerhigh", "Ciao", "Nekko", "Kit Cat",
+            "Tetra", "Sera", "JBL", "Versele-Laga", "Vitakraft", "Trixie", "Kong", "Bioline", "Joyce & Dolls",
+            "Dr.Kyan", "Fib's", "Ferplast", "Oxbow", "Ideal Plus", "Monge", "Orijen", "Acana", "Taste of the Wild",
+            "Classic Pets", "Bowwow", "Inaba", "Sanrio Pet");
+
+    // Kích cỡ: tên, giá trị, đơn vị
+    static final List<String[]> SIZES = List.of(
+            new String[] {"XS", "XS", "size"}, new String[] {"S", "S", "size"}, new String[] {"M", "M", "size"},
+            new String[] {"L", "L", "size"}, new String[] {"XL", "XL", "size"},
+            new String[] {"85g", "85", "g"}, new String[] {"400g", "400", "g"}, new String[] {"1kg", "1", "kg"},
+            new String[] {"1.5kg", "1.5", "kg"}, new String[] {"2kg", "2", "kg"}, new String[] {"5kg", "5", "kg"},
+            new String[] {"10kg", "10", "kg"}, new String[] {"250ml", "250", "ml"}, new String[] {"500ml", "500", "ml"});
+
+    static final List<String> FLAVOURS = List.of(
+            "vị gà", "vị bò", "vị cá hồi", "vị cá ngừ", "vị cừu", "vị gan", "cho con non", "cho trưởng thành",
+            "cho thú già", "hỗ trợ tiêu hóa", "dưỡng lông", "kiểm soát cân nặng", "hương lavender", "không mùi");
+
+    static final List<String> PROMOTION_OCCASIONS = List.of(
+            "Tết Nguyên Đán", "Valentine", "Quốc tế Phụ nữ", "Lễ 30/4", "Hè rực rỡ", "Trung Thu", "Black Friday",
+            "Giáng Sinh", "Sinh nhật shop", "Khách hàng mới", "Flash sale cuối tuần", "Ngày của thú cưng");
+
+    static final List<String> ORDER_NOTES = List.of(
+            "Giao giờ hành chính", "Gọi trước khi giao", "Giao buổi tối sau 18h", "Để hàng ở phòng bảo vệ",
+            "Không giao cuối tuần", "Đóng gói kỹ giúp shop");
+
+    static final List<String> CANCEL_REASONS = List.of(
+            "Đặt nhầm sản phẩm", "Muốn thay đổi địa chỉ giao hàng", "Tìm được giá tốt hơn",
+            "Không liên hệ được người nhận", "Thời gian giao hàng quá lâu", "Đổi ý không mua nữa");
+
+    static <T> T pick(SplittableRandom random, List<T> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    static String digits(SplittableRandom random, int count) {
+        StringBuilder builder = new StringBuilder(count);
+        for (int i = 0; i < count; i++) {
+            builder.append((char) ('0' + random.nextInt(10)));
+        }
+        return builder.toString();
+    }
+
+    static String phoneNumber(SplittableRandom random) {
+        return pick(random, PHONE_PREFIXES) + digits(random, 7);
+    }
+
+    // Bỏ dấu tiếng Việt, viết thường, bỏ khoảng trắng (dùng cho tên đăng nhập và email)
+    static String slug(String text) {
+        String normalized = Normalizer.normalize(text.replace('đ', 'd').replace('Đ', 'D'), Normalizer.Form.NFD);
+        return normalized.replaceAll("\\p{M}", "")
+                .replaceAll("[^A-Za-z0-9]", "")
+                .toLowerCase(Locale.ROOT);
+    }
+}
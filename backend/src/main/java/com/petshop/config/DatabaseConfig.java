@@ -1,13 +1,140 @@
 package com.petshop.config;
 
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
 
 @Configuration
 @EnableJpaRepositories(basePackages = "com.petshop.repository")
 @EntityScan(basePackages = "com.petshop.entity")
 @EnableTransactionManagement
 public class DatabaseConfig {
-}
\ No newline at end of file
+
+    // Mặc định pool báo cáo trỏ cùng database; có thể trỏ sang bản sao chỉ đọc
+    @Value("${petshop.app.reportingDatasourceUrl:}")
+    private String reportingUrl;
+
+    @Value("${petshop.app.reportingDatasourceUsername:}")
+    private String reportingUsername;
+
+    @Value("${petshop.app.reportingDatasourcePassword:}")
+    private String reportingPassword;
+
+    @Value("${petshop.app.reportingPoolSize:3}")
+    private int reportingPoolSize;
+
+    @Value("${petshop.app.reportingConnectionTimeoutMs:5000}")
+    private long reportingConnectionTimeoutMs;
+
+    // Danh sách URL bản sao chỉ đọc, cách nhau bởi dấu phẩy; để trống thì mọi truy vấn dùng primary
+    @Value("${petshop.app.replicaUrls:}")
+    private List<String> replicaUrls;
+
+    @Value("${petshop.app.replicaUsername:}")
+    private String replicaUsername;
+
+    @Value("${petshop.app.replicaPassword:}")
+    private String replicaPassword;
+
+    @Value("${petshop.app.replicaPoolSize:10}")
+    private int replicaPoolSize;
+
+    @Value("${petshop.app.replicaConnectionTimeoutMs:2000}")
+    private long replicaConnectionTimeoutMs;
+
+    @Value("${petshop.app.readYourWritesWindowMs:5000}")
+    private long readYourWritesWindowMs;
+
+    // Pool chính cho request của khách hàng (cấu hình qua spring.datasource.*)
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    // Pool nhỏ, chỉ đọc cho truy vấn báo cáo: dashboard nặng không thể chiếm hết connection của checkout
+    @Bean
+    public HikariDataSource reportingDataSource(DataSourceProperties properties) {
+        boolean separateDatabase = StringUtils.hasText(reportingUrl);
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(separateDatabase ? reportingUrl : properties.determineUrl())
+                .username(separateDatabase ? reportingUsername : properties.determineUsername())
+                .password(separateDatabase ? reportingPassword : properties.determinePassword())
+                .build();
+        dataSource.setPoolName("reporting");
+        dataSource.setMaximumPoolSize(reportingPoolSize);
+        dataSource.setMinimumIdle(1);
+        dataSource.setConnectionTimeout(reportingConnectionTimeoutMs);
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    // Định tuyến theo làn và cờ read-only của transaction (xem LaneRoutingDataSource)
+    @Bean
+    public LaneRoutingDataSource routingDataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                                   @Qualifier("reportingDataSource") DataSource reportingDataSource,
+                                                   DataSourceProperties properties) {
+        List<LaneRoutingDataSource.Replica> replicas = new ArrayList<>();
+        for (String url : replicaUrls) {
+            if (!StringUtils.hasText(url)) {
+                continue;
+            }
+            String name = "replica-" + replicas.size();
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(properties.determineDriverClassName())
+                    .url(url.trim())
+                    .username(StringUtils.hasText(replicaUsername) ? replicaUsername : properties.determineUsername())
+                    .password(StringUtils.hasText(replicaUsername) ? replicaPassword : properties.determinePassword())
+                    .build();
+            dataSource.setPoolName(name);
+            dataSource.setMaximumPoolSize(replicaPoolSize);
+            dataSource.setConnectionTimeout(replicaConnectionTimeoutMs);
+            dataSource.setReadOnly(true);
+            // Replica chưa sẵn sàng lúc khởi động không được chặn ứng dụng; health check sẽ đánh dấu sau
+            dataSource.setInitializationFailTimeout(-1);
+            replicas.add(new LaneRoutingDataSource.Replica(name, dataSource));
+        }
+
+        return new LaneRoutingDataSource(primaryDataSource, reportingDataSource, replicas, readYourWritesWindowMs);
+    }
+
+    // Connection thật chỉ được lấy ở câu lệnh đầu tiên, khi transaction đã đánh dấu read-only
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("routingDataSource") DataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    // Đếm câu SQL và thời gian DB theo request cho QueryBudgetFilter và QueryBudget (xem QueryStats)
+    @Bean
+    public HibernatePropertiesCustomizer queryStatsCustomizer() {
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, new QueryStats.Inspector());
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, QueryStats.TimingListener.class.getName());
+        };
+    }
+}
@@ -0,0 +1,108 @@
+package com.petshop.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class ExecutorConfig {
+
+    @Value("${petshop.app.imageWorkerThreads:2}")
+    private int imageWorkerThreads;
+
+    @Value("${petshop.app.imageQueueCapacity:100}")
+    private int imageQueueCapacity;
+
+    @Value("${petshop.app.checkoutWorkerThreads:8}")
+    private int checkoutWorkerThreads;
+
+    @Value("${petshop.app.checkoutQueueCapacity:200}")
+    private int checkoutQueueCapacity;
+
+    @Value("${petshop.app.sseWorkerThreads:2}")
+    private int sseWorkerThreads;
+
+    @Value("${petshop.app.sseQueueCapacity:10000}")
+    private int sseQueueCapacity;
+
+    @Value("${petshop.app.reportingWorkerThreads:2}")
+    private int reportingWorkerThreads;
+
+    @Value("${petshop.app.reportingQueueCapacity:20}")
+    private int reportingQueueCapacity;
+
+    @Value("${petshop.app.storefrontWorkerThreads:6}")
+    private int storefrontWorkerThreads;
+
+    // Executor xử lý ảnh (resize thumbnail/medium) - giới hạn số luồng và hàng đợi
+    @Bean(name = "imageProcessingExecutor")
+    public ThreadPoolTaskExecutor imageProcessingExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(imageWorkerThreads);
+        executor.setMaxPoolSize(imageWorkerThreads);
+        executor.setQueueCapacity(imageQueueCapacity);
+        executor.setThreadNamePrefix("image-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    // Executor cho các truy vấn đọc song song khi đặt hàng - mỗi luồng giữ tối đa một connection
+    // Hàng đợi đầy thì chạy ngay trên luồng gọi thay vì từ chối đơn hàng
+    @Bean(name = "checkoutExecutor")
+    public ThreadPoolTaskExecutor checkoutExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(checkoutWorkerThreads);
+        executor.setMaxPoolSize(checkoutWorkerThreads);
+        executor.setQueueCapacity(checkoutQueueCapacity);
+        executor.setThreadNamePrefix("checkout-");
+        // Câu SQL chạy trên executor vẫn được tính vào ngân sách truy vấn của request gửi task
+        executor.setTaskDecorator(QueryStats::propagate);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    // Executor gửi dữ liệu Server-Sent Events - vài luồng phục vụ toàn bộ kết nối SSE
+    @Bean(name = "sseExecutor")
+    public ThreadPoolTaskExecutor sseExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(sseWorkerThreads);
+        executor.setMaxPoolSize(sseWorkerThreads);
+        executor.setQueueCapacity(sseQueueCapacity);
+        executor.setThreadNamePrefix("sse-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Executor cho truy vấn báo cáo (@ReportingQuery) - hàng đợi đầy thì từ chối ngay thay vì chiếm luồng request
+    @Bean(name = "reportingExecutor")
+    public ThreadPoolTaskExecutor reportingExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(reportingWorkerThreads);
+        executor.setMaxPoolSize(reportingWorkerThreads);
+        executor.setQueueCapacity(reportingQueueCapacity);
+        executor.setThreadNamePrefix("reporting-");
+        executor.setTaskDecorator(QueryStats::propagate);
+        executor.initialize();
+        return executor;
+    }
+
+    // Executor tải song song các phần của trang chủ storefront
+    @Bean(name = "storefrontExecutor")
+    public ThreadPoolTaskExecutor storefrontExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(storefrontWorkerThreads);
+        executor.setMaxPoolSize(storefrontWorkerThreads);
+        executor.setQueueCapacity(50);
+        executor.setThreadNamePrefix("storefront-");
+        executor.setTaskDecorator(QueryStats::propagate);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,16 @@
+package com.petshop.config;
+
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+
+    // Thay getter/setter gọi qua reflection bằng lambda sinh lúc chạy (LambdaMetafactory) cho mọi DTO.
+    // Spring Boot tự đăng ký các bean Module vào ObjectMapper dùng chung.
+    @Bean
+    public BlackbirdModule blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
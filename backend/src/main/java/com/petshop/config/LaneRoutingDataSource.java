@@ -0,0 +1,278 @@
+package com.petshop.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Chọn pool connection cho connection sắp lấy:
+// - truy vấn @ReportingQuery (làn REPORTING) dùng pool báo cáo
+// - transaction chỉ đọc dùng một bản sao (replica) còn khỏe, xoay vòng; không có replica khỏe thì dùng primary
+// - làn PRIMARY đặt tường minh (onPrimary) luôn dùng primary, kể cả trong transaction chỉ đọc
+// - còn lại (ghi, không có transaction) dùng primary
+// Người dùng vừa ghi dữ liệu được đọc từ primary trong readYourWritesWindowMs để thấy ngay thay đổi của mình.
+// Cần bọc bằng LazyConnectionDataSourceProxy: cờ read-only của transaction chỉ có sau khi transaction bắt đầu.
+public class LaneRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(LaneRoutingDataSource.class);
+
+    public enum Lane {
+        PRIMARY,
+        REPORTING
+    }
+
+    private static final ThreadLocal<Lane> CURRENT_LANE = new ThreadLocal<>();
+
+    private final DataSource primaryDataSource;
+
+    private final List<Replica> replicas;
+
+    private final long readYourWritesWindowMs;
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    // Tên người dùng -> thời điểm hết hạn đọc từ primary
+    private final ConcurrentHashMap<String, Long> stickyUntil = new ConcurrentHashMap<>();
+
+    public LaneRoutingDataSource(DataSource primaryDataSource, DataSource reportingDataSource,
+                                 List<Replica> replicas, long readYourWritesWindowMs) {
+        this.primaryDataSource = primaryDataSource;
+        this.replicas = List.copyOf(replicas);
+        this.readYourWritesWindowMs = readYourWritesWindowMs;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(Lane.PRIMARY, primaryDataSource);
+        targets.put(Lane.REPORTING, reportingDataSource);
+        for (Replica replica : this.replicas) {
+            targets.put(replica, replica.getDataSource());
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primaryDataSource);
+    }
+
+    public static Lane currentLane() {
+        Lane lane = CURRENT_LANE.get();
+        return lane != null ? lane : Lane.PRIMARY;
+    }
+
+    public static void setLane(Lane lane) {
+        CURRENT_LANE.set(lane);
+    }
+
+    public static void clearLane() {
+        CURRENT_LANE.remove();
+    }
+
+    // Chạy action với làn PRIMARY trên luồng hiện tại. Dùng cho các lần đọc không được phép trễ so với primary
+    // nhưng chạy trên luồng executor, nơi không có SecurityContext để áp dụng read-your-writes theo người dùng
+    public static <T> T onPrimary(Supplier<T> action) {
+        Lane previous = CURRENT_LANE.get();
+        CURRENT_LANE.set(Lane.PRIMARY);
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) {
+                CURRENT_LANE.set(previous);
+            } else {
+                CURRENT_LANE.remove();
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Lane lane = CURRENT_LANE.get();
+        if (lane == Lane.REPORTING) {
+            return Lane.REPORTING;
+        }
+        if (lane == Lane.PRIMARY
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly() || isStickyToPrimary()) {
+            return Lane.PRIMARY;
+        }
+        Replica replica = nextHealthyReplica();
+        return replica != null ? replica : Lane.PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Object key = determineCurrentLookupKey();
+
+        if (key instanceof Replica replica) {
+            try {
+                return replica.getDataSource().getConnection();
+            } catch (SQLException e) {
+                // Replica lỗi: đánh dấu hỏng đến lần kiểm tra sức khỏe tiếp theo và đọc từ primary
+                markDown(replica, e);
+                return primaryDataSource.getConnection();
+            }
+        }
+
+        if (key == Lane.PRIMARY) {
+            trackOwnWrite();
+        }
+        return getResolvedDataSources().get(key).getConnection();
+    }
+
+    // Kiểm tra từng replica: connection hợp lệ và (nếu maxLagSeconds > 0) độ trễ sao chép trong giới hạn
+    public void checkReplicas(int validationTimeoutSeconds, long maxLagSeconds) {
+        for (Replica replica : replicas) {
+            boolean healthy;
+            try (Connection connection = replica.getDataSource().getConnection()) {
+                healthy = connection.isValid(validationTimeoutSeconds)
+                        && (maxLagSeconds <= 0 || withinLag(connection, maxLagSeconds));
+            } catch (SQLException e) {
+                healthy = false;
+            }
+
+            if (healthy != replica.isHealthy()) {
+                logger.warn("Replica {} is now {}", replica.getName(), healthy ? "healthy" : "unhealthy");
+            }
+            replica.setHealthy(healthy);
+        }
+    }
+
+    public void evictExpiredStickiness() {
+        long now = System.currentTimeMillis();
+        stickyUntil.values().removeIf(until -> until < now);
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    // Đóng pool của các replica khi tắt ứng dụng (primary và reporting là bean riêng, Spring tự đóng)
+    public void close() {
+        for (Replica replica : replicas) {
+            if (replica.getDataSource() instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    logger.warn("Failed to close replica {}: {}", replica.getName(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    // Helper methods
+
+    private Replica nextHealthyReplica() {
+        int size = replicas.size();
+        if (size == 0) {
+            return null;
+        }
+        int start = Math.floorMod(nextReplica.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.isHealthy()) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private boolean isStickyToPrimary() {
+        String user = currentUser();
+        if (user == null) {
+            return false;
+        }
+        Long until = stickyUntil.get(user);
+        return until != null && until >= System.currentTimeMillis();
+    }
+
+    // Transaction ghi của người dùng: sau khi commit, các lần đọc của họ ở lại primary trong một khoảng ngắn
+    private void trackOwnWrite() {
+        if (replicas.isEmpty() || readYourWritesWindowMs <= 0
+                || !TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return;
+        }
+        String user = currentUser();
+        if (user == null) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                stickyUntil.put(user, System.currentTimeMillis() + readYourWritesWindowMs);
+            }
+        });
+    }
+
+    private String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    private boolean withinLag(Connection connection, long maxLagSeconds) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SHOW REPLICA STATUS")) {
+            if (!resultSet.next()) {
+                // Không phải replica (ví dụ trỏ vào chính primary khi chạy local)
+                return true;
+            }
+            long lag = resultSet.getLong("Seconds_Behind_Source");
+            // NULL nghĩa là luồng sao chép đang dừng
+            return !resultSet.wasNull() && lag <= maxLagSeconds;
+        }
+    }
+
+    private void markDown(Replica replica, SQLException e) {
+        if (replica.isHealthy()) {
+            logger.warn("Replica {} failed, routing reads to primary: {}", replica.getName(), e.getMessage());
+        }
+        replica.setHealthy(false);
+    }
+
+    // Một bản sao chỉ đọc cùng trạng thái sức khỏe (cập nhật bởi ReplicaHealthMonitor)
+    public static class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+
+        public Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public DataSource getDataSource() {
+            return dataSource;
+        }
+
+        public boolean isHealthy() {
+            return healthy;
+        }
+
+        void setHealthy(boolean healthy) {
+            this.healthy = healthy;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
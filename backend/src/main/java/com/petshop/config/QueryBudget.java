@@ -0,0 +1,84 @@
+package com.petshop.config;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Ngân sách truy vấn cho test tích hợp: ghi lại báo cáo SQL gần nhất của từng endpoint (QueryBudgetFilter gửi sang)
+// hoặc đo một đoạn code, rồi khẳng định số câu lệnh không vượt ngân sách. Ví dụ:
+//   QueryBudget.startRecording();
+//   mockMvc.perform(get("/api/orders/1"));
+//   QueryBudget.forEndpoint("GET /api/orders/{id}").assertStatementsAtMost(4).assertNoRepeatsOver(1);
+//   QueryBudget.measure(() -> cartService.getCart(userId)).assertNoRepeatsOver(1);
+public final class QueryBudget {
+
+    private static final Map<String, QueryStats.Report> LAST_REPORTS = new ConcurrentHashMap<>();
+
+    private static volatile boolean recording;
+
+    private QueryBudget() {
+    }
+
+    public static void startRecording() {
+        LAST_REPORTS.clear();
+        recording = true;
+    }
+
+    public static void stopRecording() {
+        recording = false;
+        LAST_REPORTS.clear();
+    }
+
+    public static void record(String endpoint, QueryStats.Report report) {
+        if (recording) {
+            LAST_REPORTS.put(endpoint, report);
+        }
+    }
+
+    // Báo cáo của request gần nhất tới endpoint, dạng "GET /api/orders/{id}"
+    public static Check forEndpoint(String endpoint) {
+        QueryStats.Report report = LAST_REPORTS.get(endpoint);
+        if (report == null) {
+            throw new AssertionError("No request recorded for " + endpoint + ", recorded: " + LAST_REPORTS.keySet());
+        }
+        return new Check(endpoint, report);
+    }
+
+    // Chạy action trên luồng hiện tại và đo các câu SQL của nó
+    public static Check measure(Runnable action) {
+        try (QueryStats.Scope scope = QueryStats.open()) {
+            action.run();
+            return new Check("measured block", scope.report());
+        }
+    }
+
+    public static final class Check {
+        private final String name;
+        private final QueryStats.Report report;
+
+        private Check(String name, QueryStats.Report report) {
+            this.name = name;
+            this.report = report;
+        }
+
+        public QueryStats.Report report() {
+            return report;
+        }
+
+        public Check assertStatementsAtMost(int maxStatements) {
+            if (report.statements() > maxStatements) {
+                throw new AssertionError(name + " ran more than " + maxStatements + " statements: "
+                        + report.summary(1));
+            }
+            return this;
+        }
+
+        // Không dạng câu lệnh nào chạy quá maxRepeats lần (1 nghĩa là không có N+1)
+        public Check assertNoRepeatsOver(int maxRepeats) {
+            if (report.maxRepeats() > maxRepeats) {
+                throw new AssertionError(name + " repeated a statement more than " + maxRepeats + " times: "
+                        + report.summary(maxRepeats + 1));
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.petshop.config;
+
+import org.hibernate.SessionEventListener;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+// Đếm câu SQL, thời gian DB và số lần chạy của từng dạng câu lệnh trong một phạm vi (scope) trên luồng hiện tại.
+// Cùng một dạng SELECT chạy lặp lại nhiều lần trong một request thường là lazy loading trong vòng lặp (N+1).
+// Hibernate gọi Inspector mỗi khi chuẩn bị câu lệnh và TimingListener quanh mỗi lần thực thi (đăng ký trong
+// DatabaseConfig); không có scope nào đang mở thì cả hai gần như không tốn gì.
+// Các executor chạy truy vấn thay cho request (checkout, storefront, reporting) mang scope sang luồng worker qua
+// propagate (TaskDecorator trong ExecutorConfig), nên một scope có thể được ghi từ nhiều luồng cùng lúc.
+public final class QueryStats {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    // Danh sách IN (?, ?, ...) dài ngắn theo số ID cần nạp, gộp lại để cùng một truy vấn chỉ có một dạng
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)*\\s*\\)");
+
+    private static final int SUMMARY_SHAPE_LENGTH = 160;
+
+    private QueryStats() {
+    }
+
+    // Mở scope mới trên luồng hiện tại; câu lệnh được tính cho scope này và mọi scope bao ngoài nó
+    public static Scope open() {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    public static Scope current() {
+        return CURRENT.get();
+    }
+
+    // Bọc task để khi chạy trên luồng khác, câu lệnh của nó được tính cho scope đang mở ở luồng gửi task
+    public static Runnable propagate(Runnable task) {
+        Scope scope = CURRENT.get();
+        if (scope == null) {
+            return task;
+        }
+        return () -> {
+            Scope previous = CURRENT.get();
+            CURRENT.set(scope);
+            try {
+                task.run();
+            } finally {
+                if (previous != null) {
+                    CURRENT.set(previous);
+                } else {
+                    CURRENT.remove();
+                }
+            }
+        };
+    }
+
+    static String shapeOf(String sql) {
+        String shape = WHITESPACE.matcher(sql.strip()).replaceAll(" ");
+        return IN_LIST.matcher(shape).replaceAll("(?...)");
+    }
+
+    private static void recordStatement(String sql) {
+        Scope scope = CURRENT.get();
+        if (scope == null) {
+            return;
+        }
+        String shape = shapeOf(sql);
+        for (; scope != null; scope = scope.parent) {
+            scope.statements.incrementAndGet();
+            scope.shapes.merge(shape, 1, Integer::sum);
+        }
+    }
+
+    private static void recordTime(long nanos) {
+        for (Scope scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            scope.dbTimeNanos.addAndGet(nanos);
+        }
+    }
+
+    public static final class Scope implements AutoCloseable {
+        private final Scope parent;
+        private final Map<String, Integer> shapes = new ConcurrentHashMap<>();
+        private final AtomicInteger statements = new AtomicInteger();
+        private final AtomicLong dbTimeNanos = new AtomicLong();
+
+        private Scope(Scope parent) {
+            this.parent = parent;
+        }
+
+        public Report report() {
+            return new Report(statements.get(), dbTimeNanos.get(), Map.copyOf(shapes));
+        }
+
+        @Override
+        public void close() {
+            if (CURRENT.get() != this) {
+                return;
+            }
+            if (parent != null) {
+                CURRENT.set(parent);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    // Kết quả của một scope: số câu lệnh, tổng thời gian thực thi và số lần chạy theo dạng câu lệnh
+    public record Report(int statements, long dbTimeNanos, Map<String, Integer> shapes) {
+
+        public long dbTimeMs() {
+            return TimeUnit.NANOSECONDS.toMillis(dbTimeNanos);
+        }
+
+        // Số lần chạy của dạng câu lệnh lặp nhiều nhất
+        public int maxRepeats() {
+            return shapes.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+        }
+
+        // Các dạng chạy từ minRepeats lần trở lên, lặp nhiều nhất trước
+        public List<Map.Entry<String, Integer>> repeatedShapes(int minRepeats) {
+            return shapes.entrySet().stream()
+                    .filter(entry -> entry.getValue() >= minRepeats)
+                    .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()))
+                    .toList();
+        }
+
+        // Một dòng cho log: "12 statements, 8 ms DB; 10x select ... | 2x select ..."
+        public String summary(int minRepeats) {
+            StringBuilder summary = new StringBuilder()
+                    .append(statements).append(" statements, ").append(dbTimeMs()).append(" ms DB");
+            String separator = "; ";
+            for (Map.Entry<String, Integer> entry : repeatedShapes(minRepeats)) {
+                String shape = entry.getKey();
+                if (shape.length() > SUMMARY_SHAPE_LENGTH) {
+                    shape = shape.substring(0, SUMMARY_SHAPE_LENGTH) + "...";
+                }
+                summary.append(separator).append(entry.getValue()).append("x ").append(shape);
+                separator = " | ";
+            }
+            return summary.toString();
+        }
+    }
+
+    // Gọi mỗi khi Hibernate chuẩn bị một câu lệnh
+    public static class Inspector implements StatementInspector {
+
+        @Override
+        public String inspect(String sql) {
+            recordStatement(sql);
+            return sql;
+        }
+    }
+
+    // Hibernate tạo một listener cho mỗi session, các sự kiện của session đến tuần tự trên cùng luồng
+    public static class TimingListener implements SessionEventListener {
+        private long statementStart;
+        private long batchStart;
+
+        @Override
+        public void jdbcExecuteStatementStart() {
+            statementStart = System.nanoTime();
+        }
+
+        @Override
+        public void jdbcExecuteStatementEnd() {
+            recordTime(System.nanoTime() - statementStart);
+        }
+
+        @Override
+        public void jdbcExecuteBatchStart() {
+            batchStart = System.nanoTime();
+        }
+
+        @Override
+        public void jdbcExecuteBatchEnd() {
+            recordTime(System.nanoTime() - batchStart);
+        }
+    }
+}
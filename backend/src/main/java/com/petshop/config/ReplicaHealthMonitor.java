@@ -0,0 +1,46 @@
+package com.petshop.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Kiểm tra định kỳ các replica: replica lỗi hoặc trễ quá replicaMaxLagSeconds bị loại khỏi vòng đọc
+// cho đến lần kiểm tra thành công tiếp theo (trong lúc đó transaction chỉ đọc dùng primary)
+@Component
+public class ReplicaHealthMonitor {
+
+    @Autowired
+    private LaneRoutingDataSource routingDataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${petshop.app.replicaValidationTimeoutSeconds:2}")
+    private int validationTimeoutSeconds;
+
+    // 0 = không kiểm tra độ trễ sao chép (cần quyền REPLICATION CLIENT trên MySQL)
+    @Value("${petshop.app.replicaMaxLagSeconds:0}")
+    private long maxLagSeconds;
+
+    @PostConstruct
+    public void init() {
+        for (LaneRoutingDataSource.Replica replica : routingDataSource.getReplicas()) {
+            Gauge.builder("petshop.datasource.replica.healthy", replica, r -> r.isHealthy() ? 1 : 0)
+                    .tag("replica", replica.getName())
+                    .description("1 if the read replica is receiving read-only transactions")
+                    .register(meterRegistry);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${petshop.app.replicaHealthCheckIntervalMs:5000}")
+    public void checkReplicas() {
+        if (!routingDataSource.getReplicas().isEmpty()) {
+            routingDataSource.checkReplicas(validationTimeoutSeconds, maxLagSeconds);
+        }
+        routingDataSource.evictExpiredStickiness();
+    }
+}
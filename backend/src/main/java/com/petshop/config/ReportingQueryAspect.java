@@ -0,0 +1,88 @@
+package com.petshop.config;
+
+import jakarta.annotation.PostConstruct;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Chuyển các phương thức @ReportingQuery sang reportingExecutor.
+// Chạy trên luồng riêng nên không tham gia transaction của service gọi nó: transaction chỉ đọc mới
+// lấy connection từ pool báo cáo. Luồng gọi chờ tối đa reportingQueryTimeoutMs.
+@Aspect
+@Component
+public class ReportingQueryAspect {
+
+    @Autowired
+    @Qualifier("reportingExecutor")
+    private ThreadPoolTaskExecutor reportingExecutor;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${petshop.app.reportingQueryTimeoutMs:30000}")
+    private long queryTimeoutMs;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    public void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        readOnlyTransaction.setPropagationBehavior(TransactionTemplate.PROPAGATION_REQUIRES_NEW);
+        readOnlyTransaction.setTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(queryTimeoutMs)));
+    }
+
+    @Around("@annotation(com.petshop.repository.ReportingQuery)")
+    public Object runOnReportingLane(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (LaneRoutingDataSource.currentLane() == LaneRoutingDataSource.Lane.REPORTING) {
+            return joinPoint.proceed();
+        }
+
+        Future<Object> future = reportingExecutor.submit(() -> {
+            LaneRoutingDataSource.setLane(LaneRoutingDataSource.Lane.REPORTING);
+            try {
+                return readOnlyTransaction.execute(status -> proceed(joinPoint));
+            } finally {
+                LaneRoutingDataSource.clearLane();
+            }
+        });
+
+        try {
+            return future.get(queryTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new QueryTimeoutException("Reporting query timed out after " + queryTimeoutMs + "ms: "
+                    + joinPoint.getSignature().toShortString());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+
+    private Object proceed(ProceedingJoinPoint joinPoint) {
+        try {
+            return joinPoint.proceed();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new UndeclaredThrowableException(e);
+        }
+    }
+}
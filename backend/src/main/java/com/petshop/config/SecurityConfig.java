@@ -1,5 +1,6 @@
 package com.petshop.config;
 
+import com.petshop.filter.IdempotencyFilter;
 import com.petshop.security.AuthEntryPointJwt;
 import com.petshop.security.AuthTokenFilter;
 import com.petshop.security.UserDetailsServiceImpl;
@@ -35,10 +36,19 @@ public class SecurityConfig {
         return new AuthTokenFilter();
     }
 
+    @Bean
+    public IdempotencyFilter idempotencyFilter() {
+        return new IdempotencyFilter();
+    }
+
     @Bean
     public DaoAuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
-        authProvider.setUserDetailsService(userDetailsService);
+        // Đăng nhập đọc tài khoản từ primary: đăng ký/đặt lại mật khẩu là request ẩn danh hoặc của admin nên
+        // read-your-writes theo người dùng không áp dụng, replica trễ sẽ báo sai "User Not Found"/sai mật khẩu.
+        // AuthTokenFilter vẫn dùng userDetailsService trực tiếp (đọc từ replica) cho mỗi request có JWT.
+        authProvider.setUserDetailsService(username ->
+                LaneRoutingDataSource.onPrimary(() -> userDetailsService.loadUserByUsername(username)));
         authProvider.setPasswordEncoder(passwordEncoder());
         return authProvider;
     }
@@ -61,6 +71,7 @@ public class SecurityConfig {
                     corsConfiguration.setAllowedOriginPatterns(java.util.List.of("*"));
                     corsConfiguration.setAllowedMethods(java.util.List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
                     corsConfiguration.setAllowedHeaders(java.util.List.of("*"));
+                    corsConfiguration.setExposedHeaders(java.util.List.of(IdempotencyFilter.REPLAYED_HEADER));
                     corsConfiguration.setAllowCredentials(true);
                     return corsConfiguration;
                 }))
@@ -72,12 +83,19 @@ public class SecurityConfig {
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/api/test/**").permitAll()
 
+                        // Actuator: health và prometheus cho monitoring, còn lại chỉ Admin
+                        .requestMatchers(HttpMethod.GET, "/actuator/health/**").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/actuator/prometheus").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
+
                         // Public product and category endpoints
                         .requestMatchers(HttpMethod.GET, "/api/products/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/categories/**").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/storefront/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/brands/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/sizes/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/product-types/**").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/uploads/products/**").permitAll()
 
                         // Public address endpoints
                         .requestMatchers(HttpMethod.GET, "/api/addresses/provinces").permitAll()
@@ -93,6 +111,7 @@ public class SecurityConfig {
 
                         // Public order tracking
                         .requestMatchers(HttpMethod.GET, "/api/orders/{id}/tracking").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/orders/{id}/tracking/stream").permitAll()
 
                         // Cart endpoints - require authentication
                         .requestMatchers("/api/cart/**").authenticated()
@@ -116,6 +135,7 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.PUT, "/api/orders/{id}/status").hasAnyRole("ADMIN", "NHÂN VIÊN")
                         .requestMatchers(HttpMethod.DELETE, "/api/orders/{id}").hasAnyRole("ADMIN", "NHÂN VIÊN")
                         .requestMatchers(HttpMethod.GET, "/api/orders/status/**").hasAnyRole("ADMIN", "NHÂN VIÊN")
+                        .requestMatchers(HttpMethod.POST, "/api/orders/bulk/**").hasAnyRole("ADMIN", "NHÂN VIÊN")
                         .requestMatchers(HttpMethod.POST, "/api/orders/{id}/confirm").hasAnyRole("ADMIN", "NHÂN VIÊN")
                         .requestMatchers(HttpMethod.POST, "/api/orders/{id}/ship").hasAnyRole("ADMIN", "NHÂN VIÊN")
                         .requestMatchers(HttpMethod.POST, "/api/orders/{id}/complete").hasAnyRole("ADMIN", "NHÂN VIÊN")
@@ -149,7 +169,8 @@ public class SecurityConfig {
                         .anyRequest().authenticated()
                 )
                 .authenticationProvider(authenticationProvider())
-                .addFilterBefore(authenticationJwtTokenFilter(), UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(authenticationJwtTokenFilter(), UsernamePasswordAuthenticationFilter.class)
+                .addFilterAfter(idempotencyFilter(), UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
@@ -1,5 +1,11 @@
 package com.petshop.config;
 
+import com.petshop.filter.ConcurrencyLimitFilter;
+import com.petshop.filter.QueryBudgetFilter;
+import com.petshop.filter.ResponseBodyCacheFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -7,6 +13,15 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    // Chạy trước Spring Security (order -100) để từ chối request trước khi xác thực JWT
+    private static final int CONCURRENCY_LIMIT_FILTER_ORDER = -110;
+
+    // Chạy trước Spring Security (order -100) để tính cả câu SQL nạp người dùng trong AuthTokenFilter
+    private static final int QUERY_BUDGET_FILTER_ORDER = -105;
+
+    // Chạy sau Spring Security (order -100): chỉ request đã qua phân quyền và CORS mới được trả từ cache
+    private static final int RESPONSE_CACHE_FILTER_ORDER = -90;
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/api/**")
@@ -16,4 +31,49 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowCredentials(true)
                 .maxAge(3600);
     }
-}
\ No newline at end of file
+
+    @Bean
+    @ConditionalOnProperty(name = "petshop.app.concurrencyLimitEnabled", havingValue = "true", matchIfMissing = true)
+    public ConcurrencyLimitFilter concurrencyLimitFilter() {
+        return new ConcurrencyLimitFilter();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "petshop.app.concurrencyLimitEnabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilterRegistration(ConcurrencyLimitFilter filter) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(CONCURRENCY_LIMIT_FILTER_ORDER);
+        registration.addUrlPatterns("/*");
+        return registration;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "petshop.app.queryBudgetEnabled", havingValue = "true", matchIfMissing = true)
+    public QueryBudgetFilter queryBudgetFilter() {
+        return new QueryBudgetFilter();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "petshop.app.queryBudgetEnabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<QueryBudgetFilter> queryBudgetFilterRegistration(QueryBudgetFilter filter) {
+        FilterRegistrationBean<QueryBudgetFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(QUERY_BUDGET_FILTER_ORDER);
+        registration.addUrlPatterns("/*");
+        return registration;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "petshop.app.responseCacheEnabled", havingValue = "true", matchIfMissing = true)
+    public ResponseBodyCacheFilter responseBodyCacheFilter() {
+        return new ResponseBodyCacheFilter();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "petshop.app.responseCacheEnabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<ResponseBodyCacheFilter> responseBodyCacheFilterRegistration(ResponseBodyCacheFilter filter) {
+        FilterRegistrationBean<ResponseBodyCacheFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(RESPONSE_CACHE_FILTER_ORDER);
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
@@ -4,13 +4,18 @@ import com.petshop.dto.*;
 import com.petshop.entity.Order;
 import com.petshop.security.UserDetailsImpl;
 import com.petshop.service.OrderService;
+import com.petshop.service.OrderTrackingStreamService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -22,6 +27,9 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private OrderTrackingStreamService orderTrackingStreamService;
+
     // Lấy tất cả đơn hàng [ADMIN/EMPLOYEE]
     @GetMapping
     @PreAuthorize("hasRole('ADMIN') or hasRole('NHÂN VIÊN')")
@@ -140,15 +148,7 @@ public class OrderController {
     // Theo dõi đơn hàng
     @GetMapping("/{id}/tracking")
     public ResponseEntity<ApiResponse<OrderTrackingDTO>> trackOrder(@PathVariable Long id) {
-        // Lấy order code từ ID
-        ApiResponse<OrderDTO> orderResponse = orderService.getOrderById(id);
-        if (!orderResponse.isSuccess()) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(ApiResponse.error("Không tìm thấy đơn hàng"));
-        }
-
-        String orderCode = orderResponse.getData().getOrderCode();
-        ApiResponse<OrderTrackingDTO> response = orderService.trackOrder(orderCode);
+        ApiResponse<OrderTrackingDTO> response = orderService.trackOrderById(id);
 
         if (response.isSuccess()) {
             return ResponseEntity.ok(response);
@@ -157,6 +157,24 @@ public class OrderController {
         }
     }
 
+    // Theo dõi đơn hàng qua Server-Sent Events (chỉ gửi khi trạng thái thay đổi)
+    @GetMapping(value = "/{id}/tracking/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamTracking(@PathVariable Long id) throws Exception {
+        try {
+            SseEmitter emitter = orderTrackingStreamService.subscribe(id);
+            if (emitter == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+            }
+            return ResponseEntity.ok()
+                    .header("X-Accel-Buffering", "no")
+                    .body(emitter);
+        } catch (TaskRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .build();
+        }
+    }
+
     // Hủy đơn hàng [CUSTOMER]
     @PostMapping("/{id}/cancel")
     public ResponseEntity<ApiResponse<OrderDTO>> cancelOrderByCustomer(
@@ -217,6 +235,37 @@ public class OrderController {
         }
     }
 
+    // Xác nhận hàng loạt [EMPLOYEE]
+    @PostMapping("/bulk/confirm")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('NHÂN VIÊN')")
+    public ResponseEntity<ApiResponse<List<BulkOrderResultDTO>>> bulkConfirmOrders(
+            @Valid @RequestBody BulkOrderTransitionRequest request) {
+
+        ApiResponse<List<BulkOrderResultDTO>> response = orderService.bulkConfirmOrders(request.getOrderIds());
+
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        }
+    }
+
+    // Giao hàng hàng loạt [EMPLOYEE]
+    @PostMapping("/bulk/ship")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('NHÂN VIÊN')")
+    public ResponseEntity<ApiResponse<List<BulkOrderResultDTO>>> bulkShipOrders(
+            @Valid @RequestBody BulkOrderTransitionRequest request) {
+
+        ApiResponse<List<BulkOrderResultDTO>> response =
+                orderService.bulkShipOrders(request.getOrderIds(), request.getTrackingNumbers());
+
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        }
+    }
+
     // Hoàn thành [EMPLOYEE]
     @PostMapping("/{id}/complete")
     @PreAuthorize("hasRole('ADMIN') or hasRole('NHÂN VIÊN')")
@@ -2,13 +2,18 @@ package com.petshop.controller;
 
 import com.petshop.dto.*;
 import com.petshop.service.ProductService;
+import com.petshop.service.StockStreamService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -20,18 +25,42 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private StockStreamService stockStreamService;
+
     // Lấy tất cả sản phẩm (có phân trang, filter)
+    // view=tile chỉ trả các trường cần cho lưới sản phẩm; detail/admin (mặc định) trả ProductDTO đầy đủ
     @GetMapping
-    public ResponseEntity<ApiResponse<List<ProductDTO>>> getAllProducts(
+    public ResponseEntity<ApiResponse<?>> getAllProducts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "12") int size,
             @RequestParam(required = false) String search,
-            @RequestParam(required = false) Boolean status) {
+            @RequestParam(required = false) Boolean status,
+            @RequestParam(required = false) String view) {
 
-        ApiResponse<List<ProductDTO>> response = productService.getAllProducts(page, size, search, status);
+        ProductView productView = ProductView.from(view);
+        if (productView == null) {
+            return invalidView(view);
+        }
+
+        ApiResponse<?> response = productView == ProductView.TILE
+                ? productService.getProductTiles(page, size, search, status)
+                : productService.getAllProducts(page, size, search, status);
         return ResponseEntity.ok(response);
     }
 
+    // Lấy nhiều sản phẩm theo danh sách ID (ids=1,2,3), giữ thứ tự và báo ID không tồn tại trong metadata
+    @GetMapping("/batch")
+    public ResponseEntity<ApiResponse<List<ProductDTO>>> getProductsByIds(@RequestParam List<Long> ids) {
+        ApiResponse<List<ProductDTO>> response = productService.getProductsByIds(ids);
+
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        }
+    }
+
     // Lấy sản phẩm theo ID
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<ProductDTO>> getProductById(@PathVariable Long id) {
@@ -88,12 +117,20 @@ public class ProductController {
 
     // Tìm kiếm sản phẩm
     @GetMapping("/search")
-    public ResponseEntity<ApiResponse<List<ProductDTO>>> searchProducts(
+    public ResponseEntity<ApiResponse<?>> searchProducts(
             @RequestParam String query,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "12") int size) {
+            @RequestParam(defaultValue = "12") int size,
+            @RequestParam(required = false) String view) {
+
+        ProductView productView = ProductView.from(view);
+        if (productView == null) {
+            return invalidView(view);
+        }
 
-        ApiResponse<List<ProductDTO>> response = productService.getAllProducts(page, size, query, true);
+        ApiResponse<?> response = productView == ProductView.TILE
+                ? productService.getProductTiles(page, size, query, true)
+                : productService.getAllProducts(page, size, query, true);
         return ResponseEntity.ok(response);
     }
 
@@ -151,34 +188,70 @@ public class ProductController {
 
     // Sản phẩm bán chạy
     @GetMapping("/bestsellers")
-    public ResponseEntity<ApiResponse<List<ProductDTO>>> getBestSellingProducts(
+    public ResponseEntity<ApiResponse<?>> getBestSellingProducts(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "12") int size) {
+            @RequestParam(defaultValue = "12") int size,
+            @RequestParam(required = false) String view) {
+
+        ProductView productView = ProductView.from(view);
+        if (productView == null) {
+            return invalidView(view);
+        }
 
-        ApiResponse<List<ProductDTO>> response = productService.getBestSellingProducts(page, size);
+        ApiResponse<?> response = productView == ProductView.TILE
+                ? productService.getBestSellingProductTiles(page, size)
+                : productService.getBestSellingProducts(page, size);
         return ResponseEntity.ok(response);
     }
 
     // Sản phẩm nổi bật
     @GetMapping("/featured")
-    public ResponseEntity<ApiResponse<List<ProductDTO>>> getFeaturedProducts(
+    public ResponseEntity<ApiResponse<?>> getFeaturedProducts(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "12") int size) {
+            @RequestParam(defaultValue = "12") int size,
+            @RequestParam(required = false) String view) {
 
-        ApiResponse<List<ProductDTO>> response = productService.getFeaturedProducts(page, size);
+        ProductView productView = ProductView.from(view);
+        if (productView == null) {
+            return invalidView(view);
+        }
+
+        ApiResponse<?> response = productView == ProductView.TILE
+                ? productService.getFeaturedProductTiles(page, size)
+                : productService.getFeaturedProducts(page, size);
         return ResponseEntity.ok(response);
     }
 
     // Sản phẩm khuyến mãi
     @GetMapping("/on-sale")
-    public ResponseEntity<ApiResponse<List<ProductDTO>>> getProductsOnSale(
+    public ResponseEntity<ApiResponse<?>> getProductsOnSale(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "12") int size) {
+            @RequestParam(defaultValue = "12") int size,
+            @RequestParam(required = false) String view) {
+
+        ProductView productView = ProductView.from(view);
+        if (productView == null) {
+            return invalidView(view);
+        }
 
-        ApiResponse<List<ProductDTO>> response = productService.getProductsOnSale(page, size);
+        ApiResponse<?> response = productView == ProductView.TILE
+                ? productService.getProductTilesOnSale(page, size)
+                : productService.getProductsOnSale(page, size);
         return ResponseEntity.ok(response);
     }
 
+    // Chi tiết sản phẩm kèm sản phẩm liên quan và khuyến mãi (một request cho trang sản phẩm)
+    @GetMapping("/{id}/detail")
+    public ResponseEntity<ApiResponse<ProductDetailDTO>> getProductDetail(@PathVariable Long id) {
+        ApiResponse<ProductDetailDTO> response = productService.getProductDetail(id);
+
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+    }
+
     // Sản phẩm liên quan
     @GetMapping("/{id}/related")
     public ResponseEntity<ApiResponse<List<ProductDTO>>> getRelatedProducts(
@@ -189,4 +262,26 @@ public class ProductController {
         ApiResponse<List<ProductDTO>> response = productService.getRelatedProducts(id, page, size);
         return ResponseEntity.ok(response);
     }
-}
\ No newline at end of file
+
+    // Theo dõi tồn kho realtime qua Server-Sent Events (ids=1,2,3)
+    @GetMapping(value = "/stock/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamStock(@RequestParam List<Long> ids) throws Exception {
+        try {
+            SseEmitter emitter = stockStreamService.subscribe(ids);
+            return ResponseEntity.ok()
+                    .header("X-Accel-Buffering", "no")
+                    .body(emitter);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (TaskRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .build();
+        }
+    }
+
+    private ResponseEntity<ApiResponse<?>> invalidView(String view) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error("View không hợp lệ: " + view + " (tile, detail, admin)"));
+    }
+}
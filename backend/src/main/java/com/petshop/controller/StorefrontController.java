@@ -0,0 +1,39 @@
+package com.petshop.controller;
+
+import com.petshop.service.StorefrontService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@CrossOrigin(origins = "http://localhost:3000")
+@RestController
+@RequestMapping("/api/storefront")
+public class StorefrontController {
+
+    @Autowired
+    private StorefrontService storefrontService;
+
+    // Dữ liệu trang chủ (nổi bật, giảm giá, bán chạy, danh mục, thương hiệu, khuyến mãi) trong một request
+    @GetMapping("/home")
+    public ResponseEntity<byte[]> getHome(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        StorefrontService.Snapshot snapshot = storefrontService.getHomeSnapshot();
+
+        if (snapshot.getEtag().equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(snapshot.getEtag())
+                    .build();
+        }
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .eTag(snapshot.getEtag())
+                .body(snapshot.getBody());
+    }
+}
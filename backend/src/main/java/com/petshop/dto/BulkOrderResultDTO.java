@@ -0,0 +1,37 @@
+package com.petshop.dto;
+
+import com.petshop.entity.Order;
+public class BulkOrderResultDTO {
+    private Long orderId;
+    private String orderCode;
+    private boolean success;
+    private Order.OrderStatus status;
+    private String message;
+
+    // Constructors
+    public BulkOrderResultDTO() {}
+
+    public BulkOrderResultDTO(Long orderId, String orderCode, boolean success, Order.OrderStatus status, String message) {
+        this.orderId = orderId;
+        this.orderCode = orderCode;
+        this.success = success;
+        this.status = status;
+        this.message = message;
+    }
+
+    // Getters and Setters
+    public Long getOrderId() { return orderId; }
+    public void setOrderId(Long orderId) { this.orderId = orderId; }
+
+    public String getOrderCode() { return orderCode; }
+    public void setOrderCode(String orderCode) { this.orderCode = orderCode; }
+
+    public boolean isSuccess() { return success; }
+    public void setSuccess(boolean success) { this.success = success; }
+
+    public Order.OrderStatus getStatus() { return status; }
+    public void setStatus(Order.OrderStatus status) { this.status = status; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+}
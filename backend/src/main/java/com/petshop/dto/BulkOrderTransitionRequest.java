@@ -0,0 +1,25 @@
+package com.petshop.dto;
+
+import jakarta.validation.constraints.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+public class BulkOrderTransitionRequest {
+    @NotEmpty(message = "Danh sách đơn hàng không được để trống")
+    @Size(max = 500, message = "Tối đa 500 đơn hàng mỗi lần")
+    private List<@NotNull Long> orderIds;
+
+    // Mã vận chuyển theo ID đơn hàng (chỉ dùng khi giao hàng)
+    private Map<Long, @Size(max = 100) String> trackingNumbers = new HashMap<>();
+
+    // Constructors
+    public BulkOrderTransitionRequest() {}
+
+    // Getters and Setters
+    public List<Long> getOrderIds() { return orderIds; }
+    public void setOrderIds(List<Long> orderIds) { this.orderIds = orderIds; }
+
+    public Map<Long, String> getTrackingNumbers() { return trackingNumbers; }
+    public void setTrackingNumbers(Map<Long, String> trackingNumbers) { this.trackingNumbers = trackingNumbers; }
+}
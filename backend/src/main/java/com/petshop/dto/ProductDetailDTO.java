@@ -0,0 +1,27 @@
+package com.petshop.dto;
+
+import java.util.List;
+public class ProductDetailDTO {
+    private ProductDTO product;
+    private List<ProductDTO> relatedProducts;
+    private List<PromotionDTO> promotions;
+
+    // Constructors
+    public ProductDetailDTO() {}
+
+    public ProductDetailDTO(ProductDTO product, List<ProductDTO> relatedProducts, List<PromotionDTO> promotions) {
+        this.product = product;
+        this.relatedProducts = relatedProducts;
+        this.promotions = promotions;
+    }
+
+    // Getters and Setters
+    public ProductDTO getProduct() { return product; }
+    public void setProduct(ProductDTO product) { this.product = product; }
+
+    public List<ProductDTO> getRelatedProducts() { return relatedProducts; }
+    public void setRelatedProducts(List<ProductDTO> relatedProducts) { this.relatedProducts = relatedProducts; }
+
+    public List<PromotionDTO> getPromotions() { return promotions; }
+    public void setPromotions(List<PromotionDTO> promotions) { this.promotions = promotions; }
+}
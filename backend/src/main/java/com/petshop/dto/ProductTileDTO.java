@@ -0,0 +1,85 @@
+package com.petshop.dto;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Bản rút gọn của ProductDTO cho ô sản phẩm trong lưới (view=tile)
+// Được tạo trực tiếp từ JPQL (SELECT new ...) nên không tải description, SEO, tags...
+public class ProductTileDTO {
+    private Long id;
+    private String productName;
+    private String image;
+    private BigDecimal price;
+    private BigDecimal salePrice;
+    private BigDecimal effectivePrice;
+    private BigDecimal discountPercentage;
+    private Integer stock;
+    private Boolean featured;
+
+    // Status flags
+    private Boolean isLowStock;
+    private Boolean isOutOfStock;
+    private Boolean isOnSale;
+
+    // Constructors
+    public ProductTileDTO() {}
+
+    // Thứ tự tham số phải khớp với các truy vấn SELECT new trong ProductRepository
+    public ProductTileDTO(Long id, String productName, String image, BigDecimal price, BigDecimal salePrice,
+                          Integer stock, Integer lowStockThreshold, Boolean featured) {
+        this.id = id;
+        this.productName = productName;
+        this.image = image;
+        this.price = price;
+        this.salePrice = salePrice;
+        this.stock = stock;
+        this.featured = featured;
+
+        // Tính giống các hàm tương ứng trong Product
+        this.isOnSale = salePrice != null && salePrice.compareTo(BigDecimal.ZERO) > 0 &&
+                price != null && salePrice.compareTo(price) < 0;
+        this.effectivePrice = salePrice != null && salePrice.compareTo(BigDecimal.ZERO) > 0 ? salePrice : price;
+        this.discountPercentage = isOnSale
+                ? price.subtract(salePrice).divide(price, 4, RoundingMode.HALF_UP).multiply(BigDecimal.valueOf(100))
+                : BigDecimal.ZERO;
+        this.isOutOfStock = stock == null || stock <= 0;
+        this.isLowStock = stock != null && lowStockThreshold != null && stock <= lowStockThreshold;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getProductName() { return productName; }
+    public void setProductName(String productName) { this.productName = productName; }
+
+    public String getImage() { return image; }
+    public void setImage(String image) { this.image = image; }
+
+    public BigDecimal getPrice() { return price; }
+    public void setPrice(BigDecimal price) { this.price = price; }
+
+    public BigDecimal getSalePrice() { return salePrice; }
+    public void setSalePrice(BigDecimal salePrice) { this.salePrice = salePrice; }
+
+    public BigDecimal getEffectivePrice() { return effectivePrice; }
+    public void setEffectivePrice(BigDecimal effectivePrice) { this.effectivePrice = effectivePrice; }
+
+    public BigDecimal getDiscountPercentage() { return discountPercentage; }
+    public void setDiscountPercentage(BigDecimal discountPercentage) { this.discountPercentage = discountPercentage; }
+
+    public Integer getStock() { return stock; }
+    public void setStock(Integer stock) { this.stock = stock; }
+
+    public Boolean getFeatured() { return featured; }
+    public void setFeatured(Boolean featured) { this.featured = featured; }
+
+    public Boolean getIsLowStock() { return isLowStock; }
+    public void setIsLowStock(Boolean isLowStock) { this.isLowStock = isLowStock; }
+
+    public Boolean getIsOutOfStock() { return isOutOfStock; }
+    public void setIsOutOfStock(Boolean isOutOfStock) { this.isOutOfStock = isOutOfStock; }
+
+    public Boolean getIsOnSale() { return isOnSale; }
+    public void setIsOnSale(Boolean isOnSale) { this.isOnSale = isOnSale; }
+}
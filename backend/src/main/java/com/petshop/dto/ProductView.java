@@ -0,0 +1,24 @@
+package com.petshop.dto;
+
+// Hồ sơ hiển thị cho các endpoint danh sách sản phẩm (tham số view=)
+public enum ProductView {
+    // Ô sản phẩm trong lưới: ProductTileDTO, chỉ chọn các cột cần thiết ở tầng JPA
+    TILE,
+    // ProductDTO đầy đủ (mặc định, giữ tương thích với client cũ)
+    DETAIL,
+    // ProductDTO đầy đủ cho trang quản trị (SKU, SEO, ngưỡng tồn kho...)
+    ADMIN;
+
+    // Trả về null nếu giá trị không hợp lệ
+    public static ProductView from(String value) {
+        if (value == null || value.isBlank()) {
+            return DETAIL;
+        }
+        for (ProductView view : values()) {
+            if (view.name().equalsIgnoreCase(value.trim())) {
+                return view;
+            }
+        }
+        return null;
+    }
+}
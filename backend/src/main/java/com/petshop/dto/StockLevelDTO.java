@@ -0,0 +1,26 @@
+package com.petshop.dto;
+
+public class StockLevelDTO {
+    private Long productId;
+    private Integer stock;
+    private Boolean isOutOfStock;
+
+    // Constructors
+    public StockLevelDTO() {}
+
+    public StockLevelDTO(Long productId, Integer stock) {
+        this.productId = productId;
+        this.stock = stock;
+        this.isOutOfStock = stock == null || stock <= 0;
+    }
+
+    // Getters and Setters
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+
+    public Integer getStock() { return stock; }
+    public void setStock(Integer stock) { this.stock = stock; }
+
+    public Boolean getIsOutOfStock() { return isOutOfStock; }
+    public void setIsOutOfStock(Boolean isOutOfStock) { this.isOutOfStock = isOutOfStock; }
+}
@@ -0,0 +1,38 @@
+package com.petshop.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+public class StorefrontHomeDTO {
+    private List<ProductDTO> featuredProducts;
+    private List<ProductDTO> onSaleProducts;
+    private List<ProductDTO> bestSellingProducts;
+    private List<CategoryDTO> categories;
+    private List<BrandDTO> brands;
+    private List<PromotionDTO> promotions;
+    private LocalDateTime generatedAt;
+
+    // Constructors
+    public StorefrontHomeDTO() {}
+
+    // Getters and Setters
+    public List<ProductDTO> getFeaturedProducts() { return featuredProducts; }
+    public void setFeaturedProducts(List<ProductDTO> featuredProducts) { this.featuredProducts = featuredProducts; }
+
+    public List<ProductDTO> getOnSaleProducts() { return onSaleProducts; }
+    public void setOnSaleProducts(List<ProductDTO> onSaleProducts) { this.onSaleProducts = onSaleProducts; }
+
+    public List<ProductDTO> getBestSellingProducts() { return bestSellingProducts; }
+    public void setBestSellingProducts(List<ProductDTO> bestSellingProducts) { this.bestSellingProducts = bestSellingProducts; }
+
+    public List<CategoryDTO> getCategories() { return categories; }
+    public void setCategories(List<CategoryDTO> categories) { this.categories = categories; }
+
+    public List<BrandDTO> getBrands() { return brands; }
+    public void setBrands(List<BrandDTO> brands) { this.brands = brands; }
+
+    public List<PromotionDTO> getPromotions() { return promotions; }
+    public void setPromotions(List<PromotionDTO> promotions) { this.promotions = promotions; }
+
+    public LocalDateTime getGeneratedAt() { return generatedAt; }
+    public void setGeneratedAt(LocalDateTime generatedAt) { this.generatedAt = generatedAt; }
+}
@@ -6,11 +6,17 @@ import jakarta.validation.constraints.Size;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Entity
 @Table(name = "don_hang")
 public class Order extends BaseEntity {
 
+    // Hậu tố tăng dần cho mã đơn, bắt đầu ngẫu nhiên để các instance khác nhau ít trùng nhau
+    private static final AtomicInteger ORDER_CODE_SEQUENCE =
+            new AtomicInteger(ThreadLocalRandom.current().nextInt(10_000));
+
     @Column(name = "ma_don_hang", unique = true, length = 50)
     private String orderCode;
 
@@ -280,8 +286,10 @@ public class Order extends BaseEntity {
     }
 
     // Helper methods
+    // "DH" + epoch millis + 4 chữ số: nhiều đơn tạo trong cùng một mili giây không còn trùng mã (uk_don_hang_ma)
     private String generateOrderCode() {
-        return "DH" + System.currentTimeMillis();
+        int suffix = Math.floorMod(ORDER_CODE_SEQUENCE.getAndIncrement(), 10_000);
+        return "DH" + System.currentTimeMillis() + Integer.toString(10_000 + suffix).substring(1);
     }
 
     private void updateStatusTimestamps() {
@@ -0,0 +1,16 @@
+package com.petshop.event;
+
+// Sự kiện nội bộ (ApplicationEvent) khi dữ liệu hiển thị trên storefront thay đổi:
+// sản phẩm, danh mục, thương hiệu, khuyến mãi
+public class CatalogChangedEvent {
+
+    private final String source;
+
+    public CatalogChangedEvent(String source) {
+        this.source = source;
+    }
+
+    public String getSource() {
+        return source;
+    }
+}
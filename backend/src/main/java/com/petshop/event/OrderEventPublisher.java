@@ -0,0 +1,38 @@
+package com.petshop.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petshop.entity.Order;
+import com.petshop.entity.OutboxEvent;
+import com.petshop.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+// Ghi sự kiện đơn hàng vào outbox trong cùng transaction với thay đổi đơn hàng
+@Component
+public class OrderEventPublisher {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // previousStatus = null khi đơn hàng vừa được tạo
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(Order order, Order.OrderStatus previousStatus) {
+        OrderLifecycleEvent event = new OrderLifecycleEvent(order, previousStatus);
+        outboxEventRepository.save(new OutboxEvent(
+                OrderLifecycleEvent.AGGREGATE_TYPE, order.getId(), event.getType().name(), toJson(event)));
+    }
+
+    private String toJson(OrderLifecycleEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize order event", e);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.petshop.event;
+
+// Bean nhận sự kiện đơn hàng từ OutboxRelay (chạy nền, không nằm trong request).
+// Sự kiện được giao ít nhất một lần và theo thứ tự trong cùng một đơn hàng,
+// nên subscriber phải idempotent (dựa vào eventId). Ném exception để relay thử lại sau.
+public interface OrderEventSubscriber {
+
+    void onOrderEvent(OrderLifecycleEvent event) throws Exception;
+}
@@ -0,0 +1,114 @@
+package com.petshop.event;
+
+import com.petshop.entity.Order;
+
+import java.time.LocalDateTime;
+
+// Sự kiện thay đổi vòng đời đơn hàng (lưu trong outbox dạng JSON)
+public class OrderLifecycleEvent {
+
+    public static final String AGGREGATE_TYPE = "ORDER";
+
+    public enum Type {
+        CREATED,
+        STATUS_CHANGED
+    }
+
+    private Long eventId;
+    private Type type;
+    private Long orderId;
+    private String orderCode;
+    private Long userId;
+    private Order.OrderStatus previousStatus;
+    private Order.OrderStatus status;
+    private String trackingNumber;
+    private LocalDateTime occurredAt;
+
+    // Constructors
+    public OrderLifecycleEvent() {}
+
+    public OrderLifecycleEvent(Order order, Order.OrderStatus previousStatus) {
+        this.type = previousStatus == null ? Type.CREATED : Type.STATUS_CHANGED;
+        this.orderId = order.getId();
+        this.orderCode = order.getOrderCode();
+        this.userId = order.getUser() != null ? order.getUser().getId() : null;
+        this.previousStatus = previousStatus;
+        this.status = order.getStatus();
+        this.trackingNumber = order.getTrackingNumber();
+        this.occurredAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    // ID của bản ghi outbox: subscriber dùng để bỏ qua sự kiện đã xử lý (giao ít nhất một lần)
+    public Long getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(Long eventId) {
+        this.eventId = eventId;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+
+    public String getOrderCode() {
+        return orderCode;
+    }
+
+    public void setOrderCode(String orderCode) {
+        this.orderCode = orderCode;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Order.OrderStatus getPreviousStatus() {
+        return previousStatus;
+    }
+
+    public void setPreviousStatus(Order.OrderStatus previousStatus) {
+        this.previousStatus = previousStatus;
+    }
+
+    public Order.OrderStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(Order.OrderStatus status) {
+        this.status = status;
+    }
+
+    public String getTrackingNumber() {
+        return trackingNumber;
+    }
+
+    public void setTrackingNumber(String trackingNumber) {
+        this.trackingNumber = trackingNumber;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+
+    public void setOccurredAt(LocalDateTime occurredAt) {
+        this.occurredAt = occurredAt;
+    }
+}
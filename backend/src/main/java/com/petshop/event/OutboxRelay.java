@@ -0,0 +1,219 @@
+package com.petshop.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petshop.entity.OutboxEvent;
+import com.petshop.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Chuyển sự kiện từ bảng outbox đến các OrderEventSubscriber theo lô.
+// Một transaction ngắn khóa và nhận (claim) lô: đẩy nextAttemptAt ra sau outboxClaimTimeoutSeconds để instance khác
+// bỏ qua. Subscriber chạy ngoài mọi transaction (lỗi của subscriber không làm rollback cả lô), kết quả từng sự kiện
+// được lưu trong transaction riêng. Giao ít nhất một lần: instance chết giữa chừng thì sự kiện được giao lại khi
+// claim hết hạn.
+@Component
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired(required = false)
+    private List<OrderEventSubscriber> subscribers = Collections.emptyList();
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${petshop.app.outboxBatchSize:100}")
+    private int batchSize;
+
+    // Sau số lần thử này sự kiện bị bỏ qua (ghi lỗi) để không chặn các sự kiện sau của đơn hàng
+    @Value("${petshop.app.outboxMaxAttempts:10}")
+    private int maxAttempts;
+
+    // Thời gian một lô đã nhận được giữ riêng cho instance này (phải dài hơn thời gian giao một lô)
+    @Value("${petshop.app.outboxClaimTimeoutSeconds:60}")
+    private long claimTimeoutSeconds;
+
+    @Value("${petshop.app.outboxRetentionHours:72}")
+    private long retentionHours;
+
+    private TransactionTemplate transactionTemplate;
+
+    private final AtomicLong pendingCount = new AtomicLong();
+    private final AtomicLong oldestPendingAgeMs = new AtomicLong();
+
+    private Timer deliveryLag;
+    private Counter deliveredCounter;
+    private Counter failedCounter;
+    private Counter deadCounter;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        deliveryLag = Timer.builder("petshop.outbox.delivery.lag")
+                .description("Time from the order change to delivery to subscribers")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        deliveredCounter = Counter.builder("petshop.outbox.events").tag("outcome", "delivered").register(meterRegistry);
+        failedCounter = Counter.builder("petshop.outbox.events").tag("outcome", "failed").register(meterRegistry);
+        deadCounter = Counter.builder("petshop.outbox.events").tag("outcome", "dead").register(meterRegistry);
+        Gauge.builder("petshop.outbox.pending", pendingCount, AtomicLong::get)
+                .description("Outbox events waiting for delivery")
+                .register(meterRegistry);
+        Gauge.builder("petshop.outbox.oldest.pending.age", oldestPendingAgeMs, AtomicLong::get)
+                .description("Age in milliseconds of the oldest undelivered outbox event")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    // Giao các lô sự kiện cho đến khi không còn lô đầy
+    @Scheduled(fixedDelayString = "${petshop.app.outboxPollIntervalMs:200}")
+    public void relay() {
+        try {
+            List<OutboxEvent> claimed;
+            do {
+                claimed = transactionTemplate.execute(status -> claimBatch());
+                deliverClaimed(claimed);
+            } while (claimed.size() >= batchSize);
+        } catch (Exception e) {
+            logger.warn("Outbox relay failed: {}", e.getMessage());
+        }
+    }
+
+    // Cập nhật metric độ trễ outbox
+    @Scheduled(fixedDelayString = "${petshop.app.outboxMetricsIntervalMs:10000}")
+    public void updateMetrics() {
+        try {
+            pendingCount.set(outboxEventRepository.countByProcessedAtIsNull());
+            LocalDateTime oldest = outboxEventRepository.findOldestPendingOccurredAt();
+            oldestPendingAgeMs.set(oldest == null ? 0 : Duration.between(oldest, LocalDateTime.now()).toMillis());
+        } catch (Exception e) {
+            logger.warn("Cannot update outbox metrics: {}", e.getMessage());
+        }
+    }
+
+    // Xóa sự kiện đã giao quá thời gian lưu trữ
+    @Scheduled(cron = "${petshop.app.outboxCleanupCron:0 15 3 * * *}")
+    public void deleteProcessedEvents() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(retentionHours);
+        Integer deleted = transactionTemplate.execute(status -> outboxEventRepository.deleteProcessedBefore(cutoff));
+        logger.info("Deleted {} processed outbox events older than {}", deleted, cutoff);
+    }
+
+    // Helper methods
+
+    // Khóa một lô và nhận các sự kiện được phép giao, theo thứ tự giao
+    private List<OutboxEvent> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> batch = outboxEventRepository.lockPendingBatch(now, PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // Hàng đợi sự kiện chưa giao của từng đơn hàng: chỉ nhận sự kiện đứng đầu hàng đợi và các sự kiện nối tiếp nó
+        // (sự kiện cũ hơn đang chờ thử lại hoặc do instance khác giữ thì chặn các sự kiện sau)
+        Set<Long> orderIds = new HashSet<>();
+        batch.forEach(event -> orderIds.add(event.getAggregateId()));
+        Map<Long, Deque<Long>> pendingByOrder = new HashMap<>();
+        for (Object[] row : outboxEventRepository.findPendingIds(OrderLifecycleEvent.AGGREGATE_TYPE, orderIds)) {
+            pendingByOrder.computeIfAbsent((Long) row[0], id -> new ArrayDeque<>()).add((Long) row[1]);
+        }
+
+        List<OutboxEvent> claimed = new ArrayList<>();
+        LocalDateTime claimedUntil = now.plusSeconds(claimTimeoutSeconds);
+        for (OutboxEvent event : batch) {
+            Deque<Long> pending = pendingByOrder.get(event.getAggregateId());
+            if (pending == null || !event.getId().equals(pending.peekFirst())) {
+                continue;
+            }
+            pending.pollFirst();
+            event.setNextAttemptAt(claimedUntil);
+            claimed.add(event);
+        }
+        return claimed;
+    }
+
+    // Giao các sự kiện đã nhận; sự kiện lỗi chặn các sự kiện sau của cùng đơn hàng đến lần thử lại của nó
+    private void deliverClaimed(List<OutboxEvent> claimed) {
+        Map<Long, LocalDateTime> blockedOrders = new HashMap<>();
+        for (OutboxEvent event : claimed) {
+            LocalDateTime blockedUntil = blockedOrders.get(event.getAggregateId());
+            if (blockedUntil != null) {
+                event.setNextAttemptAt(blockedUntil);
+            } else if (!deliver(event, LocalDateTime.now())) {
+                blockedOrders.put(event.getAggregateId(), event.getNextAttemptAt());
+            }
+            transactionTemplate.executeWithoutResult(status -> outboxEventRepository.save(event));
+        }
+    }
+
+    private boolean deliver(OutboxEvent event, LocalDateTime now) {
+        try {
+            OrderLifecycleEvent payload = objectMapper.readValue(event.getPayload(), OrderLifecycleEvent.class);
+            payload.setEventId(event.getId());
+
+            for (OrderEventSubscriber subscriber : subscribers) {
+                subscriber.onOrderEvent(payload);
+            }
+
+            event.setProcessedAt(now);
+            event.setAttempts(event.getAttempts() + 1);
+            deliveredCounter.increment();
+            deliveryLag.record(Duration.between(event.getOccurredAt(), LocalDateTime.now()));
+            return true;
+
+        } catch (Exception e) {
+            int attempts = event.getAttempts() + 1;
+            event.setAttempts(attempts);
+            event.setLastError(truncate(e.getClass().getSimpleName() + ": " + e.getMessage()));
+
+            if (attempts >= maxAttempts) {
+                event.setProcessedAt(now);
+                deadCounter.increment();
+                logger.error("Giving up on outbox event {} ({} for order {}) after {} attempts: {}",
+                        event.getId(), event.getEventType(), event.getAggregateId(), attempts, e.getMessage());
+                return true;
+            }
+
+            // Thử lại với thời gian chờ tăng dần (tối đa 5 phút)
+            long backoffSeconds = Math.min(300, 1L << Math.min(attempts, 8));
+            event.setNextAttemptAt(now.plusSeconds(backoffSeconds));
+            failedCounter.increment();
+            logger.warn("Outbox event {} for order {} failed (attempt {}), retrying in {}s: {}",
+                    event.getId(), event.getAggregateId(), attempts, backoffSeconds, e.getMessage());
+            return false;
+        }
+    }
+
+    private String truncate(String message) {
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
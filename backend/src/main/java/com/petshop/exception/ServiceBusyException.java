@@ -0,0 +1,15 @@
+package com.petshop.exception;
+
+// Lỗi tạm thời do hệ thống quá tải (ví dụ hết thời gian chờ đọc dữ liệu checkout): trả 503 kèm Retry-After
+public class ServiceBusyException extends RuntimeException {
+    private final int retryAfterSeconds;
+
+    public ServiceBusyException(String message, int retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,138 @@
+package com.petshop.filter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Giới hạn số request đồng thời, tự điều chỉnh theo độ trễ quan sát được (kiểu gradient của Netflix concurrency-limits):
+// - độ trễ ngắn hạn tăng so với độ trễ dài hạn thì giảm limit theo tỉ lệ (gradient)
+// - request lỗi 5xx thì giảm limit theo cấp số nhân (AIMD)
+// - khi ổn định thì limit tăng thêm khoảng sqrt(limit) mỗi cửa sổ đo
+// Mỗi nhóm ưu tiên chỉ được dùng một phần của limit, nên khi quá tải nhóm ưu tiên thấp bị từ chối trước.
+public class AdaptiveConcurrencyLimiter {
+
+    public enum Priority {
+        CHECKOUT(1.0),
+        CART(0.9),
+        CATALOG(0.75),
+        ANALYTICS(0.4);
+
+        private final double share;
+
+        Priority(double share) {
+            this.share = share;
+        }
+
+        public double getShare() {
+            return share;
+        }
+    }
+
+    // Cho phép độ trễ ngắn hạn cao hơn dài hạn đến mức này trước khi giảm limit
+    private static final double RTT_TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double LONG_RTT_WEIGHT = 0.05;
+    private static final int WINDOW_SAMPLES = 100;
+    private static final int MIN_WINDOW_SAMPLES = 10;
+    private static final long WINDOW_NANOS = 1_000_000_000L;
+
+    private final int minLimit;
+    private final int maxLimit;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+
+    // Thống kê của cửa sổ đo hiện tại (cập nhật dưới khóa this)
+    private long windowStart = System.nanoTime();
+    private long windowRttSum;
+    private int windowCount;
+    private int windowMaxInFlight;
+    private boolean windowDropped;
+    private double longRtt;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    // Nhận một suất chạy; false nếu nhóm ưu tiên đã dùng hết phần của mình
+    public boolean tryAcquire(Priority priority) {
+        int allowed = getLimit(priority);
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // Trả suất chạy kèm độ trễ của request; dropped = request lỗi do quá tải (5xx, timeout)
+    public void release(long rttNanos, boolean dropped) {
+        int current = inFlight.getAndDecrement();
+        synchronized (this) {
+            windowRttSum += rttNanos;
+            windowCount++;
+            windowMaxInFlight = Math.max(windowMaxInFlight, current);
+            windowDropped |= dropped;
+
+            long now = System.nanoTime();
+            boolean windowFull = windowCount >= WINDOW_SAMPLES
+                    || (windowCount >= MIN_WINDOW_SAMPLES && now - windowStart >= WINDOW_NANOS);
+            if (windowFull) {
+                updateLimit();
+                windowStart = now;
+                windowRttSum = 0;
+                windowCount = 0;
+                windowMaxInFlight = 0;
+                windowDropped = false;
+            }
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getLimit(Priority priority) {
+        return Math.max(1, (int) (limit * priority.getShare()));
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    // Helper methods
+
+    private void updateLimit() {
+        double shortRtt = (double) windowRttSum / windowCount;
+        if (longRtt == 0) {
+            longRtt = shortRtt;
+        } else {
+            longRtt = longRtt * (1 - LONG_RTT_WEIGHT) + shortRtt * LONG_RTT_WEIGHT;
+        }
+
+        // Độ trễ giảm mạnh (ví dụ database đã hồi phục): kéo độ trễ dài hạn xuống nhanh hơn
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+
+        double newLimit;
+        if (windowDropped) {
+            newLimit = limit * BACKOFF_RATIO;
+        } else {
+            double gradient = Math.max(0.5, Math.min(1.0, RTT_TOLERANCE * longRtt / shortRtt));
+            newLimit = limit * gradient + Math.sqrt(limit);
+
+            // Chỉ tăng khi tải thực sự chạm gần limit, tránh limit phình to lúc ít request
+            if (newLimit > limit && windowMaxInFlight < limit / 2) {
+                newLimit = limit;
+            }
+        }
+
+        newLimit = limit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+}
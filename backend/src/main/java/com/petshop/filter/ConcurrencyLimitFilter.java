@@ -0,0 +1,207 @@
+package com.petshop.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petshop.dto.ApiResponse;
+import com.petshop.filter.AdaptiveConcurrencyLimiter.Priority;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// Giới hạn đồng thời thích ứng, chạy trước Spring Security: khi database chậm, request bị từ chối nhanh (503)
+// thay vì xếp hàng trong AuthTokenFilter và service. Thứ tự ưu tiên: checkout > cart > catalog > admin/analytics.
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    // Không giới hạn: kết nối SSE sống lâu, ảnh tĩnh, actuator
+    private static final List<String> EXCLUDED_PATHS = List.of(
+            "/actuator/**",
+            "/uploads/**",
+            "/api/**/stream");
+
+    // Việc của admin/nhân viên (báo cáo, quản lý đơn, quản lý tài khoản): bị từ chối trước cả catalog
+    private static final List<String> ANALYTICS_PATHS = List.of(
+            "/api/orders/status/**",
+            "/api/orders/bulk/**",
+            "/api/orders/*/confirm",
+            "/api/orders/*/ship",
+            "/api/orders/*/complete",
+            "/api/orders/*/status",
+            "/api/products/low-stock",
+            "/api/users/*/toggle-status",
+            "/api/users/*/reset-password");
+
+    // Chỉ phương thức GET (danh sách đơn hàng, danh sách tài khoản có tìm kiếm LIKE)
+    private static final List<String> ANALYTICS_GET_PATHS = List.of(
+            "/api/orders",
+            "/api/users");
+
+    // Thêm/sửa/xóa dữ liệu catalog chỉ do admin/nhân viên thực hiện
+    private static final List<String> CATALOG_ADMIN_PATHS = List.of(
+            "/api/products/**",
+            "/api/brands/**",
+            "/api/categories/**",
+            "/api/product-types/**",
+            "/api/sizes/**",
+            "/api/promotions/**");
+
+    // POST nhưng là thao tác đọc của khách hàng
+    private static final List<String> STOREFRONT_POST_PATHS = List.of(
+            "/api/products/filter",
+            "/api/promotions/validate-coupon");
+
+    // Chỉ các thao tác thay đổi dữ liệu của khách hàng: đặt hàng, hủy đơn, kiểm tra mã giảm giá khi thanh toán.
+    // Các lần đọc đơn hàng (đơn của tôi, chi tiết, theo dõi) thuộc nhóm CART
+    private static final List<String> CHECKOUT_PATHS = List.of(
+            "/api/orders",
+            "/api/orders/*",
+            "/api/orders/*/cancel",
+            "/api/promotions/validate-coupon");
+
+    private static final List<String> CART_PATHS = List.of(
+            "/api/cart/**",
+            "/api/orders/**",
+            "/api/auth/**",
+            "/api/users/**",
+            "/api/addresses/**");
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${petshop.app.concurrencyInitialLimit:100}")
+    private int initialLimit;
+
+    @Value("${petshop.app.concurrencyMinLimit:20}")
+    private int minLimit;
+
+    @Value("${petshop.app.concurrencyMaxLimit:200}")
+    private int maxLimit;
+
+    @Value("${petshop.app.concurrencyRetryAfterSeconds:1}")
+    private int retryAfterSeconds;
+
+    private AdaptiveConcurrencyLimiter limiter;
+
+    private final Map<Priority, Counter> rejectedCounters = new EnumMap<>(Priority.class);
+
+    @PostConstruct
+    public void init() {
+        limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit);
+
+        Gauge.builder("petshop.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("petshop.concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Requests currently holding a concurrency permit")
+                .register(meterRegistry);
+        for (Priority priority : Priority.values()) {
+            String tag = priority.name().toLowerCase();
+            Gauge.builder("petshop.concurrency.class.limit", limiter, l -> l.getLimit(priority))
+                    .tag("priority", tag)
+                    .description("Share of the concurrency limit available to a priority class")
+                    .register(meterRegistry);
+            rejectedCounters.put(priority, Counter.builder("petshop.concurrency.rejected")
+                    .tag("priority", tag)
+                    .description("Requests shed with 503 by the concurrency limiter")
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (HttpMethod.OPTIONS.matches(request.getMethod())) {
+            return true;
+        }
+        String path = request.getRequestURI();
+        return EXCLUDED_PATHS.stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Priority priority = classify(request);
+        if (!limiter.tryAcquire(priority)) {
+            rejectedCounters.get(priority).increment();
+            writeRejected(response);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean dropped = true;
+        try {
+            filterChain.doFilter(request, response);
+            dropped = response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value();
+        } finally {
+            limiter.release(System.nanoTime() - start, dropped);
+        }
+    }
+
+    // Helper methods
+
+    Priority classify(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        String method = request.getMethod();
+        if (isAdminRequest(method, path)) {
+            return Priority.ANALYTICS;
+        }
+        if (!HttpMethod.GET.matches(method) && matchesAny(CHECKOUT_PATHS, path)) {
+            return Priority.CHECKOUT;
+        }
+        if (matchesAny(CART_PATHS, path)) {
+            return Priority.CART;
+        }
+        return Priority.CATALOG;
+    }
+
+    private boolean isAdminRequest(String method, String path) {
+        if (matchesAny(ANALYTICS_PATHS, path)) {
+            return true;
+        }
+        if (HttpMethod.GET.matches(method)) {
+            return matchesAny(ANALYTICS_GET_PATHS, path);
+        }
+        if (HttpMethod.DELETE.matches(method) && pathMatcher.match("/api/users/*", path)) {
+            return true;
+        }
+        return matchesAny(CATALOG_ADMIN_PATHS, path) && !matchesAny(STOREFRONT_POST_PATHS, path);
+    }
+
+    private boolean matchesAny(List<String> patterns, String path) {
+        for (String pattern : patterns) {
+            if (pathMatcher.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeRejected(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(), ApiResponse.error("Hệ thống đang quá tải, vui lòng thử lại sau"));
+    }
+}
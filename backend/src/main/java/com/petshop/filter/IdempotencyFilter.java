@@ -0,0 +1,209 @@
+package com.petshop.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petshop.dto.ApiResponse;
+import com.petshop.security.UserDetailsImpl;
+import com.petshop.service.IdempotencyService;
+import com.petshop.service.IdempotencyService.Claim;
+import com.petshop.service.IdempotencyService.StoredResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+// Xử lý header Idempotency-Key cho các endpoint thay đổi dữ liệu (đặt hàng, giỏ hàng, mã giảm giá):
+// retry cùng key sẽ nhận lại response cũ thay vì thực thi lần nữa
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyFilter.class);
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    // "METHOD pattern" của các endpoint hỗ trợ Idempotency-Key
+    private static final List<String[]> IDEMPOTENT_ENDPOINTS = List.of(
+            new String[]{"POST", "/api/orders"},
+            new String[]{"POST", "/api/cart/items"},
+            new String[]{"PUT", "/api/cart/items/*"},
+            new String[]{"DELETE", "/api/cart/items/*"},
+            new String[]{"DELETE", "/api/cart/clear"},
+            new String[]{"POST", "/api/cart/apply-coupon"});
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${petshop.app.idempotencyWaitTimeoutMs:10000}")
+    private long waitTimeoutMs;
+
+    // Response thành công lớn hơn giới hạn này chỉ được lưu status (không lưu body)
+    @Value("${petshop.app.idempotencyMaxResponseBytes:262144}")
+    private int maxResponseBytes;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (request.getHeader(IDEMPOTENCY_KEY_HEADER) == null) {
+            return true;
+        }
+
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return IDEMPOTENT_ENDPOINTS.stream().noneMatch(endpoint ->
+                endpoint[0].equals(request.getMethod()) && pathMatcher.match(endpoint[1], path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY_HEADER).trim();
+        if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpStatus.BAD_REQUEST, "Idempotency-Key không hợp lệ");
+            return;
+        }
+
+        // Chỉ áp dụng cho người dùng đã đăng nhập; request chưa xác thực sẽ bị Spring Security từ chối
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserDetailsImpl userDetails)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        CachedBodyHttpServletRequest cachedRequest = new CachedBodyHttpServletRequest(request);
+        String scopedKey = sha256((userDetails.getId() + "\n" + request.getMethod() + "\n"
+                + request.getRequestURI() + "\n" + idempotencyKey).getBytes(StandardCharsets.UTF_8));
+        String requestHash = sha256(cachedRequest.getBody());
+
+        // Lần thứ hai chỉ xảy ra khi yêu cầu đầu tiên thất bại trong lúc đang chờ
+        for (int attempt = 0; attempt < 2; attempt++) {
+            Claim claim = idempotencyService.claim(scopedKey, requestHash);
+
+            switch (claim.getKind()) {
+                case EXECUTE:
+                    execute(cachedRequest, response, filterChain, scopedKey);
+                    return;
+                case REPLAY:
+                    replay(response, claim.getResponse());
+                    return;
+                case MISMATCH:
+                    writeError(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                            "Idempotency-Key đã được sử dụng cho một yêu cầu khác");
+                    return;
+                case IN_PROGRESS:
+                    writeInProgress(response);
+                    return;
+                case WAIT:
+                    try {
+                        StoredResponse stored = claim.await(waitTimeoutMs);
+                        if (stored != null) {
+                            replay(response, stored);
+                            return;
+                        }
+                    } catch (TimeoutException e) {
+                        writeInProgress(response);
+                        return;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        writeInProgress(response);
+                        return;
+                    }
+                    break;
+            }
+        }
+
+        writeInProgress(response);
+    }
+
+    private void execute(CachedBodyHttpServletRequest request, HttpServletResponse response,
+                         FilterChain filterChain, String scopedKey) throws ServletException, IOException {
+        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, responseWrapper);
+
+            int status = responseWrapper.getStatus();
+            if (isStorable(status)) {
+                // Thay đổi đã được thực hiện nên key phải giữ trạng thái hoàn tất kể cả khi body quá lớn:
+                // khi đó chỉ lưu status, retry nhận lại status với body rỗng thay vì thực thi lần nữa
+                StoredResponse stored = responseWrapper.getContentSize() <= maxResponseBytes
+                        ? new StoredResponse(status, responseWrapper.getContentType(),
+                                responseWrapper.getContentAsByteArray())
+                        : new StoredResponse(status, null, new byte[0]);
+                if (!idempotencyService.complete(scopedKey, stored)) {
+                    logger.warn("Idempotent response for {} {} was not persisted; retries on other instances "
+                            + "get 409 until the key expires", request.getMethod(), request.getRequestURI());
+                }
+                completed = true;
+            }
+        } finally {
+            // Chỉ yêu cầu thất bại mới trả lại key để client thử lại
+            if (!completed) {
+                idempotencyService.abandon(scopedKey);
+            }
+            responseWrapper.copyBodyToResponse();
+        }
+    }
+
+    // Chỉ lưu response thành công (2xx). Service trả mọi lỗi nghiệp vụ dưới dạng 400, kể cả lỗi tạm thời
+    // (hết thời gian chờ, tồn kho vừa thay đổi), nên không phân biệt được lỗi nào lặp lại được; request lỗi
+    // không để lại thay đổi nào nên thực thi lại khi retry là an toàn
+    private boolean isStorable(int status) {
+        return status >= 200 && status < 300;
+    }
+
+    private void replay(HttpServletResponse response, StoredResponse stored) throws IOException {
+        response.setStatus(stored.getStatus());
+        if (stored.getContentType() != null) {
+            response.setContentType(stored.getContentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+
+        byte[] body = stored.getBody() != null ? stored.getBody() : new byte[0];
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private void writeInProgress(HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        writeError(response, HttpStatus.CONFLICT, "Yêu cầu với Idempotency-Key này đang được xử lý");
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(), ApiResponse.error(message));
+    }
+
+    private String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
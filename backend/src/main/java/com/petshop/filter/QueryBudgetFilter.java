@@ -0,0 +1,103 @@
+package com.petshop.filter;
+
+import com.petshop.config.QueryBudget;
+import com.petshop.config.QueryStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Đếm câu SQL, thời gian DB và câu lệnh lặp lại của từng request (xem QueryStats). Vượt ngưỡng thì ghi một dòng
+// log tóm tắt và tăng petshop.db.query.budget.exceeded theo endpoint, để đường lazy loading mới (N+1) lộ ra
+// trước khi lên production.
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryBudgetFilter.class);
+
+    private static final List<String> EXCLUDED_PATHS = List.of(
+            "/actuator/**",
+            "/uploads/**");
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${petshop.app.queryBudgetMaxStatements:30}")
+    private int maxStatements;
+
+    @Value("${petshop.app.queryBudgetMaxDbTimeMs:500}")
+    private long maxDbTimeMs;
+
+    // Một dạng câu lệnh chạy quá ngần này lần trong một request được coi là N+1
+    @Value("${petshop.app.queryBudgetMaxRepeats:10}")
+    private int maxRepeats;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return EXCLUDED_PATHS.stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryStats.Scope scope = QueryStats.open();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            scope.close();
+            report(request, scope.report());
+        }
+    }
+
+    // Helper methods
+
+    private void report(HttpServletRequest request, QueryStats.Report report) {
+        String endpoint = endpointOf(request);
+        QueryBudget.record(endpoint, report);
+        if (report.statements() == 0) {
+            return;
+        }
+        meterRegistry.summary("petshop.db.statements", "endpoint", endpoint).record(report.statements());
+
+        List<String> reasons = new ArrayList<>();
+        if (report.statements() > maxStatements) {
+            reasons.add("statements");
+        }
+        if (report.dbTimeMs() > maxDbTimeMs) {
+            reasons.add("db_time");
+        }
+        if (report.maxRepeats() > maxRepeats) {
+            reasons.add("repeated");
+        }
+        if (reasons.isEmpty()) {
+            return;
+        }
+
+        for (String reason : reasons) {
+            meterRegistry.counter("petshop.db.query.budget.exceeded", "endpoint", endpoint, "reason", reason)
+                    .increment();
+        }
+        logger.warn("Query budget exceeded ({}) on {}: {}", String.join(", ", reasons), endpoint,
+                report.summary(2));
+    }
+
+    // Dùng mẫu đường dẫn của handler (ví dụ "GET /api/orders/{id}") để số nhãn metric không tăng theo ID
+    private String endpointOf(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : "UNMAPPED");
+    }
+}
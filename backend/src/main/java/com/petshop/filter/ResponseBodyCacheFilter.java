@@ -0,0 +1,244 @@
+package com.petshop.filter;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petshop.service.ResponseBodyCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+// Trả body JSON đã serialize sẵn (và gzip nén sẵn) cho các GET danh mục công khai, ghi thẳng ra output stream
+// mà không qua controller, service hay Jackson. Chạy sau Spring Security nên CORS và phân quyền vẫn áp dụng.
+public class ResponseBodyCacheFilter extends OncePerRequestFilter {
+
+    public static final String CACHE_STATUS_HEADER = "X-Response-Cache";
+
+    // Chỉ các endpoint công khai, không phụ thuộc người dùng và được làm mới bởi CatalogChangedEvent
+    // (không dùng /api/products/** để không cache nhầm endpoint dành cho admin như /low-stock)
+    private static final List<String> CACHEABLE_PATHS = List.of(
+            "/api/products",
+            "/api/products/search",
+            "/api/products/featured",
+            "/api/products/on-sale",
+            "/api/products/bestsellers",
+            "/api/products/batch",
+            "/api/products/{id:\\d+}",
+            "/api/products/{id:\\d+}/detail",
+            "/api/products/{id:\\d+}/related",
+            "/api/categories",
+            "/api/categories/active",
+            "/api/categories/{id:\\d+}",
+            "/api/categories/{id:\\d+}/products",
+            "/api/brands",
+            "/api/brands/active",
+            "/api/brands/top",
+            "/api/brands/{id:\\d+}",
+            "/api/promotions/active");
+
+    // Tham số query mà các endpoint trên thực sự đọc; request có tham số khác (cache buster, utm_...) không qua cache
+    // để key không tăng theo giá trị tùy ý của client
+    private static final Set<String> CACHEABLE_PARAMS = Set.of(
+            "page", "size", "search", "query", "status", "view", "ids", "limit");
+
+    private static final String CACHE_CONTROL = CacheControl.noCache().getHeaderValue();
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Autowired
+    private ResponseBodyCache responseBodyCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Không cache response lớn hơn giới hạn này
+    @Value("${petshop.app.responseCacheMaxBodyBytes:524288}")
+    private int maxBodyBytes;
+
+    private Counter hitCounter;
+    private Counter missCounter;
+
+    @PostConstruct
+    public void init() {
+        hitCounter = Counter.builder("petshop.responsecache.requests")
+                .tag("outcome", "hit")
+                .description("Cacheable GET requests served from pre-serialized bytes")
+                .register(meterRegistry);
+        missCounter = Counter.builder("petshop.responsecache.requests")
+                .tag("outcome", "miss")
+                .description("Cacheable GET requests that went through the controller")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!HttpMethod.GET.matches(request.getMethod())) {
+            return true;
+        }
+        if (!CACHEABLE_PARAMS.containsAll(request.getParameterMap().keySet())) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return CACHEABLE_PATHS.stream().noneMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String key = cacheKey(request);
+
+        ResponseBodyCache.Entry entry = responseBodyCache.get(key);
+        if (entry != null) {
+            hitCounter.increment();
+            writeCached(request, response, entry);
+            return;
+        }
+
+        missCounter.increment();
+        long version = responseBodyCache.currentVersion();
+        response.setHeader(CACHE_STATUS_HEADER, "MISS");
+
+        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(request, responseWrapper);
+
+            if (isCacheable(responseWrapper)) {
+                byte[] body = responseWrapper.getContentAsByteArray();
+                if (isSuccessBody(body)) {
+                    responseBodyCache.put(key, version, responseWrapper.getContentType(), body);
+                }
+            }
+        } finally {
+            responseWrapper.copyBodyToResponse();
+        }
+    }
+
+    // Helper methods
+
+    // URI + tham số đã giải mã, sắp theo tên: ?size=12&page=0 và ?page=0&size=12 dùng chung một entry
+    private String cacheKey(HttpServletRequest request) {
+        StringBuilder key = new StringBuilder(request.getRequestURI());
+        char separator = '?';
+        for (Map.Entry<String, String[]> param : new TreeMap<>(request.getParameterMap()).entrySet()) {
+            for (String value : param.getValue()) {
+                key.append(separator).append(param.getKey()).append('=')
+                        .append(URLEncoder.encode(value, StandardCharsets.UTF_8));
+                separator = '&';
+            }
+        }
+        return key.toString();
+    }
+
+    private boolean isCacheable(ContentCachingResponseWrapper response) {
+        String contentType = response.getContentType();
+        return response.getStatus() == HttpStatus.OK.value()
+                && contentType != null && contentType.contains("json")
+                && response.getContentSize() <= maxBodyBytes
+                && !response.containsHeader(HttpHeaders.SET_COOKIE);
+    }
+
+    // Nhiều endpoint danh mục bắt lỗi trong service và vẫn trả HTTP 200 với ApiResponse success=false; không cache
+    // các body đó để một lỗi DB tạm thời không bị trả lại cho mọi client suốt TTL. "success" là trường đầu tiên
+    // của ApiResponse nên thường chỉ cần đọc vài token.
+    private boolean isSuccessBody(byte[] body) {
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return false;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("success".equals(field)) {
+                    return value == JsonToken.VALUE_TRUE;
+                }
+                parser.skipChildren();
+            }
+            return false;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void writeCached(HttpServletRequest request, HttpServletResponse response, ResponseBodyCache.Entry entry)
+            throws IOException {
+        response.setHeader(CACHE_STATUS_HEADER, "HIT");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        boolean gzip = entry.getGzipBody() != null && acceptsGzip(request);
+        String etag = gzip ? entry.getGzipEtag() : entry.getEtag();
+        response.setHeader(HttpHeaders.ETAG, etag);
+
+        if (matchesIfNoneMatch(request, etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        byte[] body = entry.getBody();
+        if (gzip) {
+            body = entry.getGzipBody();
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(entry.getContentType());
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    // If-None-Match có thể là danh sách ETag, dạng yếu W/"..." hoặc *; GET so sánh theo kiểu yếu (RFC 9110)
+    private boolean matchesIfNoneMatch(HttpServletRequest request, String etag) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length < 2 || !parts[1].replace(" ", "").equalsIgnoreCase("q=0");
+            }
+        }
+        return false;
+    }
+}
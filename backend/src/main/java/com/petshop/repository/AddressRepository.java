@@ -1,6 +1,7 @@
 package com.petshop.repository;
 
 import com.petshop.entity.Address;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -14,6 +15,7 @@ import java.util.Optional;
 public interface AddressRepository extends JpaRepository<Address, Long> {
 
     // Lấy địa chỉ theo user
+    @EntityGraph(attributePaths = {"province", "district", "ward"})
     List<Address> findByUserIdOrderByIsDefaultDescCreatedAtDesc(Long userId);
 
     // Lấy địa chỉ mặc định của user
@@ -28,6 +30,11 @@ public interface AddressRepository extends JpaRepository<Address, Long> {
     // Kiểm tra địa chỉ có thuộc về user không
     boolean existsByIdAndUserId(Long addressId, Long userId);
 
+    // Lấy địa chỉ kèm tỉnh/huyện/xã (dùng khi đặt hàng)
+    @Query("SELECT a FROM Address a LEFT JOIN FETCH a.province LEFT JOIN FETCH a.district " +
+            "LEFT JOIN FETCH a.ward WHERE a.id = :id")
+    Optional<Address> findByIdWithLocation(@Param("id") Long id);
+
     // Xóa tất cả địa chỉ mặc định của user (để đặt địa chỉ mới làm mặc định)
     @Modifying
     @Query("UPDATE Address a SET a.isDefault = false WHERE a.user.id = :userId AND a.isDefault = true")
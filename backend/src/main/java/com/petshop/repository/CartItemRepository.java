@@ -22,6 +22,10 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     @Query("SELECT ci FROM CartItem ci WHERE ci.cart.user.id = :userId ORDER BY ci.addedAt DESC")
     List<CartItem> findByUserId(@Param("userId") Long userId);
 
+    // Lấy items trong giỏ hàng của user kèm sản phẩm (dùng khi đặt hàng)
+    @Query("SELECT ci FROM CartItem ci JOIN FETCH ci.product WHERE ci.cart.user.id = :userId ORDER BY ci.addedAt DESC")
+    List<CartItem> findByUserIdWithProduct(@Param("userId") Long userId);
+
     // Lấy items theo cart ID
     List<CartItem> findByCartIdOrderByAddedAtDesc(Long cartId);
 
@@ -54,6 +58,7 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     void updatePricesForCart(@Param("cartId") Long cartId);
 
     // Lấy sản phẩm được thêm vào giỏ hàng nhiều nhất
+    @ReportingQuery
     @Query("SELECT ci.product.id, COUNT(ci) as count FROM CartItem ci " +
             "GROUP BY ci.product.id ORDER BY count DESC")
     List<Object[]> findMostAddedProducts();
@@ -2,6 +2,7 @@ package com.petshop.repository;
 
 import com.petshop.entity.Cart;
 import com.petshop.entity.CartItem;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -17,11 +18,18 @@ import java.util.Optional;
 public interface CartRepository extends JpaRepository<Cart, Long> {
 
     // Tìm giỏ hàng theo user
+    @EntityGraph(attributePaths = {"cartItems", "cartItems.product"})
     Optional<Cart> findByUserId(Long userId);
 
     // Kiểm tra user có giỏ hàng không
     boolean existsByUserId(Long userId);
 
+    // Đặt lại tổng tiền giỏ hàng sau khi đặt hàng
+    @Modifying
+    @Query("UPDATE Cart c SET c.totalPrice = 0, c.totalQuantity = 0, c.discount = 0, c.couponCode = NULL, " +
+            "c.updatedAt = :now WHERE c.user.id = :userId")
+    int resetTotalsByUserId(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+
     // Xóa giỏ hàng cũ (không hoạt động trong X ngày)
     @Modifying
     @Query("DELETE FROM Cart c WHERE c.lastUpdated < :cutoffDate")
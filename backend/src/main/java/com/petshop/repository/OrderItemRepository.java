@@ -13,6 +13,7 @@ import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,10 +23,20 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     // Lấy items theo order ID
     List<OrderItem> findByOrderIdOrderById(Long orderId);
 
+    // Lấy items của nhiều đơn hàng trong một truy vấn (danh sách đơn hàng)
+    @Query("SELECT oi FROM OrderItem oi WHERE oi.order.id IN :orderIds ORDER BY oi.id")
+    List<OrderItem> findByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+
+    // Tổng số lượng theo sản phẩm của nhiều đơn hàng (dùng khi hoàn kho)
+    @Query("SELECT oi.product.id, SUM(oi.quantity) FROM OrderItem oi WHERE oi.order.id IN :orderIds " +
+            "GROUP BY oi.product.id ORDER BY oi.product.id")
+    List<Object[]> sumQuantityByProductForOrders(@Param("orderIds") Collection<Long> orderIds);
+
     // Lấy items theo product ID
     List<OrderItem> findByProductId(Long productId);
 
     // Thống kê sản phẩm bán chạy
+    @ReportingQuery
     @Query("SELECT oi.product.id, oi.product.productName, SUM(oi.quantity) as totalSold " +
             "FROM OrderItem oi JOIN oi.order o WHERE o.status = 'COMPLETED' " +
             "GROUP BY oi.product.id, oi.product.productName " +
@@ -38,6 +49,7 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     Long getTotalSoldQuantityByProductId(@Param("productId") Long productId);
 
     // Tính doanh thu theo sản phẩm
+    @ReportingQuery
     @Query("SELECT oi.product.id, oi.product.productName, SUM(oi.subtotal) as revenue " +
             "FROM OrderItem oi JOIN oi.order o WHERE o.status = 'COMPLETED' " +
             "GROUP BY oi.product.id, oi.product.productName " +
@@ -52,10 +64,12 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
                                          @Param("endDate") LocalDateTime endDate);
 
     // Tính tổng doanh thu từ order items
+    @ReportingQuery
     @Query("SELECT SUM(oi.subtotal) FROM OrderItem oi JOIN oi.order o WHERE o.status = 'COMPLETED'")
     BigDecimal getTotalRevenueFromItems();
 
     // Lấy sản phẩm được mua cùng nhau nhiều nhất
+    @ReportingQuery
     @Query("SELECT oi1.product.id, oi2.product.id, COUNT(*) as frequency " +
             "FROM OrderItem oi1 JOIN OrderItem oi2 ON oi1.order.id = oi2.order.id " +
             "WHERE oi1.product.id < oi2.product.id " +
@@ -64,6 +78,7 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     List<Object[]> findFrequentlyBoughtTogether(Pageable pageable);
 
     // Thống kê theo danh mục sản phẩm
+    @ReportingQuery
     @Query("SELECT pt.category.categoryName, SUM(oi.quantity) as totalSold, SUM(oi.subtotal) as revenue " +
             "FROM OrderItem oi JOIN oi.product p JOIN p.productType pt JOIN oi.order o " +
             "WHERE o.status = 'COMPLETED' " +
@@ -72,6 +87,7 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     List<Object[]> getSalesByCategory();
 
     // Thống kê theo thương hiệu
+    @ReportingQuery
     @Query("SELECT b.brandName, SUM(oi.quantity) as totalSold, SUM(oi.subtotal) as revenue " +
             "FROM OrderItem oi JOIN oi.product p JOIN p.brand b JOIN oi.order o " +
             "WHERE o.status = 'COMPLETED' " +
@@ -85,12 +101,14 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     List<Object> findUnsoldProducts();
 
     // Tính trung bình số lượng sản phẩm trong mỗi đơn hàng
+    @ReportingQuery
     @Query("SELECT AVG(subquery.itemCount) FROM " +
             "(SELECT COUNT(oi) as itemCount FROM OrderItem oi JOIN oi.order o " +
             "WHERE o.status = 'COMPLETED' GROUP BY o.id) subquery")
     Double getAverageItemsPerOrder();
 
     // Lấy các sản phẩm có doanh thu cao trong khoảng thời gian
+    @ReportingQuery
     @Query("SELECT oi.product.id, oi.product.productName, SUM(oi.subtotal) as revenue " +
             "FROM OrderItem oi JOIN oi.order o " +
             "WHERE o.status = 'COMPLETED' AND o.completedAt BETWEEN :startDate AND :endDate " +
@@ -2,15 +2,22 @@ package com.petshop.repository;
 
 import com.petshop.entity.Order;
 import com.petshop.entity.OrderItem;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,16 +31,23 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     // Kiểm tra mã đơn hàng có tồn tại không
     boolean existsByOrderCode(String orderCode);
 
+    // Lấy tất cả đơn hàng (phân trang) kèm người đặt
+    @Override
+    @EntityGraph(attributePaths = {"user"})
+    Page<Order> findAll(Pageable pageable);
+
     // Lấy đơn hàng của user
     Page<Order> findByUserIdOrderByOrderDateDesc(Long userId, Pageable pageable);
 
     // Lấy đơn hàng theo trạng thái
+    @EntityGraph(attributePaths = {"user"})
     Page<Order> findByStatusOrderByOrderDateDesc(Order.OrderStatus status, Pageable pageable);
 
     // Lấy đơn hàng theo trạng thái và user
     Page<Order> findByUserIdAndStatusOrderByOrderDateDesc(Long userId, Order.OrderStatus status, Pageable pageable);
 
     // Tìm kiếm đơn hàng
+    @EntityGraph(attributePaths = {"user"})
     @Query("SELECT o FROM Order o WHERE " +
             "(:search IS NULL OR :search = '' OR " +
             "LOWER(o.orderCode) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
@@ -56,10 +70,12 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     Page<Order> findByPaymentStatusOrderByOrderDateDesc(Order.PaymentStatus paymentStatus, Pageable pageable);
 
     // Thống kê đơn hàng theo trạng thái
+    @ReportingQuery
     @Query("SELECT o.status, COUNT(o) FROM Order o GROUP BY o.status")
     List<Object[]> countOrdersByStatus();
 
     // Thống kê doanh thu theo tháng
+    @ReportingQuery
     @Query("SELECT YEAR(o.orderDate), MONTH(o.orderDate), SUM(o.totalAmount) " +
             "FROM Order o WHERE o.status = 'COMPLETED' " +
             "GROUP BY YEAR(o.orderDate), MONTH(o.orderDate) " +
@@ -67,10 +83,12 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Object[]> getMonthlyRevenue();
 
     // Tính tổng doanh thu
+    @ReportingQuery
     @Query("SELECT SUM(o.totalAmount) FROM Order o WHERE o.status = 'COMPLETED'")
     BigDecimal getTotalRevenue();
 
     // Tính doanh thu trong khoảng thời gian
+    @ReportingQuery
     @Query("SELECT SUM(o.totalAmount) FROM Order o WHERE o.status = 'COMPLETED' " +
             "AND o.completedAt BETWEEN :startDate AND :endDate")
     BigDecimal getRevenueInPeriod(@Param("startDate") LocalDateTime startDate,
@@ -84,6 +102,7 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findOrdersWithHighestValue();
 
     // Lấy top khách hàng theo số đơn hàng
+    @ReportingQuery
     @Query("SELECT o.user.id, o.user.fullName, COUNT(o) as orderCount " +
             "FROM Order o WHERE o.status = 'COMPLETED' " +
             "GROUP BY o.user.id, o.user.fullName " +
@@ -91,6 +110,7 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Object[]> findTopCustomersByOrderCount(Pageable pageable);
 
     // Lấy top khách hàng theo doanh thu
+    @ReportingQuery
     @Query("SELECT o.user.id, o.user.fullName, SUM(o.totalAmount) as totalSpent " +
             "FROM Order o WHERE o.status = 'COMPLETED' " +
             "GROUP BY o.user.id, o.user.fullName " +
@@ -102,6 +122,47 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
             "AND o.orderDate < :cutoffDate ORDER BY o.orderDate ASC")
     List<Order> findPendingOrdersOlderThan(@Param("cutoffDate") LocalDateTime cutoffDate);
 
+    // Lấy và khóa một lô đơn hàng chờ xác nhận quá hạn (bỏ qua đơn đang bị khóa bởi giao dịch khác)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT o FROM Order o WHERE o.status = 'PENDING' AND o.paymentStatus <> 'PAID' " +
+            "AND o.orderDate < :cutoffDate ORDER BY o.orderDate ASC")
+    List<Order> lockStalePendingOrders(@Param("cutoffDate") LocalDateTime cutoffDate, Pageable pageable);
+
+    // Khóa một đơn hàng trước khi đổi trạng thái: hủy, xác nhận, giao, hoàn thành, cập nhật đồng thời (kể cả
+    // PendingOrderExpiryService) phải chờ nhau, nên trạng thái được kiểm tra lại trên dữ liệu mới nhất và tồn kho
+    // chỉ hoàn một lần
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> lockById(@Param("id") Long id);
+
+    // Khóa các đơn hàng theo danh sách ID (theo thứ tự ID để tránh deadlock khi xử lý hàng loạt)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id IN :ids ORDER BY o.id")
+    List<Order> lockByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Trạng thái hiện tại của nhiều đơn hàng (cho stream theo dõi đơn hàng)
+    @Query("SELECT o.id, o.status, o.trackingNumber FROM Order o WHERE o.id IN :ids")
+    List<Object[]> findTrackingStateByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Xác nhận hàng loạt: chỉ cập nhật đơn hàng còn ở trạng thái :from
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.status = :to, o.confirmedAt = :now, o.updatedAt = :now " +
+            "WHERE o.status = :from AND o.id IN :ids")
+    int bulkConfirm(@Param("ids") Collection<Long> ids,
+                    @Param("from") Order.OrderStatus from,
+                    @Param("to") Order.OrderStatus to,
+                    @Param("now") LocalDateTime now);
+
+    // Giao hàng hàng loạt: chỉ cập nhật đơn hàng còn ở trạng thái :from
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.status = :to, o.shippedAt = :now, o.updatedAt = :now " +
+            "WHERE o.status = :from AND o.id IN :ids")
+    int bulkShip(@Param("ids") Collection<Long> ids,
+                 @Param("from") Order.OrderStatus from,
+                 @Param("to") Order.OrderStatus to,
+                 @Param("now") LocalDateTime now);
+
     // Lấy đơn hàng theo mã vận chuyển
     Optional<Order> findByTrackingNumber(String trackingNumber);
 
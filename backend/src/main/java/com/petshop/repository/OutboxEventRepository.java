@@ -0,0 +1,45 @@
+package com.petshop.repository;
+
+import com.petshop.entity.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Lấy và khóa một lô sự kiện chưa giao (SKIP LOCKED: các instance khác lấy lô khác)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OutboxEvent e WHERE e.processedAt IS NULL AND e.nextAttemptAt <= :now ORDER BY e.id")
+    List<OutboxEvent> lockPendingBatch(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // ID các sự kiện chưa giao của từng đối tượng theo thứ tự (để giữ thứ tự giao theo đối tượng)
+    @Query("SELECT e.aggregateId, e.id FROM OutboxEvent e WHERE e.processedAt IS NULL " +
+            "AND e.aggregateType = :aggregateType AND e.aggregateId IN :aggregateIds ORDER BY e.id")
+    List<Object[]> findPendingIds(@Param("aggregateType") String aggregateType,
+                                  @Param("aggregateIds") Collection<Long> aggregateIds);
+
+    // Số sự kiện chưa giao
+    long countByProcessedAtIsNull();
+
+    // Thời điểm phát sinh của sự kiện chưa giao cũ nhất
+    @Query("SELECT MIN(e.occurredAt) FROM OutboxEvent e WHERE e.processedAt IS NULL")
+    LocalDateTime findOldestPendingOccurredAt();
+
+    // Xóa sự kiện đã giao quá thời gian lưu trữ
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.processedAt < :cutoff")
+    int deleteProcessedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,20 +1,28 @@
 package com.petshop.repository;
 
+import com.petshop.dto.ProductTileDTO;
 import com.petshop.entity.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
+    // Projection cho view=tile: chỉ chọn các cột ô sản phẩm cần (không có description, SEO, tags...)
+    String TILE_SELECT = "SELECT new com.petshop.dto.ProductTileDTO(" +
+            "p.id, p.productName, p.image, p.price, p.salePrice, p.stock, p.lowStockThreshold, p.featured) ";
+
     // Tìm sản phẩm theo SKU
     Optional<Product> findBySku(String sku);
 
@@ -24,26 +32,38 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     // Kiểm tra SKU có tồn tại không (loại trừ ID hiện tại)
     boolean existsBySkuAndIdNot(String sku, Long id);
 
+    // Lấy tất cả sản phẩm (phân trang) kèm loại, danh mục, thương hiệu, kích cỡ
+    @Override
+    @EntityGraph(attributePaths = {"productType", "productType.category", "brand", "size"})
+    Page<Product> findAll(Pageable pageable);
+
     // Lấy sản phẩm theo trạng thái
+    @EntityGraph(attributePaths = {"productType", "productType.category", "brand", "size"})
     Page<Product> findByStatusOrderByCreatedDateDesc(Boolean status, Pageable pageable);
 
     // Lấy sản phẩm nổi bật
+    @EntityGraph(attributePaths = {"productType", "productType.category", "brand", "size"})
     Page<Product> findByFeaturedAndStatusOrderByCreatedDateDesc(Boolean featured, Boolean status, Pageable pageable);
 
     // Lấy sản phẩm theo thương hiệu
+    @EntityGraph(attributePaths = {"productType", "productType.category", "brand", "size"})
     Page<Product> findByBrandIdAndStatusOrderByCreatedDateDesc(Long brandId, Boolean status, Pageable pageable);
 
     // Lấy sản phẩm theo danh mục (thông qua product type)
+    @EntityGraph(attributePaths = {"productType", "productType.category", "brand", "size"})
     @Query("SELECT p FROM Product p WHERE p.productType.category.id = :categoryId AND p.status = :status ORDER BY p.createdDate DESC")
     Page<Product> findByCategoryIdAndStatus(@Param("categoryId") Long categoryId, @Param("status") Boolean status, Pageable pageable);
 
     // Lấy sản phẩm theo loại sản phẩm
+    @EntityGraph(attributePaths = {"productType", "productType.category", "brand", "size"})
     Page<Product> findByProductTypeIdAndStatusOrderByCreatedDateDesc(Long productTypeId, Boolean status, Pageable pageable);
 
     // Lấy sản phẩm theo kích cỡ
+    @EntityGraph(attributePaths = {"productType", "productType.category", "brand", "size"})
     Page<Product> findBySizeIdAndStatusOrderByCreatedDateDesc(Long sizeId, Boolean status, Pageable pageable);
 
     // Tìm kiếm sản phẩm theo tên
+    @EntityGraph(attributePaths = {"productType", "productType.category", "brand", "size"})
     @Query("SELECT p FROM Product p WHERE " +
             "(:search IS NULL OR :search = '' OR " +
             "LOWER(p.productName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
@@ -54,6 +74,7 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     Page<Product> searchProducts(@Param("search") String search, @Param("status") Boolean status, Pageable pageable);
 
     // Lọc sản phẩm theo nhiều tiêu chí
+    @EntityGraph(attributePaths = {"productType", "productType.category", "brand", "size"})
     @Query("SELECT p FROM Product p WHERE " +
             "(:search IS NULL OR :search = '' OR " +
             "LOWER(p.productName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
@@ -81,26 +102,84 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
             Pageable pageable);
 
     // Lấy sản phẩm có giá khuyến mãi
+    @EntityGraph(attributePaths = {"productType", "productType.category", "brand", "size"})
     @Query("SELECT p FROM Product p WHERE p.salePrice IS NOT NULL AND p.salePrice > 0 AND p.salePrice < p.price AND p.status = true ORDER BY p.createdDate DESC")
     Page<Product> findProductsOnSale(Pageable pageable);
 
     // Lấy sản phẩm sắp hết hàng
+    @EntityGraph(attributePaths = {"productType", "productType.category", "brand", "size"})
     @Query("SELECT p FROM Product p WHERE p.stock <= p.lowStockThreshold AND p.stock > 0 AND p.status = true ORDER BY p.stock ASC")
     Page<Product> findLowStockProducts(Pageable pageable);
 
     // Lấy sản phẩm hết hàng
+    @EntityGraph(attributePaths = {"productType", "productType.category", "brand", "size"})
     @Query("SELECT p FROM Product p WHERE p.stock <= 0 AND p.status = true ORDER BY p.createdDate DESC")
     Page<Product> findOutOfStockProducts(Pageable pageable);
 
     // Lấy sản phẩm bán chạy nhất
+    @EntityGraph(attributePaths = {"productType", "productType.category", "brand", "size"})
     @Query("SELECT p FROM Product p WHERE p.status = true ORDER BY p.soldQuantity DESC")
     Page<Product> findBestSellingProducts(Pageable pageable);
 
     // Lấy sản phẩm mới nhất
+    @EntityGraph(attributePaths = {"productType", "productType.category", "brand", "size"})
     @Query("SELECT p FROM Product p WHERE p.status = true ORDER BY p.createdDate DESC")
     Page<Product> findLatestProducts(Pageable pageable);
 
+    // Lấy sản phẩm kèm loại, danh mục, thương hiệu, kích cỡ trong một câu truy vấn
+    @EntityGraph(attributePaths = {"productType", "productType.category", "brand", "size"})
+    @Query("SELECT p FROM Product p WHERE p.id = :id")
+    Optional<Product> findDetailById(@Param("id") Long id);
+
+    // Lấy nhiều sản phẩm theo ID kèm các quan hệ cần cho DTO (một câu truy vấn)
+    @EntityGraph(attributePaths = {"productType", "productType.category", "brand", "size"})
+    @Query("SELECT p FROM Product p WHERE p.id IN :ids")
+    List<Product> findAllWithDetailsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Danh sách ô sản phẩm (view=tile), cùng điều kiện với searchProducts
+    @Query(value = TILE_SELECT + "FROM Product p WHERE " +
+            "(:search IS NULL OR :search = '' OR " +
+            "LOWER(p.productName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+            "LOWER(p.description) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+            "LOWER(p.sku) LIKE LOWER(CONCAT('%', :search, '%'))) " +
+            "AND (:status IS NULL OR p.status = :status) " +
+            "ORDER BY p.createdDate DESC",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE " +
+            "(:search IS NULL OR :search = '' OR " +
+            "LOWER(p.productName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+            "LOWER(p.description) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+            "LOWER(p.sku) LIKE LOWER(CONCAT('%', :search, '%'))) " +
+            "AND (:status IS NULL OR p.status = :status)")
+    Page<ProductTileDTO> searchProductTiles(@Param("search") String search, @Param("status") Boolean status, Pageable pageable);
+
+    // Ô sản phẩm nổi bật (view=tile)
+    @Query(value = TILE_SELECT + "FROM Product p WHERE p.featured = true AND p.status = true ORDER BY p.createdDate DESC",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.featured = true AND p.status = true")
+    Page<ProductTileDTO> findFeaturedProductTiles(Pageable pageable);
+
+    // Ô sản phẩm đang giảm giá (view=tile)
+    @Query(value = TILE_SELECT + "FROM Product p WHERE p.salePrice IS NOT NULL AND p.salePrice > 0 " +
+            "AND p.salePrice < p.price AND p.status = true ORDER BY p.createdDate DESC",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.salePrice IS NOT NULL AND p.salePrice > 0 " +
+            "AND p.salePrice < p.price AND p.status = true")
+    Page<ProductTileDTO> findProductTilesOnSale(Pageable pageable);
+
+    // Ô sản phẩm bán chạy (view=tile)
+    @Query(value = TILE_SELECT + "FROM Product p WHERE p.status = true ORDER BY p.soldQuantity DESC",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.status = true")
+    Page<ProductTileDTO> findBestSellingProductTiles(Pageable pageable);
+
+    // Sản phẩm liên quan kèm các quan hệ cần cho DTO (không cần đếm tổng số trang)
+    @EntityGraph(attributePaths = {"productType", "productType.category", "brand", "size"})
+    @Query("SELECT p FROM Product p WHERE " +
+            "(p.productType.category.id = (SELECT pr.productType.category.id FROM Product pr WHERE pr.id = :productId) " +
+            "OR p.brand.id = (SELECT pr.brand.id FROM Product pr WHERE pr.id = :productId)) " +
+            "AND p.id != :productId AND p.status = true " +
+            "ORDER BY p.soldQuantity DESC")
+    List<Product> findRelatedProductsWithDetails(@Param("productId") Long productId, Pageable pageable);
+
     // Lấy sản phẩm liên quan (cùng danh mục hoặc thương hiệu)
+    @EntityGraph(attributePaths = {"productType", "productType.category", "brand", "size"})
     @Query("SELECT p FROM Product p WHERE " +
             "(p.productType.category.id = (SELECT pr.productType.category.id FROM Product pr WHERE pr.id = :productId) " +
             "OR p.brand.id = (SELECT pr.brand.id FROM Product pr WHERE pr.id = :productId)) " +
@@ -109,6 +188,7 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     Page<Product> findRelatedProducts(@Param("productId") Long productId, Pageable pageable);
 
     // Lấy sản phẩm theo tags
+    @EntityGraph(attributePaths = {"productType", "productType.category", "brand", "size"})
     @Query("SELECT p FROM Product p WHERE p.tags IS NOT NULL AND " +
             "(:tag IS NULL OR LOWER(p.tags) LIKE LOWER(CONCAT('%', :tag, '%'))) " +
             "AND p.status = true ORDER BY p.createdDate DESC")
@@ -149,4 +229,21 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     // Cập nhật tồn kho
     @Query("UPDATE Product p SET p.stock = p.stock - :quantity WHERE p.id = :productId")
     void updateStock(@Param("productId") Long productId, @Param("quantity") Integer quantity);
+
+    // Trừ tồn kho khi đặt hàng (chỉ khi còn đủ hàng), trả về số dòng được cập nhật
+    @Modifying
+    @Query("UPDATE Product p SET p.stock = p.stock - :quantity, p.soldQuantity = p.soldQuantity + :quantity " +
+            "WHERE p.id = :productId AND p.stock >= :quantity")
+    int decrementStock(@Param("productId") Long productId, @Param("quantity") Integer quantity);
+
+    // Tồn kho hiện tại của nhiều sản phẩm (cho stream tồn kho)
+    @Query("SELECT p.id, p.stock FROM Product p WHERE p.id IN :ids")
+    List<Object[]> findStockByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Hoàn lại tồn kho khi hủy đơn hàng
+    @Modifying
+    @Query("UPDATE Product p SET p.stock = p.stock + :quantity, " +
+            "p.soldQuantity = CASE WHEN p.soldQuantity > :quantity THEN p.soldQuantity - :quantity ELSE 0 END " +
+            "WHERE p.id = :productId")
+    int restoreStock(@Param("productId") Long productId, @Param("quantity") Integer quantity);
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package com.petshop.repository;
 import com.petshop.entity.ProductType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -24,15 +25,19 @@ public interface ProductTypeRepository extends JpaRepository<ProductType, Long>
     boolean existsByProductTypeNameAndIdNot(String productTypeName, Long id);
 
     // Lấy loại sản phẩm theo trạng thái
+    @EntityGraph(attributePaths = {"category"})
     List<ProductType> findByStatusOrderByProductTypeNameAsc(Boolean status);
 
     // Lấy loại sản phẩm theo danh mục
+    @EntityGraph(attributePaths = {"category"})
     List<ProductType> findByCategoryIdAndStatusOrderByProductTypeNameAsc(Long categoryId, Boolean status);
 
     // Lấy tất cả loại sản phẩm có phân trang
+    @EntityGraph(attributePaths = {"category"})
     Page<ProductType> findAllByOrderByProductTypeNameAsc(Pageable pageable);
 
     // Tìm kiếm loại sản phẩm theo tên hoặc mô tả
+    @EntityGraph(attributePaths = {"category"})
     @Query("SELECT pt FROM ProductType pt WHERE " +
             "(:search IS NULL OR :search = '' OR " +
             "LOWER(pt.productTypeName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
@@ -41,9 +46,11 @@ public interface ProductTypeRepository extends JpaRepository<ProductType, Long>
     Page<ProductType> searchProductTypes(@Param("search") String search, Pageable pageable);
 
     // Lấy loại sản phẩm theo trạng thái với phân trang
+    @EntityGraph(attributePaths = {"category"})
     Page<ProductType> findByStatusOrderByProductTypeNameAsc(Boolean status, Pageable pageable);
 
     // Lấy loại sản phẩm theo danh mục với phân trang
+    @EntityGraph(attributePaths = {"category"})
     Page<ProductType> findByCategoryIdOrderByProductTypeNameAsc(Long categoryId, Pageable pageable);
 
     // Đếm số sản phẩm theo loại sản phẩm
@@ -60,6 +67,7 @@ public interface ProductTypeRepository extends JpaRepository<ProductType, Long>
     List<ProductType> findProductTypesWithProducts();
 
     // Lấy loại sản phẩm theo type code
+    @EntityGraph(attributePaths = {"category"})
     List<ProductType> findByTypeAndStatusOrderByProductTypeNameAsc(Integer type, Boolean status);
 
     // Lấy loại sản phẩm theo category và type
@@ -72,6 +72,16 @@ public interface PromotionRepository extends JpaRepository<Promotion, Long> {
             "ORDER BY p.discountValue DESC")
     List<Promotion> findPromotionsForCategory(@Param("categoryId") Long categoryId, @Param("now") LocalDateTime now);
 
+    // Khuyến mãi đang hoạt động áp dụng cho sản phẩm hoặc cho danh mục của sản phẩm (một truy vấn)
+    @Query("SELECT DISTINCT p FROM Promotion p " +
+            "LEFT JOIN p.applicableProducts ap LEFT JOIN p.applicableCategories ac " +
+            "WHERE p.status = true AND p.startDate <= :now AND p.endDate > :now " +
+            "AND (ap.id = :productId OR ac.id = " +
+            "(SELECT pr.productType.category.id FROM Product pr WHERE pr.id = :productId)) " +
+            "ORDER BY p.discountValue DESC")
+    List<Promotion> findActivePromotionsForProductOrCategory(@Param("productId") Long productId,
+                                                             @Param("now") LocalDateTime now);
+
     // Lấy khuyến mãi sắp hết hạn
     @Query("SELECT p FROM Promotion p WHERE p.status = true " +
             "AND p.endDate BETWEEN :now AND :warningDate " +
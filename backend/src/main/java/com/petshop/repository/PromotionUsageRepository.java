@@ -34,6 +34,7 @@ public interface PromotionUsageRepository extends JpaRepository<PromotionUsage,
                                                @Param("endDate") LocalDateTime endDate);
 
     // Thống kê usage theo tháng
+    @ReportingQuery
     @Query("SELECT YEAR(pu.usedAt), MONTH(pu.usedAt), COUNT(pu), SUM(pu.discountAmount) " +
             "FROM PromotionUsage pu " +
             "GROUP BY YEAR(pu.usedAt), MONTH(pu.usedAt) " +
@@ -41,6 +42,7 @@ public interface PromotionUsageRepository extends JpaRepository<PromotionUsage,
     List<Object[]> getMonthlyUsageStatistics();
 
     // Lấy top users sử dụng khuyến mãi nhiều nhất
+    @ReportingQuery
     @Query("SELECT pu.user.id, pu.user.fullName, COUNT(pu) as usageCount, SUM(pu.discountAmount) as totalSaved " +
             "FROM PromotionUsage pu " +
             "GROUP BY pu.user.id, pu.user.fullName " +
@@ -58,6 +60,7 @@ public interface PromotionUsageRepository extends JpaRepository<PromotionUsage,
     void deleteByOrderId(Long orderId);
 
     // Thống kê promotion hiệu quả nhất
+    @ReportingQuery
     @Query("SELECT p.id, p.promotionName, COUNT(pu) as usageCount, SUM(pu.discountAmount) as totalDiscount " +
             "FROM PromotionUsage pu JOIN pu.promotion p " +
             "GROUP BY p.id, p.promotionName " +
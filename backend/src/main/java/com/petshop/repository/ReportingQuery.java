@@ -0,0 +1,15 @@
+package com.petshop.repository;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Đánh dấu truy vấn thống kê/báo cáo nặng: chạy trên reportingExecutor với pool connection riêng (chỉ đọc),
+// không dùng chung luồng request và pool connection của checkout. Kết quả trả về là entity đã detach.
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ReportingQuery {
+}
@@ -0,0 +1,35 @@
+package com.petshop.repository;
+
+import com.petshop.entity.SchedulerLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface SchedulerLeaseRepository extends JpaRepository<SchedulerLease, String> {
+
+    // Nhận (hoặc gia hạn) lease nếu đã hết hạn hoặc đang do chính instance này giữ
+    @Modifying
+    @Query("UPDATE SchedulerLease l SET l.owner = :owner, l.leaseUntil = :leaseUntil " +
+            "WHERE l.name = :name AND (l.leaseUntil < :now OR l.owner = :owner)")
+    int tryAcquire(@Param("name") String name,
+                   @Param("owner") String owner,
+                   @Param("leaseUntil") LocalDateTime leaseUntil,
+                   @Param("now") LocalDateTime now);
+
+    // Tạo dòng lease (đã hết hạn, chưa ai giữ) nếu chưa có. INSERT IGNORE không ném lỗi trùng khóa khi instance khác
+    // vừa tạo cùng lúc, nên không làm transaction bị đánh dấu rollback-only
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO scheduler_lease (ten_tac_vu, owner, lease_until) VALUES (:name, NULL, :expiredAt)",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("name") String name, @Param("expiredAt") LocalDateTime expiredAt);
+
+    // Trả lease sớm khi tác vụ xong
+    @Modifying
+    @Query("UPDATE SchedulerLease l SET l.leaseUntil = :now WHERE l.name = :name AND l.owner = :owner")
+    int release(@Param("name") String name, @Param("owner") String owner, @Param("now") LocalDateTime now);
+}
@@ -98,6 +98,7 @@ public interface UserRepository extends JpaRepository<User, Long> {
     List<User> findCustomerUsers();
 
     // Tìm user có nhiều địa chỉ nhất
+    @ReportingQuery
     @Query("SELECT u FROM User u JOIN Address a ON a.user.id = u.id GROUP BY u.id ORDER BY COUNT(a) DESC")
     List<User> findUsersWithMostAddresses(Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.petshop.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Ghi log lỗi xác thực có giới hạn tần suất, tránh flood log khi bị spam token sai
+@Component
+public class AuthFailureLogger {
+
+    private static final Logger logger = LoggerFactory.getLogger("com.petshop.security.AuthFailure");
+
+    @Value("${petshop.app.authFailureLogLimit:10}")
+    private int maxPerWindow;
+
+    @Value("${petshop.app.authFailureLogWindowSeconds:60}")
+    private long windowSeconds;
+
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final AtomicInteger loggedInWindow = new AtomicInteger();
+    private final AtomicLong suppressed = new AtomicLong();
+
+    public void log(String format, Object... args) {
+        if (tryAcquire()) {
+            logger.warn(format, args);
+        }
+    }
+
+    private boolean tryAcquire() {
+        long now = System.nanoTime();
+        long start = windowStart.get();
+
+        if (now - start >= TimeUnit.SECONDS.toNanos(windowSeconds) && windowStart.compareAndSet(start, now)) {
+            loggedInWindow.set(0);
+            long dropped = suppressed.getAndSet(0);
+            if (dropped > 0) {
+                logger.warn("Suppressed {} authentication failure messages in the last {}s", dropped, windowSeconds);
+            }
+        }
+
+        if (loggedInWindow.incrementAndGet() <= maxPerWindow) {
+            return true;
+        }
+        suppressed.incrementAndGet();
+        return false;
+    }
+}
@@ -4,10 +4,12 @@ import com.petshop.dto.ApiResponse;
 import com.petshop.dto.BrandDTO;
 import com.petshop.dto.BrandRequest;
 import com.petshop.entity.Brand;
+import com.petshop.event.CatalogChangedEvent;
 import com.petshop.exception.ResourceNotFoundException;
 import com.petshop.exception.DuplicateResourceException;
 import com.petshop.repository.BrandRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -23,10 +25,14 @@ import java.util.stream.Collectors;
 @Transactional
 public class BrandService {
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Autowired
     private BrandRepository brandRepository;
 
     // Lấy tất cả thương hiệu với phân trang và tìm kiếm
+    @Transactional(readOnly = true)
     public ApiResponse<List<BrandDTO>> getAllBrands(int page, int size, String search, Boolean status) {
         try {
             Pageable pageable = PageRequest.of(page, size);
@@ -67,6 +73,7 @@ public class BrandService {
     }
 
     // Lấy thương hiệu hoạt động (không phân trang - cho dropdown)
+    @Transactional(readOnly = true)
     public ApiResponse<List<BrandDTO>> getActiveBrands() {
         try {
             List<Brand> brands = brandRepository.findByStatusOrderByBrandNameAsc(true);
@@ -81,6 +88,7 @@ public class BrandService {
     }
 
     // Lấy thương hiệu theo ID
+    @Transactional(readOnly = true)
     public ApiResponse<BrandDTO> getBrandById(Long id) {
         try {
             Brand brand = brandRepository.findById(id)
@@ -113,6 +121,7 @@ public class BrandService {
             Brand savedBrand = brandRepository.save(brand);
             BrandDTO brandDTO = convertToDTO(savedBrand);
 
+            eventPublisher.publishEvent(new CatalogChangedEvent("brand"));
             return ApiResponse.success("Tạo thương hiệu thành công", brandDTO);
         } catch (DuplicateResourceException e) {
             return ApiResponse.error(e.getMessage());
@@ -143,6 +152,7 @@ public class BrandService {
             Brand updatedBrand = brandRepository.save(brand);
             BrandDTO brandDTO = convertToDTO(updatedBrand);
 
+            eventPublisher.publishEvent(new CatalogChangedEvent("brand"));
             return ApiResponse.success("Cập nhật thương hiệu thành công", brandDTO);
         } catch (ResourceNotFoundException | DuplicateResourceException e) {
             return ApiResponse.error(e.getMessage());
@@ -161,6 +171,7 @@ public class BrandService {
             // Hiện tại chưa có entity Product nên tạm thời bỏ qua
 
             brandRepository.delete(brand);
+            eventPublisher.publishEvent(new CatalogChangedEvent("brand"));
             return ApiResponse.success("Xóa thương hiệu thành công");
         } catch (ResourceNotFoundException e) {
             return ApiResponse.error(e.getMessage());
@@ -180,6 +191,7 @@ public class BrandService {
             BrandDTO brandDTO = convertToDTO(updatedBrand);
 
             String message = brand.getStatus() ? "Kích hoạt thương hiệu thành công" : "Vô hiệu hóa thương hiệu thành công";
+            eventPublisher.publishEvent(new CatalogChangedEvent("brand"));
             return ApiResponse.success(message, brandDTO);
         } catch (ResourceNotFoundException e) {
             return ApiResponse.error(e.getMessage());
@@ -189,6 +201,7 @@ public class BrandService {
     }
 
     // Lấy top thương hiệu theo số lượng sản phẩm
+    @Transactional(readOnly = true)
     public ApiResponse<List<BrandDTO>> getTopBrands(int limit) {
         try {
             Pageable pageable = PageRequest.of(0, limit);
@@ -4,6 +4,7 @@ import com.petshop.dto.*;
 import com.petshop.entity.*;
 import com.petshop.exception.ResourceNotFoundException;
 import com.petshop.repository.*;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -16,6 +17,7 @@ import java.util.stream.Collectors;
 
 @Service
 @Transactional
+@Timed(value = "petshop.service", extraTags = {"service", "cart"})
 public class CartService {
 
     @Autowired
@@ -4,10 +4,12 @@ import com.petshop.dto.ApiResponse;
 import com.petshop.dto.CategoryDTO;
 import com.petshop.dto.CategoryRequest;
 import com.petshop.entity.Category;
+import com.petshop.event.CatalogChangedEvent;
 import com.petshop.exception.ResourceNotFoundException;
 import com.petshop.exception.DuplicateResourceException;
 import com.petshop.repository.CategoryRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -23,10 +25,14 @@ import java.util.stream.Collectors;
 @Transactional
 public class CategoryService {
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Autowired
     private CategoryRepository categoryRepository;
 
     // Lấy tất cả danh mục với phân trang
+    @Transactional(readOnly = true)
     public ApiResponse<List<CategoryDTO>> getAllCategories(int page, int size, String search) {
         try {
             Pageable pageable = PageRequest.of(page, size);
@@ -62,6 +68,7 @@ public class CategoryService {
     }
 
     // Lấy tất cả danh mục hoạt động (không phân trang)
+    @Transactional(readOnly = true)
     public ApiResponse<List<CategoryDTO>> getActiveCategories() {
         try {
             List<Category> categories = categoryRepository.findByStatusOrderByCategoryNameAsc(true);
@@ -76,6 +83,7 @@ public class CategoryService {
     }
 
     // Lấy danh mục theo ID
+    @Transactional(readOnly = true)
     public ApiResponse<CategoryDTO> getCategoryById(Long id) {
         try {
             Category category = categoryRepository.findById(id)
@@ -106,6 +114,7 @@ public class CategoryService {
             Category savedCategory = categoryRepository.save(category);
             CategoryDTO categoryDTO = convertToDTO(savedCategory);
 
+            eventPublisher.publishEvent(new CatalogChangedEvent("category"));
             return ApiResponse.success("Tạo danh mục thành công", categoryDTO);
         } catch (DuplicateResourceException e) {
             return ApiResponse.error(e.getMessage());
@@ -134,6 +143,7 @@ public class CategoryService {
             Category updatedCategory = categoryRepository.save(category);
             CategoryDTO categoryDTO = convertToDTO(updatedCategory);
 
+            eventPublisher.publishEvent(new CatalogChangedEvent("category"));
             return ApiResponse.success("Cập nhật danh mục thành công", categoryDTO);
         } catch (ResourceNotFoundException | DuplicateResourceException e) {
             return ApiResponse.error(e.getMessage());
@@ -152,6 +162,7 @@ public class CategoryService {
             // Hiện tại chưa có entity Product nên tạm thời bỏ qua
 
             categoryRepository.delete(category);
+            eventPublisher.publishEvent(new CatalogChangedEvent("category"));
             return ApiResponse.success("Xóa danh mục thành công");
         } catch (ResourceNotFoundException e) {
             return ApiResponse.error(e.getMessage());
@@ -171,6 +182,7 @@ public class CategoryService {
             CategoryDTO categoryDTO = convertToDTO(updatedCategory);
 
             String message = category.getStatus() ? "Kích hoạt danh mục thành công" : "Vô hiệu hóa danh mục thành công";
+            eventPublisher.publishEvent(new CatalogChangedEvent("category"));
             return ApiResponse.success(message, categoryDTO);
         } catch (ResourceNotFoundException e) {
             return ApiResponse.error(e.getMessage());
@@ -180,6 +192,7 @@ public class CategoryService {
     }
 
     // Lấy sản phẩm theo danh mục (sẽ implement sau khi có Product entity)
+    @Transactional(readOnly = true)
     public ApiResponse<List<Object>> getProductsByCategory(Long categoryId) {
         try {
             Category category = categoryRepository.findById(categoryId)
@@ -0,0 +1,292 @@
+package com.petshop.service;
+
+import com.petshop.entity.IdempotencyRecord;
+import com.petshop.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Lưu response theo Idempotency-Key: tầng bộ nhớ (gồm cả yêu cầu đang xử lý) + bảng idempotency_record
+@Service
+public class IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Thời gian lưu response trong database
+    @Value("${petshop.app.idempotencyTtlMinutes:1440}")
+    private long ttlMinutes;
+
+    // Thời gian giữ response trong bộ nhớ (ngắn hơn, retry thường đến ngay sau lỗi timeout)
+    @Value("${petshop.app.idempotencyMemoryTtlSeconds:600}")
+    private long memoryTtlSeconds;
+
+    // Sau thời gian này một yêu cầu "đang xử lý" bị coi là đã chết (instance crash)
+    @Value("${petshop.app.idempotencyProcessingTimeoutSeconds:60}")
+    private long processingTimeoutSeconds;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private Counter persistedCounter;
+    private Counter notPersistedCounter;
+
+    @PostConstruct
+    public void init() {
+        persistedCounter = Counter.builder("petshop.idempotency.completions")
+                .tag("outcome", "persisted")
+                .description("Idempotent responses written to the idempotency_record table")
+                .register(meterRegistry);
+        notPersistedCounter = Counter.builder("petshop.idempotency.completions")
+                .tag("outcome", "not_persisted")
+                .description("Idempotent responses that could not be written; other instances see the key "
+                        + "as in progress until it expires")
+                .register(meterRegistry);
+    }
+
+    // Nhận xử lý một key: thực thi, phát lại response cũ, chờ yêu cầu đang chạy hoặc từ chối
+    public Claim claim(String key, String requestHash) {
+        Entry fresh = new Entry(requestHash);
+        Entry existing = entries.putIfAbsent(key, fresh);
+
+        if (existing != null) {
+            if (existing.isExpired(System.currentTimeMillis())) {
+                entries.remove(key, existing);
+                return claim(key, requestHash);
+            }
+            if (!existing.requestHash.equals(requestHash)) {
+                return Claim.mismatch();
+            }
+            return Claim.waitFor(existing.result);
+        }
+
+        // Chưa có ở instance này: kiểm tra bảng lưu trữ (instance khác hoặc sau khi khởi động lại)
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            Optional<IdempotencyRecord> stored = idempotencyRecordRepository.findByIdempotencyKey(key);
+
+            if (stored.isPresent() && stored.get().isExpired(now)) {
+                idempotencyRecordRepository.deleteByIdempotencyKey(key);
+                stored = Optional.empty();
+            }
+
+            if (stored.isPresent()) {
+                IdempotencyRecord record = stored.get();
+                if (!record.getRequestHash().equals(requestHash)) {
+                    release(key, fresh);
+                    return Claim.mismatch();
+                }
+                if (!record.isCompleted()) {
+                    release(key, fresh);
+                    return Claim.inProgress();
+                }
+
+                StoredResponse response = new StoredResponse(
+                        record.getStatusCode(), record.getContentType(), record.getResponseBody());
+                fresh.finish(response, memoryExpiry());
+                return Claim.replay(response);
+            }
+
+            idempotencyRecordRepository.saveAndFlush(
+                    new IdempotencyRecord(key, requestHash, now.plusSeconds(processingTimeoutSeconds)));
+            return Claim.execute();
+
+        } catch (DataIntegrityViolationException e) {
+            // Instance khác vừa nhận cùng key
+            release(key, fresh);
+            return Claim.inProgress();
+        } catch (RuntimeException e) {
+            release(key, fresh);
+            throw e;
+        }
+    }
+
+    // Lưu response của yêu cầu đã xử lý xong và đánh thức các yêu cầu trùng đang chờ.
+    // Trả về false nếu không ghi được vào database: instance này vẫn phát lại response từ bộ nhớ,
+    // nhưng instance khác thấy key "đang xử lý" cho đến khi hết processingTimeoutSeconds
+    public boolean complete(String key, StoredResponse response) {
+        LocalDateTime now = LocalDateTime.now();
+        boolean persisted;
+        try {
+            // 0 dòng: bản ghi đã bị xóa vì hết hạn trong lúc yêu cầu còn chạy
+            persisted = idempotencyRecordRepository.complete(key, response.getStatus(), response.getContentType(),
+                    response.getBody(), now.plusMinutes(ttlMinutes), now) > 0;
+            if (!persisted) {
+                logger.error("Idempotency record for a completed request no longer exists");
+            }
+        } catch (RuntimeException e) {
+            logger.error("Cannot persist idempotent response: {}", e.getMessage());
+            persisted = false;
+        }
+        (persisted ? persistedCounter : notPersistedCounter).increment();
+
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            entry.finish(response, memoryExpiry());
+        }
+        return persisted;
+    }
+
+    // Yêu cầu lỗi (5xx/exception): bỏ key để client có thể thử lại
+    public void abandon(String key) {
+        try {
+            idempotencyRecordRepository.deleteByIdempotencyKey(key);
+        } catch (RuntimeException e) {
+            logger.warn("Cannot release idempotency key: {}", e.getMessage());
+        }
+
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            entry.result.complete(null);
+        }
+    }
+
+    // Dọn các key đã hết hạn
+    @Scheduled(fixedDelayString = "${petshop.app.idempotencyCleanupIntervalMs:300000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        entries.entrySet().removeIf(e -> e.getValue().isExpired(now));
+
+        try {
+            int deleted = idempotencyRecordRepository.deleteExpired(LocalDateTime.now());
+            if (deleted > 0) {
+                logger.debug("Deleted {} expired idempotency records", deleted);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Cannot delete expired idempotency records: {}", e.getMessage());
+        }
+    }
+
+    // Helper methods
+
+    private void release(String key, Entry entry) {
+        entries.remove(key, entry);
+        entry.result.complete(null);
+    }
+
+    private long memoryExpiry() {
+        return System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(memoryTtlSeconds);
+    }
+
+    private static class Entry {
+        private final String requestHash;
+        private final CompletableFuture<StoredResponse> result = new CompletableFuture<>();
+        private volatile long expiresAtMillis = Long.MAX_VALUE;
+
+        Entry(String requestHash) {
+            this.requestHash = requestHash;
+        }
+
+        void finish(StoredResponse response, long expiresAtMillis) {
+            this.expiresAtMillis = expiresAtMillis;
+            result.complete(response);
+        }
+
+        boolean isExpired(long now) {
+            return expiresAtMillis < now;
+        }
+    }
+
+    // Response đã lưu (chỉ giữ status, content type và body)
+    public static class StoredResponse {
+        private final int status;
+        private final String contentType;
+        private final byte[] body;
+
+        public StoredResponse(int status, String contentType, byte[] body) {
+            this.status = status;
+            this.contentType = contentType;
+            this.body = body;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+    }
+
+    public static class Claim {
+
+        public enum Kind {
+            EXECUTE,      // Yêu cầu đầu tiên: xử lý bình thường
+            REPLAY,       // Đã có response: phát lại
+            WAIT,         // Yêu cầu trùng đang chạy ở instance này: chờ kết quả
+            IN_PROGRESS,  // Yêu cầu trùng đang chạy ở instance khác
+            MISMATCH      // Key đã dùng cho request body khác
+        }
+
+        private final Kind kind;
+        private final StoredResponse response;
+        private final CompletableFuture<StoredResponse> pending;
+
+        private Claim(Kind kind, StoredResponse response, CompletableFuture<StoredResponse> pending) {
+            this.kind = kind;
+            this.response = response;
+            this.pending = pending;
+        }
+
+        static Claim execute() {
+            return new Claim(Kind.EXECUTE, null, null);
+        }
+
+        static Claim replay(StoredResponse response) {
+            return new Claim(Kind.REPLAY, response, null);
+        }
+
+        static Claim waitFor(CompletableFuture<StoredResponse> pending) {
+            return new Claim(Kind.WAIT, null, pending);
+        }
+
+        static Claim inProgress() {
+            return new Claim(Kind.IN_PROGRESS, null, null);
+        }
+
+        static Claim mismatch() {
+            return new Claim(Kind.MISMATCH, null, null);
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public StoredResponse getResponse() {
+            return response;
+        }
+
+        // Chờ yêu cầu đầu tiên xong; null nếu yêu cầu đó thất bại (có thể thử nhận lại key)
+        public StoredResponse await(long timeoutMs) throws InterruptedException, TimeoutException {
+            try {
+                return pending.get(timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -1,24 +1,45 @@
 package com.petshop.service;
 
+import com.petshop.config.LaneRoutingDataSource;
 import com.petshop.dto.*;
 import com.petshop.entity.*;
+import com.petshop.event.OrderEventPublisher;
 import com.petshop.exception.ResourceNotFoundException;
+import com.petshop.exception.ServiceBusyException;
 import com.petshop.repository.*;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
+@Timed(value = "petshop.service", extraTags = {"service", "order"})
 public class OrderService {
 
     @Autowired
@@ -45,7 +66,41 @@ public class OrderService {
     @Autowired
     private PromotionService promotionService;
 
+    @Autowired
+    private OrderEventPublisher orderEventPublisher;
+
+    @Autowired
+    private StockStreamService stockStreamService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier("checkoutExecutor")
+    private TaskExecutor checkoutExecutor;
+
+    @Value("${petshop.app.checkoutReadTimeoutMs:2000}")
+    private long checkoutReadTimeoutMs;
+
+    private static final int CHECKOUT_RETRY_AFTER_SECONDS = 1;
+
+    // Thông báo của Hibernate khi transaction đã hết thời gian trước câu lệnh tiếp theo
+    private static final String HIBERNATE_TRANSACTION_TIMEOUT = "transaction timeout expired";
+
+    private TransactionTemplate readOnlyTransaction;
+    private TransactionTemplate writeTransaction;
+
+    @PostConstruct
+    public void initTransactionTemplates() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        // cancel() không dừng được truy vấn đang chạy trên checkoutExecutor; timeout của transaction giới hạn chúng
+        readOnlyTransaction.setTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(checkoutReadTimeoutMs)));
+        writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
     // Lấy tất cả đơn hàng (Admin/Employee)
+    @Transactional(readOnly = true)
     public ApiResponse<List<OrderDTO>> getAllOrders(int page, int size, String search, Order.OrderStatus status) {
         try {
             Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "orderDate"));
@@ -59,9 +114,7 @@ public class OrderService {
                 orderPage = orderRepository.findAll(pageable);
             }
 
-            List<OrderDTO> orderDTOs = orderPage.getContent().stream()
-                    .map(this::convertToDTO)
-                    .collect(Collectors.toList());
+            List<OrderDTO> orderDTOs = convertToDTOs(orderPage.getContent());
 
             Map<String, Object> metadata = new HashMap<>();
             metadata.put("totalElements", orderPage.getTotalElements());
@@ -81,6 +134,7 @@ public class OrderService {
     }
 
     // Lấy đơn hàng theo ID
+    @Transactional(readOnly = true)
     public ApiResponse<OrderDTO> getOrderById(Long orderId) {
         try {
             Order order = orderRepository.findById(orderId)
@@ -96,19 +150,19 @@ public class OrderService {
     }
 
     // Tạo đơn hàng mới
+    // Giai đoạn đọc (giỏ hàng, người dùng, địa chỉ, mã giảm giá) chạy song song, không giữ transaction;
+    // giai đoạn ghi chạy trong một transaction duy nhất
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ApiResponse<OrderDTO> createOrder(Long userId, CreateOrderRequest request) {
         try {
-            // Kiểm tra giỏ hàng
-            Cart cart = cartRepository.findByUserId(userId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Giỏ hàng trống"));
+            CheckoutData checkout = loadCheckoutData(userId, request);
 
-            List<CartItem> cartItems = cartItemRepository.findByUserId(userId);
-            if (cartItems.isEmpty()) {
+            if (checkout.cartItems.isEmpty()) {
                 return ApiResponse.error("Giỏ hàng trống");
             }
 
             // Kiểm tra tồn kho
-            for (CartItem item : cartItems) {
+            for (CartItem item : checkout.cartItems) {
                 Product product = item.getProduct();
                 if (!product.getStatus()) {
                     return ApiResponse.error("Sản phẩm " + product.getProductName() + " đã ngừng kinh doanh");
@@ -119,104 +173,152 @@ public class OrderService {
                 }
             }
 
-            User user = userRepository.findById(userId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy người dùng"));
+            if (checkout.address != null && !checkout.address.getUser().getId().equals(userId)) {
+                return ApiResponse.error("Địa chỉ không thuộc về bạn");
+            }
 
-            // Tạo đơn hàng
-            Order order = new Order(user);
-            order.setPaymentMethod(request.getPaymentMethod());
-            order.setNotes(request.getNotes());
+            return writeTransaction.execute(status -> placeOrder(userId, request, checkout, status));
 
-            // Set địa chỉ giao hàng
-            if (request.getAddressId() != null) {
-                Address address = addressRepository.findById(request.getAddressId())
-                        .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy địa chỉ"));
+        } catch (ResourceNotFoundException e) {
+            return ApiResponse.error(e.getMessage());
+        } catch (TimeoutException e) {
+            // Lỗi tạm thời: 503 kèm Retry-After (GlobalExceptionHandler) để client thử lại và không bị lưu theo Idempotency-Key
+            throw new ServiceBusyException("Hệ thống đang bận, vui lòng thử lại sau", CHECKOUT_RETRY_AFTER_SECONDS);
+        } catch (Exception e) {
+            return ApiResponse.error("Lỗi khi tạo đơn hàng: " + e.getMessage());
+        }
+    }
 
-                if (!address.getUser().getId().equals(userId)) {
-                    return ApiResponse.error("Địa chỉ không thuộc về bạn");
-                }
+    // Giai đoạn đọc của checkout: các truy vấn độc lập chạy đồng thời trên checkoutExecutor,
+    // mã giảm giá cần tạm tính nên chạy nối tiếp sau cart items
+    private CheckoutData loadCheckoutData(Long userId, CreateOrderRequest request) throws Exception {
+        CompletableFuture<List<CartItem>> itemsFuture =
+                readAsync(() -> cartItemRepository.findByUserIdWithProduct(userId));
 
-                order.setReceiverName(address.getReceiverName() != null ? address.getReceiverName() : user.getFullName());
-                order.setReceiverPhone(address.getReceiverPhone() != null ? address.getReceiverPhone() : user.getPhoneNumber());
-                order.setShippingAddress(address.getFullAddress());
-            } else {
-                order.setReceiverName(request.getReceiverName());
-                order.setReceiverPhone(request.getReceiverPhone());
-                order.setShippingAddress(request.getShippingAddress());
-            }
+        CompletableFuture<User> userFuture = readAsync(() -> userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy người dùng")));
 
-            // Tính tổng giá trị
-            BigDecimal subtotal = cartItems.stream()
-                    .map(CartItem::getSubtotal)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-            order.setSubtotal(subtotal);
-            order.setShippingFee(calculateShippingFee(subtotal));
-
-            // Áp dụng mã giảm giá nếu có
-            BigDecimal discount = BigDecimal.ZERO;
-            if (request.getCouponCode() != null && !request.getCouponCode().trim().isEmpty()) {
-                ValidateCouponRequest validateRequest = new ValidateCouponRequest();
-                validateRequest.setCouponCode(request.getCouponCode());
-                validateRequest.setOrderAmount(subtotal);
-                validateRequest.setUserId(userId);
-
-                ApiResponse<ValidateCouponResponse> validationResult = promotionService.validateCoupon(validateRequest);
-                if (validationResult.isSuccess() && validationResult.getData().isValid()) {
-                    discount = validationResult.getData().getDiscountAmount();
-                    order.setCouponCode(request.getCouponCode());
-                }
-            }
+        CompletableFuture<Address> addressFuture = request.getAddressId() == null
+                ? CompletableFuture.completedFuture(null)
+                : readAsync(() -> addressRepository.findByIdWithLocation(request.getAddressId())
+                        .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy địa chỉ")));
+
+        CompletableFuture<ValidateCouponResponse> couponFuture = itemsFuture.thenApplyAsync(items ->
+                readOnPrimary(() -> validateCoupon(userId, request.getCouponCode(), calculateSubtotal(items))),
+                checkoutExecutor);
 
-            order.setDiscount(discount);
-            order.calculateTotalAmount();
+        List<CompletableFuture<?>> tasks = List.of(itemsFuture, userFuture, addressFuture, couponFuture);
 
-            // Lưu đơn hàng
-            Order savedOrder = orderRepository.save(order);
+        // Một truy vấn lỗi thì hủy các truy vấn còn lại (chỉ bỏ các tác vụ chưa chạy; truy vấn đang chạy
+        // kết thúc theo timeout của readOnlyTransaction)
+        for (CompletableFuture<?> task : tasks) {
+            task.whenComplete((result, error) -> {
+                if (error != null) {
+                    tasks.forEach(sibling -> sibling.cancel(false));
+                }
+            });
+        }
 
-            // Tạo order items
-            List<OrderItem> orderItems = new ArrayList<>();
-            for (CartItem cartItem : cartItems) {
-                OrderItem orderItem = new OrderItem(savedOrder, cartItem.getProduct(), cartItem.getQuantity());
-                orderItems.add(orderItem);
+        try {
+            CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0]))
+                    .get(checkoutReadTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | InterruptedException e) {
+            tasks.forEach(task -> task.cancel(false));
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
             }
-            orderItemRepository.saveAll(orderItems);
-
-            // Cập nhật tồn kho
-            for (CartItem cartItem : cartItems) {
-                Product product = cartItem.getProduct();
-                product.setStock(product.getStock() - cartItem.getQuantity());
-                product.setSoldQuantity(product.getSoldQuantity() + cartItem.getQuantity());
-                productRepository.save(product);
+            throw e;
+        } catch (ExecutionException e) {
+            Exception cause = rootCause(tasks, e);
+            if (isTimeout(cause)) {
+                TimeoutException timeout = new TimeoutException("Checkout read transaction timed out");
+                timeout.initCause(cause);
+                throw timeout;
             }
+            throw cause;
+        }
+
+        return new CheckoutData(itemsFuture.join(), userFuture.join(), addressFuture.join(), couponFuture.join());
+    }
 
-            // Ghi nhận sử dụng coupon
-            if (discount.compareTo(BigDecimal.ZERO) > 0) {
-                promotionService.recordPromotionUsage(request.getCouponCode(), userId, savedOrder.getId(), discount, subtotal);
+    // Giai đoạn ghi của checkout (chạy trong writeTransaction)
+    private ApiResponse<OrderDTO> placeOrder(Long userId, CreateOrderRequest request,
+                                             CheckoutData checkout, TransactionStatus status) {
+        // Trừ tồn kho có điều kiện, theo thứ tự ID sản phẩm để tránh deadlock giữa các đơn đồng thời
+        List<CartItem> cartItems = new ArrayList<>(checkout.cartItems);
+        cartItems.sort(Comparator.comparing(item -> item.getProduct().getId()));
+        for (CartItem cartItem : cartItems) {
+            Product product = cartItem.getProduct();
+            if (productRepository.decrementStock(product.getId(), cartItem.getQuantity()) == 0) {
+                status.setRollbackOnly();
+                return ApiResponse.error("Sản phẩm " + product.getProductName() + " không đủ tồn kho");
             }
+        }
+        stockStreamService.markChanged(cartItems.stream()
+                .map(item -> item.getProduct().getId())
+                .collect(Collectors.toList()));
+
+        // Tạo đơn hàng
+        Order order = new Order(checkout.user);
+        order.setPaymentMethod(request.getPaymentMethod());
+        order.setNotes(request.getNotes());
+
+        // Set địa chỉ giao hàng
+        if (checkout.address != null) {
+            Address address = checkout.address;
+            order.setReceiverName(address.getReceiverName() != null ? address.getReceiverName() : checkout.user.getFullName());
+            order.setReceiverPhone(address.getReceiverPhone() != null ? address.getReceiverPhone() : checkout.user.getPhoneNumber());
+            order.setShippingAddress(address.getFullAddress());
+        } else {
+            order.setReceiverName(request.getReceiverName());
+            order.setReceiverPhone(request.getReceiverPhone());
+            order.setShippingAddress(request.getShippingAddress());
+        }
 
-            // Xóa giỏ hàng
-            cartItemRepository.deleteAllByUserId(userId);
-            cart.setTotalPrice(BigDecimal.ZERO);
-            cart.setTotalQuantity(0);
-            cart.setDiscount(BigDecimal.ZERO);
-            cart.setCouponCode(null);
-            cartRepository.save(cart);
+        // Tính tổng giá trị
+        BigDecimal subtotal = calculateSubtotal(cartItems);
+        order.setSubtotal(subtotal);
+        order.setShippingFee(calculateShippingFee(subtotal));
 
-            OrderDTO orderDTO = convertToDTO(savedOrder);
-            return ApiResponse.success("Tạo đơn hàng thành công", orderDTO);
+        // Áp dụng mã giảm giá nếu có
+        BigDecimal discount = BigDecimal.ZERO;
+        if (checkout.coupon != null && checkout.coupon.isValid()) {
+            discount = checkout.coupon.getDiscountAmount();
+            order.setCouponCode(request.getCouponCode());
+        }
 
-        } catch (ResourceNotFoundException e) {
-            return ApiResponse.error(e.getMessage());
-        } catch (Exception e) {
-            return ApiResponse.error("Lỗi khi tạo đơn hàng: " + e.getMessage());
+        order.setDiscount(discount);
+        order.calculateTotalAmount();
+
+        // Lưu đơn hàng
+        Order savedOrder = orderRepository.save(order);
+
+        // Tạo order items
+        List<OrderItem> orderItems = new ArrayList<>();
+        for (CartItem cartItem : cartItems) {
+            OrderItem orderItem = new OrderItem(savedOrder, cartItem.getProduct(), cartItem.getQuantity());
+            orderItems.add(orderItem);
         }
+        orderItemRepository.saveAll(orderItems);
+        orderEventPublisher.publish(savedOrder, null);
+
+        // Ghi nhận sử dụng coupon
+        if (discount.compareTo(BigDecimal.ZERO) > 0) {
+            promotionService.recordPromotionUsage(request.getCouponCode(), userId, savedOrder.getId(), discount, subtotal);
+        }
+
+        // Xóa giỏ hàng
+        cartItemRepository.deleteAllByUserId(userId);
+        cartRepository.resetTotalsByUserId(userId, LocalDateTime.now());
+
+        OrderDTO orderDTO = convertToDTO(savedOrder);
+        return ApiResponse.success("Tạo đơn hàng thành công", orderDTO);
     }
 
     // Cập nhật trạng thái đơn hàng
     public ApiResponse<OrderDTO> updateOrderStatus(Long orderId, UpdateOrderStatusRequest request) {
         try {
-            Order order = orderRepository.findById(orderId)
+            Order order = orderRepository.lockById(orderId)
                     .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy đơn hàng"));
 
             // Kiểm tra logic chuyển trạng thái
@@ -226,6 +328,7 @@ public class OrderService {
                         request.getStatus().getDisplayName());
             }
 
+            Order.OrderStatus previousStatus = order.getStatus();
             order.setStatus(request.getStatus());
             if (request.getNotes() != null) {
                 order.setNotes(request.getNotes());
@@ -235,6 +338,7 @@ public class OrderService {
             }
 
             Order updatedOrder = orderRepository.save(order);
+            orderEventPublisher.publish(updatedOrder, previousStatus);
             OrderDTO orderDTO = convertToDTO(updatedOrder);
 
             return ApiResponse.success("Cập nhật trạng thái đơn hàng thành công", orderDTO);
@@ -248,7 +352,7 @@ public class OrderService {
     // Hủy đơn hàng
     public ApiResponse<OrderDTO> cancelOrder(Long orderId, Long userId, CancelOrderRequest request) {
         try {
-            Order order = orderRepository.findById(orderId)
+            Order order = orderRepository.lockById(orderId)
                     .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy đơn hàng"));
 
             // Kiểm tra quyền hủy
@@ -260,19 +364,15 @@ public class OrderService {
                 return ApiResponse.error("Đơn hàng không thể hủy ở trạng thái hiện tại");
             }
 
+            Order.OrderStatus previousStatus = order.getStatus();
             order.setStatus(Order.OrderStatus.CANCELLED);
             order.setCancellationReason(request.getCancellationReason());
 
             // Hoàn lại tồn kho
-            List<OrderItem> orderItems = orderItemRepository.findByOrderIdOrderById(orderId);
-            for (OrderItem item : orderItems) {
-                Product product = item.getProduct();
-                product.setStock(product.getStock() + item.getQuantity());
-                product.setSoldQuantity(Math.max(0, product.getSoldQuantity() - item.getQuantity()));
-                productRepository.save(product);
-            }
+            releaseStock(Collections.singletonList(orderId));
 
             Order updatedOrder = orderRepository.save(order);
+            orderEventPublisher.publish(updatedOrder, previousStatus);
             OrderDTO orderDTO = convertToDTO(updatedOrder);
 
             return ApiResponse.success("Hủy đơn hàng thành công", orderDTO);
@@ -283,7 +383,27 @@ public class OrderService {
         }
     }
 
+    // Hoàn lại tồn kho cho các đơn hàng bị hủy: gộp số lượng theo sản phẩm,
+    // mỗi sản phẩm một câu UPDATE (theo thứ tự product id để tránh deadlock)
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void releaseStock(Collection<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> quantities = orderItemRepository.sumQuantityByProductForOrders(orderIds);
+        List<Long> productIds = new ArrayList<>(quantities.size());
+        for (Object[] row : quantities) {
+            Long productId = (Long) row[0];
+            int quantity = ((Number) row[1]).intValue();
+            productRepository.restoreStock(productId, quantity);
+            productIds.add(productId);
+        }
+        stockStreamService.markChanged(productIds);
+    }
+
     // Lấy đơn hàng của tôi
+    @Transactional(readOnly = true)
     public ApiResponse<List<OrderDTO>> getMyOrders(Long userId, int page, int size, Order.OrderStatus status) {
         try {
             Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "orderDate"));
@@ -295,9 +415,7 @@ public class OrderService {
                 orderPage = orderRepository.findByUserIdOrderByOrderDateDesc(userId, pageable);
             }
 
-            List<OrderDTO> orderDTOs = orderPage.getContent().stream()
-                    .map(this::convertToDTO)
-                    .collect(Collectors.toList());
+            List<OrderDTO> orderDTOs = convertToDTOs(orderPage.getContent());
 
             Map<String, Object> metadata = new HashMap<>();
             metadata.put("totalElements", orderPage.getTotalElements());
@@ -315,21 +433,28 @@ public class OrderService {
     }
 
     // Theo dõi đơn hàng
+    @Transactional(readOnly = true)
     public ApiResponse<OrderTrackingDTO> trackOrder(String orderCode) {
         try {
             Order order = orderRepository.findByOrderCode(orderCode)
                     .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy đơn hàng với mã: " + orderCode));
 
-            OrderTrackingDTO tracking = new OrderTrackingDTO();
-            tracking.setOrderCode(order.getOrderCode());
-            tracking.setCurrentStatus(order.getStatus());
-            tracking.setTrackingNumber(order.getTrackingNumber());
+            return ApiResponse.success("Lấy thông tin theo dõi đơn hàng thành công", convertToTrackingDTO(order));
+        } catch (ResourceNotFoundException e) {
+            return ApiResponse.error(e.getMessage());
+        } catch (Exception e) {
+            return ApiResponse.error("Lỗi khi theo dõi đơn hàng: " + e.getMessage());
+        }
+    }
 
-            // Tạo lịch sử trạng thái
-            List<OrderStatusHistoryDTO> statusHistory = createStatusHistory(order);
-            tracking.setStatusHistory(statusHistory);
+    // Theo dõi đơn hàng theo ID (không dựng OrderDTO đầy đủ)
+    @Transactional(readOnly = true)
+    public ApiResponse<OrderTrackingDTO> trackOrderById(Long orderId) {
+        try {
+            Order order = orderRepository.findById(orderId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy đơn hàng"));
 
-            return ApiResponse.success("Lấy thông tin theo dõi đơn hàng thành công", tracking);
+            return ApiResponse.success("Lấy thông tin theo dõi đơn hàng thành công", convertToTrackingDTO(order));
         } catch (ResourceNotFoundException e) {
             return ApiResponse.error(e.getMessage());
         } catch (Exception e) {
@@ -340,15 +465,17 @@ public class OrderService {
     // Xác nhận đơn hàng
     public ApiResponse<OrderDTO> confirmOrder(Long orderId) {
         try {
-            Order order = orderRepository.findById(orderId)
+            Order order = orderRepository.lockById(orderId)
                     .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy đơn hàng"));
 
             if (!order.canBeConfirmed()) {
                 return ApiResponse.error("Đơn hàng không thể xác nhận ở trạng thái hiện tại");
             }
 
+            Order.OrderStatus previousStatus = order.getStatus();
             order.setStatus(Order.OrderStatus.CONFIRMED);
             Order updatedOrder = orderRepository.save(order);
+            orderEventPublisher.publish(updatedOrder, previousStatus);
             OrderDTO orderDTO = convertToDTO(updatedOrder);
 
             return ApiResponse.success("Xác nhận đơn hàng thành công", orderDTO);
@@ -362,19 +489,21 @@ public class OrderService {
     // Giao hàng
     public ApiResponse<OrderDTO> shipOrder(Long orderId, String trackingNumber) {
         try {
-            Order order = orderRepository.findById(orderId)
+            Order order = orderRepository.lockById(orderId)
                     .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy đơn hàng"));
 
             if (!order.canBeShipped()) {
                 return ApiResponse.error("Đơn hàng không thể giao ở trạng thái hiện tại");
             }
 
+            Order.OrderStatus previousStatus = order.getStatus();
             order.setStatus(Order.OrderStatus.SHIPPING);
             if (trackingNumber != null) {
                 order.setTrackingNumber(trackingNumber);
             }
 
             Order updatedOrder = orderRepository.save(order);
+            orderEventPublisher.publish(updatedOrder, previousStatus);
             OrderDTO orderDTO = convertToDTO(updatedOrder);
 
             return ApiResponse.success("Cập nhật trạng thái giao hàng thành công", orderDTO);
@@ -385,20 +514,51 @@ public class OrderService {
         }
     }
 
+    // Xác nhận hàng loạt
+    public ApiResponse<List<BulkOrderResultDTO>> bulkConfirmOrders(List<Long> orderIds) {
+        try {
+            List<BulkOrderResultDTO> results = bulkTransition(orderIds, Collections.emptyMap(),
+                    Order.OrderStatus.PENDING, Order.OrderStatus.CONFIRMED);
+            return ApiResponse.success(bulkSummary("Đã xác nhận", results), results);
+        } catch (Exception e) {
+            // Lỗi được trả về dạng ApiResponse nên transaction không tự rollback: đánh dấu rollback để
+            // mã vận chuyển đã flush và câu UPDATE hàng loạt không bị commit
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return ApiResponse.error("Lỗi khi xác nhận đơn hàng: " + e.getMessage());
+        }
+    }
+
+    // Giao hàng hàng loạt
+    public ApiResponse<List<BulkOrderResultDTO>> bulkShipOrders(List<Long> orderIds, Map<Long, String> trackingNumbers) {
+        try {
+            List<BulkOrderResultDTO> results = bulkTransition(orderIds,
+                    trackingNumbers != null ? trackingNumbers : Collections.emptyMap(),
+                    Order.OrderStatus.CONFIRMED, Order.OrderStatus.SHIPPING);
+            return ApiResponse.success(bulkSummary("Đã giao", results), results);
+        } catch (Exception e) {
+            // Lỗi được trả về dạng ApiResponse nên transaction không tự rollback: đánh dấu rollback để
+            // mã vận chuyển đã flush và câu UPDATE hàng loạt không bị commit
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return ApiResponse.error("Lỗi khi cập nhật trạng thái giao hàng: " + e.getMessage());
+        }
+    }
+
     // Hoàn thành đơn hàng
     public ApiResponse<OrderDTO> completeOrder(Long orderId) {
         try {
-            Order order = orderRepository.findById(orderId)
+            Order order = orderRepository.lockById(orderId)
                     .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy đơn hàng"));
 
             if (!order.canBeCompleted()) {
                 return ApiResponse.error("Đơn hàng không thể hoàn thành ở trạng thái hiện tại");
             }
 
+            Order.OrderStatus previousStatus = order.getStatus();
             order.setStatus(Order.OrderStatus.COMPLETED);
             order.setPaymentStatus(Order.PaymentStatus.PAID);
 
             Order updatedOrder = orderRepository.save(order);
+            orderEventPublisher.publish(updatedOrder, previousStatus);
             OrderDTO orderDTO = convertToDTO(updatedOrder);
 
             return ApiResponse.success("Hoàn thành đơn hàng thành công", orderDTO);
@@ -410,6 +570,66 @@ public class OrderService {
     }
 
     // Helper methods
+    // Chuyển trạng thái hàng loạt: khóa các đơn hàng, ghi mã vận chuyển (JDBC batch),
+    // rồi một câu UPDATE có điều kiện WHERE status = :from AND id IN (...)
+    private List<BulkOrderResultDTO> bulkTransition(List<Long> orderIds, Map<Long, String> trackingNumbers,
+                                                    Order.OrderStatus from, Order.OrderStatus to) {
+        Set<Long> ids = new LinkedHashSet<>(orderIds);
+        Map<Long, Order> orders = new HashMap<>();
+        for (Order order : orderRepository.lockByIdIn(ids)) {
+            orders.put(order.getId(), order);
+        }
+
+        List<Order> eligible = new ArrayList<>();
+        Set<Long> eligibleIds = new HashSet<>();
+        for (Order order : orders.values()) {
+            if (order.getStatus() == from) {
+                String trackingNumber = trackingNumbers.get(order.getId());
+                if (trackingNumber != null) {
+                    order.setTrackingNumber(trackingNumber);
+                }
+                eligible.add(order);
+                eligibleIds.add(order.getId());
+            }
+        }
+
+        if (!eligible.isEmpty()) {
+            LocalDateTime now = LocalDateTime.now();
+            int updated = to == Order.OrderStatus.SHIPPING
+                    ? orderRepository.bulkShip(eligibleIds, from, to, now)
+                    : orderRepository.bulkConfirm(eligibleIds, from, to, now);
+            if (updated != eligible.size()) {
+                // Không xảy ra khi đã giữ khóa; nơi gọi rollback để không ghi sự kiện sai
+                throw new IllegalStateException("Trạng thái đơn hàng đã thay đổi, vui lòng thử lại");
+            }
+
+            // Persistence context đã được clear sau UPDATE: cập nhật bản sao trong bộ nhớ để ghi sự kiện
+            for (Order order : eligible) {
+                order.setStatus(to);
+                orderEventPublisher.publish(order, from);
+            }
+        }
+
+        List<BulkOrderResultDTO> results = new ArrayList<>();
+        for (Long id : ids) {
+            Order order = orders.get(id);
+            if (order == null) {
+                results.add(new BulkOrderResultDTO(id, null, false, null, "Không tìm thấy đơn hàng"));
+            } else if (eligibleIds.contains(id)) {
+                results.add(new BulkOrderResultDTO(id, order.getOrderCode(), true, to, null));
+            } else {
+                results.add(new BulkOrderResultDTO(id, order.getOrderCode(), false, order.getStatus(),
+                        "Không thể chuyển từ trạng thái " + order.getStatus().getDisplayName()));
+            }
+        }
+        return results;
+    }
+
+    private String bulkSummary(String action, List<BulkOrderResultDTO> results) {
+        long succeeded = results.stream().filter(BulkOrderResultDTO::isSuccess).count();
+        return action + " " + succeeded + "/" + results.size() + " đơn hàng";
+    }
+
 
     private boolean canChangeStatus(Order order, Order.OrderStatus newStatus) {
         Order.OrderStatus currentStatus = order.getStatus();
@@ -428,6 +648,67 @@ public class OrderService {
         }
     }
 
+    // Chạy một truy vấn đọc trên checkoutExecutor trong transaction read-only riêng
+    private <T> CompletableFuture<T> readAsync(Supplier<T> query) {
+        return CompletableFuture.supplyAsync(() -> readOnPrimary(query), checkoutExecutor);
+    }
+
+    // Checkout luôn đọc từ primary: giỏ hàng, tồn kho và lượt dùng mã giảm giá đọc từ replica trễ có thể
+    // tạo đơn trùng hoặc vượt giới hạn mã. Luồng checkoutExecutor không có SecurityContext nên
+    // read-your-writes theo người dùng không áp dụng được, phải ghim làn PRIMARY
+    private <T> T readOnPrimary(Supplier<T> query) {
+        return LaneRoutingDataSource.onPrimary(() -> readOnlyTransaction.execute(status -> query.get()));
+    }
+
+    // Lỗi gốc của tác vụ thất bại đầu tiên (bỏ qua các tác vụ bị hủy theo)
+    private Exception rootCause(List<CompletableFuture<?>> tasks, ExecutionException e) {
+        for (CompletableFuture<?> task : tasks) {
+            if (task.isCompletedExceptionally() && !task.isCancelled()) {
+                Throwable cause = task.exceptionNow();
+                if (cause instanceof Exception) {
+                    return (Exception) cause;
+                }
+            }
+        }
+        return e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+    }
+
+    // Truy vấn vượt timeout của readOnlyTransaction: tùy thời điểm Hibernate báo QueryTimeoutException hoặc
+    // TransactionException "transaction timeout expired" (Spring bọc thành JpaSystemException).
+    // Các TransactionException khác (commit/rollback lỗi, connection hỏng) là lỗi thật, không phải "bận"
+    private boolean isTimeout(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof QueryTimeoutException || cause instanceof TransactionTimedOutException) {
+                return true;
+            }
+            if (cause instanceof org.hibernate.TransactionException && cause.getMessage() != null
+                    && cause.getMessage().contains(HIBERNATE_TRANSACTION_TIMEOUT)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ValidateCouponResponse validateCoupon(Long userId, String couponCode, BigDecimal subtotal) {
+        if (couponCode == null || couponCode.trim().isEmpty()) {
+            return null;
+        }
+
+        ValidateCouponRequest validateRequest = new ValidateCouponRequest();
+        validateRequest.setCouponCode(couponCode);
+        validateRequest.setOrderAmount(subtotal);
+        validateRequest.setUserId(userId);
+
+        ApiResponse<ValidateCouponResponse> validationResult = promotionService.validateCoupon(validateRequest);
+        return validationResult.isSuccess() ? validationResult.getData() : null;
+    }
+
+    private BigDecimal calculateSubtotal(List<CartItem> cartItems) {
+        return cartItems.stream()
+                .map(CartItem::getSubtotal)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
     private BigDecimal calculateShippingFee(BigDecimal subtotal) {
         if (subtotal.compareTo(BigDecimal.valueOf(500000)) >= 0) {
             return BigDecimal.ZERO;
@@ -461,7 +742,37 @@ public class OrderService {
 
     // Convert methods
 
+    private OrderTrackingDTO convertToTrackingDTO(Order order) {
+        OrderTrackingDTO tracking = new OrderTrackingDTO();
+        tracking.setOrderCode(order.getOrderCode());
+        tracking.setCurrentStatus(order.getStatus());
+        tracking.setTrackingNumber(order.getTrackingNumber());
+
+        // Tạo lịch sử trạng thái
+        tracking.setStatusHistory(createStatusHistory(order));
+        return tracking;
+    }
+
     private OrderDTO convertToDTO(Order order) {
+        return convertToDTO(order, orderItemRepository.findByOrderIdOrderById(order.getId()));
+    }
+
+    // Chuyển một trang đơn hàng: items của cả trang được tải trong một truy vấn
+    private List<OrderDTO> convertToDTOs(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Long> orderIds = orders.stream().map(Order::getId).collect(Collectors.toList());
+        Map<Long, List<OrderItem>> itemsByOrderId = orderItemRepository.findByOrderIdIn(orderIds).stream()
+                .collect(Collectors.groupingBy(item -> item.getOrder().getId()));
+
+        return orders.stream()
+                .map(order -> convertToDTO(order, itemsByOrderId.getOrDefault(order.getId(), Collections.emptyList())))
+                .collect(Collectors.toList());
+    }
+
+    private OrderDTO convertToDTO(Order order, List<OrderItem> orderItems) {
         OrderDTO dto = new OrderDTO();
         dto.setId(order.getId());
         dto.setOrderCode(order.getOrderCode());
@@ -488,8 +799,6 @@ public class OrderService {
         dto.setShippingAddress(order.getShippingAddress());
         dto.setTrackingNumber(order.getTrackingNumber());
 
-        // Load order items
-        List<OrderItem> orderItems = orderItemRepository.findByOrderIdOrderById(order.getId());
         List<OrderItemDTO> itemDTOs = orderItems.stream()
                 .map(this::convertItemToDTO)
                 .collect(Collectors.toList());
@@ -512,4 +821,19 @@ public class OrderService {
         dto.setSubtotal(item.getSubtotal());
         return dto;
     }
-}
\ No newline at end of file
+
+    // Kết quả giai đoạn đọc của checkout
+    private static class CheckoutData {
+        private final List<CartItem> cartItems;
+        private final User user;
+        private final Address address;
+        private final ValidateCouponResponse coupon;
+
+        CheckoutData(List<CartItem> cartItems, User user, Address address, ValidateCouponResponse coupon) {
+            this.cartItems = cartItems;
+            this.user = user;
+            this.address = address;
+            this.coupon = coupon;
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package com.petshop.service;
+
+import com.petshop.dto.ApiResponse;
+import com.petshop.dto.OrderTrackingDTO;
+import com.petshop.entity.Order;
+import com.petshop.event.OrderEventSubscriber;
+import com.petshop.event.OrderLifecycleEvent;
+import com.petshop.repository.OrderRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Đẩy trạng thái đơn hàng qua Server-Sent Events thay cho polling /tracking.
+// Kết nối SSE là async servlet: kết nối nhàn rỗi không giữ luồng, chỉ tốn bộ nhớ cho emitter.
+// Việc gửi dữ liệu chạy trên sseExecutor (ít luồng) để client chậm không chặn OutboxRelay.
+// Sự kiện outbox chỉ được giao trên instance đã relay nó; khi chạy nhiều instance, client kết nối vào
+// instance khác nhận cập nhật qua resync định kỳ (chậm tối đa trackingStreamResyncMs).
+@Service
+public class OrderTrackingStreamService implements OrderEventSubscriber {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderTrackingStreamService.class);
+
+    public static final String TRACKING_EVENT = "tracking";
+
+    private static final int LOAD_CHUNK_SIZE = 500;
+    private static final int HEARTBEAT_CHUNK_SIZE = 200;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    @Qualifier("sseExecutor")
+    private TaskExecutor sseExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${petshop.app.trackingStreamTimeoutMs:1800000}")
+    private long streamTimeoutMs;
+
+    @Value("${petshop.app.trackingStreamMaxSubscribers:20000}")
+    private int maxSubscribers;
+
+    @Value("${petshop.app.sseSendTimeoutMs:10000}")
+    private long sendTimeoutMs;
+
+    // Người theo dõi theo từng đơn hàng
+    private final ConcurrentHashMap<Long, Subscription> subscriptions = new ConcurrentHashMap<>();
+
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("petshop.sse.subscribers", subscriberCount, AtomicInteger::get)
+                .tag("stream", "order-tracking")
+                .description("Open order tracking SSE connections")
+                .register(meterRegistry);
+    }
+
+    // Mở stream cho một đơn hàng; trả về null nếu không tìm thấy đơn hàng
+    public SseEmitter subscribe(Long orderId) throws Exception {
+        if (subscriberCount.get() >= maxSubscribers) {
+            throw new TaskRejectedException("Quá nhiều kết nối theo dõi đơn hàng");
+        }
+
+        SseEmitter emitter = createEmitter(streamTimeoutMs);
+        TrackingSubscriber subscriber = new TrackingSubscriber(orderId, emitter);
+        // Đăng ký trước khi đọc trạng thái: sự kiện đến trong lúc đọc vẫn được gửi cho client.
+        // Tạo và thêm trong cùng một thao tác trên map: unsubscribe có thể vừa bỏ Subscription rỗng khỏi map
+        Subscription subscription = subscriptions.compute(orderId, (id, existing) -> {
+            Subscription current = existing != null ? existing : new Subscription();
+            current.subscribers.add(subscriber);
+            return current;
+        });
+        subscriberCount.incrementAndGet();
+
+        Runnable remove = () -> unsubscribe(subscriber);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+
+        ApiResponse<OrderTrackingDTO> snapshot;
+        try {
+            snapshot = orderService.trackOrderById(orderId);
+        } catch (Exception e) {
+            unsubscribe(subscriber);
+            throw e;
+        }
+        if (!snapshot.isSuccess()) {
+            unsubscribe(subscriber);
+            return null;
+        }
+
+        // Gửi trạng thái hiện tại ngay khi kết nối; sau đó chỉ gửi khi trạng thái thay đổi
+        OrderTrackingDTO tracking = snapshot.getData();
+        subscription.remember(tracking);
+        emitter.send(SseEmitter.event().name(TRACKING_EVENT).data(tracking));
+        return emitter;
+    }
+
+    @Override
+    public void onOrderEvent(OrderLifecycleEvent event) {
+        Subscription subscription = subscriptions.get(event.getOrderId());
+        if (subscription == null || subscription.subscribers.isEmpty()) {
+            return;
+        }
+        if (!subscription.hasChanged(event.getStatus(), event.getTrackingNumber())) {
+            return;
+        }
+
+        // Không ném exception: SSE là best-effort, không được làm relay thử lại sự kiện
+        String eventId = event.getEventId() != null ? event.getEventId().toString() : null;
+        push(event.getOrderId(), subscription, eventId);
+    }
+
+    // Đồng bộ lại định kỳ: bắt các thay đổi được relay trên instance khác hoặc sửa trực tiếp trong database
+    @Scheduled(fixedDelayString = "${petshop.app.trackingStreamResyncMs:15000}")
+    public void resync() {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        try {
+            List<Long> ids = new ArrayList<>(subscriptions.keySet());
+            for (int from = 0; from < ids.size(); from += LOAD_CHUNK_SIZE) {
+                List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + LOAD_CHUNK_SIZE));
+                for (Object[] row : orderRepository.findTrackingStateByIdIn(chunk)) {
+                    Long orderId = (Long) row[0];
+                    Subscription subscription = subscriptions.get(orderId);
+                    if (subscription != null && subscription.hasChanged((Order.OrderStatus) row[1], (String) row[2])) {
+                        push(orderId, subscription, null);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Cannot resync order tracking streams: {}", e.getMessage());
+        }
+    }
+
+    // Heartbeat giữ kết nối qua proxy/load balancer và phát hiện client đã ngắt
+    @Scheduled(fixedDelayString = "${petshop.app.sseHeartbeatMs:25000}")
+    public void heartbeat() {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        // Chia thành nhiều task để một client chậm chỉ làm trễ heartbeat của nhóm nó
+        List<TrackingSubscriber> batch = new ArrayList<>(HEARTBEAT_CHUNK_SIZE);
+        for (Subscription subscription : subscriptions.values()) {
+            for (TrackingSubscriber subscriber : subscription.subscribers) {
+                // Client đang nhận dữ liệu thì không cần keepalive
+                if (tryMarkBusy(subscriber)) {
+                    batch.add(subscriber);
+                }
+                if (batch.size() >= HEARTBEAT_CHUNK_SIZE) {
+                    sendHeartbeats(batch);
+                    batch = new ArrayList<>(HEARTBEAT_CHUNK_SIZE);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            sendHeartbeats(batch);
+        }
+    }
+
+    // Tách riêng để test thay bằng emitter ghi lại các lần gửi
+    SseEmitter createEmitter(long timeoutMs) {
+        return new SseEmitter(timeoutMs);
+    }
+
+    // Helper methods
+
+    private void push(Long orderId, Subscription subscription, String eventId) {
+        try {
+            ApiResponse<OrderTrackingDTO> response = orderService.trackOrderById(orderId);
+            if (!response.isSuccess()) {
+                return;
+            }
+
+            OrderTrackingDTO tracking = response.getData();
+            subscription.remember(tracking);
+            for (TrackingSubscriber subscriber : subscription.subscribers) {
+                SseEmitter.SseEventBuilder builder = SseEmitter.event().name(TRACKING_EVENT).data(tracking);
+                if (eventId != null) {
+                    builder.id(eventId);
+                }
+                dispatch(subscriber, builder);
+            }
+        } catch (TaskRejectedException e) {
+            logger.warn("SSE executor is saturated, dropping tracking update for order {}", orderId);
+        } catch (Exception e) {
+            logger.warn("Cannot push tracking update for order {}: {}", orderId, e.getMessage());
+        }
+    }
+
+    // Mỗi client có nhiều nhất một lần gửi đang chờ: cập nhật đến khi client còn bận được gộp lại (giữ bản mới nhất),
+    // client bận quá sendTimeoutMs bị ngắt kết nối thay vì làm ứ sseExecutor
+    private void dispatch(TrackingSubscriber subscriber, SseEmitter.SseEventBuilder event) {
+        if (tryMarkBusy(subscriber)) {
+            execute(subscriber, event);
+            return;
+        }
+        subscriber.pending.set(event);
+
+        // Lần gửi trước có thể vừa kết thúc trước khi pending được đặt
+        if (subscriber.busySince.compareAndSet(0, System.nanoTime())) {
+            SseEmitter.SseEventBuilder pending = subscriber.pending.getAndSet(null);
+            if (pending != null) {
+                execute(subscriber, pending);
+            } else {
+                subscriber.busySince.set(0);
+            }
+        }
+    }
+
+    private void execute(TrackingSubscriber subscriber, SseEmitter.SseEventBuilder event) {
+        try {
+            sseExecutor.execute(() -> drain(subscriber, event));
+        } catch (TaskRejectedException e) {
+            subscriber.busySince.set(0);
+            throw e;
+        }
+    }
+
+    private void sendHeartbeats(List<TrackingSubscriber> batch) {
+        try {
+            sseExecutor.execute(() -> {
+                for (TrackingSubscriber subscriber : batch) {
+                    drain(subscriber, SseEmitter.event().comment("keepalive"));
+                }
+            });
+        } catch (TaskRejectedException e) {
+            batch.forEach(subscriber -> subscriber.busySince.set(0));
+            logger.warn("SSE executor is saturated, skipping tracking heartbeat");
+        }
+    }
+
+    // Chạy trên sseExecutor khi subscriber đã được đánh dấu bận; gửi tiếp bản cập nhật đến trong lúc gửi
+    private void drain(TrackingSubscriber subscriber, SseEmitter.SseEventBuilder first) {
+        SseEmitter.SseEventBuilder event = first;
+        while (event != null) {
+            if (!subscriber.active.get()) {
+                // Đã bị ngắt vì gửi quá chậm
+                subscriber.emitter.complete();
+                return;
+            }
+            try {
+                subscriber.emitter.send(event);
+            } catch (Exception e) {
+                // Client đã ngắt kết nối
+                unsubscribe(subscriber);
+                subscriber.emitter.completeWithError(e);
+                return;
+            }
+
+            event = subscriber.pending.getAndSet(null);
+            if (event == null) {
+                subscriber.busySince.set(0);
+                // Cập nhật đến ngay trước khi bỏ cờ bận: gửi tiếp nếu chưa có task khác nhận
+                event = subscriber.pending.getAndSet(null);
+                if (event != null && !subscriber.busySince.compareAndSet(0, System.nanoTime())) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // false nếu client đang có lần gửi chưa xong; ngắt client đã bận quá sendTimeoutMs
+    private boolean tryMarkBusy(TrackingSubscriber subscriber) {
+        long now = System.nanoTime();
+        if (subscriber.busySince.compareAndSet(0, now)) {
+            return true;
+        }
+        long busySince = subscriber.busySince.get();
+        if (busySince != 0 && now - busySince > TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs)
+                && unsubscribe(subscriber)) {
+            // Task đang gửi sẽ đóng emitter khi lần ghi bị chặn kết thúc
+            logger.debug("Dropping slow tracking subscriber for order {}", subscriber.orderId);
+        }
+        return false;
+    }
+
+    private boolean unsubscribe(TrackingSubscriber subscriber) {
+        if (!subscriber.active.compareAndSet(true, false)) {
+            return false;
+        }
+        subscriberCount.decrementAndGet();
+        subscriptions.computeIfPresent(subscriber.orderId, (id, subscription) -> {
+            subscription.subscribers.remove(subscriber);
+            return subscription.subscribers.isEmpty() ? null : subscription;
+        });
+        return true;
+    }
+
+    private static class Subscription {
+        private final Set<TrackingSubscriber> subscribers = ConcurrentHashMap.newKeySet();
+        private volatile Order.OrderStatus lastStatus;
+        private volatile String lastTrackingNumber;
+
+        boolean hasChanged(Order.OrderStatus status, String trackingNumber) {
+            return status != lastStatus || !Objects.equals(trackingNumber, lastTrackingNumber);
+        }
+
+        void remember(OrderTrackingDTO tracking) {
+            lastStatus = tracking.getCurrentStatus();
+            lastTrackingNumber = tracking.getTrackingNumber();
+        }
+    }
+
+    private static class TrackingSubscriber {
+        private final Long orderId;
+        private final SseEmitter emitter;
+        private final AtomicBoolean active = new AtomicBoolean(true);
+        // Thời điểm bắt đầu lần gửi đang chờ/đang chạy (System.nanoTime), 0 khi rảnh
+        private final AtomicLong busySince = new AtomicLong();
+        // Bản cập nhật mới nhất đến khi client còn bận
+        private final AtomicReference<SseEmitter.SseEventBuilder> pending = new AtomicReference<>();
+
+        TrackingSubscriber(Long orderId, SseEmitter emitter) {
+            this.orderId = orderId;
+            this.emitter = emitter;
+        }
+    }
+}
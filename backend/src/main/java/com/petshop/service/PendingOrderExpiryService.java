@@ -0,0 +1,120 @@
+package com.petshop.service;
+
+import com.petshop.entity.Order;
+import com.petshop.event.OrderEventPublisher;
+import com.petshop.repository.OrderRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Tự động hủy đơn hàng chờ xác nhận quá hạn và hoàn lại tồn kho.
+// Chạy theo từng lô nhỏ; khi nhiều instance cùng chạy chỉ instance giữ lease mới xử lý.
+@Service
+public class PendingOrderExpiryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PendingOrderExpiryService.class);
+
+    private static final String LEASE_NAME = "pending-order-expiry";
+    private static final String CANCELLATION_REASON = "Tự động hủy do quá hạn xác nhận";
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderEventPublisher orderEventPublisher;
+
+    @Autowired
+    private SchedulerLeaseService schedulerLeaseService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${petshop.app.pendingOrderTtlHours:48}")
+    private long pendingOrderTtlHours;
+
+    @Value("${petshop.app.pendingOrderExpiryChunkSize:100}")
+    private int chunkSize;
+
+    @Value("${petshop.app.pendingOrderExpiryMaxPerRun:5000}")
+    private int maxPerRun;
+
+    // Thời hạn lease phải dài hơn thời gian xử lý một lô cộng độ lệch đồng hồ giữa các instance
+    @Value("${petshop.app.pendingOrderExpiryLeaseSeconds:300}")
+    private long leaseSeconds;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelayString = "${petshop.app.pendingOrderExpiryIntervalMs:600000}",
+            initialDelayString = "${petshop.app.pendingOrderExpiryIntervalMs:600000}")
+    public void expireStalePendingOrders() {
+        Duration lease = Duration.ofSeconds(leaseSeconds);
+        if (!schedulerLeaseService.tryAcquire(LEASE_NAME, lease)) {
+            return;
+        }
+
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(pendingOrderTtlHours);
+        int expired = 0;
+        try {
+            while (expired < maxPerRun) {
+                int limit = Math.min(chunkSize, maxPerRun - expired);
+                Integer cancelled = transactionTemplate.execute(status -> expireChunk(cutoff, limit));
+                expired += cancelled;
+
+                // Hết đơn quá hạn, hoặc mất lease (instance khác đã nhận) thì dừng
+                if (cancelled < limit || !schedulerLeaseService.tryAcquire(LEASE_NAME, lease)) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Pending order expiry failed after {} orders: {}", expired, e.getMessage());
+        } finally {
+            schedulerLeaseService.release(LEASE_NAME);
+        }
+
+        if (expired > 0) {
+            logger.info("Expired {} pending orders placed before {}", expired, cutoff);
+        }
+    }
+
+    // Hủy một lô đơn hàng; các đơn đang bị giao dịch khác khóa được bỏ qua (SKIP LOCKED)
+    private int expireChunk(LocalDateTime cutoff, int limit) {
+        List<Order> orders = orderRepository.lockStalePendingOrders(cutoff, PageRequest.of(0, limit));
+        if (orders.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> orderIds = orders.stream()
+                .map(Order::getId)
+                .collect(Collectors.toList());
+        orderService.releaseStock(orderIds);
+
+        for (Order order : orders) {
+            Order.OrderStatus previousStatus = order.getStatus();
+            order.setStatus(Order.OrderStatus.CANCELLED);
+            order.setCancellationReason(CANCELLATION_REASON);
+            orderEventPublisher.publish(order, previousStatus);
+        }
+
+        return orders.size();
+    }
+}
@@ -0,0 +1,84 @@
+package com.petshop.service;
+
+import com.petshop.dto.ApiResponse;
+import com.petshop.dto.ProductDTO;
+import com.petshop.dto.ProductDetailDTO;
+import com.petshop.event.CatalogChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Cache ngắn hạn cho trang chi tiết sản phẩm, theo ID sản phẩm + version.
+// Version tăng khi sản phẩm/khuyến mãi thay đổi (sau commit), nên mọi entry cũ bị bỏ qua ngay;
+// TTL ngắn lo phần tồn kho/số lượng bán thay đổi do đơn hàng.
+@Component
+public class ProductDetailCache {
+
+    @Value("${petshop.app.productDetailCacheTtlMs:30000}")
+    private long ttlMs;
+
+    @Value("${petshop.app.productDetailCacheMaxEntries:10000}")
+    private int maxEntries;
+
+    private final AtomicLong version = new AtomicLong();
+
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    // Lấy version trước khi tải; put với version cũ sẽ không bao giờ được đọc lại
+    public long currentVersion() {
+        return version.get();
+    }
+
+    public ApiResponse<ProductDetailDTO> get(Long productId) {
+        Entry entry = entries.get(productId);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.version != version.get() || entry.expiresAt < System.currentTimeMillis()) {
+            entries.remove(productId, entry);
+            return null;
+        }
+        return entry.value;
+    }
+
+    // Sản phẩm trong entry còn hiệu lực (dùng lại cho truy vấn theo lô)
+    public ProductDTO getProduct(Long productId) {
+        ApiResponse<ProductDetailDTO> cached = get(productId);
+        return cached != null ? cached.getData().getProduct() : null;
+    }
+
+    public void put(Long productId, long loadedVersion, ApiResponse<ProductDetailDTO> value) {
+        if (loadedVersion != version.get() || entries.size() >= maxEntries) {
+            return;
+        }
+        entries.put(productId, new Entry(loadedVersion, System.currentTimeMillis() + ttlMs, value));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        version.incrementAndGet();
+        entries.clear();
+    }
+
+    @Scheduled(fixedDelayString = "${petshop.app.productDetailCacheTtlMs:30000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expiresAt < now);
+    }
+
+    private static class Entry {
+        private final long version;
+        private final long expiresAt;
+        private final ApiResponse<ProductDetailDTO> value;
+
+        Entry(long version, long expiresAt, ApiResponse<ProductDetailDTO> value) {
+            this.version = version;
+            this.expiresAt = expiresAt;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.petshop.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+@Service
+public class ProductImageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImageService.class);
+
+    public static final String URL_PREFIX = "/uploads/products/";
+    public static final String THUMBNAIL_SUFFIX = "_thumb";
+    public static final String MEDIUM_SUFFIX = "_medium";
+
+    // Tên file hợp lệ: <sha256>[_thumb|_medium].<ext>
+    private static final Pattern FILE_NAME_PATTERN =
+            Pattern.compile("^[0-9a-f]{64}(" + THUMBNAIL_SUFFIX + "|" + MEDIUM_SUFFIX + ")?\\.(jpg|png|gif|webp)$");
+
+    private static final Map<String, String> EXTENSIONS = Map.of(
+            "image/jpeg", ".jpg",
+            "image/jpg", ".jpg",
+            "image/png", ".png",
+            "image/gif", ".gif",
+            "image/webp", ".webp");
+
+    private static final Map<String, String> CONTENT_TYPES = Map.of(
+            ".jpg", "image/jpeg",
+            ".png", "image/png",
+            ".gif", "image/gif",
+            ".webp", "image/webp");
+
+    private static final long TRANSFER_CHUNK = 1024 * 1024;
+
+    @Value("${petshop.app.imageUploadDir:uploads/products}")
+    private String uploadDir;
+
+    @Value("${petshop.app.imageThumbnailSize:200}")
+    private int thumbnailSize;
+
+    @Value("${petshop.app.imageMediumSize:600}")
+    private int mediumSize;
+
+    @Autowired
+    @Qualifier("imageProcessingExecutor")
+    private TaskExecutor imageProcessingExecutor;
+
+    // Lưu ảnh theo nội dung (SHA-256): ảnh trùng nhau dùng chung một file
+    public String store(MultipartFile file) throws IOException {
+        String extension = EXTENSIONS.get(file.getContentType());
+        if (extension == null) {
+            throw new IllegalArgumentException("Định dạng ảnh không được hỗ trợ: " + file.getContentType());
+        }
+
+        Path directory = getUploadDirectory();
+        Files.createDirectories(directory);
+
+        Path tempFile = Files.createTempFile(directory, "upload-", ".tmp");
+        try {
+            MessageDigest digest = newSha256();
+
+            // Ghi file bằng NIO channel, tính hash đồng thời trong khi stream
+            try (InputStream inputStream = new DigestInputStream(file.getInputStream(), digest);
+                 ReadableByteChannel source = Channels.newChannel(inputStream);
+                 FileChannel target = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                long position = 0;
+                long transferred;
+                while ((transferred = target.transferFrom(source, position, TRANSFER_CHUNK)) > 0) {
+                    position += transferred;
+                }
+                target.force(false);
+            }
+
+            String hash = HexFormat.of().formatHex(digest.digest());
+            String fileName = hash + extension;
+            Path storedFile = directory.resolve(fileName);
+
+            if (!Files.exists(storedFile)) {
+                Files.move(tempFile, storedFile, StandardCopyOption.ATOMIC_MOVE);
+            }
+
+            scheduleVariants(storedFile, hash, extension);
+
+            return URL_PREFIX + fileName;
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    // Tìm file ảnh theo tên (chỉ chấp nhận tên dạng content-addressed)
+    public Path resolve(String fileName) {
+        if (fileName == null || !FILE_NAME_PATTERN.matcher(fileName).matches()) {
+            return null;
+        }
+        return getUploadDirectory().resolve(fileName);
+    }
+
+    // Tên file gốc của một biến thể (thumbnail/medium)
+    public String originalFileName(String fileName) {
+        return fileName.replace(THUMBNAIL_SUFFIX, "").replace(MEDIUM_SUFFIX, "");
+    }
+
+    public String contentTypeOf(String fileName) {
+        String extension = fileName.substring(fileName.lastIndexOf('.'));
+        return CONTENT_TYPES.getOrDefault(extension, "application/octet-stream");
+    }
+
+    // Helper methods
+
+    private void scheduleVariants(Path storedFile, String hash, String extension) {
+        Path directory = storedFile.getParent();
+        Path thumbnail = directory.resolve(hash + THUMBNAIL_SUFFIX + extension);
+        Path medium = directory.resolve(hash + MEDIUM_SUFFIX + extension);
+
+        if (Files.exists(thumbnail) && Files.exists(medium)) {
+            return;
+        }
+
+        try {
+            imageProcessingExecutor.execute(() -> generateVariants(storedFile, thumbnail, medium, extension));
+        } catch (TaskRejectedException e) {
+            // Hàng đợi đầy: bỏ qua, ảnh gốc vẫn được phục vụ
+            logger.warn("Image processing queue is full, skipping variants for {}", storedFile.getFileName());
+        }
+    }
+
+    private void generateVariants(Path source, Path thumbnail, Path medium, String extension) {
+        try {
+            BufferedImage image = ImageIO.read(source.toFile());
+            if (image == null) {
+                // Định dạng ImageIO không đọc được (ví dụ webp)
+                return;
+            }
+
+            String formatName = extension.substring(1);
+            writeVariant(image, thumbnailSize, thumbnail, formatName);
+            writeVariant(image, mediumSize, medium, formatName);
+        } catch (Exception e) {
+            logger.warn("Cannot generate image variants for {}: {}", source.getFileName(), e.getMessage());
+        }
+    }
+
+    private void writeVariant(BufferedImage image, int maxSize, Path target, String formatName) throws IOException {
+        if (Files.exists(target)) {
+            return;
+        }
+
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double scale = Math.min(1.0, (double) maxSize / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+
+        int imageType = "jpg".equals(formatName) ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB;
+        BufferedImage resized = new BufferedImage(targetWidth, targetHeight, imageType);
+        Graphics2D graphics = resized.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(image, 0, 0, targetWidth, targetHeight, null);
+        } finally {
+            graphics.dispose();
+        }
+
+        Path tempFile = Files.createTempFile(target.getParent(), "variant-", ".tmp");
+        try {
+            ImageIO.write(resized, formatName, tempFile.toFile());
+            Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private Path getUploadDirectory() {
+        return Paths.get(uploadDir).toAbsolutePath().normalize();
+    }
+
+    private MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -2,34 +2,51 @@ package com.petshop.service;
 
 import com.petshop.dto.*;
 import com.petshop.entity.*;
+import com.petshop.event.CatalogChangedEvent;
 import com.petshop.exception.ResourceNotFoundException;
 import com.petshop.exception.DuplicateResourceException;
 import com.petshop.repository.*;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.math.BigDecimal;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
+@Timed(value = "petshop.service", extraTags = {"service", "product"})
 public class ProductService {
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Autowired
     private ProductRepository productRepository;
 
@@ -42,9 +59,54 @@ public class ProductService {
     @Autowired
     private SizeRepository sizeRepository;
 
-    private static final String UPLOAD_DIR = "uploads/products/";
+    @Autowired
+    private ProductImageService productImageService;
+
+    @Autowired
+    private StockStreamService stockStreamService;
+
+    @Autowired
+    private PromotionService promotionService;
+
+    @Autowired
+    private ProductDetailCache productDetailCache;
+
+    @Autowired
+    @Qualifier("storefrontExecutor")
+    private TaskExecutor storefrontExecutor;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${petshop.app.productDetailRelatedCount:8}")
+    private int relatedProductCount;
+
+    @Value("${petshop.app.productBatchMaxIds:200}")
+    private int batchMaxIds;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    private SingleFlight<Long, ApiResponse<ProductDTO>> productLoads;
+
+    private SingleFlight<List<Object>, ApiResponse<List<ProductDTO>>> relatedLoads;
+
+    private SingleFlight<Long, ApiResponse<ProductDetailDTO>> detailLoads;
+
+    @PostConstruct
+    public void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+
+        productLoads = new SingleFlight<>("product", meterRegistry);
+        relatedLoads = new SingleFlight<>("related-products", meterRegistry);
+        detailLoads = new SingleFlight<>("product-detail", meterRegistry);
+    }
 
     // Lấy tất cả sản phẩm với phân trang và tìm kiếm
+    @Transactional(readOnly = true)
     public ApiResponse<List<ProductDTO>> getAllProducts(int page, int size, String search, Boolean status) {
         try {
             Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdDate"));
@@ -82,6 +144,7 @@ public class ProductService {
     }
 
     // Lọc sản phẩm theo nhiều tiêu chí
+    @Transactional(readOnly = true)
     public ApiResponse<List<ProductDTO>> filterProducts(ProductFilterRequest request) {
         try {
             // Tạo sort
@@ -126,7 +189,14 @@ public class ProductService {
     }
 
     // Lấy sản phẩm theo ID
+    // Các request đồng thời cho cùng một sản phẩm dùng chung một lần tải (single-flight);
+    // chạy ngoài transaction của class để luồng chờ không giữ connection
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ApiResponse<ProductDTO> getProductById(Long id) {
+        return productLoads.load(id, () -> readOnlyTransaction.execute(status -> loadProductById(id)));
+    }
+
+    private ApiResponse<ProductDTO> loadProductById(Long id) {
         try {
             Product product = productRepository.findById(id)
                     .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy sản phẩm với ID: " + id));
@@ -140,6 +210,120 @@ public class ProductService {
         }
     }
 
+    // Lấy nhiều sản phẩm theo danh sách ID, giữ nguyên thứ tự yêu cầu.
+    // Sản phẩm có trong cache chi tiết được dùng lại, phần còn lại tải bằng một câu truy vấn
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ApiResponse<List<ProductDTO>> getProductsByIds(List<Long> ids) {
+        try {
+            Set<Long> requestedIds = new LinkedHashSet<>(ids);
+            if (requestedIds.size() > batchMaxIds) {
+                return ApiResponse.error("Chỉ được lấy tối đa " + batchMaxIds + " sản phẩm mỗi lần");
+            }
+
+            Map<Long, ProductDTO> found = new HashMap<>();
+            List<Long> toLoad = new ArrayList<>();
+            for (Long id : requestedIds) {
+                ProductDTO cached = productDetailCache.getProduct(id);
+                if (cached != null) {
+                    found.put(id, cached);
+                } else {
+                    toLoad.add(id);
+                }
+            }
+            int cacheHits = found.size();
+
+            if (!toLoad.isEmpty()) {
+                List<ProductDTO> loaded = readOnlyTransaction.execute(status ->
+                        productRepository.findAllWithDetailsByIdIn(toLoad).stream()
+                                .map(this::convertToDTO)
+                                .collect(Collectors.toList()));
+                for (ProductDTO dto : loaded) {
+                    found.put(dto.getId(), dto);
+                }
+            }
+
+            List<ProductDTO> productDTOs = new ArrayList<>(requestedIds.size());
+            List<Long> missingIds = new ArrayList<>();
+            for (Long id : requestedIds) {
+                ProductDTO dto = found.get(id);
+                if (dto != null) {
+                    productDTOs.add(dto);
+                } else {
+                    missingIds.add(id);
+                }
+            }
+
+            Map<String, Object> metadata = new HashMap<>();
+            metadata.put("requested", requestedIds.size());
+            metadata.put("found", productDTOs.size());
+            metadata.put("missingIds", missingIds);
+            metadata.put("cacheHits", cacheHits);
+
+            ApiResponse<List<ProductDTO>> response = ApiResponse.success(
+                    "Lấy danh sách sản phẩm thành công", productDTOs);
+            response.setMetadata(metadata);
+
+            return response;
+        } catch (Exception e) {
+            return ApiResponse.error("Lỗi khi lấy danh sách sản phẩm: " + e.getMessage());
+        }
+    }
+
+    // Trang chi tiết sản phẩm: sản phẩm, sản phẩm liên quan và khuyến mãi trong một response.
+    // Ba phần được tải song song, mỗi phần một câu truy vấn; kết quả được cache ngắn hạn
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ApiResponse<ProductDetailDTO> getProductDetail(Long id) {
+        ApiResponse<ProductDetailDTO> cached = productDetailCache.get(id);
+        if (cached != null) {
+            return cached;
+        }
+
+        return detailLoads.load(id, () -> {
+            long version = productDetailCache.currentVersion();
+            ApiResponse<ProductDetailDTO> response = loadProductDetail(id);
+            if (response.isSuccess()) {
+                productDetailCache.put(id, version, response);
+            }
+            return response;
+        });
+    }
+
+    private ApiResponse<ProductDetailDTO> loadProductDetail(Long id) {
+        CompletableFuture<ProductDTO> product = CompletableFuture.supplyAsync(
+                () -> readOnlyTransaction.execute(status -> productRepository.findDetailById(id)
+                        .map(this::convertToDTO)
+                        .orElse(null)),
+                storefrontExecutor);
+        CompletableFuture<List<ProductDTO>> related = CompletableFuture.supplyAsync(
+                () -> readOnlyTransaction.execute(status -> productRepository
+                        .findRelatedProductsWithDetails(id, PageRequest.of(0, relatedProductCount)).stream()
+                        .map(this::convertToDTO)
+                        .collect(Collectors.toList())),
+                storefrontExecutor);
+        CompletableFuture<ApiResponse<List<PromotionDTO>>> promotions = CompletableFuture.supplyAsync(
+                () -> promotionService.getPromotionsForProduct(id),
+                storefrontExecutor);
+
+        try {
+            if (product.join() == null) {
+                related.cancel(true);
+                promotions.cancel(true);
+                return ApiResponse.error("Không tìm thấy sản phẩm với ID: " + id);
+            }
+
+            ApiResponse<List<PromotionDTO>> promotionResponse = promotions.join();
+            List<PromotionDTO> promotionDTOs = promotionResponse.isSuccess()
+                    ? promotionResponse.getData()
+                    : Collections.emptyList();
+
+            ProductDetailDTO detail = new ProductDetailDTO(product.join(), related.join(), promotionDTOs);
+            return ApiResponse.success("Lấy chi tiết sản phẩm thành công", detail);
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            return ApiResponse.error("Lỗi khi lấy chi tiết sản phẩm: " + cause.getMessage());
+        }
+    }
+
     // Tạo sản phẩm mới
     public ApiResponse<ProductDTO> createProduct(ProductRequest request) {
         try {
@@ -185,6 +369,7 @@ public class ProductService {
             Product savedProduct = productRepository.save(product);
             ProductDTO productDTO = convertToDTO(savedProduct);
 
+            eventPublisher.publishEvent(new CatalogChangedEvent("product"));
             return ApiResponse.success("Tạo sản phẩm thành công", productDTO);
         } catch (DuplicateResourceException | ResourceNotFoundException e) {
             return ApiResponse.error(e.getMessage());
@@ -247,8 +432,10 @@ public class ProductService {
             }
 
             Product updatedProduct = productRepository.save(product);
+            stockStreamService.markChanged(id);
             ProductDTO productDTO = convertToDTO(updatedProduct);
 
+            eventPublisher.publishEvent(new CatalogChangedEvent("product"));
             return ApiResponse.success("Cập nhật sản phẩm thành công", productDTO);
         } catch (ResourceNotFoundException | DuplicateResourceException e) {
             return ApiResponse.error(e.getMessage());
@@ -266,6 +453,7 @@ public class ProductService {
             // TODO: Kiểm tra xem sản phẩm có trong đơn hàng nào không trước khi xóa
 
             productRepository.delete(product);
+            eventPublisher.publishEvent(new CatalogChangedEvent("product"));
             return ApiResponse.success("Xóa sản phẩm thành công");
         } catch (ResourceNotFoundException e) {
             return ApiResponse.error(e.getMessage());
@@ -290,27 +478,19 @@ public class ProductService {
                 return ApiResponse.error("Chỉ chấp nhận file hình ảnh");
             }
 
-            // Tạo tên file unique
-            String fileName = UUID.randomUUID().toString() + "_" + file.getOriginalFilename();
-
-            // Tạo thư mục nếu chưa tồn tại
-            Path uploadPath = Paths.get(UPLOAD_DIR);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-            }
-
-            // Lưu file
-            Path filePath = uploadPath.resolve(fileName);
-            file.transferTo(filePath.toFile());
+            // Lưu file theo hash nội dung, thumbnail/medium được tạo ở background
+            String imageUrl = productImageService.store(file);
 
             // Cập nhật đường dẫn hình ảnh
-            String imageUrl = "/uploads/products/" + fileName;
             product.setImage(imageUrl);
             productRepository.save(product);
 
+            eventPublisher.publishEvent(new CatalogChangedEvent("product"));
             return ApiResponse.success("Upload hình ảnh thành công", imageUrl);
         } catch (ResourceNotFoundException e) {
             return ApiResponse.error(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(e.getMessage());
         } catch (IOException e) {
             return ApiResponse.error("Lỗi khi lưu file: " + e.getMessage());
         } catch (Exception e) {
@@ -326,8 +506,10 @@ public class ProductService {
 
             product.setStock(request.getStock());
             Product updatedProduct = productRepository.save(product);
+            stockStreamService.markChanged(id);
             ProductDTO productDTO = convertToDTO(updatedProduct);
 
+            eventPublisher.publishEvent(new CatalogChangedEvent("product"));
             return ApiResponse.success("Cập nhật tồn kho thành công", productDTO);
         } catch (ResourceNotFoundException e) {
             return ApiResponse.error(e.getMessage());
@@ -337,6 +519,7 @@ public class ProductService {
     }
 
     // Lấy sản phẩm sắp hết hàng
+    @Transactional(readOnly = true)
     public ApiResponse<List<ProductDTO>> getLowStockProducts(int page, int size) {
         try {
             Pageable pageable = PageRequest.of(page, size);
@@ -363,6 +546,7 @@ public class ProductService {
     }
 
     // Lấy sản phẩm bán chạy
+    @Transactional(readOnly = true)
     public ApiResponse<List<ProductDTO>> getBestSellingProducts(int page, int size) {
         try {
             Pageable pageable = PageRequest.of(page, size);
@@ -389,6 +573,7 @@ public class ProductService {
     }
 
     // Lấy sản phẩm nổi bật
+    @Transactional(readOnly = true)
     public ApiResponse<List<ProductDTO>> getFeaturedProducts(int page, int size) {
         try {
             Pageable pageable = PageRequest.of(page, size);
@@ -415,6 +600,7 @@ public class ProductService {
     }
 
     // Lấy sản phẩm khuyến mãi
+    @Transactional(readOnly = true)
     public ApiResponse<List<ProductDTO>> getProductsOnSale(int page, int size) {
         try {
             Pageable pageable = PageRequest.of(page, size);
@@ -440,8 +626,83 @@ public class ProductService {
         }
     }
 
+    // Lấy danh sách ô sản phẩm (view=tile) - cùng điều kiện lọc với getAllProducts
+    @Transactional(readOnly = true)
+    public ApiResponse<List<ProductTileDTO>> getProductTiles(int page, int size, String search, Boolean status) {
+        try {
+            Pageable pageable = PageRequest.of(page, size);
+            Page<ProductTileDTO> tilePage;
+
+            if (status != null) {
+                tilePage = productRepository.searchProductTiles(null, status, pageable);
+            } else if (search != null && !search.trim().isEmpty()) {
+                tilePage = productRepository.searchProductTiles(search.trim(), null, pageable);
+            } else {
+                tilePage = productRepository.searchProductTiles(null, null, pageable);
+            }
+
+            return tileResponse(tilePage, page, size, "Lấy danh sách sản phẩm thành công");
+        } catch (Exception e) {
+            return ApiResponse.error("Lỗi khi lấy danh sách sản phẩm: " + e.getMessage());
+        }
+    }
+
+    // Lấy ô sản phẩm bán chạy (view=tile)
+    @Transactional(readOnly = true)
+    public ApiResponse<List<ProductTileDTO>> getBestSellingProductTiles(int page, int size) {
+        try {
+            Page<ProductTileDTO> tilePage = productRepository.findBestSellingProductTiles(PageRequest.of(page, size));
+            return tileResponse(tilePage, page, size, "Lấy danh sách sản phẩm bán chạy thành công");
+        } catch (Exception e) {
+            return ApiResponse.error("Lỗi khi lấy danh sách sản phẩm bán chạy: " + e.getMessage());
+        }
+    }
+
+    // Lấy ô sản phẩm nổi bật (view=tile)
+    @Transactional(readOnly = true)
+    public ApiResponse<List<ProductTileDTO>> getFeaturedProductTiles(int page, int size) {
+        try {
+            Page<ProductTileDTO> tilePage = productRepository.findFeaturedProductTiles(PageRequest.of(page, size));
+            return tileResponse(tilePage, page, size, "Lấy danh sách sản phẩm nổi bật thành công");
+        } catch (Exception e) {
+            return ApiResponse.error("Lỗi khi lấy danh sách sản phẩm nổi bật: " + e.getMessage());
+        }
+    }
+
+    // Lấy ô sản phẩm đang khuyến mãi (view=tile)
+    @Transactional(readOnly = true)
+    public ApiResponse<List<ProductTileDTO>> getProductTilesOnSale(int page, int size) {
+        try {
+            Page<ProductTileDTO> tilePage = productRepository.findProductTilesOnSale(PageRequest.of(page, size));
+            return tileResponse(tilePage, page, size, "Lấy danh sách sản phẩm khuyến mãi thành công");
+        } catch (Exception e) {
+            return ApiResponse.error("Lỗi khi lấy danh sách sản phẩm khuyến mãi: " + e.getMessage());
+        }
+    }
+
+    private ApiResponse<List<ProductTileDTO>> tileResponse(Page<ProductTileDTO> tilePage, int page, int size, String message) {
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("totalElements", tilePage.getTotalElements());
+        metadata.put("totalPages", tilePage.getTotalPages());
+        metadata.put("currentPage", page);
+        metadata.put("pageSize", size);
+        metadata.put("hasNext", tilePage.hasNext());
+        metadata.put("hasPrevious", tilePage.hasPrevious());
+        metadata.put("view", "tile");
+
+        ApiResponse<List<ProductTileDTO>> response = ApiResponse.success(message, tilePage.getContent());
+        response.setMetadata(metadata);
+        return response;
+    }
+
     // Lấy sản phẩm liên quan
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ApiResponse<List<ProductDTO>> getRelatedProducts(Long productId, int page, int size) {
+        return relatedLoads.load(List.of(productId, page, size),
+                () -> readOnlyTransaction.execute(status -> loadRelatedProducts(productId, page, size)));
+    }
+
+    private ApiResponse<List<ProductDTO>> loadRelatedProducts(Long productId, int page, int size) {
         try {
             Pageable pageable = PageRequest.of(page, size);
             Page<Product> productPage = productRepository.findRelatedProducts(productId, pageable);
@@ -32,6 +32,7 @@ public class ProductTypeService {
     private CategoryRepository categoryRepository;
 
     // Lấy tất cả loại sản phẩm với phân trang và tìm kiếm
+    @Transactional(readOnly = true)
     public ApiResponse<List<ProductTypeDTO>> getAllProductTypes(int page, int size, String search, Boolean status, Long categoryId) {
         try {
             Pageable pageable = PageRequest.of(page, size);
@@ -71,6 +72,7 @@ public class ProductTypeService {
     }
 
     // Lấy loại sản phẩm hoạt động (không phân trang - cho dropdown)
+    @Transactional(readOnly = true)
     public ApiResponse<List<ProductTypeDTO>> getActiveProductTypes() {
         try {
             List<ProductType> productTypes = productTypeRepository.findByStatusOrderByProductTypeNameAsc(true);
@@ -85,6 +87,7 @@ public class ProductTypeService {
     }
 
     // Lấy loại sản phẩm theo danh mục
+    @Transactional(readOnly = true)
     public ApiResponse<List<ProductTypeDTO>> getProductTypesByCategory(Long categoryId) {
         try {
             List<ProductType> productTypes = productTypeRepository.findByCategoryIdAndStatusOrderByProductTypeNameAsc(categoryId, true);
@@ -99,6 +102,7 @@ public class ProductTypeService {
     }
 
     // Lấy loại sản phẩm theo ID
+    @Transactional(readOnly = true)
     public ApiResponse<ProductTypeDTO> getProductTypeById(Long id) {
         try {
             ProductType productType = productTypeRepository.findById(id)
@@ -217,6 +221,7 @@ public class ProductTypeService {
     }
 
     // Lấy loại sản phẩm theo type code
+    @Transactional(readOnly = true)
     public ApiResponse<List<ProductTypeDTO>> getProductTypesByType(Integer type) {
         try {
             List<ProductType> productTypes = productTypeRepository.findByTypeAndStatusOrderByProductTypeNameAsc(type, true);
@@ -2,10 +2,13 @@ package com.petshop.service;
 
 import com.petshop.dto.*;
 import com.petshop.entity.*;
+import com.petshop.event.CatalogChangedEvent;
 import com.petshop.exception.DuplicateResourceException;
 import com.petshop.exception.ResourceNotFoundException;
 import com.petshop.repository.*;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -21,8 +24,12 @@ import java.util.stream.Collectors;
 
 @Service
 @Transactional
+@Timed(value = "petshop.service", extraTags = {"service", "promotion"})
 public class PromotionService {
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Autowired
     private PromotionRepository promotionRepository;
 
@@ -42,6 +49,7 @@ public class PromotionService {
     private CategoryRepository categoryRepository;
 
     // Lấy tất cả khuyến mãi
+    @Transactional(readOnly = true)
     public ApiResponse<List<PromotionDTO>> getAllPromotions(int page, int size, String search, Boolean status) {
         try {
             Pageable pageable = PageRequest.of(page, size);
@@ -77,6 +85,7 @@ public class PromotionService {
     }
 
     // Lấy khuyến mãi theo ID
+    @Transactional(readOnly = true)
     public ApiResponse<PromotionDTO> getPromotionById(Long id) {
         try {
             Promotion promotion = promotionRepository.findById(id)
@@ -129,6 +138,7 @@ public class PromotionService {
             Promotion savedPromotion = promotionRepository.save(promotion);
             PromotionDTO promotionDTO = convertToDTO(savedPromotion);
 
+            eventPublisher.publishEvent(new CatalogChangedEvent("promotion"));
             return ApiResponse.success("Tạo khuyến mãi thành công", promotionDTO);
         } catch (DuplicateResourceException e) {
             return ApiResponse.error(e.getMessage());
@@ -177,6 +187,7 @@ public class PromotionService {
             Promotion updatedPromotion = promotionRepository.save(promotion);
             PromotionDTO promotionDTO = convertToDTO(updatedPromotion);
 
+            eventPublisher.publishEvent(new CatalogChangedEvent("promotion"));
             return ApiResponse.success("Cập nhật khuyến mãi thành công", promotionDTO);
         } catch (ResourceNotFoundException | DuplicateResourceException e) {
             return ApiResponse.error(e.getMessage());
@@ -198,6 +209,7 @@ public class PromotionService {
             }
 
             promotionRepository.delete(promotion);
+            eventPublisher.publishEvent(new CatalogChangedEvent("promotion"));
             return ApiResponse.success("Xóa khuyến mãi thành công");
         } catch (ResourceNotFoundException e) {
             return ApiResponse.error(e.getMessage());
@@ -206,7 +218,23 @@ public class PromotionService {
         }
     }
 
+    // Khuyến mãi đang áp dụng cho một sản phẩm (theo sản phẩm hoặc danh mục) - dùng cho badge trang chi tiết
+    @Transactional(readOnly = true)
+    public ApiResponse<List<PromotionDTO>> getPromotionsForProduct(Long productId) {
+        try {
+            List<PromotionDTO> promotionDTOs = promotionRepository
+                    .findActivePromotionsForProductOrCategory(productId, LocalDateTime.now()).stream()
+                    .map(this::convertToSummaryDTO)
+                    .collect(Collectors.toList());
+
+            return ApiResponse.success("Lấy danh sách khuyến mãi của sản phẩm thành công", promotionDTOs);
+        } catch (Exception e) {
+            return ApiResponse.error("Lỗi khi lấy danh sách khuyến mãi của sản phẩm: " + e.getMessage());
+        }
+    }
+
     // Lấy khuyến mãi đang hoạt động
+    @Transactional(readOnly = true)
     public ApiResponse<List<PromotionDTO>> getActivePromotions(int page, int size) {
         try {
             Pageable pageable = PageRequest.of(page, size);
@@ -242,6 +270,7 @@ public class PromotionService {
             PromotionDTO promotionDTO = convertToDTO(updatedPromotion);
 
             String message = promotion.getStatus() ? "Kích hoạt khuyến mãi thành công" : "Vô hiệu hóa khuyến mãi thành công";
+            eventPublisher.publishEvent(new CatalogChangedEvent("promotion"));
             return ApiResponse.success(message, promotionDTO);
         } catch (ResourceNotFoundException e) {
             return ApiResponse.error(e.getMessage());
@@ -251,6 +280,7 @@ public class PromotionService {
     }
 
     // Validate mã giảm giá
+    @Transactional(readOnly = true)
     public ApiResponse<ValidateCouponResponse> validateCoupon(ValidateCouponRequest request) {
         try {
             Promotion promotion = promotionRepository.findByCouponCode(request.getCouponCode().toUpperCase())
@@ -316,6 +346,7 @@ public class PromotionService {
     }
 
     // Lấy khuyến mãi có thể áp dụng cho user
+    @Transactional(readOnly = true)
     public ApiResponse<List<PromotionDTO>> getApplicablePromotions(Long userId) {
         try {
             boolean isNewCustomer = false;
@@ -375,6 +406,27 @@ public class PromotionService {
     // Convert methods
 
     private PromotionDTO convertToDTO(Promotion promotion) {
+        PromotionDTO dto = convertToSummaryDTO(promotion);
+
+        if (promotion.getApplicableProducts() != null) {
+            List<Long> productIds = promotion.getApplicableProducts().stream()
+                    .map(Product::getId)
+                    .collect(Collectors.toList());
+            dto.setApplicableProductIds(productIds);
+        }
+
+        if (promotion.getApplicableCategories() != null) {
+            List<Long> categoryIds = promotion.getApplicableCategories().stream()
+                    .map(Category::getId)
+                    .collect(Collectors.toList());
+            dto.setApplicableCategoryIds(categoryIds);
+        }
+
+        return dto;
+    }
+
+    // Chỉ các trường của khuyến mãi, không tải danh sách sản phẩm/danh mục áp dụng
+    private PromotionDTO convertToSummaryDTO(Promotion promotion) {
         PromotionDTO dto = new PromotionDTO();
         dto.setId(promotion.getId());
         dto.setPromotionName(promotion.getPromotionName());
@@ -393,20 +445,6 @@ public class PromotionService {
         dto.setApplicableType(promotion.getApplicableType());
         dto.setForNewCustomersOnly(promotion.getForNewCustomersOnly());
 
-        if (promotion.getApplicableProducts() != null) {
-            List<Long> productIds = promotion.getApplicableProducts().stream()
-                    .map(Product::getId)
-                    .collect(Collectors.toList());
-            dto.setApplicableProductIds(productIds);
-        }
-
-        if (promotion.getApplicableCategories() != null) {
-            List<Long> categoryIds = promotion.getApplicableCategories().stream()
-                    .map(Category::getId)
-                    .collect(Collectors.toList());
-            dto.setApplicableCategoryIds(categoryIds);
-        }
-
         return dto;
     }
 }
\ No newline at end of file
@@ -0,0 +1,232 @@
+package com.petshop.service;
+
+import com.petshop.event.CatalogChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPOutputStream;
+
+// Cache body JSON đã serialize (và bản gzip nén sẵn) cho các GET danh mục công khai, theo URI + query string.
+// Cùng cơ chế version với ProductDetailCache: mọi thay đổi sản phẩm/danh mục/thương hiệu/khuyến mãi
+// làm toàn bộ entry hết hiệu lực; TTL ngắn lo phần tồn kho thay đổi do đơn hàng.
+// Giới hạn theo cả số entry lẫn tổng số byte (body + gzip), vượt thì bỏ entry ít dùng gần đây nhất (LRU).
+@Component
+public class ResponseBodyCache {
+
+    private static final double EVICTION_TARGET_RATIO = 0.9;
+
+    @Value("${petshop.app.responseCacheTtlMs:30000}")
+    private long ttlMs;
+
+    @Value("${petshop.app.responseCacheMaxEntries:5000}")
+    private int maxEntries;
+
+    @Value("${petshop.app.responseCacheMaxBytes:67108864}")
+    private long maxBytes;
+
+    // Body nhỏ hơn ngưỡng này không đáng nén
+    @Value("${petshop.app.responseCacheGzipMinBytes:1024}")
+    private int gzipMinBytes;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final AtomicLong version = new AtomicLong();
+
+    // Đọc không khóa; thời điểm truy cập gần nhất lưu trong entry, việc bỏ entry LRU do một lượt dọn riêng đảm nhận
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final AtomicLong totalBytes = new AtomicLong();
+
+    // Chỉ một luồng chạy lượt dọn LRU; luồng khác gặp lúc đang dọn thì bỏ qua
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("petshop.responsecache.entries", this, ResponseBodyCache::size)
+                .description("Pre-serialized response bodies currently cached")
+                .register(meterRegistry);
+        Gauge.builder("petshop.responsecache.bytes", this, ResponseBodyCache::bytes)
+                .description("Bytes held by cached response bodies, including gzip copies")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    // Lấy version trước khi thực thi request; put với version cũ sẽ bị bỏ qua
+    public long currentVersion() {
+        return version.get();
+    }
+
+    public Entry get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.version != version.get() || entry.expiresAt < System.currentTimeMillis()) {
+            remove(key, entry);
+            return null;
+        }
+        entry.lastAccessNanos = System.nanoTime();
+        return entry;
+    }
+
+    public void put(String key, long loadedVersion, String contentType, byte[] body) {
+        if (loadedVersion != version.get()) {
+            return;
+        }
+        byte[] gzipBody = body.length >= gzipMinBytes ? gzip(body) : null;
+        Entry entry = new Entry(loadedVersion, System.currentTimeMillis() + ttlMs, contentType, body, gzipBody);
+        if (entry.bytes > maxBytes) {
+            return;
+        }
+
+        Entry previous = entries.put(key, entry);
+        totalBytes.addAndGet(entry.bytes - (previous != null ? previous.bytes : 0));
+        // Catalog vừa thay đổi giữa lần kiểm tra version và lúc ghi: entry không bao giờ được đọc, bỏ luôn
+        if (loadedVersion != version.get()) {
+            remove(key, entry);
+            return;
+        }
+        if (entries.size() > maxEntries || totalBytes.get() > maxBytes) {
+            evictLeastRecentlyUsed();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        version.incrementAndGet();
+        // Xóa từng entry (không clear) để bộ đếm byte khớp với các put đang chạy song song
+        entries.forEach(this::remove);
+    }
+
+    @Scheduled(fixedDelayString = "${petshop.app.responseCacheTtlMs:30000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        entries.forEach((key, entry) -> {
+            if (entry.expiresAt < now) {
+                remove(key, entry);
+            }
+        });
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long bytes() {
+        return totalBytes.get();
+    }
+
+    // Helper methods
+
+    // Chỉ trừ byte khi chính entry này được gỡ khỏi map, nên mỗi entry được trừ đúng một lần
+    private void remove(String key, Entry entry) {
+        if (entries.remove(key, entry)) {
+            totalBytes.addAndGet(-entry.bytes);
+        }
+    }
+
+    // Bỏ các entry ít dùng gần đây nhất cho đến khi còn 90% giới hạn, để không phải sắp xếp lại ở mỗi lần put
+    private void evictLeastRecentlyUsed() {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            int targetEntries = (int) (maxEntries * EVICTION_TARGET_RATIO);
+            long targetBytes = (long) (maxBytes * EVICTION_TARGET_RATIO);
+            if (entries.size() <= maxEntries && totalBytes.get() <= maxBytes) {
+                return;
+            }
+
+            List<Map.Entry<String, Entry>> candidates = new ArrayList<>(entries.entrySet());
+            candidates.sort(Comparator.comparingLong(candidate -> candidate.getValue().lastAccessNanos));
+            for (Map.Entry<String, Entry> candidate : candidates) {
+                if (entries.size() <= targetEntries && totalBytes.get() <= targetBytes) {
+                    break;
+                }
+                remove(candidate.getKey(), candidate.getValue());
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] compressed = out.toByteArray();
+        // Không lưu bản nén nếu không nhỏ hơn bản gốc
+        return compressed.length < body.length ? compressed : null;
+    }
+
+    // Response đã mã hóa sẵn: body gốc, bản gzip (có thể null) và ETag (CRC32 của body gốc). Hai bản là hai
+    // representation khác nhau nên bản gzip có ETag riêng (thêm hậu tố -gzip)
+    public static class Entry {
+        private final long version;
+        private final long expiresAt;
+        private final String contentType;
+        private final byte[] body;
+        private final byte[] gzipBody;
+        private final String etag;
+        private final String gzipEtag;
+        private final long bytes;
+        // Thời điểm đọc gần nhất, dùng cho lượt dọn LRU
+        private volatile long lastAccessNanos = System.nanoTime();
+
+        Entry(long version, long expiresAt, String contentType, byte[] body, byte[] gzipBody) {
+            this.version = version;
+            this.expiresAt = expiresAt;
+            this.contentType = contentType;
+            this.body = body;
+            this.gzipBody = gzipBody;
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            String tag = HexFormat.of().toHexDigits((int) crc.getValue()) + "-" + body.length;
+            this.etag = "\"" + tag + "\"";
+            this.gzipEtag = "\"" + tag + "-gzip\"";
+            this.bytes = body.length + (gzipBody != null ? gzipBody.length : 0);
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public byte[] getGzipBody() {
+            return gzipBody;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public String getGzipEtag() {
+            return gzipEtag;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.petshop.service;
+
+import com.petshop.repository.SchedulerLeaseRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Lease trong database cho tác vụ định kỳ khi chạy nhiều instance
+@Service
+@Transactional(propagation = Propagation.REQUIRES_NEW)
+public class SchedulerLeaseService {
+
+    // Định danh instance: tên JVM (pid@host) + hậu tố ngẫu nhiên
+    private final String instanceId = ManagementFactory.getRuntimeMXBean().getName()
+            + "-" + UUID.randomUUID().toString().substring(0, 8);
+
+    @Autowired
+    private SchedulerLeaseRepository schedulerLeaseRepository;
+
+    // Nhận hoặc gia hạn lease; false nếu instance khác đang giữ
+    public boolean tryAcquire(String name, Duration duration) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime leaseUntil = now.plus(duration);
+
+        if (schedulerLeaseRepository.tryAcquire(name, instanceId, leaseUntil, now) > 0) {
+            return true;
+        }
+
+        if (schedulerLeaseRepository.existsById(name)) {
+            return false;
+        }
+
+        // Lần chạy đầu tiên: tạo dòng lease đã hết hạn rồi nhận nó bằng cùng câu UPDATE có điều kiện,
+        // nên khi nhiều instance cùng tạo chỉ một instance nhận được
+        schedulerLeaseRepository.insertIfAbsent(name, now.minusSeconds(1));
+        return schedulerLeaseRepository.tryAcquire(name, instanceId, leaseUntil, now) > 0;
+    }
+
+    public void release(String name) {
+        schedulerLeaseRepository.release(name, instanceId, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,67 @@
+package com.petshop.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Gộp các lần tải trùng khóa đang chạy đồng thời: luồng đầu tiên thực thi loader,
+// các luồng đến sau chờ và dùng chung kết quả (kể cả exception). Không cache sau khi tải xong.
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter executedCounter;
+    private final Counter coalescedCounter;
+
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        executedCounter = Counter.builder("petshop.singleflight.loads")
+                .tag("name", name)
+                .tag("outcome", "executed")
+                .description("Loads executed by the first caller for a key")
+                .register(meterRegistry);
+        coalescedCounter = Counter.builder("petshop.singleflight.loads")
+                .tag("name", name)
+                .tag("outcome", "coalesced")
+                .description("Loads that joined an identical in-flight load")
+                .register(meterRegistry);
+    }
+
+    public V load(K key, Supplier<V> loader) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            coalescedCounter.increment();
+            return await(existing);
+        }
+
+        executedCounter.increment();
+        try {
+            V value = loader.get();
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    private V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
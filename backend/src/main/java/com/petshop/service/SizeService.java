@@ -27,6 +27,7 @@ public class SizeService {
     private SizeRepository sizeRepository;
 
     // Lấy tất cả kích cỡ với phân trang và tìm kiếm
+    @Transactional(readOnly = true)
     public ApiResponse<List<SizeDTO>> getAllSizes(int page, int size, String search, Boolean status) {
         try {
             Pageable pageable = PageRequest.of(page, size);
@@ -67,6 +68,7 @@ public class SizeService {
     }
 
     // Lấy kích cỡ hoạt động (không phân trang - cho dropdown)
+    @Transactional(readOnly = true)
     public ApiResponse<List<SizeDTO>> getActiveSizes() {
         try {
             List<Size> sizes = sizeRepository.findByStatusOrderByDisplayOrderAscSizeNameAsc(true);
@@ -81,6 +83,7 @@ public class SizeService {
     }
 
     // Lấy kích cỡ theo ID
+    @Transactional(readOnly = true)
     public ApiResponse<SizeDTO> getSizeById(Long id) {
         try {
             Size size = sizeRepository.findById(id)
@@ -200,6 +203,7 @@ public class SizeService {
     }
 
     // Lấy kích cỡ theo đơn vị
+    @Transactional(readOnly = true)
     public ApiResponse<List<SizeDTO>> getSizesByUnit(String unit) {
         try {
             List<Size> sizes = sizeRepository.findByUnitOrderByDisplayOrderAscSizeNameAsc(unit);
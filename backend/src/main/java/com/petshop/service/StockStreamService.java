@@ -0,0 +1,370 @@
+package com.petshop.service;
+
+import com.petshop.dto.StockLevelDTO;
+import com.petshop.repository.ProductRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Đẩy mức tồn kho qua Server-Sent Events cho trang sản phẩm và giỏ hàng.
+// Các thay đổi tồn kho chỉ đánh dấu sản phẩm "bẩn" (sau commit); flush định kỳ gộp mọi thay đổi
+// trong một cửa sổ debounce, đọc tồn kho bằng một câu truy vấn và gửi mỗi client một sự kiện.
+// Như OrderTrackingStreamService: mỗi client có nhiều nhất một lần gửi đang chờ trên sseExecutor, thay đổi đến khi
+// client còn bận được gộp lại (giữ mức tồn kho mới nhất của từng sản phẩm), client bận quá sseSendTimeoutMs bị ngắt.
+@Service
+public class StockStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockStreamService.class);
+
+    public static final String STOCK_EVENT = "stock";
+
+    private static final int LOAD_CHUNK_SIZE = 500;
+    private static final int HEARTBEAT_CHUNK_SIZE = 200;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    @Qualifier("sseExecutor")
+    private TaskExecutor sseExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${petshop.app.stockStreamTimeoutMs:1800000}")
+    private long streamTimeoutMs;
+
+    @Value("${petshop.app.stockStreamMaxSubscribers:20000}")
+    private int maxSubscribers;
+
+    @Value("${petshop.app.stockStreamMaxProducts:100}")
+    private int maxProductsPerSubscriber;
+
+    @Value("${petshop.app.sseSendTimeoutMs:10000}")
+    private long sendTimeoutMs;
+
+    // Người theo dõi theo từng sản phẩm
+    private final ConcurrentHashMap<Long, Set<StockSubscriber>> subscribers = new ConcurrentHashMap<>();
+
+    // Sản phẩm có tồn kho thay đổi từ lần flush trước
+    private final Set<Long> dirtyProductIds = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("petshop.sse.subscribers", subscriberCount, AtomicInteger::get)
+                .tag("stream", "stock")
+                .description("Open stock level SSE connections")
+                .register(meterRegistry);
+    }
+
+    // Mở stream cho một tập sản phẩm; gửi ngay tồn kho hiện tại
+    public SseEmitter subscribe(Collection<Long> productIds) throws Exception {
+        Set<Long> ids = new LinkedHashSet<>(productIds);
+        if (ids.isEmpty() || ids.size() > maxProductsPerSubscriber) {
+            throw new IllegalArgumentException("Số sản phẩm theo dõi phải từ 1 đến " + maxProductsPerSubscriber);
+        }
+        if (subscriberCount.get() >= maxSubscribers) {
+            throw new TaskRejectedException("Quá nhiều kết nối theo dõi tồn kho");
+        }
+
+        SseEmitter emitter = createEmitter(streamTimeoutMs);
+        StockSubscriber subscriber = new StockSubscriber(emitter, ids);
+        // Thêm bên trong compute: unsubscribe có thể vừa bỏ tập rỗng của sản phẩm khỏi map
+        for (Long productId : ids) {
+            subscribers.compute(productId, (id, set) -> {
+                Set<StockSubscriber> current = set != null ? set : ConcurrentHashMap.newKeySet();
+                current.add(subscriber);
+                return current;
+            });
+        }
+        subscriberCount.incrementAndGet();
+
+        Runnable remove = () -> unsubscribe(subscriber);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+
+        List<StockLevelDTO> levels;
+        try {
+            levels = loadStockLevels(ids);
+        } catch (Exception e) {
+            unsubscribe(subscriber);
+            throw e;
+        }
+        for (StockLevelDTO level : levels) {
+            subscriber.lastSent.put(level.getProductId(), level.getStock());
+        }
+        emitter.send(SseEmitter.event().name(STOCK_EVENT).data(levels));
+        // Thay đổi được flush giữa lúc đọc và lúc gửi ở trên có thể đã đến client trước bản đọc cũ hơn này:
+        // đọc lại ở lần flush tới, chỉ gửi nếu khác với bản client vừa nhận
+        dirtyProductIds.addAll(ids);
+        return emitter;
+    }
+
+    // Đánh dấu tồn kho đã thay đổi; nếu đang trong transaction thì chỉ đánh dấu sau khi commit
+    public void markChanged(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<Long> ids = new ArrayList<>(productIds);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dirtyProductIds.addAll(ids);
+                }
+            });
+        } else {
+            dirtyProductIds.addAll(productIds);
+        }
+    }
+
+    public void markChanged(Long productId) {
+        markChanged(Collections.singletonList(productId));
+    }
+
+    // Gửi các thay đổi đã gộp trong cửa sổ debounce
+    @Scheduled(fixedDelayString = "${petshop.app.stockStreamDebounceMs:1000}")
+    public void flush() {
+        if (dirtyProductIds.isEmpty()) {
+            return;
+        }
+
+        List<Long> changed = new ArrayList<>();
+        for (Iterator<Long> iterator = dirtyProductIds.iterator(); iterator.hasNext(); ) {
+            Long productId = iterator.next();
+            iterator.remove();
+            if (subscribers.containsKey(productId)) {
+                changed.add(productId);
+            }
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+
+        List<StockLevelDTO> levels;
+        try {
+            levels = loadStockLevels(changed);
+        } catch (Exception e) {
+            logger.warn("Cannot push stock updates: {}", e.getMessage());
+            return;
+        }
+
+        Map<StockSubscriber, List<StockLevelDTO>> updates = new HashMap<>();
+        for (StockLevelDTO level : levels) {
+            for (StockSubscriber subscriber : subscribers.getOrDefault(level.getProductId(), Collections.emptySet())) {
+                updates.computeIfAbsent(subscriber, s -> new ArrayList<>()).add(level);
+            }
+        }
+
+        int rejected = 0;
+        for (Map.Entry<StockSubscriber, List<StockLevelDTO>> update : updates.entrySet()) {
+            try {
+                offer(update.getKey(), update.getValue());
+            } catch (TaskRejectedException e) {
+                rejected++;
+            }
+        }
+        if (rejected > 0) {
+            logger.warn("SSE executor is saturated, delaying stock updates for {} subscribers", rejected);
+        }
+    }
+
+    // Đồng bộ lại định kỳ: bắt các thay đổi từ instance khác hoặc sửa trực tiếp trong database
+    @Scheduled(fixedDelayString = "${petshop.app.stockStreamResyncMs:30000}")
+    public void resync() {
+        dirtyProductIds.addAll(subscribers.keySet());
+    }
+
+    // Heartbeat giữ kết nối qua proxy/load balancer và phát hiện client đã ngắt
+    @Scheduled(fixedDelayString = "${petshop.app.sseHeartbeatMs:25000}")
+    public void heartbeat() {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        Set<StockSubscriber> all = new HashSet<>();
+        subscribers.values().forEach(all::addAll);
+
+        // Chia thành nhiều task để một client chậm chỉ làm trễ heartbeat của nhóm nó
+        List<StockSubscriber> batch = new ArrayList<>(HEARTBEAT_CHUNK_SIZE);
+        for (StockSubscriber subscriber : all) {
+            // Client đang nhận dữ liệu thì không cần keepalive
+            if (tryMarkBusy(subscriber)) {
+                batch.add(subscriber);
+            }
+            if (batch.size() >= HEARTBEAT_CHUNK_SIZE) {
+                sendHeartbeats(batch);
+                batch = new ArrayList<>(HEARTBEAT_CHUNK_SIZE);
+            }
+        }
+        if (!batch.isEmpty()) {
+            sendHeartbeats(batch);
+        }
+    }
+
+    // Tách riêng để test thay bằng emitter ghi lại các lần gửi
+    SseEmitter createEmitter(long timeoutMs) {
+        return new SseEmitter(timeoutMs);
+    }
+
+    // Helper methods
+
+    private List<StockLevelDTO> loadStockLevels(Collection<Long> productIds) {
+        List<Long> ids = new ArrayList<>(productIds);
+        List<StockLevelDTO> levels = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += LOAD_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + LOAD_CHUNK_SIZE));
+            for (Object[] row : productRepository.findStockByIdIn(chunk)) {
+                levels.add(new StockLevelDTO((Long) row[0], (Integer) row[1]));
+            }
+        }
+        return levels;
+    }
+
+    // Gộp thay đổi vào phần chờ gửi của client (bỏ qua mức tồn kho client đã có) và lên lịch gửi nếu client rảnh
+    private void offer(StockSubscriber subscriber, List<StockLevelDTO> levels) {
+        boolean changed = false;
+        for (StockLevelDTO level : levels) {
+            Integer previous = subscriber.lastSent.put(level.getProductId(), level.getStock());
+            if (!Objects.equals(previous, level.getStock())) {
+                subscriber.pending.put(level.getProductId(), level.getStock());
+                changed = true;
+            }
+        }
+        if (changed && tryMarkBusy(subscriber)) {
+            try {
+                sseExecutor.execute(() -> drain(subscriber, null));
+            } catch (TaskRejectedException e) {
+                // Giữ phần chờ gửi: đi cùng thay đổi tiếp theo
+                subscriber.busySince.set(0);
+                throw e;
+            }
+        }
+    }
+
+    private void sendHeartbeats(List<StockSubscriber> batch) {
+        try {
+            sseExecutor.execute(() -> {
+                for (StockSubscriber subscriber : batch) {
+                    drain(subscriber, SseEmitter.event().comment("keepalive"));
+                }
+            });
+        } catch (TaskRejectedException e) {
+            batch.forEach(subscriber -> subscriber.busySince.set(0));
+            logger.warn("SSE executor is saturated, skipping stock heartbeat");
+        }
+    }
+
+    // Chạy trên sseExecutor khi subscriber đã được đánh dấu bận: gửi first (nếu có) rồi mọi thay đổi đang chờ
+    private void drain(StockSubscriber subscriber, SseEmitter.SseEventBuilder first) {
+        SseEmitter.SseEventBuilder event = first != null ? first : takePending(subscriber);
+        while (event != null) {
+            if (!subscriber.active.get()) {
+                // Đã bị ngắt vì gửi quá chậm
+                subscriber.emitter.complete();
+                return;
+            }
+            try {
+                subscriber.emitter.send(event);
+            } catch (Exception e) {
+                // Client đã ngắt kết nối
+                unsubscribe(subscriber);
+                subscriber.emitter.completeWithError(e);
+                return;
+            }
+            event = nextPending(subscriber);
+        }
+    }
+
+    // Thay đổi chờ gửi tiếp theo; null sau khi đã bỏ cờ bận (thay đổi đến sau đó sẽ tự lên lịch gửi)
+    private SseEmitter.SseEventBuilder nextPending(StockSubscriber subscriber) {
+        while (true) {
+            SseEmitter.SseEventBuilder event = takePending(subscriber);
+            if (event != null) {
+                return event;
+            }
+            subscriber.busySince.set(0);
+            // Thay đổi đến ngay trước khi bỏ cờ bận: nhận lại cờ bận để gửi tiếp, trừ khi task khác đã nhận
+            if (subscriber.pending.isEmpty() || !subscriber.busySince.compareAndSet(0, System.nanoTime())) {
+                return null;
+            }
+        }
+    }
+
+    private SseEmitter.SseEventBuilder takePending(StockSubscriber subscriber) {
+        List<StockLevelDTO> levels = new ArrayList<>();
+        for (Map.Entry<Long, Integer> entry : subscriber.pending.entrySet()) {
+            if (subscriber.pending.remove(entry.getKey(), entry.getValue())) {
+                levels.add(new StockLevelDTO(entry.getKey(), entry.getValue()));
+            }
+        }
+        return levels.isEmpty() ? null : SseEmitter.event().name(STOCK_EVENT).data(levels);
+    }
+
+    // false nếu client đang có lần gửi chưa xong; ngắt client đã bận quá sendTimeoutMs
+    private boolean tryMarkBusy(StockSubscriber subscriber) {
+        long now = System.nanoTime();
+        if (subscriber.busySince.compareAndSet(0, now)) {
+            return true;
+        }
+        long busySince = subscriber.busySince.get();
+        if (busySince != 0 && now - busySince > TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs)
+                && unsubscribe(subscriber)) {
+            // Task đang gửi sẽ đóng emitter khi lần ghi bị chặn kết thúc
+            logger.debug("Dropping slow stock subscriber");
+        }
+        return false;
+    }
+
+    private boolean unsubscribe(StockSubscriber subscriber) {
+        if (!subscriber.active.compareAndSet(true, false)) {
+            return false;
+        }
+        subscriberCount.decrementAndGet();
+        for (Long productId : subscriber.productIds) {
+            subscribers.computeIfPresent(productId, (id, set) -> {
+                set.remove(subscriber);
+                return set.isEmpty() ? null : set;
+            });
+        }
+        return true;
+    }
+
+    private static class StockSubscriber {
+        private final SseEmitter emitter;
+        private final Set<Long> productIds;
+        private final AtomicBoolean active = new AtomicBoolean(true);
+        // Thời điểm bắt đầu lần gửi đang chờ/đang chạy (System.nanoTime), 0 khi rảnh
+        private final AtomicLong busySince = new AtomicLong();
+        // Tồn kho chờ gửi theo sản phẩm: thay đổi mới ghi đè thay đổi cũ chưa gửi
+        private final Map<Long, Integer> pending = new ConcurrentHashMap<>();
+        // Tồn kho đã gửi (hoặc đã xếp chờ gửi) cho client: bỏ qua thay đổi không làm đổi số lượng hiển thị
+        private final Map<Long, Integer> lastSent = new ConcurrentHashMap<>();
+
+        StockSubscriber(SseEmitter emitter, Set<Long> productIds) {
+            this.emitter = emitter;
+            this.productIds = productIds;
+        }
+    }
+}
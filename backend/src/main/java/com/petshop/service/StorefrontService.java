@@ -0,0 +1,223 @@
+package com.petshop.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petshop.dto.*;
+import com.petshop.event.CatalogChangedEvent;
+import com.petshop.exception.ServiceBusyException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+// Dữ liệu trang chủ gộp trong một response: các phần được tải song song, serialize sẵn thành JSON
+// và giữ trong bộ nhớ. Làm mới định kỳ và khi catalog thay đổi (gộp nhiều thay đổi trong một lần làm mới).
+@Service
+public class StorefrontService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StorefrontService.class);
+
+    private static final int STOREFRONT_RETRY_AFTER_SECONDS = 1;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private BrandService brandService;
+
+    @Autowired
+    private PromotionService promotionService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("storefrontExecutor")
+    private TaskExecutor storefrontExecutor;
+
+    @Value("${petshop.app.storefrontSectionSize:12}")
+    private int sectionSize;
+
+    @Value("${petshop.app.storefrontPromotionCount:10}")
+    private int promotionCount;
+
+    @Value("${petshop.app.storefrontLoadTimeoutMs:5000}")
+    private long loadTimeoutMs;
+
+    private volatile Snapshot snapshot;
+
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    // Không dùng synchronized: refresh chờ các phần tải song song khi đang giữ khóa, trên virtual thread
+    // synchronized sẽ ghim carrier thread suốt thời gian chờ (xem VirtualThreadPinningMonitor)
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    // Snapshot hiện tại; tải đồng bộ nếu chưa có (lần đầu sau khi khởi động)
+    public Snapshot getHomeSnapshot() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        refreshLock.lock();
+        try {
+            if (snapshot == null) {
+                refresh();
+            }
+            return snapshot;
+        } catch (Exception e) {
+            // Chưa có snapshot để trả: báo bận (503) như checkout, scheduler sẽ thử tải lại
+            logger.warn("Cannot load storefront snapshot: {}", e.getMessage());
+            dirty.set(true);
+            throw new ServiceBusyException("Hệ thống đang bận, vui lòng thử lại sau", STOREFRONT_RETRY_AFTER_SECONDS);
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        dirty.set(true);
+    }
+
+    // Chỉ đánh dấu sau commit; việc làm mới chạy trên luồng scheduler
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        dirty.set(true);
+    }
+
+    @Scheduled(fixedDelayString = "${petshop.app.storefrontDebounceMs:1000}")
+    public void refreshIfDirty() {
+        if (dirty.compareAndSet(true, false)) {
+            refreshSafely();
+        }
+    }
+
+    // Làm mới định kỳ: số lượng bán, khuyến mãi hết hạn... không phát sự kiện
+    @Scheduled(fixedDelayString = "${petshop.app.storefrontRefreshIntervalMs:60000}",
+            initialDelayString = "${petshop.app.storefrontRefreshIntervalMs:60000}")
+    public void refreshPeriodically() {
+        dirty.set(false);
+        refreshSafely();
+    }
+
+    // Helper methods
+
+    private void refreshSafely() {
+        try {
+            refreshLock.lock();
+            try {
+                refresh();
+            } finally {
+                refreshLock.unlock();
+            }
+        } catch (Exception e) {
+            // Giữ snapshot cũ nếu không tải được
+            logger.warn("Cannot refresh storefront snapshot: {}", e.getMessage());
+        }
+    }
+
+    private void refresh() {
+        CompletableFuture<ApiResponse<List<ProductDTO>>> featured =
+                load(() -> productService.getFeaturedProducts(0, sectionSize));
+        CompletableFuture<ApiResponse<List<ProductDTO>>> onSale =
+                load(() -> productService.getProductsOnSale(0, sectionSize));
+        CompletableFuture<ApiResponse<List<ProductDTO>>> bestSelling =
+                load(() -> productService.getBestSellingProducts(0, sectionSize));
+        CompletableFuture<ApiResponse<List<CategoryDTO>>> categories =
+                load(() -> categoryService.getActiveCategories());
+        CompletableFuture<ApiResponse<List<BrandDTO>>> brands =
+                load(() -> brandService.getActiveBrands());
+        CompletableFuture<ApiResponse<List<PromotionDTO>>> promotions =
+                load(() -> promotionService.getActivePromotions(0, promotionCount));
+
+        try {
+            CompletableFuture.allOf(featured, onSale, bestSelling, categories, brands, promotions)
+                    .get(loadTimeoutMs, TimeUnit.MILLISECONDS);
+
+            StorefrontHomeDTO home = new StorefrontHomeDTO();
+            home.setFeaturedProducts(dataOf(featured));
+            home.setOnSaleProducts(dataOf(onSale));
+            home.setBestSellingProducts(dataOf(bestSelling));
+            home.setCategories(dataOf(categories));
+            home.setBrands(dataOf(brands));
+            home.setPromotions(dataOf(promotions));
+
+            // Dữ liệu không đổi thì giữ snapshot cũ: ETag (và generatedAt) chỉ đổi khi nội dung đổi,
+            // client gửi If-None-Match tiếp tục nhận 304 qua các lần làm mới định kỳ
+            byte[] content = objectMapper.writeValueAsBytes(home);
+            Snapshot previous = snapshot;
+            if (previous != null && Arrays.equals(previous.content, content)) {
+                return;
+            }
+
+            home.setGeneratedAt(LocalDateTime.now());
+            byte[] body = objectMapper.writeValueAsBytes(
+                    ApiResponse.success("Lấy dữ liệu trang chủ thành công", home));
+            snapshot = new Snapshot(body, content);
+        } catch (Exception e) {
+            featured.cancel(true);
+            onSale.cancel(true);
+            bestSelling.cancel(true);
+            categories.cancel(true);
+            brands.cancel(true);
+            promotions.cancel(true);
+            throw new IllegalStateException("Storefront load failed: " + e.getMessage(), e);
+        }
+    }
+
+    private <T> CompletableFuture<ApiResponse<T>> load(Supplier<ApiResponse<T>> loader) {
+        return CompletableFuture.supplyAsync(loader, storefrontExecutor);
+    }
+
+    private <T> T dataOf(CompletableFuture<ApiResponse<T>> future) {
+        ApiResponse<T> response = future.join();
+        if (!response.isSuccess()) {
+            throw new IllegalStateException(response.getMessage());
+        }
+        return response.getData();
+    }
+
+    // JSON đã serialize cùng ETag (CRC32 của nội dung)
+    public static class Snapshot {
+        private final byte[] body;
+        private final String etag;
+        // Các phần dữ liệu (không có generatedAt) để so sánh giữa hai lần làm mới
+        private final byte[] content;
+
+        Snapshot(byte[] body, byte[] content) {
+            this.body = body;
+            this.content = content;
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            this.etag = "\"" + HexFormat.of().toHexDigits((int) crc.getValue()) + "-" + body.length + "\"";
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+    }
+}
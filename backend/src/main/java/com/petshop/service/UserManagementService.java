@@ -47,6 +47,7 @@ public class UserManagementService {
     // User Management
 
     // Lấy tất cả người dùng (Admin only)
+    @Transactional(readOnly = true)
     public ApiResponse<List<UserDTO>> getAllUsers(int page, int size, String search, String role, Boolean status) {
         try {
             Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdDate"));
@@ -85,6 +86,7 @@ public class UserManagementService {
     }
 
     // Lấy người dùng theo ID
+    @Transactional(readOnly = true)
     public ApiResponse<UserDTO> getUserById(Long id) {
         try {
             User user = userRepository.findById(id)
@@ -235,6 +237,7 @@ public class UserManagementService {
     // Address Management
 
     // Lấy địa chỉ của người dùng
+    @Transactional(readOnly = true)
     public ApiResponse<List<AddressDTO>> getUserAddresses(Long userId) {
         try {
             List<Address> addresses = addressRepository.findByUserIdOrderByIsDefaultDescCreatedAtDesc(userId);
@@ -390,6 +393,7 @@ public class UserManagementService {
     // Location Services
 
     // Lấy tất cả tỉnh/thành
+    @Transactional(readOnly = true)
     public ApiResponse<List<ProvinceDTO>> getAllProvinces() {
         try {
             List<Province> provinces = provinceRepository.findAllByOrderByProvinceNameAsc();
@@ -404,6 +408,7 @@ public class UserManagementService {
     }
 
     // Lấy quận/huyện theo tỉnh
+    @Transactional(readOnly = true)
     public ApiResponse<List<DistrictDTO>> getDistrictsByProvince(Long provinceId) {
         try {
             List<District> districts = districtRepository.findByProvinceIdOrderByDistrictNameAsc(provinceId);
@@ -418,6 +423,7 @@ public class UserManagementService {
     }
 
     // Lấy phường/xã theo quận
+    @Transactional(readOnly = true)
     public ApiResponse<List<WardDTO>> getWardsByDistrict(Long districtId) {
         try {
             List<Ward> wards = wardRepository.findByDistrictIdOrderByWardNameAsc(districtId);
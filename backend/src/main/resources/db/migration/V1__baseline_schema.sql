@@ -0,0 +1,276 @@
+-- Baseline schema (what spring.jpa.hibernate.ddl-auto=update used to create)
+-- Databases created before Flyway are baselined at version 1 and skip this script
+
+CREATE TABLE vai_tro (
+    ma_vai_tro  BIGINT NOT NULL AUTO_INCREMENT,
+    ten_vai_tro VARCHAR(50),
+    PRIMARY KEY (ma_vai_tro)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE nguoi_dung (
+    ma_tai_khoan  BIGINT NOT NULL AUTO_INCREMENT,
+    ten           VARCHAR(255),
+    gmail         VARCHAR(255),
+    ten_tai_khoan VARCHAR(255),
+    mat_khau      VARCHAR(255),
+    ngay_tao      DATE,
+    vai_tro       BIGINT,
+    ngay_sinh     DATE,
+    gioi_tinh     BIT,
+    cccd          VARCHAR(255),
+    sdt           VARCHAR(255),
+    trang_thai    BIT,
+    PRIMARY KEY (ma_tai_khoan),
+    CONSTRAINT fk_nguoi_dung_vai_tro FOREIGN KEY (vai_tro) REFERENCES vai_tro (ma_vai_tro)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE tinh (
+    ma_tinh  BIGINT NOT NULL AUTO_INCREMENT,
+    ten_tinh VARCHAR(50),
+    PRIMARY KEY (ma_tinh)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE huyen (
+    ma_huyen  BIGINT NOT NULL AUTO_INCREMENT,
+    ten_huyen VARCHAR(50),
+    ma_tinh   BIGINT,
+    PRIMARY KEY (ma_huyen),
+    CONSTRAINT fk_huyen_tinh FOREIGN KEY (ma_tinh) REFERENCES tinh (ma_tinh)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE xa (
+    ma_xa    BIGINT NOT NULL AUTO_INCREMENT,
+    ten_xa   VARCHAR(50),
+    ma_huyen BIGINT,
+    PRIMARY KEY (ma_xa),
+    CONSTRAINT fk_xa_huyen FOREIGN KEY (ma_huyen) REFERENCES huyen (ma_huyen)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE dia_chi (
+    id             BIGINT NOT NULL AUTO_INCREMENT,
+    created_at     DATETIME(6),
+    updated_at     DATETIME(6),
+    ghi_chu        VARCHAR(500),
+    ma_tai_khoan   BIGINT,
+    ma_tinh        BIGINT,
+    ma_huyen       BIGINT,
+    ma_xa          BIGINT,
+    is_default     BIT,
+    street_address VARCHAR(100),
+    receiver_name  VARCHAR(50),
+    receiver_phone VARCHAR(15),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_dia_chi_nguoi_dung FOREIGN KEY (ma_tai_khoan) REFERENCES nguoi_dung (ma_tai_khoan),
+    CONSTRAINT fk_dia_chi_tinh FOREIGN KEY (ma_tinh) REFERENCES tinh (ma_tinh),
+    CONSTRAINT fk_dia_chi_huyen FOREIGN KEY (ma_huyen) REFERENCES huyen (ma_huyen),
+    CONSTRAINT fk_dia_chi_xa FOREIGN KEY (ma_xa) REFERENCES xa (ma_xa)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE danh_muc (
+    ma_danh_muc  BIGINT NOT NULL AUTO_INCREMENT,
+    ten_danh_muc VARCHAR(255),
+    mo_ta        VARCHAR(255),
+    trang_thai   BIT,
+    PRIMARY KEY (ma_danh_muc)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE loai_san_pham (
+    ma_loai           BIGINT NOT NULL AUTO_INCREMENT,
+    ten_loai_san_pham VARCHAR(50),
+    loai              INT,
+    ma_danh_muc       BIGINT,
+    mo_ta             VARCHAR(500),
+    trang_thai        BIT,
+    PRIMARY KEY (ma_loai),
+    CONSTRAINT fk_loai_san_pham_danh_muc FOREIGN KEY (ma_danh_muc) REFERENCES danh_muc (ma_danh_muc)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE thuong_hieu (
+    ma_thuong_hieu  BIGINT NOT NULL AUTO_INCREMENT,
+    ten_thuong_hieu VARCHAR(50),
+    mo_ta           VARCHAR(500),
+    logo_url        VARCHAR(255),
+    website         VARCHAR(255),
+    trang_thai      BIT,
+    PRIMARY KEY (ma_thuong_hieu),
+    CONSTRAINT uk_thuong_hieu_ten UNIQUE (ten_thuong_hieu)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE kich_co (
+    ma_kich_co  BIGINT NOT NULL AUTO_INCREMENT,
+    ten_kich_co VARCHAR(50),
+    mo_ta       VARCHAR(500),
+    gia_tri     VARCHAR(20),
+    don_vi      VARCHAR(10),
+    thu_tu      INT,
+    trang_thai  BIT,
+    PRIMARY KEY (ma_kich_co),
+    CONSTRAINT uk_kich_co_ten UNIQUE (ten_kich_co)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE san_pham (
+    id                  BIGINT NOT NULL AUTO_INCREMENT,
+    created_at          DATETIME(6),
+    updated_at          DATETIME(6),
+    ten_san_pham        VARCHAR(500),
+    mo_ta               TEXT,
+    hinh_anh            VARCHAR(200),
+    ngay_tao            DATETIME(6),
+    gia_san_pham        DECIMAL(10, 2),
+    ma_loai             BIGINT,
+    ma_kich_co          BIGINT,
+    ma_thuong_hieu      BIGINT,
+    ton_kho             INT,
+    sku                 VARCHAR(100),
+    trang_thai          BIT,
+    featured            BIT,
+    sale_price          DECIMAL(10, 2),
+    weight              DECIMAL(8, 2),
+    dimensions          VARCHAR(100),
+    meta_title          VARCHAR(255),
+    meta_description    VARCHAR(500),
+    tags                VARCHAR(500),
+    sold_quantity       INT,
+    low_stock_threshold INT,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_san_pham_sku UNIQUE (sku),
+    CONSTRAINT fk_san_pham_loai FOREIGN KEY (ma_loai) REFERENCES loai_san_pham (ma_loai),
+    CONSTRAINT fk_san_pham_kich_co FOREIGN KEY (ma_kich_co) REFERENCES kich_co (ma_kich_co),
+    CONSTRAINT fk_san_pham_thuong_hieu FOREIGN KEY (ma_thuong_hieu) REFERENCES thuong_hieu (ma_thuong_hieu)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE gio_hang (
+    id            BIGINT NOT NULL AUTO_INCREMENT,
+    created_at    DATETIME(6),
+    updated_at    DATETIME(6),
+    ma_tai_khoan  BIGINT,
+    tong_gia      DECIMAL(10, 2),
+    tong_so_luong INT,
+    giam_gia      DECIMAL(10, 2),
+    ma_giam_gia   VARCHAR(50),
+    ngay_cap_nhat DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_gio_hang_nguoi_dung FOREIGN KEY (ma_tai_khoan) REFERENCES nguoi_dung (ma_tai_khoan)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE chi_tiet_gio_hang (
+    id                           BIGINT NOT NULL AUTO_INCREMENT,
+    created_at                   DATETIME(6),
+    updated_at                   DATETIME(6),
+    ma_gio_hang                  BIGINT,
+    ma_san_pham                  BIGINT,
+    so_luong                     INT,
+    gia_tai_thoi_diem            DECIMAL(10, 2),
+    gia_khuyen_mai_tai_thoi_diem DECIMAL(10, 2),
+    thanh_tien                   DECIMAL(10, 2),
+    ngay_them                    DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_chi_tiet_gio_hang_gio_hang FOREIGN KEY (ma_gio_hang) REFERENCES gio_hang (id),
+    CONSTRAINT fk_chi_tiet_gio_hang_san_pham FOREIGN KEY (ma_san_pham) REFERENCES san_pham (id)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE don_hang (
+    id                     BIGINT NOT NULL AUTO_INCREMENT,
+    created_at             DATETIME(6),
+    updated_at             DATETIME(6),
+    ma_don_hang            VARCHAR(50),
+    ma_tai_khoan           BIGINT,
+    trang_thai             ENUM ('PENDING', 'CONFIRMED', 'SHIPPING', 'COMPLETED', 'CANCELLED'),
+    tong_gia_san_pham      DECIMAL(12, 2),
+    phi_van_chuyen         DECIMAL(10, 2),
+    giam_gia               DECIMAL(10, 2),
+    tong_thanh_toan        DECIMAL(12, 2),
+    ma_giam_gia            VARCHAR(50),
+    phuong_thuc_thanh_toan ENUM ('COD', 'BANK_TRANSFER', 'CREDIT_CARD', 'E_WALLET'),
+    trang_thai_thanh_toan  ENUM ('PENDING', 'PAID', 'FAILED', 'REFUNDED'),
+    ngay_dat_hang          DATETIME(6),
+    ngay_xac_nhan          DATETIME(6),
+    ngay_giao_hang         DATETIME(6),
+    ngay_hoan_thanh        DATETIME(6),
+    ngay_huy               DATETIME(6),
+    ghi_chu                VARCHAR(500),
+    ly_do_huy              VARCHAR(1000),
+    ten_nguoi_nhan         VARCHAR(100),
+    sdt_nguoi_nhan         VARCHAR(15),
+    dia_chi_giao_hang      VARCHAR(500),
+    ma_van_chuyen          VARCHAR(100),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_don_hang_ma UNIQUE (ma_don_hang),
+    CONSTRAINT fk_don_hang_nguoi_dung FOREIGN KEY (ma_tai_khoan) REFERENCES nguoi_dung (ma_tai_khoan)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE chi_tiet_don_hang (
+    id                           BIGINT NOT NULL AUTO_INCREMENT,
+    created_at                   DATETIME(6),
+    updated_at                   DATETIME(6),
+    ma_don_hang                  BIGINT,
+    ma_san_pham                  BIGINT,
+    so_luong                     INT,
+    gia_tai_thoi_diem            DECIMAL(10, 2),
+    gia_khuyen_mai_tai_thoi_diem DECIMAL(10, 2),
+    thanh_tien                   DECIMAL(10, 2),
+    ten_san_pham_tai_thoi_diem   VARCHAR(500),
+    sku_tai_thoi_diem            VARCHAR(100),
+    hinh_anh_tai_thoi_diem       VARCHAR(200),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_chi_tiet_don_hang_don_hang FOREIGN KEY (ma_don_hang) REFERENCES don_hang (id),
+    CONSTRAINT fk_chi_tiet_don_hang_san_pham FOREIGN KEY (ma_san_pham) REFERENCES san_pham (id)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE khuyen_mai (
+    id                         BIGINT NOT NULL AUTO_INCREMENT,
+    created_at                 DATETIME(6),
+    updated_at                 DATETIME(6),
+    ten_khuyen_mai             VARCHAR(100) NOT NULL,
+    mo_ta                      VARCHAR(1000),
+    ma_giam_gia                VARCHAR(50)  NOT NULL,
+    loai_giam_gia              ENUM ('PERCENTAGE', 'FIXED_AMOUNT'),
+    gia_tri_giam_gia           DECIMAL(10, 2),
+    giam_toi_da                DECIMAL(10, 2),
+    don_hang_toi_thieu         DECIMAL(10, 2),
+    so_luong_toi_da            INT,
+    so_luong_da_su_dung        INT,
+    gioi_han_moi_khach_hang    INT,
+    ngay_bat_dau               DATETIME(6),
+    ngay_ket_thuc              DATETIME(6),
+    trang_thai                 BIT,
+    loai_ap_dung               ENUM ('ALL', 'SPECIFIC_PRODUCTS', 'SPECIFIC_CATEGORIES'),
+    ap_dung_cho_khach_hang_moi BIT,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_khuyen_mai_ma_giam_gia UNIQUE (ma_giam_gia)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE khuyen_mai_san_pham (
+    ma_khuyen_mai BIGINT NOT NULL,
+    ma_san_pham   BIGINT NOT NULL,
+    CONSTRAINT fk_khuyen_mai_san_pham_khuyen_mai FOREIGN KEY (ma_khuyen_mai) REFERENCES khuyen_mai (id),
+    CONSTRAINT fk_khuyen_mai_san_pham_san_pham FOREIGN KEY (ma_san_pham) REFERENCES san_pham (id)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE khuyen_mai_danh_muc (
+    ma_khuyen_mai BIGINT NOT NULL,
+    ma_danh_muc   BIGINT NOT NULL,
+    CONSTRAINT fk_khuyen_mai_danh_muc_khuyen_mai FOREIGN KEY (ma_khuyen_mai) REFERENCES khuyen_mai (id),
+    CONSTRAINT fk_khuyen_mai_danh_muc_danh_muc FOREIGN KEY (ma_danh_muc) REFERENCES danh_muc (ma_danh_muc)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE su_dung_khuyen_mai (
+    id               BIGINT NOT NULL AUTO_INCREMENT,
+    created_at       DATETIME(6),
+    updated_at       DATETIME(6),
+    ma_khuyen_mai    BIGINT,
+    ma_tai_khoan     BIGINT,
+    ma_don_hang      BIGINT,
+    ngay_su_dung     DATETIME(6),
+    gia_tri_giam_gia DECIMAL(10, 2),
+    gia_tri_don_hang DECIMAL(12, 2),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_su_dung_khuyen_mai_khuyen_mai FOREIGN KEY (ma_khuyen_mai) REFERENCES khuyen_mai (id),
+    CONSTRAINT fk_su_dung_khuyen_mai_nguoi_dung FOREIGN KEY (ma_tai_khoan) REFERENCES nguoi_dung (ma_tai_khoan),
+    CONSTRAINT fk_su_dung_khuyen_mai_don_hang FOREIGN KEY (ma_don_hang) REFERENCES don_hang (id)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+INSERT INTO vai_tro (ten_vai_tro) VALUES
+('Khách hàng'),
+('Admin'),
+('Nhân viên');
@@ -0,0 +1,59 @@
+-- Secondary indexes for the repository queries (equality columns first, then the range/ORDER BY column)
+-- Checked by QueryPlanTest: every query runs under EXPLAIN against seeded tables and may not full-scan them
+
+-- san_pham: storefront listings by status/featured/brand/type/size, newest first; best sellers; stock lists
+CREATE INDEX idx_san_pham_trang_thai_ngay_tao ON san_pham (trang_thai, ngay_tao);
+CREATE INDEX idx_san_pham_featured_trang_thai_ngay_tao ON san_pham (featured, trang_thai, ngay_tao);
+CREATE INDEX idx_san_pham_trang_thai_sold_quantity ON san_pham (trang_thai, sold_quantity);
+CREATE INDEX idx_san_pham_trang_thai_ton_kho ON san_pham (trang_thai, ton_kho);
+CREATE INDEX idx_san_pham_thuong_hieu_trang_thai_ngay_tao ON san_pham (ma_thuong_hieu, trang_thai, ngay_tao);
+CREATE INDEX idx_san_pham_loai_trang_thai_ngay_tao ON san_pham (ma_loai, trang_thai, ngay_tao);
+CREATE INDEX idx_san_pham_kich_co_trang_thai_ngay_tao ON san_pham (ma_kich_co, trang_thai, ngay_tao);
+
+-- don_hang: a user's orders, admin lists by status/payment, stale PENDING sweep, revenue by completion date
+CREATE INDEX idx_don_hang_tai_khoan_ngay_dat_hang ON don_hang (ma_tai_khoan, ngay_dat_hang);
+CREATE INDEX idx_don_hang_tai_khoan_trang_thai_ngay_dat_hang ON don_hang (ma_tai_khoan, trang_thai, ngay_dat_hang);
+CREATE INDEX idx_don_hang_trang_thai_ngay_dat_hang ON don_hang (trang_thai, ngay_dat_hang);
+CREATE INDEX idx_don_hang_trang_thai_ngay_hoan_thanh ON don_hang (trang_thai, ngay_hoan_thanh);
+CREATE INDEX idx_don_hang_ngay_dat_hang ON don_hang (ngay_dat_hang);
+CREATE INDEX idx_don_hang_phuong_thuc_ngay_dat_hang ON don_hang (phuong_thuc_thanh_toan, ngay_dat_hang);
+CREATE INDEX idx_don_hang_thanh_toan_ngay_dat_hang ON don_hang (trang_thai_thanh_toan, ngay_dat_hang);
+CREATE INDEX idx_don_hang_ma_van_chuyen ON don_hang (ma_van_chuyen);
+
+-- chi_tiet_don_hang: items of a page of orders, quantities per product when restocking
+CREATE INDEX idx_chi_tiet_don_hang_don_hang_san_pham ON chi_tiet_don_hang (ma_don_hang, ma_san_pham, so_luong);
+CREATE INDEX idx_chi_tiet_don_hang_san_pham_don_hang ON chi_tiet_don_hang (ma_san_pham, ma_don_hang);
+
+-- gio_hang / chi_tiet_gio_hang: one cart per user, item lookup by (cart, product)
+CREATE INDEX idx_gio_hang_tai_khoan ON gio_hang (ma_tai_khoan);
+CREATE INDEX idx_gio_hang_ngay_cap_nhat ON gio_hang (ngay_cap_nhat);
+CREATE INDEX idx_chi_tiet_gio_hang_gio_hang_san_pham ON chi_tiet_gio_hang (ma_gio_hang, ma_san_pham);
+CREATE INDEX idx_chi_tiet_gio_hang_gio_hang_ngay_them ON chi_tiet_gio_hang (ma_gio_hang, ngay_them);
+CREATE INDEX idx_chi_tiet_gio_hang_san_pham ON chi_tiet_gio_hang (ma_san_pham);
+CREATE INDEX idx_chi_tiet_gio_hang_ngay_them ON chi_tiet_gio_hang (ngay_them);
+
+-- khuyen_mai: active window checks, expiring/upcoming/expired lists
+CREATE INDEX idx_khuyen_mai_trang_thai_bat_dau_ket_thuc ON khuyen_mai (trang_thai, ngay_bat_dau, ngay_ket_thuc);
+CREATE INDEX idx_khuyen_mai_trang_thai_ket_thuc ON khuyen_mai (trang_thai, ngay_ket_thuc);
+CREATE INDEX idx_khuyen_mai_ngay_ket_thuc ON khuyen_mai (ngay_ket_thuc);
+CREATE INDEX idx_khuyen_mai_ngay_bat_dau ON khuyen_mai (ngay_bat_dau);
+CREATE INDEX idx_khuyen_mai_so_luong_da_su_dung ON khuyen_mai (so_luong_da_su_dung);
+CREATE INDEX idx_khuyen_mai_san_pham_san_pham ON khuyen_mai_san_pham (ma_san_pham, ma_khuyen_mai);
+CREATE INDEX idx_khuyen_mai_danh_muc_danh_muc ON khuyen_mai_danh_muc (ma_danh_muc, ma_khuyen_mai);
+
+-- su_dung_khuyen_mai: per-customer usage limit at checkout, usage history
+CREATE INDEX idx_su_dung_khuyen_mai_khuyen_mai_tai_khoan ON su_dung_khuyen_mai (ma_khuyen_mai, ma_tai_khoan);
+CREATE INDEX idx_su_dung_khuyen_mai_tai_khoan_ngay_su_dung ON su_dung_khuyen_mai (ma_tai_khoan, ngay_su_dung);
+CREATE INDEX idx_su_dung_khuyen_mai_ngay_su_dung ON su_dung_khuyen_mai (ngay_su_dung);
+
+-- nguoi_dung: login and uniqueness checks, admin user lists
+CREATE INDEX idx_nguoi_dung_ten_tai_khoan ON nguoi_dung (ten_tai_khoan);
+CREATE INDEX idx_nguoi_dung_gmail ON nguoi_dung (gmail);
+CREATE INDEX idx_nguoi_dung_sdt ON nguoi_dung (sdt);
+CREATE INDEX idx_nguoi_dung_cccd ON nguoi_dung (cccd);
+CREATE INDEX idx_nguoi_dung_trang_thai_ngay_tao ON nguoi_dung (trang_thai, ngay_tao);
+CREATE INDEX idx_nguoi_dung_vai_tro_ngay_tao ON nguoi_dung (vai_tro, ngay_tao);
+CREATE INDEX idx_nguoi_dung_ngay_tao ON nguoi_dung (ngay_tao);
+
+-- dia_chi: a user's address book, default address
+CREATE INDEX idx_dia_chi_tai_khoan_mac_dinh ON dia_chi (ma_tai_khoan, is_default);
@@ -0,0 +1,42 @@
+-- Tables added after the baseline: Idempotency-Key responses, the order event outbox and scheduler leases
+-- Kept out of V1 so databases baselined at version 1 (created by ddl-auto=update) still get them
+
+CREATE TABLE idempotency_record (
+    id              BIGINT      NOT NULL AUTO_INCREMENT,
+    created_at      DATETIME(6),
+    updated_at      DATETIME(6),
+    idempotency_key VARCHAR(64) NOT NULL,
+    request_hash    VARCHAR(64) NOT NULL,
+    status_code     INT,
+    content_type    VARCHAR(100),
+    response_body   MEDIUMBLOB,
+    expires_at      DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_idempotency_record_key UNIQUE (idempotency_key),
+    INDEX idx_idempotency_record_expires_at (expires_at)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE outbox_event (
+    id              BIGINT      NOT NULL AUTO_INCREMENT,
+    created_at      DATETIME(6),
+    updated_at      DATETIME(6),
+    aggregate_type  VARCHAR(50) NOT NULL,
+    aggregate_id    BIGINT      NOT NULL,
+    event_type      VARCHAR(50) NOT NULL,
+    payload         TEXT        NOT NULL,
+    occurred_at     DATETIME(6) NOT NULL,
+    processed_at    DATETIME(6),
+    next_attempt_at DATETIME(6) NOT NULL,
+    attempts        INT         NOT NULL,
+    last_error      VARCHAR(1000),
+    PRIMARY KEY (id),
+    INDEX idx_outbox_event_pending (processed_at, next_attempt_at),
+    INDEX idx_outbox_event_aggregate (aggregate_type, aggregate_id)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE scheduler_lease (
+    ten_tac_vu  VARCHAR(100) NOT NULL,
+    owner       VARCHAR(100),
+    lease_until DATETIME(6)  NOT NULL,
+    PRIMARY KEY (ten_tac_vu)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
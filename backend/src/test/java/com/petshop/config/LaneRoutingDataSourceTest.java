@@ -0,0 +1,178 @@
+package com.petshop.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Hai database H2 trong bộ nhớ đóng vai primary và replica; mỗi database ghi tên của nó trong bảng db_role
+class LaneRoutingDataSourceTest {
+
+	private final AtomicBoolean replicaDown = new AtomicBoolean();
+
+	private LaneRoutingDataSource routingDataSource;
+	private JdbcTemplate jdbcTemplate;
+	private TransactionTemplate readWrite;
+	private TransactionTemplate readOnly;
+
+	@BeforeEach
+	void setUp() {
+		DataSource primary = database("primary");
+		DataSource replica = new DelegatingDataSource(database("replica")) {
+			@Override
+			public Connection getConnection() throws SQLException {
+				if (replicaDown.get()) {
+					throw new SQLException("replica unavailable");
+				}
+				return super.getConnection();
+			}
+		};
+
+		routingDataSource = new LaneRoutingDataSource(primary, primary,
+				List.of(new LaneRoutingDataSource.Replica("replica-0", replica)), 60_000);
+		routingDataSource.afterPropertiesSet();
+
+		DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+		DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		readWrite = new TransactionTemplate(transactionManager);
+		readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+	}
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void readOnlyTransactionsUseReplicaAndWritesUsePrimary() {
+		assertEquals("replica", readOnly.execute(status -> currentDatabase()));
+		assertEquals("primary", readWrite.execute(status -> currentDatabase()));
+		// Ngoài transaction: primary
+		assertEquals("primary", currentDatabase());
+	}
+
+	@Test
+	void reportingLaneWinsOverReadOnlyRouting() {
+		LaneRoutingDataSource.setLane(LaneRoutingDataSource.Lane.REPORTING);
+		try {
+			// Pool báo cáo trong test là primary
+			assertEquals("primary", readOnly.execute(status -> currentDatabase()));
+		} finally {
+			LaneRoutingDataSource.clearLane();
+		}
+	}
+
+	@Test
+	void readsStickToPrimaryAfterOwnWrite() {
+		authenticate("alice");
+		readWrite.executeWithoutResult(status -> jdbcTemplate.update("UPDATE db_role SET touched = touched + 1"));
+		assertEquals("primary", readOnly.execute(status -> currentDatabase()));
+
+		authenticate("bob");
+		assertEquals("replica", readOnly.execute(status -> currentDatabase()));
+	}
+
+	@Test
+	void rolledBackWriteDoesNotPinReadsToPrimary() {
+		authenticate("alice");
+		readWrite.executeWithoutResult(status -> {
+			jdbcTemplate.update("UPDATE db_role SET touched = touched + 1");
+			status.setRollbackOnly();
+		});
+		assertEquals("replica", readOnly.execute(status -> currentDatabase()));
+	}
+
+	@Test
+	void failsOverToPrimaryUntilReplicaIsHealthyAgain() {
+		replicaDown.set(true);
+		assertEquals("primary", readOnly.execute(status -> currentDatabase()));
+		assertFalse(routingDataSource.getReplicas().get(0).isHealthy());
+
+		replicaDown.set(false);
+		// Vẫn primary cho đến lần health check tiếp theo
+		assertEquals("primary", readOnly.execute(status -> currentDatabase()));
+
+		routingDataSource.checkReplicas(1, 0);
+		assertTrue(routingDataSource.getReplicas().get(0).isHealthy());
+		assertEquals("replica", readOnly.execute(status -> currentDatabase()));
+	}
+
+	@Test
+	void primaryLanePinsReadsFromExecutorThreadWithoutSecurityContext() {
+		authenticate("alice");
+		readWrite.executeWithoutResult(status -> jdbcTemplate.update("UPDATE db_role SET touched = touched + 1"));
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			// Luồng executor không có SecurityContext: read-your-writes không áp dụng, chỉ làn PRIMARY giữ được primary
+			assertEquals("replica", CompletableFuture.supplyAsync(
+					() -> readOnly.execute(status -> currentDatabase()), executor).join());
+			assertEquals("primary", CompletableFuture.supplyAsync(
+					() -> LaneRoutingDataSource.onPrimary(() -> readOnly.execute(status -> currentDatabase())),
+					executor).join());
+			// Làn được trả lại sau khi chạy xong
+			assertEquals("replica", CompletableFuture.supplyAsync(
+					() -> readOnly.execute(status -> currentDatabase()), executor).join());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void anonymousWriteNeedsPrimaryLaneForNextRead() {
+		// Đăng ký là request ẩn danh: không có người dùng để giữ read-your-writes
+		readWrite.executeWithoutResult(status -> jdbcTemplate.update("UPDATE db_role SET touched = touched + 1"));
+		assertEquals("replica", readOnly.execute(status -> currentDatabase()));
+
+		// Đăng nhập ngay sau đó đọc tài khoản trong làn PRIMARY (như DaoAuthenticationProvider trong SecurityConfig)
+		assertEquals("primary", LaneRoutingDataSource.onPrimary(() -> readOnly.execute(status -> currentDatabase())));
+		assertEquals("replica", readOnly.execute(status -> currentDatabase()));
+	}
+
+	@Test
+	void primaryLaneSetInsideReadOnlyTransactionStillUsesPrimary() {
+		// Connection chỉ được lấy ở câu lệnh đầu tiên (LazyConnectionDataSourceProxy)
+		assertEquals("primary", readOnly.execute(status -> LaneRoutingDataSource.onPrimary(this::currentDatabase)));
+	}
+
+	private String currentDatabase() {
+		return jdbcTemplate.queryForObject("SELECT name FROM db_role", String.class);
+	}
+
+	private void authenticate(String username) {
+		SecurityContextHolder.getContext().setAuthentication(
+				UsernamePasswordAuthenticationToken.authenticated(username, null, List.of()));
+	}
+
+	private static DataSource database(String name) {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(
+				"jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+		JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+		jdbc.execute("CREATE TABLE db_role (name VARCHAR(20), touched INT)");
+		jdbc.update("INSERT INTO db_role (name, touched) VALUES (?, 0)", name);
+		return dataSource;
+	}
+}
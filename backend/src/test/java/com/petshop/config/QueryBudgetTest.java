@@ -0,0 +1,95 @@
+package com.petshop.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class QueryBudgetTest {
+
+	private final QueryStats.Inspector inspector = new QueryStats.Inspector();
+
+	@AfterEach
+	void tearDown() {
+		QueryBudget.stopRecording();
+	}
+
+	@Test
+	void inListsAndWhitespaceShareOneShape() {
+		assertEquals("select p.id from san_pham p where p.id in (?...)",
+				QueryStats.shapeOf("select p.id\n    from san_pham p\n    where p.id in (?, ?,?)"));
+		assertEquals(QueryStats.shapeOf("select * from xa where ma_xa in (?)"),
+				QueryStats.shapeOf("select * from xa where ma_xa in ( ?, ? )"));
+	}
+
+	@Test
+	void measureCountsStatementsAndRepeats() {
+		QueryBudget.Check check = QueryBudget.measure(() -> {
+			inspector.inspect("select * from don_hang where id=?");
+			for (int i = 0; i < 3; i++) {
+				inspector.inspect("select * from chi_tiet_don_hang where ma_don_hang=?");
+			}
+		});
+
+		assertEquals(4, check.report().statements());
+		assertEquals(3, check.report().maxRepeats());
+		check.assertStatementsAtMost(4).assertNoRepeatsOver(3);
+		assertThrows(AssertionError.class, () -> check.assertStatementsAtMost(3));
+		assertThrows(AssertionError.class, () -> check.assertNoRepeatsOver(1));
+	}
+
+	@Test
+	void nestedScopeCountsTowardsEnclosingScope() {
+		try (QueryStats.Scope request = QueryStats.open()) {
+			inspector.inspect("select * from nguoi_dung where ten_tai_khoan=?");
+			QueryBudget.Check inner = QueryBudget.measure(() -> inspector.inspect("select * from dia_chi where ma_tai_khoan=?"));
+
+			assertEquals(1, inner.report().statements());
+			assertEquals(2, request.report().statements());
+		}
+		// Không còn scope nào mở: câu lệnh không được tính ở đâu cả
+		inspector.inspect("select 1");
+	}
+
+	@Test
+	void statementsOnExecutorThreadsCountTowardsSubmittingScope() {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(2);
+		executor.setTaskDecorator(QueryStats::propagate);
+		executor.initialize();
+		try {
+			try (QueryStats.Scope request = QueryStats.open()) {
+				CompletableFuture.allOf(
+						CompletableFuture.runAsync(() -> inspector.inspect("select * from gio_hang where ma_tai_khoan=?"), executor),
+						CompletableFuture.runAsync(() -> inspector.inspect("select * from khuyen_mai where ma=?"), executor),
+						CompletableFuture.runAsync(() -> inspector.inspect("select * from khuyen_mai where ma=?"), executor))
+						.join();
+
+				assertEquals(3, request.report().statements());
+				assertEquals(2, request.report().maxRepeats());
+			}
+			// Luồng worker trả lại trạng thái cũ sau mỗi task
+			assertNull(CompletableFuture.supplyAsync(QueryStats::current, executor).join());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	void recordsLastReportPerEndpointWhileRecording() {
+		QueryStats.Report report = new QueryStats.Report(2, 0, Map.of("select 1", 2));
+		QueryBudget.record("GET /api/cart", report);
+		assertThrows(AssertionError.class, () -> QueryBudget.forEndpoint("GET /api/cart"));
+
+		QueryBudget.startRecording();
+		QueryBudget.record("GET /api/cart", report);
+		QueryBudget.forEndpoint("GET /api/cart").assertStatementsAtMost(2);
+		assertThrows(AssertionError.class, () -> QueryBudget.forEndpoint("GET /api/cart").assertNoRepeatsOver(1));
+	}
+}
@@ -0,0 +1,216 @@
+package com.petshop.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petshop.entity.Order;
+import com.petshop.entity.OutboxEvent;
+import com.petshop.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Relay chạy trên database H2 thật (schema từ entity) với subscriber có @Transactional:
+// lỗi của subscriber không được làm mất kết quả của cả lô
+@DataJpaTest(properties = {
+		"spring.flyway.enabled=false",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"petshop.app.outboxMaxAttempts=3",
+		"petshop.app.outboxBatchSize=10"
+})
+@Import({OutboxRelay.class, OutboxRelayTest.RelayConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboxRelayTest {
+
+	@Autowired
+	private OutboxRelay outboxRelay;
+
+	@Autowired
+	private OutboxEventRepository outboxEventRepository;
+
+	@Autowired
+	private RecordingSubscriber subscriber;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@BeforeEach
+	void setUp() {
+		outboxEventRepository.deleteAll();
+		subscriber.reset();
+	}
+
+	@Test
+	void failingSubscriberKeepsAttemptsAndBackoffOfTheBatch() {
+		LocalDateTime start = LocalDateTime.now();
+		OutboxEvent failing = save(1L, 0);
+		OutboxEvent ok = save(2L, 0);
+		subscriber.failOn(failing.getId());
+
+		outboxRelay.relay();
+
+		OutboxEvent failed = reload(failing);
+		assertNull(failed.getProcessedAt());
+		assertEquals(1, failed.getAttempts());
+		assertTrue(failed.getNextAttemptAt().isAfter(start.plusSeconds(1)));
+		assertTrue(failed.getLastError().startsWith("DataRetrievalFailureException"));
+
+		OutboxEvent delivered = reload(ok);
+		assertNotNull(delivered.getProcessedAt());
+		assertEquals(1, delivered.getAttempts());
+		assertEquals(List.of(ok.getId()), subscriber.getDelivered());
+	}
+
+	@Test
+	void laterEventsOfAnOrderWaitForItsFailedEvent() {
+		OutboxEvent first = save(1L, 0);
+		OutboxEvent second = save(1L, 0);
+		OutboxEvent other = save(2L, 0);
+		subscriber.failOn(first.getId());
+
+		outboxRelay.relay();
+
+		assertEquals(List.of(other.getId()), subscriber.getDelivered());
+		OutboxEvent waiting = reload(second);
+		assertNull(waiting.getProcessedAt());
+		assertEquals(0, waiting.getAttempts());
+		assertEquals(reload(first).getNextAttemptAt(), waiting.getNextAttemptAt());
+
+		// Hết thời gian chờ thử lại: giao lại theo đúng thứ tự của đơn hàng
+		subscriber.reset();
+		makeDue(first);
+		makeDue(second);
+		outboxRelay.relay();
+
+		assertEquals(List.of(first.getId(), second.getId()), subscriber.getDelivered());
+		assertEquals(2, reload(first).getAttempts());
+		assertNotNull(reload(second).getProcessedAt());
+	}
+
+	@Test
+	void eventIsDeadLetteredAfterMaxAttemptsAndUnblocksItsOrder() {
+		OutboxEvent poison = save(1L, 2);
+		OutboxEvent next = save(1L, 0);
+		subscriber.failOn(poison.getId());
+
+		outboxRelay.relay();
+
+		OutboxEvent dead = reload(poison);
+		assertNotNull(dead.getProcessedAt());
+		assertEquals(3, dead.getAttempts());
+		assertNotNull(dead.getLastError());
+		assertEquals(List.of(next.getId()), subscriber.getDelivered());
+	}
+
+	@Test
+	void claimedEventsAreNotPickedUpAgainBeforeTheClaimExpires() {
+		OutboxEvent event = save(1L, 0);
+		// Lô đang được instance khác giao: nextAttemptAt đã bị đẩy ra sau
+		event.setNextAttemptAt(LocalDateTime.now().plusMinutes(1));
+		outboxEventRepository.save(event);
+
+		outboxRelay.relay();
+
+		assertTrue(subscriber.getDelivered().isEmpty());
+	}
+
+	// Helper methods
+
+	private OutboxEvent save(Long orderId, int attempts) {
+		OrderLifecycleEvent payload = new OrderLifecycleEvent();
+		payload.setType(OrderLifecycleEvent.Type.STATUS_CHANGED);
+		payload.setOrderId(orderId);
+		payload.setStatus(Order.OrderStatus.CONFIRMED);
+		try {
+			OutboxEvent event = new OutboxEvent(OrderLifecycleEvent.AGGREGATE_TYPE, orderId,
+					payload.getType().name(), objectMapper.writeValueAsString(payload));
+			event.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+			event.setAttempts(attempts);
+			return outboxEventRepository.save(event);
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private void makeDue(OutboxEvent event) {
+		OutboxEvent current = reload(event);
+		current.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+		outboxEventRepository.save(current);
+	}
+
+	private OutboxEvent reload(OutboxEvent event) {
+		return outboxEventRepository.findById(event.getId()).orElseThrow();
+	}
+
+	@TestConfiguration
+	static class RelayConfig {
+
+		@Bean
+		ObjectMapper objectMapper() {
+			return new ObjectMapper().findAndRegisterModules();
+		}
+
+		@Bean
+		MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+
+		@Bean
+		RecordingSubscriber recordingSubscriber() {
+			return new RecordingSubscriber();
+		}
+	}
+
+	// Subscriber có transaction riêng và đọc database như OrderTrackingStreamService (qua OrderService)
+	static class RecordingSubscriber implements OrderEventSubscriber {
+
+		@Autowired
+		private OutboxEventRepository outboxEventRepository;
+
+		private final List<Long> delivered = new CopyOnWriteArrayList<>();
+		private final Set<Long> failingEvents = ConcurrentHashMap.newKeySet();
+
+		@Override
+		@Transactional
+		public void onOrderEvent(OrderLifecycleEvent event) {
+			outboxEventRepository.findById(event.getEventId());
+			if (failingEvents.contains(event.getEventId())) {
+				throw new DataRetrievalFailureException("Event " + event.getEventId() + " cannot be loaded");
+			}
+			delivered.add(event.getEventId());
+		}
+
+		public void failOn(Long eventId) {
+			failingEvents.add(eventId);
+		}
+
+		public List<Long> getDelivered() {
+			return new ArrayList<>(delivered);
+		}
+
+		public void reset() {
+			delivered.clear();
+			failingEvents.clear();
+		}
+	}
+}
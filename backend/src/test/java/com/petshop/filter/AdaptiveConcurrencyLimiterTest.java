@@ -0,0 +1,82 @@
+package com.petshop.filter;
+
+import com.petshop.filter.AdaptiveConcurrencyLimiter.Priority;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimiterTest {
+
+	private static final long FAST = 10_000_000L;
+	private static final long SLOW = 100_000_000L;
+
+	private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(100, 20, 200);
+
+	@Test
+	void lowerPrioritiesGetSmallerShare() {
+		for (int i = 0; i < 40; i++) {
+			assertTrue(limiter.tryAcquire(Priority.ANALYTICS));
+		}
+		assertFalse(limiter.tryAcquire(Priority.ANALYTICS));
+		assertTrue(limiter.tryAcquire(Priority.CATALOG));
+		assertTrue(limiter.tryAcquire(Priority.CHECKOUT));
+		assertEquals(42, limiter.getInFlight());
+	}
+
+	@Test
+	void limitGrowsWhenLoadedAndLatencyIsStable() {
+		saturatedWindow(FAST, false);
+
+		assertTrue(limiter.getLimit() > 100);
+	}
+
+	@Test
+	void limitDoesNotGrowWhenMostlyIdle() {
+		for (int i = 0; i < 100; i++) {
+			assertTrue(limiter.tryAcquire(Priority.CHECKOUT));
+			limiter.release(FAST, false);
+		}
+
+		assertEquals(100, limiter.getLimit());
+	}
+
+	@Test
+	void latencySpikeShrinksLimit() {
+		saturatedWindow(FAST, false);
+		int before = limiter.getLimit();
+
+		saturatedWindow(SLOW, false);
+
+		assertTrue(limiter.getLimit() < before);
+	}
+
+	@Test
+	void droppedRequestsBackOffButNotBelowMinimum() {
+		saturatedWindow(FAST, true);
+		assertTrue(limiter.getLimit() < 100);
+
+		for (int i = 0; i < 200; i++) {
+			saturatedWindow(FAST, true);
+		}
+		assertEquals(20, limiter.getLimit());
+	}
+
+	// Helper methods
+
+	// Chiếm hết phần của CHECKOUT rồi trả lại đủ mẫu để kết thúc một cửa sổ đo
+	private void saturatedWindow(long rttNanos, boolean dropped) {
+		int acquired = 0;
+		while (acquired < 100 && limiter.tryAcquire(Priority.CHECKOUT)) {
+			acquired++;
+		}
+		for (int i = 0; i < acquired; i++) {
+			limiter.release(rttNanos, dropped);
+		}
+		for (int i = acquired; i < 100; i++) {
+			limiter.tryAcquire(Priority.CHECKOUT);
+			limiter.release(rttNanos, dropped);
+		}
+	}
+}
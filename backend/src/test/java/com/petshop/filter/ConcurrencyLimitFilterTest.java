@@ -0,0 +1,66 @@
+package com.petshop.filter;
+
+import com.petshop.filter.AdaptiveConcurrencyLimiter.Priority;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ConcurrencyLimitFilterTest {
+
+	private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter();
+
+	@Test
+	void checkoutAndCartOutrankCatalog() {
+		assertEquals(Priority.CHECKOUT, classify("POST", "/api/orders"));
+		assertEquals(Priority.CHECKOUT, classify("POST", "/api/orders/12/cancel"));
+		assertEquals(Priority.CHECKOUT, classify("DELETE", "/api/orders/12"));
+		assertEquals(Priority.CHECKOUT, classify("POST", "/api/promotions/validate-coupon"));
+		assertEquals(Priority.CART, classify("POST", "/api/cart/items"));
+		assertEquals(Priority.CART, classify("POST", "/api/auth/login"));
+		assertEquals(Priority.CART, classify("GET", "/api/users/5"));
+		assertEquals(Priority.CART, classify("PUT", "/api/users/5/password"));
+		assertEquals(Priority.CATALOG, classify("GET", "/api/products"));
+		assertEquals(Priority.CATALOG, classify("GET", "/api/products/7/detail"));
+		assertEquals(Priority.CATALOG, classify("POST", "/api/products/filter"));
+		assertEquals(Priority.CATALOG, classify("GET", "/api/storefront/home"));
+	}
+
+	@Test
+	void customerOrderReadsDoNotGetCheckoutPriority() {
+		assertEquals(Priority.CART, classify("GET", "/api/orders/my-orders"));
+		assertEquals(Priority.CART, classify("GET", "/api/orders/12"));
+		assertEquals(Priority.CART, classify("GET", "/api/orders/12/tracking"));
+	}
+
+	@Test
+	void staffOrderOperationsAreShedFirst() {
+		assertEquals(Priority.ANALYTICS, classify("GET", "/api/orders"));
+		assertEquals(Priority.ANALYTICS, classify("GET", "/api/orders/status/PENDING"));
+		assertEquals(Priority.ANALYTICS, classify("POST", "/api/orders/bulk/confirm"));
+		assertEquals(Priority.ANALYTICS, classify("POST", "/api/orders/bulk/ship"));
+		assertEquals(Priority.ANALYTICS, classify("POST", "/api/orders/12/confirm"));
+		assertEquals(Priority.ANALYTICS, classify("POST", "/api/orders/12/ship"));
+		assertEquals(Priority.ANALYTICS, classify("POST", "/api/orders/12/complete"));
+		assertEquals(Priority.ANALYTICS, classify("PUT", "/api/orders/12/status"));
+		assertEquals(Priority.ANALYTICS, classify("GET", "/api/products/low-stock"));
+	}
+
+	@Test
+	void adminManagementIsShedFirst() {
+		assertEquals(Priority.ANALYTICS, classify("GET", "/api/users"));
+		assertEquals(Priority.ANALYTICS, classify("DELETE", "/api/users/5"));
+		assertEquals(Priority.ANALYTICS, classify("POST", "/api/users/5/toggle-status"));
+		assertEquals(Priority.ANALYTICS, classify("POST", "/api/users/5/reset-password"));
+		assertEquals(Priority.ANALYTICS, classify("POST", "/api/products"));
+		assertEquals(Priority.ANALYTICS, classify("PUT", "/api/products/7/stock"));
+		assertEquals(Priority.ANALYTICS, classify("DELETE", "/api/brands/3"));
+		assertEquals(Priority.ANALYTICS, classify("POST", "/api/promotions/4/toggle"));
+	}
+
+	// Helper methods
+
+	private Priority classify(String method, String path) {
+		return filter.classify(new MockHttpServletRequest(method, path));
+	}
+}
@@ -0,0 +1,233 @@
+package com.petshop.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petshop.entity.IdempotencyRecord;
+import com.petshop.repository.IdempotencyRecordRepository;
+import com.petshop.security.UserDetailsImpl;
+import com.petshop.service.IdempotencyService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IdempotencyFilterTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final AtomicInteger executions = new AtomicInteger();
+
+	private IdempotencyRecordRepository repository;
+	private IdempotencyService service;
+	private IdempotencyFilter filter;
+
+	@BeforeEach
+	void setUp() {
+		repository = mock(IdempotencyRecordRepository.class);
+		when(repository.findByIdempotencyKey(anyString())).thenReturn(Optional.empty());
+		when(repository.saveAndFlush(any(IdempotencyRecord.class))).thenAnswer(invocation -> invocation.getArgument(0));
+		when(repository.complete(anyString(), any(), any(), any(), any(), any())).thenReturn(1);
+
+		service = new IdempotencyService();
+		ReflectionTestUtils.setField(service, "idempotencyRecordRepository", repository);
+		ReflectionTestUtils.setField(service, "meterRegistry", meterRegistry);
+		ReflectionTestUtils.setField(service, "ttlMinutes", 1440L);
+		ReflectionTestUtils.setField(service, "memoryTtlSeconds", 600L);
+		ReflectionTestUtils.setField(service, "processingTimeoutSeconds", 60L);
+		service.init();
+
+		filter = new IdempotencyFilter();
+		ReflectionTestUtils.setField(filter, "idempotencyService", service);
+		ReflectionTestUtils.setField(filter, "objectMapper", new ObjectMapper());
+		ReflectionTestUtils.setField(filter, "waitTimeoutMs", 5_000L);
+		ReflectionTestUtils.setField(filter, "maxResponseBytes", 1024);
+
+		authenticate();
+	}
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void retryReplaysTheStoredResponse() throws Exception {
+		MockHttpServletResponse first = send("key-1", "{\"qty\":1}", respond(201, "{\"id\":42}"));
+		MockHttpServletResponse retry = send("key-1", "{\"qty\":1}", respond(201, "{\"id\":43}"));
+
+		assertEquals(1, executions.get());
+		assertEquals(201, first.getStatus());
+		assertNull(first.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+		assertEquals(201, retry.getStatus());
+		assertEquals("{\"id\":42}", retry.getContentAsString());
+		assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+	}
+
+	@Test
+	void keyReusedForAnotherBodyIsRejected() throws Exception {
+		send("key-1", "{\"qty\":1}", respond(201, "{\"id\":42}"));
+		MockHttpServletResponse reused = send("key-1", "{\"qty\":2}", respond(201, "{\"id\":43}"));
+
+		assertEquals(1, executions.get());
+		assertEquals(422, reused.getStatus());
+	}
+
+	@Test
+	void concurrentDuplicateWaitsForTheFirstResult() throws Exception {
+		CountDownLatch entered = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		FilterChain slow = (request, response) -> {
+			executions.incrementAndGet();
+			entered.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			response.getOutputStream().write("{\"id\":42}".getBytes(StandardCharsets.UTF_8));
+		};
+
+		CompletableFuture<MockHttpServletResponse> first = CompletableFuture.supplyAsync(
+				() -> sendUnchecked("key-1", "{}", slow));
+		assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+		CompletableFuture<MockHttpServletResponse> duplicate = CompletableFuture.supplyAsync(
+				() -> sendUnchecked("key-1", "{}", respond(200, "{\"id\":43}")));
+		// Yêu cầu trùng phải chờ, không thực thi song song và không trả 409 ngay
+		assertThrows(TimeoutException.class, () -> duplicate.get(200, TimeUnit.MILLISECONDS));
+
+		release.countDown();
+		assertEquals(200, first.get(5, TimeUnit.SECONDS).getStatus());
+		MockHttpServletResponse replayed = duplicate.get(5, TimeUnit.SECONDS);
+
+		assertEquals(1, executions.get());
+		assertEquals(200, replayed.getStatus());
+		assertEquals("{\"id\":42}", replayed.getContentAsString());
+		assertEquals("true", replayed.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+	}
+
+	@Test
+	void failedRequestReleasesTheKey() throws Exception {
+		MockHttpServletResponse failed = send("key-1", "{}", respond(400, "{\"success\":false}"));
+		MockHttpServletResponse retry = send("key-1", "{}", respond(201, "{\"id\":42}"));
+
+		assertEquals(2, executions.get());
+		assertEquals(400, failed.getStatus());
+		assertEquals(201, retry.getStatus());
+		assertNull(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+		verify(repository).deleteByIdempotencyKey(anyString());
+	}
+
+	@Test
+	void oversizedSuccessKeepsTheKeyWithoutTheBody() throws Exception {
+		ReflectionTestUtils.setField(filter, "maxResponseBytes", 4);
+
+		MockHttpServletResponse first = send("key-1", "{}", respond(201, "{\"id\":42,\"items\":[]}"));
+		MockHttpServletResponse retry = send("key-1", "{}", respond(201, "{\"id\":43}"));
+
+		assertEquals(1, executions.get());
+		assertEquals("{\"id\":42,\"items\":[]}", first.getContentAsString());
+		assertEquals(201, retry.getStatus());
+		assertEquals("", retry.getContentAsString());
+		assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+		verify(repository, never()).deleteByIdempotencyKey(anyString());
+	}
+
+	@Test
+	void unpersistedCompletionIsCountedAndKeepsTheKey() throws Exception {
+		when(repository.complete(anyString(), any(), any(), any(), any(), any()))
+				.thenThrow(new DataAccessResourceFailureException("connection reset"));
+
+		MockHttpServletResponse first = send("key-1", "{}", respond(201, "{\"id\":42}"));
+		MockHttpServletResponse retry = send("key-1", "{}", respond(201, "{\"id\":43}"));
+
+		// Thay đổi đã xảy ra: client vẫn nhận response, retry ở instance này phát lại từ bộ nhớ
+		assertEquals(201, first.getStatus());
+		assertEquals("{\"id\":42}", retry.getContentAsString());
+		assertEquals(1, executions.get());
+		assertEquals(1.0, completions("not_persisted"));
+		assertEquals(0.0, completions("persisted"));
+		verify(repository, never()).deleteByIdempotencyKey(anyString());
+	}
+
+	@Test
+	void completionOfAnExpiredRecordIsNotReportedAsPersisted() {
+		when(repository.complete(anyString(), any(), any(), any(), any(), any())).thenReturn(0);
+
+		boolean persisted = service.complete("key-1",
+				new IdempotencyService.StoredResponse(201, null, new byte[0]));
+
+		assertFalse(persisted);
+		assertEquals(1.0, completions("not_persisted"));
+	}
+
+	// Helper methods
+
+	private FilterChain respond(int status, String body) {
+		return (request, response) -> {
+			executions.incrementAndGet();
+			((HttpServletResponse) response).setStatus(status);
+			response.setContentType("application/json");
+			response.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+		};
+	}
+
+	private MockHttpServletResponse send(String key, String body, FilterChain chain) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/orders");
+		request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key);
+		request.setContent(body.getBytes(StandardCharsets.UTF_8));
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, chain);
+		return response;
+	}
+
+	// Chạy trên luồng khác: SecurityContext mặc định gắn với luồng nên phải đặt lại
+	private MockHttpServletResponse sendUnchecked(String key, String body, FilterChain chain) {
+		authenticate();
+		try {
+			return send(key, body, chain);
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		} finally {
+			SecurityContextHolder.clearContext();
+		}
+	}
+
+	private void authenticate() {
+		UserDetailsImpl user = new UserDetailsImpl(7L, "customer", "customer@petshop.vn", "Customer",
+				"secret", true, List.of());
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+	}
+
+	private double completions(String outcome) {
+		return meterRegistry.get("petshop.idempotency.completions").tag("outcome", outcome).counter().count();
+	}
+}
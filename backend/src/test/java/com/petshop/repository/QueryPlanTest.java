@@ -0,0 +1,294 @@
+package com.petshop.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.test.context.jdbc.Sql;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Chạy mọi truy vấn của repository trên MySQL thật (schema từ Flyway, dữ liệu mẫu lớn) và EXPLAIN từng câu SQL:
+// quét toàn bộ một bảng lớn mà bỏ đi phần lớn số dòng đã đọc nghĩa là thiếu index cho điều kiện lọc
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Import(QueryPlanTest.ExplainConfig.class)
+@Sql(scripts = "/db/query-plan-seed.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_CLASS)
+class QueryPlanTest {
+
+	// Bảng từ ngần này dòng trở lên được coi là lớn
+	private static final long LARGE_TABLE_ROWS = 1000;
+
+	// Quét toàn bộ mà giữ lại dưới tỷ lệ này (%) số dòng đã đọc thì index sẽ tránh được phần lớn việc đọc
+	private static final double MIN_FILTERED_PERCENT = 50;
+
+	// Trước mọi dữ liệu mẫu: điều kiện theo khoảng thời gian chỉ chọn được ít dòng
+	private static final LocalDateTime PROBE_TIME = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+	// Truy vấn được phép quét toàn bộ, kèm lý do
+	private static final Map<String, String> FULL_SCAN_ALLOWED = Map.ofEntries(
+			Map.entry("ProductRepository.searchProducts", "LIKE '%...%' search"),
+			Map.entry("ProductRepository.searchProductTiles", "LIKE '%...%' search"),
+			Map.entry("ProductRepository.filterProducts", "LIKE '%...%' search with optional filters"),
+			Map.entry("ProductRepository.findByTag", "LIKE '%...%' search"),
+			Map.entry("OrderRepository.searchOrders", "LIKE '%...%' search"),
+			Map.entry("UserRepository.searchUsers", "LIKE '%...%' search"),
+			Map.entry("UserRepository.findByUsernameContainingIgnoreCaseOrFullNameContainingIgnoreCaseOrEmailContainingIgnoreCase",
+					"LIKE '%...%' search"),
+			Map.entry("PromotionRepository.searchPromotions", "LIKE '%...%' search"),
+			Map.entry("UserRepository.findUsersWithBirthdayToday", "predicate on MONTH()/DAY() of the column"),
+			Map.entry("UserRepository.findUsersWithBirthdayInMonth", "predicate on MONTH() of the column"),
+			Map.entry("PromotionUsageRepository.findUsageByDate", "predicate on DATE() of the column"),
+			Map.entry("CartItemRepository.deleteInvalidItems", "maintenance sweep over every cart item"),
+			Map.entry("CartRepository.findCartsWithHighestValue", "not called by any service"),
+			Map.entry("OrderRepository.findOrdersWithHighestValue", "not called by any service"),
+			Map.entry("OrderItemRepository.findUnsoldProducts", "not called by any service"),
+			Map.entry("PromotionRepository.findPromotionsInPeriod", "not called by any service"));
+
+	@Container
+	@ServiceConnection
+	static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0");
+
+	@Autowired
+	private ApplicationContext applicationContext;
+
+	@Test
+	void repositoryQueriesUseIndexesOnLargeTables() throws Exception {
+		Repositories repositories = new Repositories(applicationContext);
+		List<String> violations = new ArrayList<>();
+		int explained = 0;
+
+		for (Class<?> domainType : repositories) {
+			RepositoryInformation information = repositories.getRequiredRepositoryInformation(domainType);
+			Object repository = repositories.getRepositoryFor(domainType).orElseThrow();
+			String repositoryName = information.getRepositoryInterface().getSimpleName();
+
+			List<Method> methods = information.getQueryMethods().stream()
+					.sorted(Comparator.comparing(Method::toGenericString))
+					.toList();
+			for (Method method : methods) {
+				String name = repositoryName + "." + method.getName();
+				List<Plan> plans = explain(repository, method);
+				if (plans.isEmpty()) {
+					violations.add(name + ": no statement was explained");
+					continue;
+				}
+				explained++;
+				if (FULL_SCAN_ALLOWED.containsKey(name) || method.isAnnotationPresent(ReportingQuery.class)) {
+					continue;
+				}
+				for (Plan plan : plans) {
+					if (plan.isWastefulFullScan()) {
+						violations.add(name + ": full scan of " + plan.table() + " (" + plan.rows() + " rows, "
+								+ plan.filtered() + "% kept)\n    " + plan.sql());
+					}
+				}
+			}
+		}
+
+		assertTrue(explained > 0, "No repository query was explained");
+		assertTrue(violations.isEmpty(), "Queries without a usable index:\n" + String.join("\n", violations));
+	}
+
+	// Gọi phương thức repository với tham số mẫu, trả về kế hoạch của mọi câu SQL nó chạy
+	private List<Plan> explain(Object repository, Method method) throws IllegalAccessException {
+		Object[] args = new Object[method.getParameterCount()];
+		Class<?>[] types = method.getParameterTypes();
+		for (int i = 0; i < types.length; i++) {
+			args[i] = sampleValue(types[i]);
+		}
+
+		PlanRecorder.start();
+		try {
+			method.invoke(repository, args);
+		} catch (InvocationTargetException e) {
+			// Kết quả không quan trọng (ví dụ không tìm thấy dòng nào), chỉ cần câu SQL đã được EXPLAIN
+		} finally {
+			PlanRecorder.stop();
+		}
+		return PlanRecorder.plans();
+	}
+
+	private static Object sampleValue(Class<?> type) {
+		if (type == Long.class || type == long.class) {
+			return 1L;
+		}
+		if (type == Integer.class || type == int.class) {
+			return 1;
+		}
+		if (type == Boolean.class || type == boolean.class) {
+			return true;
+		}
+		if (type == String.class) {
+			return "a";
+		}
+		if (type == BigDecimal.class) {
+			return BigDecimal.ONE;
+		}
+		if (type == LocalDateTime.class) {
+			return PROBE_TIME;
+		}
+		if (type == LocalDate.class) {
+			return PROBE_TIME.toLocalDate();
+		}
+		if (type == byte[].class) {
+			return new byte[0];
+		}
+		if (Collection.class.isAssignableFrom(type)) {
+			return List.of(1L, 2L, 3L);
+		}
+		if (Pageable.class.isAssignableFrom(type)) {
+			return PageRequest.of(0, 20);
+		}
+		if (type.isEnum()) {
+			return type.getEnumConstants()[0];
+		}
+		throw new IllegalStateException("No sample value for parameter type " + type.getName());
+	}
+
+	// Một dòng của EXPLAIN
+	record Plan(String sql, String table, String type, long rows, double filtered) {
+
+		boolean isWastefulFullScan() {
+			return "ALL".equals(type) && rows >= LARGE_TABLE_ROWS && filtered < MIN_FILTERED_PERCENT;
+		}
+	}
+
+	// Bọc DataSource: trong lúc ghi, mỗi câu SELECT/UPDATE/DELETE được EXPLAIN với cùng tham số ngay trước khi chạy
+	static final class PlanRecorder {
+
+		private static final List<Plan> PLANS = new ArrayList<>();
+		private static volatile boolean recording;
+
+		private PlanRecorder() {
+		}
+
+		static void start() {
+			PLANS.clear();
+			recording = true;
+		}
+
+		static void stop() {
+			recording = false;
+		}
+
+		static List<Plan> plans() {
+			return List.copyOf(PLANS);
+		}
+
+		static DataSource wrap(DataSource dataSource) {
+			return proxy(DataSource.class, dataSource, (target, method, args) -> {
+				Object result = invoke(target, method, args);
+				return result instanceof Connection connection ? wrap(connection) : result;
+			});
+		}
+
+		private static Connection wrap(Connection connection) {
+			return proxy(Connection.class, connection, (target, method, args) -> {
+				Object result = invoke(target, method, args);
+				if (result instanceof PreparedStatement statement && method.getName().equals("prepareStatement")) {
+					return wrap(connection, statement, (String) args[0]);
+				}
+				return result;
+			});
+		}
+
+		private static PreparedStatement wrap(Connection connection, PreparedStatement statement, String sql) {
+			List<Object[]> parameters = new ArrayList<>();
+			return proxy(PreparedStatement.class, statement, (target, method, args) -> {
+				String name = method.getName();
+				if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+					parameters.add(new Object[] {method, args});
+				} else if (name.equals("clearParameters")) {
+					parameters.clear();
+				} else if (recording && (args == null || args.length == 0) && name.startsWith("execute")) {
+					record(connection, sql, parameters);
+				}
+				return invoke(target, method, args);
+			});
+		}
+
+		private static void record(Connection connection, String sql, List<Object[]> parameters) throws Exception {
+			String verb = sql.stripLeading().toLowerCase(Locale.ROOT);
+			if (!verb.startsWith("select") && !verb.startsWith("update") && !verb.startsWith("delete")) {
+				return;
+			}
+			try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + sql)) {
+				for (Object[] parameter : parameters) {
+					((Method) parameter[0]).invoke(explain, (Object[]) parameter[1]);
+				}
+				try (ResultSet resultSet = explain.executeQuery()) {
+					while (resultSet.next()) {
+						PLANS.add(new Plan(sql, resultSet.getString("table"), resultSet.getString("type"),
+								resultSet.getLong("rows"), resultSet.getDouble("filtered")));
+					}
+				}
+			}
+		}
+
+		private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+			try {
+				return method.invoke(target, args);
+			} catch (InvocationTargetException e) {
+				throw e.getTargetException();
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		private static <T> T proxy(Class<T> type, T target, TargetHandler handler) {
+			InvocationHandler invocationHandler = (proxy, method, args) -> handler.handle(target, method, args);
+			return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, invocationHandler);
+		}
+
+		@FunctionalInterface
+		private interface TargetHandler {
+			Object handle(Object target, Method method, Object[] args) throws Throwable;
+		}
+	}
+
+	@TestConfiguration
+	static class ExplainConfig {
+
+		@Bean
+		static BeanPostProcessor planRecordingDataSource() {
+			return new BeanPostProcessor() {
+				@Override
+				public Object postProcessAfterInitialization(Object bean, String beanName) {
+					return bean instanceof DataSource dataSource ? PlanRecorder.wrap(dataSource) : bean;
+				}
+			};
+		}
+	}
+}
@@ -0,0 +1,206 @@
+package com.petshop.service;
+
+import com.petshop.dto.ApiResponse;
+import com.petshop.dto.OrderTrackingDTO;
+import com.petshop.entity.Order;
+import com.petshop.event.OrderLifecycleEvent;
+import com.petshop.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OrderTrackingStreamServiceTest {
+
+	private static final Long ORDER_ID = 1L;
+
+	private final List<Runnable> tasks = new CopyOnWriteArrayList<>();
+	private final List<RecordingEmitter> emitters = new CopyOnWriteArrayList<>();
+	private final AtomicLong eventIds = new AtomicLong();
+
+	private OrderService orderService;
+	private OrderRepository orderRepository;
+	private OrderTrackingStreamService service;
+	private volatile Order.OrderStatus status = Order.OrderStatus.PENDING;
+	private volatile String trackingNumber;
+
+	@BeforeEach
+	void setUp() {
+		orderService = mock(OrderService.class);
+		when(orderService.trackOrderById(anyLong())).thenAnswer(invocation -> ORDER_ID.equals(invocation.getArgument(0))
+				? ApiResponse.success("ok", tracking(status, trackingNumber))
+				: ApiResponse.error("Không tìm thấy đơn hàng"));
+		orderRepository = mock(OrderRepository.class);
+
+		service = new OrderTrackingStreamService() {
+			@Override
+			SseEmitter createEmitter(long timeoutMs) {
+				RecordingEmitter emitter = new RecordingEmitter();
+				emitters.add(emitter);
+				return emitter;
+			}
+		};
+		ReflectionTestUtils.setField(service, "orderService", orderService);
+		ReflectionTestUtils.setField(service, "orderRepository", orderRepository);
+		// Task chỉ được xếp hàng, test tự chạy bằng runTasks()
+		ReflectionTestUtils.setField(service, "sseExecutor", (TaskExecutor) tasks::add);
+		ReflectionTestUtils.setField(service, "streamTimeoutMs", 60_000L);
+		ReflectionTestUtils.setField(service, "maxSubscribers", 100);
+		ReflectionTestUtils.setField(service, "sendTimeoutMs", 10_000L);
+	}
+
+	@Test
+	void eventRelayedWhileSnapshotIsReadIsNotLost() throws Exception {
+		// Outbox relay giao sự kiện CONFIRMED ngay sau khi snapshot (PENDING) được đọc, trước khi subscribe trả về
+		OrderTrackingDTO snapshot = tracking(Order.OrderStatus.PENDING, null);
+		when(orderService.trackOrderById(ORDER_ID))
+				.thenAnswer(invocation -> {
+					status = Order.OrderStatus.CONFIRMED;
+					service.onOrderEvent(event(Order.OrderStatus.CONFIRMED));
+					return ApiResponse.success("ok", snapshot);
+				})
+				.thenAnswer(invocation -> ApiResponse.success("ok", tracking(status, null)));
+
+		RecordingEmitter emitter = subscribe();
+		runTasks();
+
+		assertEquals(List.of(Order.OrderStatus.PENDING, Order.OrderStatus.CONFIRMED), statusesSent(emitter));
+	}
+
+	@Test
+	void unknownOrderIsNotSubscribed() throws Exception {
+		assertNull(service.subscribe(99L));
+		assertEquals(0, subscriberCount());
+	}
+
+	@Test
+	void updatesAreCoalescedWhileTheClientIsBusy() throws Exception {
+		RecordingEmitter emitter = subscribe();
+
+		change(Order.OrderStatus.CONFIRMED);
+		assertEquals(1, tasks.size());
+		// Lần gửi trước chưa chạy: chỉ giữ cập nhật mới nhất, không thêm task
+		change(Order.OrderStatus.SHIPPING);
+		change(Order.OrderStatus.COMPLETED);
+		assertEquals(1, tasks.size());
+
+		runTasks();
+		assertEquals(List.of(Order.OrderStatus.PENDING, Order.OrderStatus.CONFIRMED, Order.OrderStatus.COMPLETED),
+				statusesSent(emitter));
+	}
+
+	@Test
+	void clientStuckLongerThanSendTimeoutIsDisconnected() throws Exception {
+		ReflectionTestUtils.setField(service, "sendTimeoutMs", 1L);
+		RecordingEmitter emitter = subscribe();
+		change(Order.OrderStatus.CONFIRMED);
+		Thread.sleep(5);
+
+		change(Order.OrderStatus.SHIPPING);
+		assertEquals(0, subscriberCount());
+
+		// Lần gửi bị kẹt kết thúc: emitter được đóng thay vì gửi tiếp
+		runTasks();
+		assertTrue(emitter.isCompleted());
+		assertEquals(List.of(Order.OrderStatus.PENDING), statusesSent(emitter));
+	}
+
+	@Test
+	void resyncPushesChangesRelayedOnAnotherInstance() throws Exception {
+		RecordingEmitter emitter = subscribe();
+		status = Order.OrderStatus.SHIPPING;
+		trackingNumber = "GHN123";
+		List<Object[]> rows = new ArrayList<>();
+		rows.add(new Object[]{ORDER_ID, status, trackingNumber});
+		when(orderRepository.findTrackingStateByIdIn(anyCollection())).thenReturn(rows);
+
+		service.resync();
+		runTasks();
+		assertEquals(List.of(Order.OrderStatus.PENDING, Order.OrderStatus.SHIPPING), statusesSent(emitter));
+
+		// Không đổi từ lần trước: không gửi lại
+		service.resync();
+		assertTrue(tasks.isEmpty());
+	}
+
+	@Test
+	void heartbeatSkipsBusyClients() throws Exception {
+		RecordingEmitter emitter = subscribe();
+		change(Order.OrderStatus.CONFIRMED);
+
+		service.heartbeat();
+		assertEquals(1, tasks.size());
+
+		runTasks();
+		service.heartbeat();
+		runTasks();
+		List<Object> sent = emitter.getSent();
+		assertEquals(3, sent.size());
+		assertTrue(((String) sent.get(2)).startsWith(":keepalive"));
+	}
+
+	// Helper methods
+
+	private RecordingEmitter subscribe() throws Exception {
+		service.subscribe(ORDER_ID);
+		return emitters.get(emitters.size() - 1);
+	}
+
+	private void change(Order.OrderStatus newStatus) {
+		status = newStatus;
+		service.onOrderEvent(event(newStatus));
+	}
+
+	private OrderLifecycleEvent event(Order.OrderStatus newStatus) {
+		OrderLifecycleEvent event = new OrderLifecycleEvent();
+		event.setEventId(eventIds.incrementAndGet());
+		event.setType(OrderLifecycleEvent.Type.STATUS_CHANGED);
+		event.setOrderId(ORDER_ID);
+		event.setStatus(newStatus);
+		return event;
+	}
+
+	private void runTasks() {
+		while (!tasks.isEmpty()) {
+			tasks.remove(0).run();
+		}
+	}
+
+	private int subscriberCount() {
+		return ((AtomicInteger) ReflectionTestUtils.getField(service, "subscriberCount")).get();
+	}
+
+	private static OrderTrackingDTO tracking(Order.OrderStatus status, String trackingNumber) {
+		OrderTrackingDTO tracking = new OrderTrackingDTO();
+		tracking.setCurrentStatus(status);
+		tracking.setTrackingNumber(trackingNumber);
+		tracking.setStatusHistory(Collections.emptyList());
+		return tracking;
+	}
+
+	private static List<Order.OrderStatus> statusesSent(RecordingEmitter emitter) {
+		List<Order.OrderStatus> statuses = new ArrayList<>();
+		for (Object data : emitter.getSent()) {
+			if (data instanceof OrderTrackingDTO tracking) {
+				statuses.add(tracking.getCurrentStatus());
+			}
+		}
+		return statuses;
+	}
+}
@@ -0,0 +1,63 @@
+package com.petshop.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+// SseEmitter ghi lại dữ liệu đã gửi thay vì ghi ra response; có thể chặn lần gửi để giả lập client chậm
+class RecordingEmitter extends SseEmitter {
+
+	private final List<Object> sent = new CopyOnWriteArrayList<>();
+	private volatile CountDownLatch blocker;
+	private volatile boolean completed;
+
+	@Override
+	public void send(SseEventBuilder builder) {
+		CountDownLatch current = blocker;
+		if (current != null) {
+			try {
+				current.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+			// Bỏ phần khung văn bản của sự kiện ("event:", "data:"...), chỉ giữ đối tượng dữ liệu và comment
+			Object data = part.getData();
+			if (!(data instanceof String text) || text.startsWith(":")) {
+				sent.add(data);
+			}
+		}
+	}
+
+	@Override
+	public void complete() {
+		completed = true;
+	}
+
+	// Các lần gửi sau bị chặn đến khi unblock()
+	void block() {
+		blocker = new CountDownLatch(1);
+	}
+
+	void unblock() {
+		CountDownLatch current = blocker;
+		blocker = null;
+		if (current != null) {
+			current.countDown();
+		}
+	}
+
+	List<Object> getSent() {
+		return new ArrayList<>(sent);
+	}
+
+	boolean isCompleted() {
+		return completed;
+	}
+}
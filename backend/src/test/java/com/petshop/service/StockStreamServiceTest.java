@@ -0,0 +1,201 @@
+package com.petshop.service;
+
+import com.petshop.dto.StockLevelDTO;
+import com.petshop.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StockStreamServiceTest {
+
+	private final Map<Long, Integer> stock = new ConcurrentHashMap<>();
+	private final List<Runnable> tasks = new CopyOnWriteArrayList<>();
+	private final List<RecordingEmitter> emitters = new CopyOnWriteArrayList<>();
+
+	private StockStreamService service;
+	private ThreadPoolTaskExecutor pool;
+
+	@BeforeEach
+	void setUp() {
+		ProductRepository productRepository = mock(ProductRepository.class);
+		when(productRepository.findStockByIdIn(anyCollection())).thenAnswer(invocation -> {
+			List<Object[]> rows = new ArrayList<>();
+			for (Object id : (Collection<?>) invocation.getArgument(0)) {
+				rows.add(new Object[]{id, stock.get(id)});
+			}
+			return rows;
+		});
+
+		service = new StockStreamService() {
+			@Override
+			SseEmitter createEmitter(long timeoutMs) {
+				RecordingEmitter emitter = new RecordingEmitter();
+				emitters.add(emitter);
+				return emitter;
+			}
+		};
+		ReflectionTestUtils.setField(service, "productRepository", productRepository);
+		// Mặc định task chỉ được xếp hàng, test tự chạy bằng runTasks()
+		ReflectionTestUtils.setField(service, "sseExecutor", (TaskExecutor) tasks::add);
+		ReflectionTestUtils.setField(service, "streamTimeoutMs", 60_000L);
+		ReflectionTestUtils.setField(service, "maxSubscribers", 100);
+		ReflectionTestUtils.setField(service, "maxProductsPerSubscriber", 100);
+		ReflectionTestUtils.setField(service, "sendTimeoutMs", 10_000L);
+
+		stock.put(1L, 5);
+		stock.put(2L, 0);
+	}
+
+	@AfterEach
+	void tearDown() {
+		emitters.forEach(RecordingEmitter::unblock);
+		if (pool != null) {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	void subscribeSendsCurrentStock() throws Exception {
+		RecordingEmitter emitter = subscribe(1L, 2L);
+
+		assertEquals(List.of(Map.of(1L, 5, 2L, 0)), levelsSent(emitter));
+	}
+
+	@Test
+	void changesAreCoalescedWhileTheClientIsBusy() throws Exception {
+		RecordingEmitter emitter = subscribe(1L, 2L);
+		service.flush();
+		assertTrue(tasks.isEmpty());
+
+		change(1L, 4);
+		assertEquals(1, tasks.size());
+
+		// Lần gửi trước chưa chạy: các thay đổi sau được gộp vào, không thêm task
+		change(1L, 3);
+		change(2L, 7);
+		assertEquals(1, tasks.size());
+
+		runTasks();
+		assertEquals(List.of(Map.of(1L, 5, 2L, 0), Map.of(1L, 3, 2L, 7)), levelsSent(emitter));
+
+		// Sau khi gửi xong, thay đổi mới lại được lên lịch
+		change(2L, 6);
+		runTasks();
+		assertEquals(Map.of(2L, 6), levelsSent(emitter).get(2));
+	}
+
+	@Test
+	void unchangedStockIsNotResent() throws Exception {
+		RecordingEmitter emitter = subscribe(1L);
+		service.resync();
+		service.flush();
+		runTasks();
+
+		assertEquals(1, levelsSent(emitter).size());
+	}
+
+	@Test
+	void clientStuckLongerThanSendTimeoutIsDisconnected() throws Exception {
+		ReflectionTestUtils.setField(service, "sendTimeoutMs", 1L);
+		RecordingEmitter emitter = subscribe(1L);
+		change(1L, 4);
+		Thread.sleep(5);
+
+		change(1L, 3);
+		assertEquals(0, subscriberCount());
+
+		// Lần gửi bị kẹt kết thúc: emitter được đóng thay vì gửi tiếp
+		runTasks();
+		assertTrue(emitter.isCompleted());
+		assertEquals(1, levelsSent(emitter).size());
+	}
+
+	@Test
+	void slowClientDoesNotDelayOtherClients() throws Exception {
+		pool = new ThreadPoolTaskExecutor();
+		pool.setCorePoolSize(2);
+		pool.setMaxPoolSize(2);
+		pool.initialize();
+		ReflectionTestUtils.setField(service, "sseExecutor", pool);
+
+		RecordingEmitter slow = subscribe(1L);
+		RecordingEmitter fast = subscribe(1L);
+		service.flush();
+		slow.block();
+
+		change(1L, 4);
+		awaitSent(fast, 2);
+		assertEquals(Map.of(1L, 4), levelsSent(fast).get(1));
+
+		// Client chậm đang bận: bỏ qua keepalive của nó, client còn lại vẫn nhận
+		service.heartbeat();
+		awaitSent(fast, 3);
+		assertEquals(1, slow.getSent().size());
+		assertFalse(slow.isCompleted());
+	}
+
+	// Helper methods
+
+	private RecordingEmitter subscribe(Long... productIds) throws Exception {
+		service.subscribe(List.of(productIds));
+		return emitters.get(emitters.size() - 1);
+	}
+
+	private void change(Long productId, int newStock) {
+		stock.put(productId, newStock);
+		service.markChanged(productId);
+		service.flush();
+	}
+
+	private void runTasks() {
+		while (!tasks.isEmpty()) {
+			tasks.remove(0).run();
+		}
+	}
+
+	private int subscriberCount() {
+		return ((AtomicInteger) ReflectionTestUtils.getField(service, "subscriberCount")).get();
+	}
+
+	private void awaitSent(RecordingEmitter emitter, int count) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (emitter.getSent().size() < count && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertEquals(count, emitter.getSent().size());
+	}
+
+	// Mỗi sự kiện stock: productId -> tồn kho
+	private List<Map<Long, Integer>> levelsSent(RecordingEmitter emitter) {
+		List<Map<Long, Integer>> events = new ArrayList<>();
+		for (Object data : emitter.getSent()) {
+			if (data instanceof List<?> levels) {
+				Map<Long, Integer> event = new ConcurrentHashMap<>();
+				for (Object level : levels) {
+					event.put(((StockLevelDTO) level).getProductId(), ((StockLevelDTO) level).getStock());
+				}
+				events.add(event);
+			}
+		}
+		return events;
+	}
+}
@@ -0,0 +1,138 @@
+-- Seed data for QueryPlanTest: tables large enough that MySQL only picks an index when one fits the query
+-- Timestamps start at 2024-01-01, after the probe time the test binds to date parameters
+SET SESSION cte_max_recursion_depth = 300000;
+
+INSERT INTO tinh (ten_tinh)
+WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 63)
+SELECT CONCAT('Tinh ', n) FROM seq;
+
+INSERT INTO huyen (ten_huyen, ma_tinh)
+WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 630)
+SELECT CONCAT('Huyen ', n), 1 + n % 63 FROM seq;
+
+INSERT INTO xa (ten_xa, ma_huyen)
+WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 6300)
+SELECT CONCAT('Xa ', n), 1 + n % 630 FROM seq;
+
+INSERT INTO nguoi_dung (ten, gmail, ten_tai_khoan, mat_khau, ngay_tao, vai_tro, ngay_sinh, gioi_tinh, cccd, sdt, trang_thai)
+WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 20000)
+SELECT CONCAT('User ', n), CONCAT('user', n, '@example.com'), CONCAT('user', n), 'secret',
+       DATE('2024-01-01') + INTERVAL (n % 700) DAY, IF(n % 100 = 0, 2, 1),
+       DATE('1980-01-01') + INTERVAL (n % 10000) DAY, n % 2, LPAD(n, 12, '0'), LPAD(n, 10, '0'), n % 20 <> 0
+FROM seq;
+
+INSERT INTO dia_chi (created_at, updated_at, ma_tai_khoan, ma_tinh, ma_huyen, ma_xa, is_default,
+                     street_address, receiver_name, receiver_phone)
+WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 30000)
+SELECT TIMESTAMP('2024-01-01') + INTERVAL n MINUTE, TIMESTAMP('2024-01-01') + INTERVAL n MINUTE,
+       1 + n % 20000, 1 + n % 63, 1 + n % 630, 1 + n % 6300, n <= 20000,
+       CONCAT(n, ' Street'), CONCAT('Receiver ', n), LPAD(n, 10, '0')
+FROM seq;
+
+INSERT INTO danh_muc (ten_danh_muc, mo_ta, trang_thai)
+WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 10)
+SELECT CONCAT('Danh muc ', n), 'Mo ta', 1 FROM seq;
+
+INSERT INTO loai_san_pham (ten_loai_san_pham, loai, ma_danh_muc, mo_ta, trang_thai)
+WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 50)
+SELECT CONCAT('Loai ', n), 1 + n % 12, 1 + n % 10, 'Mo ta', 1 FROM seq;
+
+INSERT INTO thuong_hieu (ten_thuong_hieu, mo_ta, trang_thai)
+WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 100)
+SELECT CONCAT('Thuong hieu ', n), 'Mo ta', 1 FROM seq;
+
+INSERT INTO kich_co (ten_kich_co, gia_tri, don_vi, thu_tu, trang_thai)
+WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 30)
+SELECT CONCAT('Size ', n), CONCAT(n * 100, 'g'), 'weight', n, 1 FROM seq;
+
+INSERT INTO san_pham (created_at, updated_at, ten_san_pham, mo_ta, hinh_anh, ngay_tao, gia_san_pham, ma_loai,
+                      ma_kich_co, ma_thuong_hieu, ton_kho, sku, trang_thai, featured, sale_price, tags,
+                      sold_quantity, low_stock_threshold)
+WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 50000)
+SELECT TIMESTAMP('2024-01-01') + INTERVAL n * 20 MINUTE, TIMESTAMP('2024-01-01') + INTERVAL n * 20 MINUTE,
+       CONCAT('San pham ', n), CONCAT('Mo ta san pham ', n), CONCAT(n, '.jpg'),
+       TIMESTAMP('2024-01-01') + INTERVAL n * 20 MINUTE, 10 + n % 500, 1 + n % 50,
+       1 + n % 30, 1 + n % 100, n % 200, CONCAT('SKU-', n), n % 10 <> 0, n % 50 = 0,
+       IF(n % 7 = 0, 9 + n % 500, NULL), CONCAT('tag', n % 100), (n * 7) % 1000, 10
+FROM seq;
+
+INSERT INTO gio_hang (created_at, updated_at, ma_tai_khoan, tong_gia, tong_so_luong, giam_gia, ngay_cap_nhat)
+WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 20000)
+SELECT TIMESTAMP('2024-01-01') + INTERVAL n MINUTE, TIMESTAMP('2024-01-01') + INTERVAL n MINUTE,
+       n, n % 1000, n % 5, 0, TIMESTAMP('2024-01-01') + INTERVAL (n % 700) DAY
+FROM seq;
+
+INSERT INTO chi_tiet_gio_hang (created_at, updated_at, ma_gio_hang, ma_san_pham, so_luong, gia_tai_thoi_diem,
+                               thanh_tien, ngay_them)
+WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 60000)
+SELECT TIMESTAMP('2024-01-01') + INTERVAL n * 10 MINUTE, TIMESTAMP('2024-01-01') + INTERVAL n * 10 MINUTE,
+       1 + n % 20000, 1 + (n * 13) % 50000, 1, 10, 10, TIMESTAMP('2024-01-01') + INTERVAL n * 10 MINUTE
+FROM seq;
+
+INSERT INTO don_hang (created_at, updated_at, ma_don_hang, ma_tai_khoan, trang_thai, tong_gia_san_pham,
+                      phi_van_chuyen, giam_gia, tong_thanh_toan, phuong_thuc_thanh_toan, trang_thai_thanh_toan,
+                      ngay_dat_hang, ngay_hoan_thanh, ten_nguoi_nhan, sdt_nguoi_nhan, dia_chi_giao_hang, ma_van_chuyen)
+WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 100000)
+SELECT TIMESTAMP('2024-01-01') + INTERVAL n * 10 MINUTE, TIMESTAMP('2024-01-01') + INTERVAL n * 10 MINUTE,
+       CONCAT('ORD', n), 1 + n % 20000,
+       CASE n % 20 WHEN 0 THEN 'PENDING' WHEN 1 THEN 'CONFIRMED' WHEN 2 THEN 'SHIPPING'
+                   WHEN 3 THEN 'CANCELLED' ELSE 'COMPLETED' END,
+       100 + n % 900, 30, 0, 130 + n % 900,
+       ELT(1 + n % 4, 'COD', 'BANK_TRANSFER', 'CREDIT_CARD', 'E_WALLET'), IF(n % 20 < 4, 'PENDING', 'PAID'),
+       TIMESTAMP('2024-01-01') + INTERVAL n * 10 MINUTE,
+       IF(n % 20 > 3, TIMESTAMP('2024-01-04') + INTERVAL n * 10 MINUTE, NULL),
+       CONCAT('Receiver ', n), LPAD(n, 10, '0'), CONCAT(n, ' Street'), CONCAT('VC', n)
+FROM seq;
+
+INSERT INTO chi_tiet_don_hang (created_at, updated_at, ma_don_hang, ma_san_pham, so_luong, gia_tai_thoi_diem,
+                               thanh_tien, ten_san_pham_tai_thoi_diem, sku_tai_thoi_diem)
+WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 250000)
+SELECT TIMESTAMP('2024-01-01') + INTERVAL n * 4 MINUTE, TIMESTAMP('2024-01-01') + INTERVAL n * 4 MINUTE,
+       1 + n % 100000, 1 + (n * 31) % 50000, 1 + n % 3, 50, 50 * (1 + n % 3),
+       CONCAT('San pham ', 1 + (n * 31) % 50000), CONCAT('SKU-', 1 + (n * 31) % 50000)
+FROM seq;
+
+INSERT INTO khuyen_mai (created_at, updated_at, ten_khuyen_mai, ma_giam_gia, loai_giam_gia, gia_tri_giam_gia,
+                        don_hang_toi_thieu, so_luong_toi_da, so_luong_da_su_dung, gioi_han_moi_khach_hang,
+                        ngay_bat_dau, ngay_ket_thuc, trang_thai, loai_ap_dung, ap_dung_cho_khach_hang_moi)
+WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 5000)
+SELECT TIMESTAMP('2024-01-01') + INTERVAL n * 3 HOUR, TIMESTAMP('2024-01-01') + INTERVAL n * 3 HOUR,
+       CONCAT('Khuyen mai ', n), CONCAT('KM', n), IF(n % 2 = 0, 'PERCENTAGE', 'FIXED_AMOUNT'), 10,
+       0, 100, IF(n % 4 = 0, 0, n % 100), 1,
+       TIMESTAMP('2024-01-01') + INTERVAL n * 3 HOUR, TIMESTAMP('2024-01-31') + INTERVAL n * 3 HOUR,
+       n % 10 <> 0, 'ALL', 0
+FROM seq;
+
+INSERT INTO khuyen_mai_san_pham (ma_khuyen_mai, ma_san_pham)
+WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 5000)
+SELECT n, 1 + (n * 17) % 50000 FROM seq;
+
+INSERT INTO khuyen_mai_danh_muc (ma_khuyen_mai, ma_danh_muc)
+WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 2000)
+SELECT n, 1 + n % 10 FROM seq;
+
+INSERT INTO su_dung_khuyen_mai (created_at, updated_at, ma_khuyen_mai, ma_tai_khoan, ma_don_hang, ngay_su_dung,
+                                gia_tri_giam_gia, gia_tri_don_hang)
+WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 50000)
+SELECT TIMESTAMP('2024-01-01') + INTERVAL n * 20 MINUTE, TIMESTAMP('2024-01-01') + INTERVAL n * 20 MINUTE,
+       1 + n % 5000, 1 + n % 20000, n * 2, TIMESTAMP('2024-01-01') + INTERVAL n * 20 MINUTE, 10, 200
+FROM seq;
+
+INSERT INTO outbox_event (created_at, updated_at, aggregate_type, aggregate_id, event_type, payload, occurred_at,
+                          processed_at, next_attempt_at, attempts)
+WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 20000)
+SELECT TIMESTAMP('2024-01-01') + INTERVAL n * 30 MINUTE, TIMESTAMP('2024-01-01') + INTERVAL n * 30 MINUTE,
+       'ORDER', 1 + n % 100000, 'ORDER_STATUS_CHANGED', '{}', TIMESTAMP('2024-01-01') + INTERVAL n * 30 MINUTE,
+       IF(n % 100 = 0, NULL, TIMESTAMP('2024-01-01') + INTERVAL n * 30 MINUTE),
+       TIMESTAMP('2024-01-01') + INTERVAL n * 30 MINUTE, 0
+FROM seq;
+
+INSERT INTO idempotency_record (created_at, updated_at, idempotency_key, request_hash, status_code, expires_at)
+WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 10000)
+SELECT TIMESTAMP('2024-01-01') + INTERVAL n HOUR, TIMESTAMP('2024-01-01') + INTERVAL n HOUR,
+       CONCAT('key-', n), SHA2(n, 256), 200, TIMESTAMP('2024-01-02') + INTERVAL n HOUR
+FROM seq;
+
+ANALYZE TABLE tinh, huyen, xa, nguoi_dung, dia_chi, danh_muc, loai_san_pham, thuong_hieu, kich_co, san_pham,
+    gio_hang, chi_tiet_gio_hang, don_hang, chi_tiet_don_hang, khuyen_mai, khuyen_mai_san_pham,
+    khuyen_mai_danh_muc, su_dung_khuyen_mai, outbox_event, idempotency_record;
@@ -1,4 +0,0 @@
-INSERT INTO vai_tro (ten_vai_tro) VALUES 
-('Khách hàng'), 
-('Admin'),
-('Nhân viên');
\ No newline at end of file